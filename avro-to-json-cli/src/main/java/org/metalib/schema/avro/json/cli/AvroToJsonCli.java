@@ -1,28 +1,38 @@
 package org.metalib.schema.avro.json.cli;
 
+import org.apache.avro.Schema;
 import org.jsonschema2pojo.*;
+import org.metalib.schema.avro.json.AvroPojoGenerator;
+import org.metalib.schema.avro.json.InMemoryPojoGenerator;
+import org.metalib.schema.avro.json.JacksonCodecGenerator;
 import org.metalib.schema.avro.json.LombokAnnotator;
+import org.metalib.schema.avro.json.RecordAnnotator;
 import org.metalib.schema.avro.json.AvroToJsonSchemaConverter;
 import org.metalib.schema.avro.json.ConverterOptions;
 import org.metalib.schema.avro.json.JsonSchemaDraft;
 import picocli.CommandLine;
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URL;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.stream.Stream;
 
 @Command(name = "avro-to-json", mixinStandardHelpOptions = true, version = "0.0.1",
-        description = "Converts an Avro schema to a JSON Schema or Java POJOs.")
+        description = "Converts an Avro schema to a JSON Schema or Java POJOs.",
+        subcommands = {SyncCommand.class, WatchCommand.class, BundleCommand.class, DataCommand.class})
 public class AvroToJsonCli implements Callable<Integer> {
 
     static class FileInput {
@@ -41,7 +51,11 @@ public class AvroToJsonCli implements Callable<Integer> {
         String version;
     }
 
-    @ArgGroup(exclusive = true, multiplicity = "1")
+    @Spec
+    CommandSpec spec;
+
+    // Optional so that subcommands can run without an input; call() enforces it for conversions.
+    @ArgGroup(exclusive = true, multiplicity = "0..1")
     InputSource inputSource;
 
     static class InputSource {
@@ -52,6 +66,9 @@ public class AvroToJsonCli implements Callable<Integer> {
         RegistryInput registryInput;
     }
 
+    @Mixin
+    RegistryClientOptions registryOptions;
+
     @Option(names = {"-o", "--output"}, description = "The output JSON Schema file. If not specified, prints to stdout.")
     private File outputFile;
 
@@ -74,6 +91,18 @@ public class AvroToJsonCli implements Callable<Integer> {
     @Option(names = {"--no-lombok"}, description = "Disable Lombok annotations (only use Jackson).")
     private boolean noLombok;
 
+    @Option(names = {"--records"}, description = "Generate Java records bound through their canonical constructor "
+            + "instead of classes (replaces Lombok).")
+    private boolean records;
+
+    @Option(names = {"--byte-arrays"}, description = "Generate bytes and fixed fields as byte[] instead of "
+            + "base64 Strings; the JSON stays base64.")
+    private boolean byteArrays;
+
+    @Option(names = {"--additional-properties"}, description = "Keep the entries of Avro maps as additional "
+            + "properties of their classes, which Avro codecs and mappers of maps need. Not with --records.")
+    private boolean additionalProperties;
+
     @Option(names = {"--annotation-style"}, defaultValue = "jackson",
             description = "Annotation style for generated POJOs: jackson, jackson2, or jackson3 (default: jackson).")
     private String annotationStyle;
@@ -82,9 +111,36 @@ public class AvroToJsonCli implements Callable<Integer> {
             description = "Source type: jsonSchema, yamlSchema, json, or yaml (default: jsonSchema).")
     private String sourceType;
 
+    @Option(names = {"--pojo-generator"}, defaultValue = "jsonSchema",
+            description = "How POJOs are generated: jsonSchema hands jsonschema2pojo the JSON Schema text, "
+                    + "direct hands it the converted schema tree without printing and parsing it (default: jsonSchema).")
+    private String pojoGenerator;
+
+    @Option(names = {"--jackson-codecs"}, description = "Also generate a reflection-free Jackson serializer and "
+            + "deserializer per class, and a JsonCodecModule registering them.")
+    private boolean jacksonCodecs;
+
+    @Option(names = {"--avro-codecs"}, description = "Also generate an Avro binary reader and writer per class "
+            + "generated from an Avro record (implies --pojo-generator direct).")
+    private boolean avroCodecs;
+
+    @Option(names = {"--specific-mappers"}, description = "Also generate a mapper per class to and from the "
+            + "SpecificRecord class Avro's compiler generates for its record (implies --pojo-generator direct).")
+    private boolean specificMappers;
+
     @Override
     public Integer call() throws Exception {
-        String avroSchema;
+        if (inputSource == null) {
+            throw new CommandLine.ParameterException(spec.commandLine(),
+                    "Missing required argument: specify an input file or --registry and --subject");
+        }
+        if (!pojoGenerator.equals("jsonSchema") && !pojoGenerator.equals("direct")) {
+            throw new CommandLine.ParameterException(spec.commandLine(),
+                    "Unknown --pojo-generator '" + pojoGenerator + "', expected jsonSchema or direct");
+        }
+        AvroToJsonSchemaConverter converter = new AvroToJsonSchemaConverter(
+                converterOptions(strict, draft).withByteArrays(byteArrays));
+        Schema schema;
 
         if (inputSource.fileInput != null) {
             File inputFile = inputSource.fileInput.inputFile;
@@ -92,41 +148,43 @@ public class AvroToJsonCli implements Callable<Integer> {
                 System.err.println("Error: Input file does not exist: " + inputFile.getAbsolutePath());
                 return 1;
             }
+            String avroSchema;
             try {
                 avroSchema = Files.readString(inputFile.toPath());
             } catch (IOException e) {
                 System.err.println("Error: Failed to read input file: " + e.getMessage());
                 return 1;
             }
+            try {
+                schema = new Schema.Parser().parse(avroSchema);
+            } catch (Exception e) {
+                return conversionFailed(e);
+            }
         } else {
             RegistryInput reg = inputSource.registryInput;
-            try {
-                SchemaRegistryClient client = new SchemaRegistryClient(reg.registryUrl);
-                avroSchema = client.fetchSchema(reg.subject, reg.version);
+            SchemaRegistryClient client = registryOptions.createClient(reg.registryUrl);
+            // Parse while the (possibly gzip-compressed) response is streaming in
+            try (InputStream avroSchema = client.openSchema(reg.subject, reg.version)) {
+                schema = new Schema.Parser().parse(avroSchema);
             } catch (IOException e) {
                 System.err.println("Error: Failed to fetch schema from registry: " + e.getMessage());
                 return 1;
+            } catch (Exception e) {
+                return conversionFailed(e);
+            } finally {
+                registryOptions.printStats(client);
             }
         }
 
-        JsonSchemaDraft schemaDraft = switch (draft) {
-            case "draft-2020-12" -> JsonSchemaDraft.DRAFT_2020_12;
-            default -> JsonSchemaDraft.DRAFT_07;
-        };
-        ConverterOptions options = (strict ? ConverterOptions.strict() : ConverterOptions.pojoOptimized())
-                .withDraft(schemaDraft);
-        AvroToJsonSchemaConverter converter = new AvroToJsonSchemaConverter(options);
+        if (generatePojo) {
+            return generatePojoFiles(converter, schema);
+        }
+
         String jsonSchema;
         try {
-            jsonSchema = converter.convert(avroSchema);
+            jsonSchema = converter.convert(schema);
         } catch (Exception e) {
-            System.err.println("Error: Conversion failed: " + e.getMessage());
-            e.printStackTrace();
-            return 1;
-        }
-
-        if (generatePojo) {
-            return generatePojoFiles(jsonSchema);
+            return conversionFailed(e);
         }
 
         if (outputFile != null) {
@@ -147,138 +205,129 @@ public class AvroToJsonCli implements Callable<Integer> {
         return 0;
     }
 
-    private Integer generatePojoFiles(String jsonSchema) {
-        Path tempDir = null;
-        try {
-            // Write JSON Schema to a temp directory for jsonschema2pojo
-            tempDir = Files.createTempDirectory("avro-to-json-cli");
-            Path tempJsonSchema = tempDir.resolve("schema.json");
-            Files.writeString(tempJsonSchema, jsonSchema);
-
-            Files.createDirectories(pojoOutputDir.toPath());
-
-            boolean useLombok = !noLombok;
-            Path jsonSchemaDir = tempDir;
-
-            GenerationConfig config = new DefaultGenerationConfig() {
-                @Override
-                public Iterator<URL> getSource() {
-                    try {
-                        return Collections.singletonList(jsonSchemaDir.toUri().toURL()).iterator();
-                    } catch (IOException e) {
-                        throw new IllegalStateException("Failed to convert directory to URL", e);
-                    }
-                }
-
-                @Override
-                public File getTargetDirectory() {
-                    return pojoOutputDir;
-                }
+    private static Integer conversionFailed(Exception e) {
+        System.err.println("Error: Conversion failed: " + e.getMessage());
+        e.printStackTrace();
+        return 1;
+    }
 
-                @Override
-                public String getTargetPackage() {
-                    return targetPackage != null ? targetPackage : "";
-                }
+    private Integer generatePojoFiles(AvroToJsonSchemaConverter converter, Schema schema) {
+        boolean useLombok = !noLombok && !records;
+        // Records bring their own accessors, equals, hashCode and toString
+        boolean plainClasses = !useLombok && !records;
+        GenerationConfig config = new DefaultGenerationConfig() {
+            @Override
+            public AnnotationStyle getAnnotationStyle() {
+                return AnnotationStyle.valueOf(annotationStyle.toUpperCase());
+            }
 
-                @Override
-                public AnnotationStyle getAnnotationStyle() {
-                    return AnnotationStyle.valueOf(annotationStyle.toUpperCase());
-                }
+            @Override
+            public InclusionLevel getInclusionLevel() {
+                return InclusionLevel.NON_NULL;
+            }
 
-                @Override
-                public InclusionLevel getInclusionLevel() {
-                    return InclusionLevel.NON_NULL;
-                }
+            @Override
+            public SourceType getSourceType() {
+                return parseSourceType(sourceType);
+            }
 
-                @Override
-                public SourceType getSourceType() {
-                    return parseSourceType(sourceType);
-                }
+            @Override
+            public boolean isIncludeHashcodeAndEquals() {
+                return plainClasses;
+            }
 
-                @Override
-                public boolean isIncludeHashcodeAndEquals() {
-                    return !useLombok;
-                }
+            @Override
+            public boolean isIncludeToString() {
+                return plainClasses;
+            }
 
-                @Override
-                public boolean isIncludeToString() {
-                    return !useLombok;
-                }
+            @Override
+            public boolean isIncludeGetters() {
+                return plainClasses;
+            }
 
-                @Override
-                public boolean isIncludeGetters() {
-                    return !useLombok;
-                }
+            @Override
+            public boolean isIncludeSetters() {
+                return plainClasses;
+            }
 
-                @Override
-                public boolean isIncludeSetters() {
-                    return !useLombok;
-                }
+            @Override
+            public boolean isGenerateBuilders() {
+                return false;
+            }
 
-                @Override
-                public boolean isGenerateBuilders() {
-                    return false;
-                }
+            @Override
+            public boolean isIncludeConstructors() {
+                return false;
+            }
 
-                @Override
-                public boolean isIncludeConstructors() {
-                    return false;
-                }
+            @Override
+            public boolean isIncludeAdditionalProperties() {
+                return additionalProperties;
+            }
 
-                @Override
-                public boolean isIncludeAdditionalProperties() {
-                    return false;
-                }
+            @Override
+            public boolean isIncludeGeneratedAnnotation() {
+                return false;
+            }
 
-                @Override
-                public boolean isIncludeGeneratedAnnotation() {
-                    return false;
-                }
+            @Override
+            public Class<? extends Annotator> getCustomAnnotator() {
+                return records ? RecordAnnotator.class : useLombok ? LombokAnnotator.class : NoopAnnotator.class;
+            }
 
-                @Override
-                public Class<? extends Annotator> getCustomAnnotator() {
-                    return useLombok ? LombokAnnotator.class : NoopAnnotator.class;
-                }
+            @Override
+            public String getRefFragmentPathDelimiters() {
+                return "#/";
+            }
+        };
 
-                @Override
-                public boolean isRemoveOldOutput() {
-                    return true;
+        String packageName = targetPackage != null ? targetPackage : "";
+        try {
+            // The schema goes to jsonschema2pojo in memory; the root class is named after "schema.json"
+            Map<String, byte[]> files;
+            try {
+                if (pojoGenerator.equals("direct") || avroCodecs || specificMappers) {
+                    AvroPojoGenerator plain = new AvroPojoGenerator(converter, config, new WarningRuleLogger());
+                    AvroPojoGenerator withJackson = jacksonCodecs ? plain.withJacksonCodecs() : plain;
+                    AvroPojoGenerator generator = avroCodecs ? withJackson.withAvroCodecs() : withJackson;
+                    files = (specificMappers ? generator.withSpecificMappers() : generator)
+                            .generate("schema.json", packageName, schema);
+                } else {
+                    InMemoryPojoGenerator generator = new InMemoryPojoGenerator(config, new NoopRuleLogger());
+                    files = (jacksonCodecs ? generator.withJacksonCodecs() : generator)
+                            .generate("schema.json", packageName, converter.convert(schema));
                 }
+            } catch (RuntimeException e) {
+                return conversionFailed(e);
+            }
+            if (jacksonCodecs) {
+                files = new TreeMap<>(files);
+                files.putAll(JacksonCodecGenerator.module(packageName, files.keySet()));
+            }
 
-                @Override
-                public String getRefFragmentPathDelimiters() {
-                    return "#/";
+            // Replace the previous output, as jsonschema2pojo's removeOldOutput did
+            Path outputDir = pojoOutputDir.toPath();
+            if (Files.exists(outputDir)) {
+                try (Stream<Path> existing = Files.walk(outputDir)) {
+                    for (Path path : existing.filter(p -> !p.equals(outputDir)).sorted(Comparator.reverseOrder()).toList()) {
+                        Files.delete(path);
+                    }
                 }
-            };
-
-            Jsonschema2Pojo.generate(config, new NoopRuleLogger());
-
-            // Print summary of generated files
-            try (Stream<Path> files = Files.walk(pojoOutputDir.toPath())) {
-                long count = files.filter(p -> p.toString().endsWith(".java")).count();
-                System.out.println("Generated " + count + " Java source file(s) in " + pojoOutputDir.getAbsolutePath());
+            }
+            Files.createDirectories(outputDir);
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                Path target = outputDir.resolve(file.getKey());
+                Files.createDirectories(target.getParent());
+                Files.write(target, file.getValue());
             }
 
+            long count = files.keySet().stream().filter(path -> path.endsWith(".java")).count();
+            System.out.println("Generated " + count + " Java source file(s) in " + pojoOutputDir.getAbsolutePath());
             return 0;
         } catch (IOException e) {
             System.err.println("Error: POJO generation failed: " + e.getMessage());
             return 1;
-        } finally {
-            // Clean up temp directory
-            if (tempDir != null) {
-                try {
-                    try (Stream<Path> files = Files.walk(tempDir)) {
-                        files.sorted(java.util.Comparator.reverseOrder())
-                                .forEach(p -> {
-                                    try {
-                                        Files.deleteIfExists(p);
-                                    } catch (IOException ignored) {
-                                    }
-                                });
-                    }
-                } catch (IOException ignored) {
-                }
-            }
         }
     }
 
@@ -297,6 +346,24 @@ public class AvroToJsonCli implements Callable<Integer> {
         @Override public void trace(String msg) {}
     }
 
+    /**
+     * Prints warnings, such as the classes that get no Avro codec, to stderr.
+     */
+    private static class WarningRuleLogger extends NoopRuleLogger {
+        @Override public void warn(String msg) { System.err.println("Warning: " + msg); }
+        @Override public void warn(String msg, Throwable e) { System.err.println("Warning: " + msg + ": " + e.getMessage()); }
+        @Override public boolean isWarnEnabled() { return true; }
+    }
+
+    static ConverterOptions converterOptions(boolean strict, String draft) {
+        JsonSchemaDraft schemaDraft = switch (draft) {
+            case "draft-2020-12" -> JsonSchemaDraft.DRAFT_2020_12;
+            default -> JsonSchemaDraft.DRAFT_07;
+        };
+        return (strict ? ConverterOptions.strict() : ConverterOptions.pojoOptimized())
+                .withDraft(schemaDraft);
+    }
+
     private static SourceType parseSourceType(String value) {
         return switch (value) {
             case "jsonSchema" -> SourceType.JSONSCHEMA;
@@ -0,0 +1,102 @@
+package org.metalib.schema.avro.json.cli;
+
+import org.apache.avro.Schema;
+import org.metalib.schema.avro.json.AvroToJsonSchemaConverter;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+/**
+ * Converts many Avro schemas into one JSON Schema document.
+ *
+ * <p>Every record is defined once under {@code definitions} ({@code $defs} for draft-2020-12)
+ * and referenced wherever it is used. Each input schema gets an entry named after its file:
+ * the file name without {@code .avsc} for files, and the path relative to the directory for
+ * schemas found in a directory.
+ */
+@Command(name = "bundle", mixinStandardHelpOptions = true,
+        description = "Converts Avro schemas into a single JSON Schema document with shared definitions.")
+public class BundleCommand implements Callable<Integer> {
+
+    @Parameters(arity = "1..*", paramLabel = "INPUT", description = "Avro schema files (.avsc) or directories to search for them.")
+    List<File> inputs;
+
+    @Option(names = {"-o", "--output"}, description = "The output JSON Schema file. If not specified, prints to stdout.")
+    File outputFile;
+
+    @Option(names = {"--strict"}, description = "Use strict JSON Schema mode (no POJO optimizations).")
+    boolean strict;
+
+    @Option(names = {"--draft"}, defaultValue = "draft-07",
+            description = "JSON Schema draft version: draft-07 or draft-2020-12 (default: draft-07).")
+    String draft;
+
+    @Override
+    public Integer call() {
+        Map<String, Schema> schemas = new LinkedHashMap<>();
+        for (File input : inputs) {
+            if (!input.exists()) {
+                System.err.println("Error: Input file does not exist: " + input.getAbsolutePath());
+                return 1;
+            }
+            try {
+                addSchemas(input.toPath(), schemas);
+            } catch (IOException e) {
+                System.err.println("Error: Failed to read input file: " + e.getMessage());
+                return 1;
+            } catch (Exception e) {
+                System.err.println("Error: Conversion failed: " + e.getMessage());
+                return 1;
+            }
+        }
+
+        String jsonSchema;
+        try {
+            jsonSchema = new AvroToJsonSchemaConverter(AvroToJsonCli.converterOptions(strict, draft)).bundle(schemas);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: Conversion failed: " + e.getMessage());
+            return 1;
+        }
+
+        if (outputFile != null) {
+            try {
+                Files.writeString(outputFile.toPath(), jsonSchema);
+            } catch (IOException e) {
+                System.err.println("Error: Failed to write output file: " + e.getMessage());
+                return 1;
+            }
+            System.out.println("Successfully bundled " + schemas.size() + " schema(s) into " + outputFile.getName());
+        } else {
+            System.out.println(jsonSchema);
+        }
+        return 0;
+    }
+
+    private static void addSchemas(Path input, Map<String, Schema> schemas) throws IOException {
+        if (!Files.isDirectory(input)) {
+            schemas.put(name(input.getFileName()), new Schema.Parser().parse(input.toFile()));
+            return;
+        }
+        List<Path> avscFiles;
+        try (Stream<Path> paths = Files.walk(input)) {
+            avscFiles = paths.filter(p -> p.toString().endsWith(".avsc")).sorted().toList();
+        }
+        for (Path avscFile : avscFiles) {
+            schemas.put(name(input.relativize(avscFile)), new Schema.Parser().parse(avscFile.toFile()));
+        }
+    }
+
+    private static String name(Path path) {
+        return path.toString().replace(File.separatorChar, '/').replaceAll("\\.avsc$", "");
+    }
+}
@@ -0,0 +1,110 @@
+package org.metalib.schema.avro.json.cli;
+
+import org.metalib.schema.avro.json.AvroDataConverter;
+import org.metalib.schema.avro.json.ParallelDataConverter;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Converts the records of an Avro container file to newline-delimited JSON documents that
+ * match the JSON Schema converted from the file's schema.
+ *
+ * <p>Records are decoded straight into the output one at a time, so files of any size are
+ * converted in constant memory. With several threads, or with shards, the file's blocks are
+ * decoded in parallel instead.
+ */
+@Command(name = "data", mixinStandardHelpOptions = true,
+        description = "Converts an Avro data file (.avro) to newline-delimited JSON matching the converted schema.")
+public class DataCommand implements Callable<Integer> {
+
+    @Parameters(index = "0", paramLabel = "INPUT", description = "The Avro container file (.avro) to convert.")
+    File inputFile;
+
+    @Option(names = {"-o", "--output"}, description = "The output NDJSON file. If not specified, prints to stdout.")
+    File outputFile;
+
+    @Option(names = {"--strict"}, description = "Match the strict JSON Schema: nullable fields are written as null "
+            + "instead of being left out.")
+    boolean strict;
+
+    @Option(names = {"--threads"}, defaultValue = "1",
+            description = "Decode blocks of the file on this many threads; 0 uses all processors (default: 1).")
+    int threads;
+
+    @Option(names = {"--mmap"}, description = "Read the file through memory mappings when decoding in parallel.")
+    boolean memoryMapped;
+
+    @Option(names = {"--shards"}, paramLabel = "DIR",
+            description = "Write each block of the file to its own NDJSON file in this directory instead of one output.")
+    File shardDirectory;
+
+    @Override
+    public Integer call() {
+        if (!inputFile.exists()) {
+            System.err.println("Error: Input file does not exist: " + inputFile.getAbsolutePath());
+            return 1;
+        }
+        if (threads != 1 || memoryMapped || shardDirectory != null) {
+            return convertBlocks();
+        }
+        AvroDataConverter converter = new AvroDataConverter(AvroToJsonCli.converterOptions(strict, "draft-07"));
+        long records;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(inputFile.toPath()))) {
+            if (outputFile != null) {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputFile.toPath()))) {
+                    records = converter.convert(in, out);
+                }
+            } else {
+                records = converter.convert(in, System.out);
+                System.out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Error: Conversion failed: " + e.getMessage());
+            return 1;
+        }
+
+        if (outputFile != null) {
+            System.out.println("Successfully converted " + records + " record(s) from " + inputFile.getName()
+                    + " to " + outputFile.getName());
+        }
+        return 0;
+    }
+
+    private Integer convertBlocks() {
+        ParallelDataConverter plain = new ParallelDataConverter(AvroToJsonCli.converterOptions(strict, "draft-07"), threads);
+        ParallelDataConverter converter = memoryMapped ? plain.withMemoryMapping() : plain;
+        try {
+            if (shardDirectory != null) {
+                List<Path> shards = converter.convertToShards(inputFile.toPath(), shardDirectory.toPath());
+                System.out.println("Successfully converted " + inputFile.getName() + " to " + shards.size()
+                        + " shard(s) in " + shardDirectory);
+            } else if (outputFile != null) {
+                long records;
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputFile.toPath()))) {
+                    records = converter.convert(inputFile.toPath(), out);
+                }
+                System.out.println("Successfully converted " + records + " record(s) from " + inputFile.getName()
+                        + " to " + outputFile.getName());
+            } else {
+                converter.convert(inputFile.toPath(), System.out);
+                System.out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Error: Conversion failed: " + e.getMessage());
+            return 1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,418 @@
+package org.metalib.schema.avro.json.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An in-process stand-in for a Confluent Schema Registry, built on the JDK HTTP server.
+ *
+ * <p>Serves the read-only subset of the registry REST API used by {@link SchemaRegistryClient}:
+ * <ul>
+ *   <li>{@code GET /subjects}</li>
+ *   <li>{@code GET /subjects/{subject}/versions}</li>
+ *   <li>{@code GET /subjects/{subject}/versions/{version|latest}}</li>
+ *   <li>{@code GET /subjects/{subject}/versions/{version|latest}/schema}</li>
+ *   <li>{@code GET /schemas/ids/{id}}</li>
+ * </ul>
+ *
+ * <p>Schemas can be registered programmatically or loaded from a directory laid out as
+ * {@code <subject>/<version>.avsc}, with optional {@code <subject>/<version>.references.json}
+ * files holding the Confluent {@code references} array. Identical schema texts share one ID,
+ * as in the real registry.
+ *
+ * <p>For load and resilience tests, every response can be delayed by a fixed latency plus
+ * uniform jitter, and a configurable fraction of requests fails with HTTP 500. Both are
+ * driven by a seeded {@link Random}, so runs are reproducible for a given request order.
+ * Responses are gzip-compressed when the client asks for it, and carry an {@code ETag} so
+ * that {@code If-None-Match} requests for unchanged content get a {@code 304}.
+ *
+ * <pre>{@code
+ * try (FakeSchemaRegistry registry = new FakeSchemaRegistry().load(dir).withErrorRate(0.1).start()) {
+ *     SchemaRegistryClient client = new SchemaRegistryClient(registry.url());
+ *     ...
+ * }
+ * }</pre>
+ */
+public class FakeSchemaRegistry implements AutoCloseable {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Map<String, NavigableMap<Integer, Registration>> subjects = new TreeMap<>();
+    private final Map<String, Integer> idsBySchema = new HashMap<>();
+    private final Map<Integer, Registration> registrationsById = new HashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong schemaFetches = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    private Duration latency = Duration.ZERO;
+    private Duration jitter = Duration.ZERO;
+    private double errorRate;
+    private Random random = new Random(0);
+    private int threads = 16;
+    private boolean compression = true;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * A registered schema version.
+     */
+    public record Registration(String subject, int version, int id, String schema, JsonNode references) {
+    }
+
+    /**
+     * Loads all {@code <subject>/<version>.avsc} files below the given directory.
+     */
+    public FakeSchemaRegistry load(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory, 2)) {
+            files = paths.filter(p -> p.toString().endsWith(".avsc")).sorted().toList();
+        }
+        for (Path file : files) {
+            String subject = directory.relativize(file.getParent()).toString();
+            String fileName = file.getFileName().toString();
+            int version = Integer.parseInt(fileName.substring(0, fileName.length() - ".avsc".length()));
+            Path referencesFile = file.resolveSibling(version + ".references.json");
+            JsonNode references = Files.exists(referencesFile) ? mapper.readTree(referencesFile.toFile()) : null;
+            register(subject, version, Files.readString(file), references);
+        }
+        return this;
+    }
+
+    /**
+     * Registers a schema as the next version of a subject and returns that version.
+     */
+    public synchronized int register(String subject, String schema) {
+        NavigableMap<Integer, Registration> versions = subjects.get(subject);
+        int version = versions == null || versions.isEmpty() ? 1 : versions.lastKey() + 1;
+        register(subject, version, schema, null);
+        return version;
+    }
+
+    /**
+     * Registers a schema under an explicit subject version, optionally with Confluent references.
+     */
+    public synchronized Registration register(String subject, int version, String schema, JsonNode references) {
+        int id = idsBySchema.computeIfAbsent(schema, s -> idsBySchema.size() + 1);
+        Registration registration = new Registration(subject, version, id, schema, references);
+        subjects.computeIfAbsent(subject, s -> new TreeMap<>()).put(version, registration);
+        registrationsById.putIfAbsent(id, registration);
+        return registration;
+    }
+
+    /**
+     * Removes a subject version, as a (hard) delete in the registry would.
+     */
+    public synchronized void delete(String subject, int version) {
+        NavigableMap<Integer, Registration> versions = subjects.get(subject);
+        if (versions != null) {
+            versions.remove(version);
+            if (versions.isEmpty()) {
+                subjects.remove(subject);
+            }
+        }
+    }
+
+    /**
+     * Delays every response by {@code latency} plus a uniformly distributed {@code [0, jitter]}.
+     */
+    public FakeSchemaRegistry withLatency(Duration latency, Duration jitter) {
+        this.latency = latency;
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * Fails the given fraction (0-1) of requests with HTTP 500.
+     */
+    public FakeSchemaRegistry withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public FakeSchemaRegistry withSeed(long seed) {
+        this.random = new Random(seed);
+        return this;
+    }
+
+    /**
+     * Number of requests served concurrently (default: 16).
+     */
+    public FakeSchemaRegistry withThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Whether responses are gzip-compressed for clients sending {@code Accept-Encoding: gzip}
+     * (default: true).
+     */
+    public FakeSchemaRegistry withCompression(boolean compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * Starts the server on an ephemeral local port.
+     */
+    public FakeSchemaRegistry start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        return this;
+    }
+
+    public String url() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Total number of requests received, including ones answered with an injected error.
+     */
+    public long requests() {
+        return requests.get();
+    }
+
+    /**
+     * Number of schemas served, by subject version or by ID; list requests are not counted.
+     */
+    public long schemaFetches() {
+        return schemaFetches.get();
+    }
+
+    /**
+     * Number of response body bytes put on the wire, after compression.
+     */
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Number of conditional requests answered with {@code 304 Not Modified}.
+     */
+    public long notModified() {
+        return notModified.get();
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            long delayMillis;
+            boolean fail;
+            synchronized (random) {
+                delayMillis = latency.toMillis()
+                        + (jitter.isZero() ? 0 : (long) (random.nextDouble() * jitter.toMillis()));
+                fail = errorRate > 0 && random.nextDouble() < errorRate;
+            }
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            if (fail) {
+                injectedErrors.incrementAndGet();
+                sendError(exchange, 500, 50001, "Injected error");
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, 405, "Method not allowed");
+                return;
+            }
+            route(exchange, pathSegments(exchange));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void route(HttpExchange exchange, List<String> path) throws IOException {
+        if (path.size() == 1 && path.get(0).equals("subjects")) {
+            List<String> names;
+            synchronized (this) {
+                names = new ArrayList<>(subjects.keySet());
+            }
+            sendJson(exchange, mapper.valueToTree(names));
+        } else if (path.size() >= 3 && path.get(0).equals("subjects") && path.get(2).equals("versions")) {
+            NavigableMap<Integer, Registration> versions;
+            synchronized (this) {
+                NavigableMap<Integer, Registration> found = subjects.get(path.get(1));
+                versions = found == null ? null : new TreeMap<>(found);
+            }
+            if (versions == null) {
+                sendError(exchange, 404, 40401, "Subject '" + path.get(1) + "' not found.");
+            } else if (path.size() == 3) {
+                sendJson(exchange, mapper.valueToTree(versions.keySet()));
+            } else {
+                Registration registration = "latest".equals(path.get(3))
+                        ? versions.lastEntry().getValue()
+                        : parseVersion(path.get(3)) == null ? null : versions.get(parseVersion(path.get(3)));
+                if (registration == null) {
+                    sendError(exchange, 404, 40402, "Version " + path.get(3) + " not found.");
+                } else if (path.size() == 5 && path.get(4).equals("schema")) {
+                    schemaFetches.incrementAndGet();
+                    send(exchange, 200, registration.schema().getBytes(StandardCharsets.UTF_8));
+                } else if (path.size() == 4) {
+                    schemaFetches.incrementAndGet();
+                    ObjectNode body = mapper.createObjectNode();
+                    body.put("subject", registration.subject());
+                    body.put("version", registration.version());
+                    body.put("id", registration.id());
+                    body.put("schema", registration.schema());
+                    addReferences(body, registration);
+                    sendJson(exchange, body);
+                } else {
+                    sendError(exchange, 404, 404, "Not found");
+                }
+            }
+        } else if (path.size() == 3 && path.get(0).equals("schemas") && path.get(1).equals("ids")) {
+            Integer id = parseVersion(path.get(2));
+            Registration registration;
+            synchronized (this) {
+                registration = id == null ? null : registrationsById.get(id);
+            }
+            if (registration == null) {
+                sendError(exchange, 404, 40403, "Schema " + path.get(2) + " not found");
+            } else {
+                schemaFetches.incrementAndGet();
+                ObjectNode body = mapper.createObjectNode();
+                body.put("schema", registration.schema());
+                addReferences(body, registration);
+                sendJson(exchange, body);
+            }
+        } else {
+            sendError(exchange, 404, 404, "Not found");
+        }
+    }
+
+    private static void addReferences(ObjectNode body, Registration registration) {
+        if (registration.references() != null && !registration.references().isEmpty()) {
+            body.set("references", registration.references());
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<String> pathSegments(HttpExchange exchange) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : exchange.getRequestURI().getRawPath().split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(URLDecoder.decode(segment, StandardCharsets.UTF_8));
+            }
+        }
+        return segments;
+    }
+
+    private static Integer parseVersion(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, JsonNode body) throws IOException {
+        send(exchange, 200, mapper.writeValueAsBytes(body));
+    }
+
+    private void sendError(HttpExchange exchange, int status, int errorCode, String message) throws IOException {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("error_code", errorCode);
+        body.put("message", message);
+        send(exchange, status, mapper.writeValueAsBytes(body));
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/vnd.schemaregistry.v1+json");
+        if (status == 200) {
+            String etag = etag(body);
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (compression && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        bytesSent.addAndGet(body.length);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Serves a schema directory until the process is stopped.
+     * Usage: {@code FakeSchemaRegistry <directory> [latencyMillis] [errorRate]}.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: FakeSchemaRegistry <directory> [latencyMillis] [errorRate]");
+            System.exit(2);
+        }
+        FakeSchemaRegistry registry = new FakeSchemaRegistry().load(Path.of(args[0]));
+        if (args.length > 1) {
+            registry.withLatency(Duration.ofMillis(Long.parseLong(args[1])), Duration.ZERO);
+        }
+        if (args.length > 2) {
+            registry.withErrorRate(Double.parseDouble(args[2]));
+        }
+        registry.start();
+        System.out.println("Fake Schema Registry listening on " + registry.url());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,86 @@
+package org.metalib.schema.avro.json.cli;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency statistics collected by a {@link SchemaRegistryClient}.
+ *
+ * <p>A <em>request</em> is one logical call such as {@code fetchSchema}; it may issue several
+ * HTTP <em>attempts</em> because of retries and hedging. Latencies are measured per successful
+ * HTTP exchange and kept in a sliding window of the most recent {@value #WINDOW_SIZE} samples,
+ * which also drives the hedging delay. Conditional requests answered with {@code 304 Not Modified}
+ * are counted separately. All methods are thread-safe.
+ */
+public class RegistryClientMetrics {
+
+    static final int WINDOW_SIZE = 256;
+    static final int MIN_SAMPLES = 20;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final long[] window = new long[WINDOW_SIZE];
+    private long samples;
+    private long maxLatencyNanos;
+
+    public long requests() { return requests.sum(); }
+    public long attempts() { return attempts.sum(); }
+    public long retries() { return retries.sum(); }
+    public long hedges() { return hedges.sum(); }
+    public long hedgeWins() { return hedgeWins.sum(); }
+    public long failures() { return failures.sum(); }
+    public long notModified() { return notModified.sum(); }
+
+    public synchronized Duration maxLatency() {
+        return Duration.ofNanos(maxLatencyNanos);
+    }
+
+    /**
+     * Returns the given percentile (0-100) of recent exchange latencies, or {@code null}
+     * while fewer than {@value #MIN_SAMPLES} latencies have been observed.
+     */
+    public Duration latencyPercentile(double percentile) {
+        long[] sorted;
+        synchronized (this) {
+            if (samples < MIN_SAMPLES) {
+                return null;
+            }
+            sorted = Arrays.copyOf(window, (int) Math.min(samples, WINDOW_SIZE));
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return Duration.ofNanos(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+    }
+
+    void request() { requests.increment(); }
+    void attempt() { attempts.increment(); }
+    void retry() { retries.increment(); }
+    void hedge() { hedges.increment(); }
+    void hedgeWin() { hedgeWins.increment(); }
+    void failure() { failures.increment(); }
+    void notModifiedResponse() { notModified.increment(); }
+
+    synchronized void latency(long nanos) {
+        window[(int) (samples % WINDOW_SIZE)] = nanos;
+        samples++;
+        maxLatencyNanos = Math.max(maxLatencyNanos, nanos);
+    }
+
+    @Override
+    public String toString() {
+        Duration p50 = latencyPercentile(50);
+        Duration p99 = latencyPercentile(99);
+        return "requests=" + requests() + ", attempts=" + attempts() + ", retries=" + retries()
+                + ", hedges=" + hedges() + ", hedgeWins=" + hedgeWins() + ", failures=" + failures()
+                + ", notModified=" + notModified()
+                + ", p50=" + (p50 == null ? "n/a" : p50.toMillis() + "ms")
+                + ", p99=" + (p99 == null ? "n/a" : p99.toMillis() + "ms")
+                + ", max=" + maxLatency().toMillis() + "ms";
+    }
+}
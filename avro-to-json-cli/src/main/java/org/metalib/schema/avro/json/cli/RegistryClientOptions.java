@@ -0,0 +1,52 @@
+package org.metalib.schema.avro.json.cli;
+
+import picocli.CommandLine.Option;
+
+import java.time.Duration;
+
+/**
+ * Command-line options tuning {@link SchemaRegistryClient} retries and hedging.
+ * Mixed into every command that talks to a Schema Registry.
+ */
+class RegistryClientOptions {
+
+    @Option(names = {"--max-attempts"}, defaultValue = "3",
+            description = "Attempts per registry request, including retries of 5xx/429/IO errors (default: 3).")
+    int maxAttempts;
+
+    @Option(names = {"--retry-backoff-ms"}, defaultValue = "200",
+            description = "Initial retry backoff in milliseconds; doubles per retry, with full jitter (default: 200).")
+    long retryBackoffMs;
+
+    @Option(names = {"--max-retry-backoff-ms"}, defaultValue = "5000",
+            description = "Maximum retry backoff in milliseconds (default: 5000).")
+    long maxRetryBackoffMs;
+
+    @Option(names = {"--request-timeout-ms"}, defaultValue = "30000",
+            description = "Timeout of a single registry request in milliseconds (default: 30000).")
+    long requestTimeoutMs;
+
+    @Option(names = {"--hedge-percentile"}, defaultValue = "0",
+            description = "Send a hedged duplicate request once a request is slower than this latency percentile, "
+                    + "e.g. 95 (default: 0, disabled).")
+    double hedgePercentile;
+
+    @Option(names = {"--registry-stats"},
+            description = "Print registry request, retry, hedging and latency counters to stderr when done.")
+    boolean registryStats;
+
+    SchemaRegistryClient createClient(String registryUrl) {
+        RetryPolicy policy = RetryPolicy.defaults()
+                .withMaxAttempts(Math.max(1, maxAttempts))
+                .withBackoff(Duration.ofMillis(retryBackoffMs), Duration.ofMillis(maxRetryBackoffMs))
+                .withRequestTimeout(Duration.ofMillis(requestTimeoutMs))
+                .withHedging(hedgePercentile, RetryPolicy.defaults().minHedgeDelay());
+        return new SchemaRegistryClient(registryUrl, policy);
+    }
+
+    void printStats(SchemaRegistryClient client) {
+        if (registryStats) {
+            System.err.println("Registry stats: " + client.metrics());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.metalib.schema.avro.json.cli;
+
+import org.metalib.schema.avro.json.AvroToJsonSchemaConverter;
+import org.metalib.schema.avro.json.ConverterOptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mirrors Schema Registry subjects into a directory of converted JSON Schemas.
+ *
+ * <p>Each subject version is written to {@code <outputDirectory>/<subject>/<version>.json},
+ * with the subject percent-encoded as in a URL.
+ * A {@link SyncManifest} in the output directory records what has already been converted,
+ * so a sync only downloads and converts versions that are new since the previous run and
+ * removes outputs for versions that disappeared from the registry. Downloads and
+ * conversions run on a fixed-size worker pool; all files, including the manifest, are
+ * written atomically.
+ */
+class RegistryMirror {
+
+    private final SchemaRegistryClient client;
+    private final AvroToJsonSchemaConverter converter;
+    private final String optionsKey;
+    private final Path outputDirectory;
+    private final int threads;
+
+    RegistryMirror(SchemaRegistryClient client, ConverterOptions options, Path outputDirectory, int threads) {
+        this.client = client;
+        this.converter = new AvroToJsonSchemaConverter(options);
+        this.optionsKey = options.toString();
+        this.outputDirectory = outputDirectory;
+        this.threads = threads;
+    }
+
+    /**
+     * Synchronizes the given subjects, or every registered subject when the list is empty.
+     */
+    SyncResult sync(List<String> subjectFilter) throws IOException {
+        SyncManifest manifest = SyncManifest.load(outputDirectory);
+        if (manifest == null || !optionsKey.equals(manifest.options())) {
+            manifest = SyncManifest.empty(optionsKey);
+        }
+        Map<String, List<Integer>> synced = new TreeMap<>(manifest.subjects());
+
+        List<String> subjects = subjectFilter.isEmpty() ? client.listSubjects() : subjectFilter;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<String, List<Integer>> registryVersions = listVersions(executor, subjects);
+
+            List<SubjectVersion> removed = new ArrayList<>();
+            if (subjectFilter.isEmpty()) {
+                for (String subject : new ArrayList<>(synced.keySet())) {
+                    if (!registryVersions.containsKey(subject)) {
+                        for (Integer version : synced.remove(subject)) {
+                            removed.add(delete(subject, version));
+                        }
+                    }
+                }
+            }
+
+            Map<SubjectVersion, Future<?>> pending = new LinkedHashMap<>();
+            for (Map.Entry<String, List<Integer>> entry : registryVersions.entrySet()) {
+                String subject = entry.getKey();
+                List<Integer> known = synced.getOrDefault(subject, List.of());
+                TreeSet<Integer> kept = new TreeSet<>();
+                for (Integer version : known) {
+                    if (entry.getValue().contains(version)) {
+                        kept.add(version);
+                    } else {
+                        removed.add(delete(subject, version));
+                    }
+                }
+                synced.put(subject, new ArrayList<>(kept));
+                for (Integer version : entry.getValue()) {
+                    if (!kept.contains(version)) {
+                        pending.put(new SubjectVersion(subject, version), executor.submit(() -> {
+                            convert(subject, version);
+                            return null;
+                        }));
+                    }
+                }
+            }
+
+            List<SubjectVersion> converted = new ArrayList<>();
+            List<String> failed = new ArrayList<>();
+            for (Map.Entry<SubjectVersion, Future<?>> entry : pending.entrySet()) {
+                SubjectVersion key = entry.getKey();
+                try {
+                    entry.getValue().get();
+                    TreeSet<Integer> versions = new TreeSet<>(synced.get(key.subject()));
+                    versions.add(key.version());
+                    synced.put(key.subject(), new ArrayList<>(versions));
+                    converted.add(key);
+                } catch (ExecutionException e) {
+                    failed.add(key + ": " + e.getCause().getMessage());
+                }
+            }
+            synced.values().removeIf(List::isEmpty);
+
+            new SyncManifest(optionsKey, synced).save(outputDirectory);
+            return new SyncResult(converted, removed, failed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Sync interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    Path outputPath(String subject, int version) {
+        return outputDirectory.resolve(fileName(subject)).resolve(version + ".json");
+    }
+
+    private Map<String, List<Integer>> listVersions(ExecutorService executor, List<String> subjects)
+            throws IOException, InterruptedException {
+        Map<String, Future<List<Integer>>> futures = new LinkedHashMap<>();
+        for (String subject : subjects) {
+            futures.put(subject, executor.submit(() -> client.listVersions(subject)));
+        }
+        Map<String, List<Integer>> versions = new TreeMap<>();
+        for (Map.Entry<String, Future<List<Integer>>> entry : futures.entrySet()) {
+            try {
+                versions.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to list versions of subject '" + entry.getKey() + "': "
+                        + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return versions;
+    }
+
+    private void convert(String subject, int version) throws IOException {
+        String jsonSchema;
+        try (InputStream avroSchema = client.openSchema(subject, String.valueOf(version))) {
+            jsonSchema = converter.convert(avroSchema);
+        }
+        AtomicFiles.writeString(outputPath(subject, version), jsonSchema);
+    }
+
+    private SubjectVersion delete(String subject, int version) throws IOException {
+        Files.deleteIfExists(outputPath(subject, version));
+        return new SubjectVersion(subject, version);
+    }
+
+    /**
+     * Percent-encodes the subject so that distinct subjects never share a directory. A leading
+     * dot is encoded too, so that {@code .} and {@code ..} stay inside the output directory and
+     * no subject shadows the manifest.
+     */
+    static String fileName(String subject) {
+        String encoded = URLEncoder.encode(subject, StandardCharsets.UTF_8).replace("*", "%2A");
+        return encoded.startsWith(".") ? "%2E" + encoded.substring(1) : encoded;
+    }
+
+    record SubjectVersion(String subject, int version) {
+        @Override
+        public String toString() {
+            return subject + "/" + version;
+        }
+    }
+
+    /**
+     * Outcome of a single sync run. Failures are described as {@code subject/version: message}.
+     */
+    record SyncResult(List<SubjectVersion> converted, List<SubjectVersion> removed, List<String> failed) {
+
+        boolean changed() {
+            return !converted.isEmpty() || !removed.isEmpty();
+        }
+    }
+}
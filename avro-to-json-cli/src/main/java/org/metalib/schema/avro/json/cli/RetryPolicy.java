@@ -0,0 +1,62 @@
+package org.metalib.schema.avro.json.cli;
+
+import java.time.Duration;
+
+/**
+ * Controls how {@link SchemaRegistryClient} deals with slow or failing registry requests.
+ *
+ * <p>Requests failing with an I/O error, a timeout, HTTP 429 or HTTP 5xx are retried up to
+ * {@code maxAttempts} times in total. The delay before retry {@code n} is drawn uniformly
+ * from {@code [0, min(maxBackoff, initialBackoff * 2^(n-1))]} ("full jitter"); a
+ * {@code Retry-After} header sent by the registry raises it, up to {@code maxBackoff}.
+ *
+ * <p>When {@code hedgePercentile} is greater than zero, a second, identical request is sent
+ * if the first has not completed after the given percentile of recently observed latencies
+ * (but not earlier than {@code minHedgeDelay}); whichever response arrives first is used.
+ * Hedging starts once enough latencies have been observed to estimate the percentile.
+ *
+ * @param maxAttempts     total number of attempts per request, including the first
+ * @param initialBackoff  upper bound of the delay before the first retry
+ * @param maxBackoff      upper bound of any retry delay
+ * @param requestTimeout  timeout of a single HTTP exchange
+ * @param hedgePercentile latency percentile (for example {@code 95}) after which a hedged request is sent;
+ *                        {@code 0} disables hedging
+ * @param minHedgeDelay   lower bound of the hedging delay
+ */
+public record RetryPolicy(
+        int maxAttempts,
+        Duration initialBackoff,
+        Duration maxBackoff,
+        Duration requestTimeout,
+        double hedgePercentile,
+        Duration minHedgeDelay
+) {
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(3, Duration.ofMillis(200), Duration.ofSeconds(5), Duration.ofSeconds(30), 0,
+                Duration.ofMillis(10));
+    }
+
+    public static RetryPolicy none() {
+        return new RetryPolicy(1, Duration.ZERO, Duration.ZERO, Duration.ofSeconds(30), 0, Duration.ofMillis(10));
+    }
+
+    public RetryPolicy withMaxAttempts(int maxAttempts) {
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, requestTimeout, hedgePercentile, minHedgeDelay);
+    }
+
+    public RetryPolicy withBackoff(Duration initialBackoff, Duration maxBackoff) {
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, requestTimeout, hedgePercentile, minHedgeDelay);
+    }
+
+    public RetryPolicy withRequestTimeout(Duration requestTimeout) {
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, requestTimeout, hedgePercentile, minHedgeDelay);
+    }
+
+    public RetryPolicy withHedging(double hedgePercentile, Duration minHedgeDelay) {
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, requestTimeout, hedgePercentile, minHedgeDelay);
+    }
+
+    boolean hedging() {
+        return hedgePercentile > 0;
+    }
+}
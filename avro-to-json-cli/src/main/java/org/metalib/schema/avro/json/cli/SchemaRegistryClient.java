@@ -1,6 +1,12 @@
 package org.metalib.schema.avro.json.cli;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.metalib.schema.avro.json.AvroToJsonSchemaConverter;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
@@ -8,43 +14,262 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 public class SchemaRegistryClient {
 
+    private static final ObjectMapper mapper = new ObjectMapper();
+
     private final String baseUrl;
     private final HttpClient httpClient;
+    private final RetryPolicy retryPolicy;
+    private final RegistryClientMetrics metrics = new RegistryClientMetrics();
+    private final Map<String, CachedResponse> conditionalCache = new ConcurrentHashMap<>();
 
     public SchemaRegistryClient(String baseUrl) {
-        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
-        this.httpClient = HttpClient.newBuilder()
+        this(baseUrl, RetryPolicy.defaults());
+    }
+
+    public SchemaRegistryClient(String baseUrl, RetryPolicy retryPolicy) {
+        this(baseUrl, HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
-                .build();
+                .build(), retryPolicy);
     }
 
     SchemaRegistryClient(String baseUrl, HttpClient httpClient) {
+        this(baseUrl, httpClient, RetryPolicy.defaults());
+    }
+
+    SchemaRegistryClient(String baseUrl, HttpClient httpClient, RetryPolicy retryPolicy) {
         this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
         this.httpClient = httpClient;
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Returns the request, retry, hedging and latency counters of this client.
+     */
+    public RegistryClientMetrics metrics() {
+        return metrics;
     }
 
     public String fetchSchema(String subject, String version) throws IOException {
-        String encodedSubject = URLEncoder.encode(subject, StandardCharsets.UTF_8);
-        String url = baseUrl + "/subjects/" + encodedSubject + "/versions/" + version + "/schema";
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
+        try (InputStream body = openSchema(subject, version)) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Opens the schema of a subject version as a stream, transparently decompressing a gzip
+     * response. Lets callers such as {@link AvroToJsonSchemaConverter#convert(InputStream)}
+     * parse while the body is still arriving. The caller must close the stream.
+     */
+    public InputStream openSchema(String subject, String version) throws IOException {
+        return get("/subjects/" + encode(subject) + "/versions/" + version + "/schema",
+                "subject '" + subject + "' version '" + version + "'");
+    }
+
+    /**
+     * Lists all subjects registered in the Schema Registry.
+     */
+    public List<String> listSubjects() throws IOException {
+        try (InputStream body = getConditional("/subjects", "subject list")) {
+            return mapper.readValue(body, new TypeReference<>() {});
+        }
+    }
+
+    /**
+     * Lists the registered version numbers of a subject, in ascending order.
+     */
+    public List<Integer> listVersions(String subject) throws IOException {
+        try (InputStream body = getConditional("/subjects/" + encode(subject) + "/versions",
+                "subject '" + subject + "' versions")) {
+            return mapper.readValue(body, new TypeReference<>() {});
+        }
+    }
+
+    /**
+     * Like {@link #get}, but revalidates a previously seen response with {@code If-None-Match}
+     * when the registry sent an {@code ETag}, so unchanged lists cost a {@code 304} without a body.
+     * Registries that send no {@code ETag} are simply queried unconditionally.
+     */
+    private InputStream getConditional(String path, String description) throws IOException {
+        CachedResponse cached = conditionalCache.get(path);
+        HttpResponse<InputStream> response = get(path, description, cached == null ? null : cached.etag());
+        if (response.statusCode() == 304) {
+            response.body().close();
+            metrics.notModifiedResponse();
+            return new ByteArrayInputStream(cached.body());
+        }
+        byte[] body;
+        try (InputStream in = decode(response)) {
+            body = in.readAllBytes();
+        }
+        response.headers().firstValue("ETag").ifPresentOrElse(
+                etag -> conditionalCache.put(path, new CachedResponse(etag, body)),
+                () -> conditionalCache.remove(path));
+        return new ByteArrayInputStream(body);
+    }
+
+    private InputStream get(String path, String description) throws IOException {
+        return decode(get(path, description, null));
+    }
+
+    private HttpResponse<InputStream> get(String path, String description, String etag) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + path))
                 .header("Accept", "application/json")
-                .GET()
-                .build();
+                .header("Accept-Encoding", "gzip")
+                .timeout(retryPolicy.requestTimeout())
+                .GET();
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        HttpRequest request = builder.build();
 
+        metrics.request();
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                throw new IOException("Schema Registry returned HTTP " + response.statusCode()
-                        + " for subject '" + subject + "' version '" + version + "'");
+            for (int attempt = 1; ; attempt++) {
+                HttpResponse<InputStream> response;
+                try {
+                    response = send(request);
+                } catch (IOException e) {
+                    if (attempt >= retryPolicy.maxAttempts()) {
+                        metrics.failure();
+                        throw e;
+                    }
+                    backoff(attempt, Duration.ZERO);
+                    continue;
+                }
+                int status = response.statusCode();
+                if (status == 200 || (status == 304 && etag != null)) {
+                    return response;
+                }
+                response.body().close();
+                if (isRetryable(status) && attempt < retryPolicy.maxAttempts()) {
+                    backoff(attempt, retryAfter(response));
+                    continue;
+                }
+                metrics.failure();
+                throw new IOException("Schema Registry returned HTTP " + status + " for " + description);
             }
-            return response.body();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IOException("Request interrupted", e);
         }
     }
+
+    private static InputStream decode(HttpResponse<InputStream> response) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return gzip ? new GZIPInputStream(response.body()) : response.body();
+    }
+
+    /**
+     * Sends a single request, hedging it with a duplicate when the policy asks for it and the
+     * first response is slower than the configured latency percentile.
+     */
+    private HttpResponse<InputStream> send(HttpRequest request) throws IOException, InterruptedException {
+        Duration hedgeDelay = retryPolicy.hedging() ? metrics.latencyPercentile(retryPolicy.hedgePercentile()) : null;
+        if (hedgeDelay == null) {
+            long start = System.nanoTime();
+            metrics.attempt();
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            metrics.latency(System.nanoTime() - start);
+            return response;
+        }
+
+        HedgedExchange exchange = new HedgedExchange();
+        CompletableFuture<HttpResponse<InputStream>> primary = sendAsync(request, exchange, false);
+        long delay = Math.max(hedgeDelay.toNanos(), retryPolicy.minHedgeDelay().toNanos());
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+            if (!exchange.result.isDone()) {
+                exchange.outstanding.incrementAndGet();
+                metrics.hedge();
+                CompletableFuture<HttpResponse<InputStream>> hedged = sendAsync(request, exchange, true);
+                exchange.result.whenComplete((response, error) -> hedged.cancel(true));
+            }
+        });
+        exchange.result.whenComplete((response, error) -> primary.cancel(true));
+        try {
+            return exchange.result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> sendAsync(HttpRequest request, HedgedExchange exchange,
+                                                                   boolean hedged) {
+        long start = System.nanoTime();
+        metrics.attempt();
+        CompletableFuture<HttpResponse<InputStream>> future =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        future.whenComplete((response, error) -> {
+            if (error == null) {
+                metrics.latency(System.nanoTime() - start);
+                if (exchange.decided.compareAndSet(false, true)) {
+                    if (hedged) {
+                        metrics.hedgeWin();
+                    }
+                    exchange.result.complete(response);
+                } else {
+                    // The other attempt already won; release this connection
+                    try {
+                        response.body().close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            } else if (exchange.outstanding.decrementAndGet() == 0 && exchange.decided.compareAndSet(false, true)) {
+                exchange.result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            }
+        });
+        return future;
+    }
+
+    private void backoff(int attempt, Duration retryAfter) throws InterruptedException {
+        metrics.retry();
+        long cap = Math.min(retryPolicy.maxBackoff().toMillis(),
+                retryPolicy.initialBackoff().toMillis() << Math.min(attempt - 1, 30));
+        long delay = Math.max(cap > 0 ? ThreadLocalRandom.current().nextLong(cap + 1) : 0, retryAfter.toMillis());
+        Thread.sleep(Math.min(delay, retryPolicy.maxBackoff().toMillis()));
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private static Duration retryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+                .filter(value -> value.chars().allMatch(Character::isDigit))
+                .map(value -> Duration.ofSeconds(Long.parseLong(value)))
+                .orElse(Duration.ZERO);
+    }
+
+    private static String encode(String subject) {
+        return URLEncoder.encode(subject, StandardCharsets.UTF_8);
+    }
+
+    private record CachedResponse(String etag, byte[] body) {
+    }
+
+    // State shared by the primary and the hedged attempt of one request
+    private static final class HedgedExchange {
+        final CompletableFuture<HttpResponse<InputStream>> result = new CompletableFuture<>();
+        final AtomicInteger outstanding = new AtomicInteger(1);
+        final AtomicBoolean decided = new AtomicBoolean();
+    }
 }
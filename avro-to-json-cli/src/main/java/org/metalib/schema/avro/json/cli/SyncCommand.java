@@ -0,0 +1,69 @@
+package org.metalib.schema.avro.json.cli;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@Command(name = "sync", mixinStandardHelpOptions = true,
+        description = "Mirrors Schema Registry subjects into a directory of JSON Schemas, converting only new versions.")
+public class SyncCommand implements Callable<Integer> {
+
+    @Option(names = {"--registry"}, required = true, description = "Schema Registry URL.")
+    String registryUrl;
+
+    @Option(names = {"--subject"}, description = "Subject to mirror; repeat for several (default: all subjects).")
+    List<String> subjects = new ArrayList<>();
+
+    @Option(names = {"-d", "--output-dir"}, required = true, description = "Directory holding the mirrored JSON Schemas.")
+    File outputDir;
+
+    @Option(names = {"--threads"}, defaultValue = "4", description = "Number of parallel downloads (default: 4).")
+    int threads;
+
+    @Mixin
+    RegistryClientOptions registryOptions;
+
+    @Option(names = {"--strict"}, description = "Use strict JSON Schema mode (no POJO optimizations).")
+    boolean strict;
+
+    @Option(names = {"--draft"}, defaultValue = "draft-07",
+            description = "JSON Schema draft version: draft-07 or draft-2020-12 (default: draft-07).")
+    String draft;
+
+    @Override
+    public Integer call() {
+        SchemaRegistryClient client = registryOptions.createClient(registryUrl);
+        RegistryMirror mirror = createMirror(client);
+        RegistryMirror.SyncResult result;
+        try {
+            result = mirror.sync(subjects);
+        } catch (IOException e) {
+            System.err.println("Error: Sync failed: " + e.getMessage());
+            return 1;
+        } finally {
+            registryOptions.printStats(client);
+        }
+
+        report(result);
+        return result.failed().isEmpty() ? 0 : 1;
+    }
+
+    RegistryMirror createMirror(SchemaRegistryClient client) {
+        return new RegistryMirror(client, AvroToJsonCli.converterOptions(strict, draft), outputDir.toPath(),
+                Math.max(1, threads));
+    }
+
+    void report(RegistryMirror.SyncResult result) {
+        result.converted().forEach(entry -> System.out.println("Converted " + entry));
+        result.removed().forEach(entry -> System.out.println("Removed " + entry));
+        result.failed().forEach(entry -> System.err.println("Error: Failed to sync " + entry));
+        System.out.println("Synced " + outputDir.getAbsolutePath() + ": " + result.converted().size()
+                + " converted, " + result.removed().size() + " removed, " + result.failed().size() + " failed");
+    }
+}
@@ -0,0 +1,46 @@
+package org.metalib.schema.avro.json.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records which subject versions a mirror directory already contains.
+ *
+ * <p>Stored as JSON next to the mirrored schemas. The {@code options} key captures the
+ * converter settings used to produce the outputs; when it differs from the current
+ * settings every version is considered stale.
+ *
+ * @param options  converter settings the outputs were generated with
+ * @param subjects converted version numbers per subject, sorted by subject name
+ */
+record SyncManifest(String options, Map<String, List<Integer>> subjects) {
+
+    static final String FILE_NAME = ".avro-to-json-sync.json";
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+    static SyncManifest empty(String options) {
+        return new SyncManifest(options, new TreeMap<>());
+    }
+
+    static SyncManifest load(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        return mapper.readValue(file.toFile(), SyncManifest.class);
+    }
+
+    void save(Path directory) throws IOException {
+        AtomicFiles.writeString(directory.resolve(FILE_NAME), mapper.writeValueAsString(this));
+    }
+}
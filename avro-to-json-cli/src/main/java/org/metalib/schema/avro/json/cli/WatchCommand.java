@@ -0,0 +1,93 @@
+package org.metalib.schema.avro.json.cli;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Long-running variant of {@link SyncCommand}.
+ *
+ * <p>Polls the registry on a fixed interval with a single client and converter, so the HTTP
+ * connection pool, the client's {@code ETag} cache and the JIT-compiled converter stay warm
+ * between polls. Subject and version lists are fetched with conditional requests; only new
+ * versions of changed subjects are downloaded and converted. After a poll, the optional
+ * {@code --on-change} program is run once per converted or removed version with the
+ * arguments {@code <converted|removed> <subject> <version> <json-file>}.
+ */
+@Command(name = "watch", mixinStandardHelpOptions = true,
+        description = "Polls the Schema Registry and keeps a directory of JSON Schemas up to date.")
+public class WatchCommand extends SyncCommand {
+
+    @Option(names = {"--interval-ms"}, defaultValue = "10000",
+            description = "Polling interval in milliseconds (default: 10000).")
+    long intervalMs;
+
+    @Option(names = {"--on-change"},
+            description = "Program run per changed version with arguments: <converted|removed> <subject> <version> <json-file>.")
+    String onChange;
+
+    @Option(names = {"--max-polls"}, defaultValue = "0",
+            description = "Stop after this many polls (default: 0, run until interrupted).")
+    long maxPolls;
+
+    @Override
+    public Integer call() {
+        SchemaRegistryClient client = registryOptions.createClient(registryUrl);
+        RegistryMirror mirror = createMirror(client);
+        System.out.println("Watching " + registryUrl + " every " + intervalMs + " ms into " + outputDir.getAbsolutePath());
+
+        int exitCode = 0;
+        try {
+            for (long poll = 1; maxPolls <= 0 || poll <= maxPolls; poll++) {
+                try {
+                    RegistryMirror.SyncResult result = mirror.sync(subjects);
+                    if (result.changed() || !result.failed().isEmpty()) {
+                        report(result);
+                        runHook(mirror, result);
+                    }
+                    exitCode = result.failed().isEmpty() ? 0 : 1;
+                } catch (IOException e) {
+                    System.err.println("Error: Poll failed: " + e.getMessage());
+                    exitCode = 1;
+                }
+                registryOptions.printStats(client);
+                if (maxPolls <= 0 || poll < maxPolls) {
+                    Thread.sleep(intervalMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return exitCode;
+    }
+
+    private void runHook(RegistryMirror mirror, RegistryMirror.SyncResult result) throws InterruptedException {
+        if (onChange == null) {
+            return;
+        }
+        for (RegistryMirror.SubjectVersion entry : result.converted()) {
+            runHook(mirror, "converted", entry);
+        }
+        for (RegistryMirror.SubjectVersion entry : result.removed()) {
+            runHook(mirror, "removed", entry);
+        }
+    }
+
+    private void runHook(RegistryMirror mirror, String change, RegistryMirror.SubjectVersion entry)
+            throws InterruptedException {
+        List<String> command = new ArrayList<>(List.of(onChange, change, entry.subject(),
+                String.valueOf(entry.version()),
+                mirror.outputPath(entry.subject(), entry.version()).toAbsolutePath().toString()));
+        try {
+            int status = new ProcessBuilder(command).inheritIO().start().waitFor();
+            if (status != 0) {
+                System.err.println("Error: Change hook exited with " + status + " for " + entry);
+            }
+        } catch (IOException e) {
+            System.err.println("Error: Failed to run change hook for " + entry + ": " + e.getMessage());
+        }
+    }
+}
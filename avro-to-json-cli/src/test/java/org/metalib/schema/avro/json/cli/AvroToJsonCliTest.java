@@ -5,11 +5,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import picocli.CommandLine;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.stream.Stream;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -245,6 +248,148 @@ public class AvroToJsonCliTest {
         assertTrue(content.contains("getId"), "Expected getter methods when no-lombok");
     }
 
+    @Test
+    public void testGeneratePojoDirect() throws Exception {
+        Path input = tempDir.resolve("order.avsc");
+        Files.writeString(input, """
+                {"type":"record","name":"Order","namespace":"com.example","fields":[
+                  {"name":"id","type":"string"},
+                  {"name":"amount","type":"double","default":1.5},
+                  {"name":"status","type":{"type":"enum","name":"Status","symbols":["NEW","DONE"]}},
+                  {"name":"customer","type":["null",{"type":"record","name":"Customer","fields":[
+                    {"name":"name","type":"string"}]}],"default":null}]}
+                """);
+        Path fromText = tempDir.resolve("pojo-text");
+        Path direct = tempDir.resolve("pojo-direct");
+
+        assertEquals(0, new CommandLine(new AvroToJsonCli()).execute(input.toString(), "--generate-pojo",
+                "-p", "com.example", "--pojo-output", fromText.toString()));
+        assertEquals(0, new CommandLine(new AvroToJsonCli()).execute(input.toString(), "--generate-pojo",
+                "--pojo-generator", "direct", "-p", "com.example", "--pojo-output", direct.toString()));
+
+        try (Stream<Path> files = Files.walk(fromText)) {
+            List<Path> classes = files.filter(p -> p.toString().endsWith(".java")).toList();
+            assertEquals(2, classes.size(), classes.toString());
+            for (Path file : classes) {
+                assertEquals(Files.readString(file), Files.readString(direct.resolve(fromText.relativize(file))));
+            }
+        }
+    }
+
+    @Test
+    public void testGeneratePojoWithJacksonCodecs() throws Exception {
+        Path input = tempDir.resolve("user.avsc");
+        Files.writeString(input, """
+                {"type":"record","name":"User","fields":[{"name":"id","type":"int"},{"name":"name","type":"string"}]}
+                """);
+        Path pojoOutput = tempDir.resolve("pojo-codecs");
+
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute(input.toString(), "--generate-pojo",
+                "--jackson-codecs", "-p", "com.example", "--pojo-output", pojoOutput.toString());
+
+        assertEquals(0, exitCode);
+        String codec = Files.readString(pojoOutput.resolve("com/example/SchemaJsonCodec.java"));
+        assertTrue(codec.contains("case \"name\" -> value.name = "), codec);
+        String module = Files.readString(pojoOutput.resolve("com/example/JsonCodecModule.java"));
+        assertTrue(module.contains("SchemaJsonCodec.register(this);"), module);
+    }
+
+    @Test
+    public void testGeneratePojoAsRecords() throws Exception {
+        Path input = tempDir.resolve("user.avsc");
+        Files.writeString(input, """
+                {"type":"record","name":"User","fields":[{"name":"id","type":"int"},{"name":"name","type":"string"}]}
+                """);
+        Path pojoOutput = tempDir.resolve("pojo-records");
+
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute(input.toString(), "--generate-pojo",
+                "--records", "-p", "com.example", "--pojo-output", pojoOutput.toString());
+
+        assertEquals(0, exitCode);
+        String content = Files.readString(pojoOutput.resolve("com/example/Schema.java"));
+        assertTrue(content.contains("public record Schema(\n        @JsonProperty(\"id\") int id,\n"), content);
+        assertTrue(content.contains("    @JsonCreator\n    public Schema {\n"), content);
+        assertFalse(content.contains("lombok"), content);
+    }
+
+    @Test
+    public void testGeneratePojoWithAvroCodecs() throws Exception {
+        Path input = tempDir.resolve("user.avsc");
+        Files.writeString(input, """
+                {"type":"record","name":"User","fields":[{"name":"id","type":"int"},{"name":"name","type":"string"}]}
+                """);
+        Path pojoOutput = tempDir.resolve("pojo-avro-codecs");
+
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute(input.toString(), "--generate-pojo",
+                "--avro-codecs", "-p", "com.example", "--pojo-output", pojoOutput.toString());
+
+        assertEquals(0, exitCode);
+        String codec = Files.readString(pojoOutput.resolve("com/example/SchemaAvroCodec.java"));
+        assertTrue(codec.contains("public static Schema read(Decoder in) throws IOException {\n"), codec);
+        assertTrue(codec.contains("        out.writeInt(value.id);\n        out.writeString(value.name);\n"), codec);
+    }
+
+    @Test
+    public void testGeneratePojoWarnsOfClassesWithoutAvroCodec() throws Exception {
+        Path input = tempDir.resolve("tagged.avsc");
+        Files.writeString(input, """
+                {"type":"record","name":"Tagged","fields":[{"name":"tags","type":{"type":"map","values":"string"}}]}
+                """);
+        Path pojoOutput = tempDir.resolve("pojo-avro-codecs-skipped");
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(err, true, StandardCharsets.UTF_8));
+        int exitCode;
+        try {
+            exitCode = new CommandLine(new AvroToJsonCli()).execute(input.toString(), "--generate-pojo",
+                    "--avro-codecs", "-p", "com.example", "--pojo-output", pojoOutput.toString());
+        } finally {
+            System.setErr(originalErr);
+        }
+
+        assertEquals(0, exitCode);
+        assertFalse(Files.exists(pojoOutput.resolve("com/example/SchemaAvroCodec.java")));
+        assertEquals("Warning: No Avro codec for com.example.Schema: field tags: com.example.Tags does not hold"
+                + " the map's entries as additional properties\n", err.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testGeneratePojoWithByteArrays() throws Exception {
+        Path input = tempDir.resolve("blob.avsc");
+        Files.writeString(input, """
+                {"type":"record","name":"Blob","fields":[
+                  {"name":"checksum","type":{"type":"fixed","name":"Md5","size":16}},
+                  {"name":"payload","type":"bytes"}]}
+                """);
+        Path pojoOutput = tempDir.resolve("pojo-byte-arrays");
+
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute(input.toString(), "--generate-pojo",
+                "--byte-arrays", "-p", "com.example", "--pojo-output", pojoOutput.toString());
+
+        assertEquals(0, exitCode);
+        String content = Files.readString(pojoOutput.resolve("com/example/Schema.java"));
+        assertTrue(content.contains(" byte[] checksum;\n"), content);
+        assertTrue(content.contains(" byte[] payload;\n"), content);
+    }
+
+    @Test
+    public void testGeneratePojoWithSpecificMappers() throws Exception {
+        Path input = tempDir.resolve("user.avsc");
+        Files.writeString(input, """
+                {"type":"record","name":"User","namespace":"com.example.avro","fields":[
+                  {"name":"id","type":"int"},{"name":"name","type":"string"}]}
+                """);
+        Path pojoOutput = tempDir.resolve("pojo-specific-mappers");
+
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute(input.toString(), "--generate-pojo",
+                "--specific-mappers", "-p", "com.example", "--pojo-output", pojoOutput.toString());
+
+        assertEquals(0, exitCode);
+        String mapper = Files.readString(pojoOutput.resolve("com/example/SchemaSpecificMapper.java"));
+        assertTrue(mapper.contains("public static Schema fromAvro(com.example.avro.User record) {\n"), mapper);
+        assertTrue(mapper.contains("        record.put(0, value.id);\n        record.put(1, value.name);\n"), mapper);
+    }
+
     @Test
     public void testGeneratePojoFromRegistry() throws Exception {
         String avroSchema = """
@@ -0,0 +1,61 @@
+package org.metalib.schema.avro.json.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BundleCommandTest {
+
+    private static final String ENVELOPE = """
+            {"type":"record","name":"Envelope","namespace":"com.example.common","fields":[{"name":"id","type":"string"}]}""";
+
+    @TempDir
+    Path tempDir;
+
+    private static String event(String name) {
+        return """
+                {"type":"record","name":"%s","namespace":"com.example","fields":[{"name":"envelope","type":%s}]}"""
+                .formatted(name, ENVELOPE);
+    }
+
+    @Test
+    public void testBundleFilesAndDirectories() throws Exception {
+        Path schemas = Files.createDirectories(tempDir.resolve("schemas/orders"));
+        Files.writeString(schemas.resolve("Created.avsc"), event("OrderCreated"));
+        Files.writeString(schemas.resolve("Shipped.avsc"), event("OrderShipped"));
+        Path single = tempDir.resolve("Payment.avsc");
+        Files.writeString(single, event("Payment"));
+        Path output = tempDir.resolve("bundle.json");
+
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute("bundle",
+                tempDir.resolve("schemas").toString(), single.toString(), "-o", output.toString(),
+                "--draft", "draft-2020-12");
+
+        assertEquals(0, exitCode);
+        JsonNode defs = new ObjectMapper().readTree(output.toFile()).get("$defs");
+        assertEquals("#/$defs/com.example.OrderCreated", defs.get("orders/Created").get("$ref").asText());
+        assertEquals("#/$defs/com.example.Payment", defs.get("Payment").get("$ref").asText());
+        assertEquals("#/$defs/com.example.common.Envelope",
+                defs.get("com.example.OrderShipped").get("properties").get("envelope").get("$ref").asText());
+        assertEquals(7, defs.size(), "Four records and three schema entries");
+    }
+
+    @Test
+    public void testConflictingRecordsFail() throws Exception {
+        Path first = tempDir.resolve("a.avsc");
+        Path second = tempDir.resolve("b.avsc");
+        Files.writeString(first, ENVELOPE);
+        Files.writeString(second, ENVELOPE.replace("\"string\"", "\"long\""));
+
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute("bundle", first.toString(), second.toString());
+
+        assertEquals(1, exitCode);
+    }
+}
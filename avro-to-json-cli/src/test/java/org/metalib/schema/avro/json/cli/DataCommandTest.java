@@ -0,0 +1,94 @@
+package org.metalib.schema.avro.json.cli;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataCommandTest {
+
+    private static final Schema USER = new Schema.Parser().parse("""
+            {"type":"record","name":"User","namespace":"com.example","fields":[
+              {"name":"name","type":"string"},
+              {"name":"email","type":["null","string"],"default":null}]}""");
+
+    @TempDir
+    Path tempDir;
+
+    private Path container() throws Exception {
+        Path file = tempDir.resolve("users.avro");
+        try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(USER))) {
+            writer.create(USER, file.toFile());
+            for (String email : new String[]{"ada@example.com", null}) {
+                GenericRecord user = new GenericData.Record(USER);
+                user.put("name", "Ada");
+                user.put("email", email);
+                writer.append(user);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void testConvertDataFileToNdjson() throws Exception {
+        Path output = tempDir.resolve("users.ndjson");
+
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute("data", container().toString(), "-o", output.toString());
+
+        assertEquals(0, exitCode);
+        assertEquals(List.of("{\"name\":\"Ada\",\"email\":\"ada@example.com\"}", "{\"name\":\"Ada\"}"),
+                Files.readAllLines(output));
+    }
+
+    @Test
+    public void testStrictWritesNulls() throws Exception {
+        Path output = tempDir.resolve("users.ndjson");
+
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute("data", container().toString(), "-o", output.toString(),
+                "--strict");
+
+        assertEquals(0, exitCode);
+        assertEquals("{\"name\":\"Ada\",\"email\":null}", Files.readAllLines(output).get(1));
+    }
+
+    @Test
+    public void testParallelBlocksKeepOrder() throws Exception {
+        Path output = tempDir.resolve("users.ndjson");
+
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute("data", container().toString(), "-o", output.toString(),
+                "--threads", "4", "--mmap");
+
+        assertEquals(0, exitCode);
+        assertEquals(List.of("{\"name\":\"Ada\",\"email\":\"ada@example.com\"}", "{\"name\":\"Ada\"}"),
+                Files.readAllLines(output));
+    }
+
+    @Test
+    public void testShardsPerBlock() throws Exception {
+        Path shards = tempDir.resolve("shards");
+
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute("data", container().toString(),
+                "--shards", shards.toString());
+
+        assertEquals(0, exitCode);
+        // Both records fit in one block
+        assertEquals(2, Files.readAllLines(shards.resolve("users-00000.ndjson")).size());
+    }
+
+    @Test
+    public void testMissingInputFails() {
+        int exitCode = new CommandLine(new AvroToJsonCli()).execute("data", tempDir.resolve("missing.avro").toString());
+
+        assertEquals(1, exitCode);
+    }
+}
@@ -0,0 +1,130 @@
+package org.metalib.schema.avro.json.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FakeSchemaRegistryTest {
+
+    private static final String USER_SCHEMA = """
+            {"type":"record","name":"User","fields":[{"name":"id","type":"int"}]}""";
+    private static final String ORDER_SCHEMA = """
+            {"type":"record","name":"Order","fields":[{"name":"user","type":"User"}]}""";
+
+    @TempDir
+    Path tempDir;
+
+    private static JsonNode getJson(String url) throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+        return new ObjectMapper().readTree(response.body());
+    }
+
+    @Test
+    public void testServesSubjectsVersionsIdsAndReferences() throws Exception {
+        Files.createDirectories(tempDir.resolve("User"));
+        Files.createDirectories(tempDir.resolve("Order"));
+        Files.writeString(tempDir.resolve("User/1.avsc"), USER_SCHEMA);
+        Files.writeString(tempDir.resolve("Order/1.avsc"), ORDER_SCHEMA);
+        Files.writeString(tempDir.resolve("Order/1.references.json"), """
+                [{"name":"User","subject":"User","version":1}]""");
+
+        try (FakeSchemaRegistry registry = new FakeSchemaRegistry().load(tempDir).start()) {
+            SchemaRegistryClient client = new SchemaRegistryClient(registry.url());
+
+            assertEquals(List.of("Order", "User"), client.listSubjects());
+            assertEquals(List.of(1), client.listVersions("User"));
+            assertEquals(USER_SCHEMA, client.fetchSchema("User", "latest"));
+
+            JsonNode order = getJson(registry.url() + "/subjects/Order/versions/1");
+            assertEquals("Order", order.get("subject").asText());
+            assertEquals(ORDER_SCHEMA, order.get("schema").asText());
+            assertEquals("User", order.get("references").get(0).get("subject").asText());
+
+            JsonNode byId = getJson(registry.url() + "/schemas/ids/" + order.get("id").asInt());
+            assertEquals(ORDER_SCHEMA, byId.get("schema").asText());
+        }
+    }
+
+    @Test
+    public void testIdenticalSchemasShareId() {
+        FakeSchemaRegistry registry = new FakeSchemaRegistry();
+        int first = registry.register("a-value", 1, USER_SCHEMA, null).id();
+        int second = registry.register("b-value", 1, USER_SCHEMA, null).id();
+        int third = registry.register("c-value", 1, ORDER_SCHEMA, null).id();
+
+        assertEquals(first, second);
+        assertNotEquals(first, third);
+    }
+
+    @Test
+    public void testUnknownSubjectReturnsRegistryError() throws Exception {
+        try (FakeSchemaRegistry registry = new FakeSchemaRegistry().start()) {
+            JsonNode error = getJson(registry.url() + "/subjects/Missing/versions/latest");
+            assertEquals(40401, error.get("error_code").asInt());
+
+            SchemaRegistryClient client = new SchemaRegistryClient(registry.url());
+            assertThrows(java.io.IOException.class, () -> client.fetchSchema("Missing", "latest"));
+        }
+    }
+
+    @Test
+    public void testInjectedErrorsAreRetriedByClient() throws Exception {
+        try (FakeSchemaRegistry registry = new FakeSchemaRegistry().withErrorRate(0.5).withSeed(7).start()) {
+            registry.register("User", USER_SCHEMA);
+            SchemaRegistryClient client = new SchemaRegistryClient(registry.url(),
+                    RetryPolicy.defaults().withMaxAttempts(20).withBackoff(Duration.ofMillis(1), Duration.ofMillis(2)));
+
+            for (int i = 0; i < 20; i++) {
+                assertEquals(USER_SCHEMA, client.fetchSchema("User", "1"));
+            }
+
+            assertTrue(registry.injectedErrors() > 0);
+            assertEquals(registry.injectedErrors(), client.metrics().retries());
+            assertEquals(registry.requests(), client.metrics().attempts());
+        }
+    }
+
+    @Test
+    public void testLatencyIsInjectedAndRequestsRunConcurrently() throws Exception {
+        try (FakeSchemaRegistry registry = new FakeSchemaRegistry()
+                .withLatency(Duration.ofMillis(200), Duration.ZERO).withThreads(8).start()) {
+            registry.register("User", USER_SCHEMA);
+            SchemaRegistryClient client = new SchemaRegistryClient(registry.url());
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                long start = System.nanoTime();
+                List<Future<String>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    futures.add(executor.submit(() -> client.fetchSchema("User", "latest")));
+                }
+                for (Future<String> future : futures) {
+                    assertEquals(USER_SCHEMA, future.get());
+                }
+                long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+                assertTrue(elapsedMillis >= 200, "Latency should be injected");
+                assertTrue(elapsedMillis < 1_600, "Requests should be served concurrently");
+                assertEquals(8, registry.schemaFetches());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -4,10 +4,17 @@ import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.metalib.schema.avro.json.AvroToJsonSchemaConverter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -103,4 +110,146 @@ public class SchemaRegistryClientTest {
 
         assertEquals(avroSchema, result);
     }
+
+    @Test
+    public void testFetchSchemaRetriesServerErrors() throws Exception {
+        String avroSchema = """
+                {"type":"record","name":"User","fields":[{"name":"id","type":"int"}]}""";
+        AtomicInteger calls = new AtomicInteger();
+
+        server.createContext("/subjects/User/versions/latest/schema", exchange -> {
+            int status = calls.incrementAndGet() <= 2 ? 503 : 200;
+            byte[] response = (status == 200 ? avroSchema : "unavailable").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        SchemaRegistryClient client = new SchemaRegistryClient(baseUrl,
+                RetryPolicy.defaults().withBackoff(Duration.ofMillis(1), Duration.ofMillis(5)));
+        String result = client.fetchSchema("User", "latest");
+
+        assertEquals(avroSchema, result);
+        assertEquals(1, client.metrics().requests());
+        assertEquals(3, client.metrics().attempts());
+        assertEquals(2, client.metrics().retries());
+        assertEquals(0, client.metrics().failures());
+    }
+
+    @Test
+    public void testFetchSchemaGivesUpAfterMaxAttempts() throws Exception {
+        server.createContext("/subjects/User/versions/latest/schema", exchange -> {
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+        });
+        server.start();
+
+        SchemaRegistryClient client = new SchemaRegistryClient(baseUrl,
+                RetryPolicy.defaults().withMaxAttempts(2).withBackoff(Duration.ofMillis(1), Duration.ofMillis(5)));
+
+        IOException ex = assertThrows(IOException.class, () -> client.fetchSchema("User", "latest"));
+        assertTrue(ex.getMessage().contains("429"));
+        assertEquals(2, client.metrics().attempts());
+        assertEquals(1, client.metrics().failures());
+    }
+
+    @Test
+    public void testFetchSchemaDoesNotRetryClientErrors() throws Exception {
+        server.createContext("/subjects/Missing/versions/latest/schema", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+
+        SchemaRegistryClient client = new SchemaRegistryClient(baseUrl);
+
+        assertThrows(IOException.class, () -> client.fetchSchema("Missing", "latest"));
+        assertEquals(1, client.metrics().attempts());
+        assertEquals(0, client.metrics().retries());
+    }
+
+    @Test
+    public void testHedgedRequestWinsOverSlowResponse() throws Exception {
+        String avroSchema = """
+                {"type":"record","name":"User","fields":[{"name":"id","type":"int"}]}""";
+        int warmup = RegistryClientMetrics.MIN_SAMPLES;
+        AtomicInteger calls = new AtomicInteger();
+
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/subjects/User/versions/latest/schema", exchange -> {
+            if (calls.incrementAndGet() == warmup + 1) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] response = avroSchema.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        SchemaRegistryClient client = new SchemaRegistryClient(baseUrl,
+                RetryPolicy.defaults().withHedging(95, Duration.ofMillis(50)));
+        for (int i = 0; i < warmup; i++) {
+            client.fetchSchema("User", "latest");
+        }
+        assertEquals(0, client.metrics().hedges());
+
+        long start = System.nanoTime();
+        assertEquals(avroSchema, client.fetchSchema("User", "latest"));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 4_000, "Hedged request should win");
+        assertEquals(1, client.metrics().hedges());
+        assertEquals(1, client.metrics().hedgeWins());
+    }
+
+    @Test
+    public void testFetchSchemaNegotiatesGzip() throws Exception {
+        String avroSchema = """
+                {"type":"record","name":"User","fields":[{"name":"id","type":"int"}]}""";
+
+        server.createContext("/subjects/User/versions/latest/schema", exchange -> {
+            assertEquals("gzip", exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(avroSchema.getBytes(StandardCharsets.UTF_8));
+            }
+            byte[] response = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.getResponseBody().close();
+        });
+        server.start();
+
+        SchemaRegistryClient client = new SchemaRegistryClient(baseUrl);
+
+        assertEquals(avroSchema, client.fetchSchema("User", "latest"));
+    }
+
+    @Test
+    public void testOpenSchemaStreamsIntoConverter() throws Exception {
+        StringBuilder fields = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            fields.append(i == 0 ? "" : ",").append("{\"name\":\"field").append(i).append("\",\"type\":\"string\"}");
+        }
+        String avroSchema = "{\"type\":\"record\",\"name\":\"Wide\",\"fields\":[" + fields + "]}";
+
+        try (FakeSchemaRegistry registry = new FakeSchemaRegistry().start()) {
+            registry.register("Wide", avroSchema);
+            SchemaRegistryClient client = new SchemaRegistryClient(registry.url());
+
+            String jsonSchema;
+            try (InputStream body = client.openSchema("Wide", "latest")) {
+                jsonSchema = new AvroToJsonSchemaConverter().convert(body);
+            }
+
+            assertEquals(new AvroToJsonSchemaConverter().convert(avroSchema), jsonSchema);
+            assertTrue(registry.bytesSent() * 5 < avroSchema.length(), "Response should travel compressed");
+        }
+    }
 }
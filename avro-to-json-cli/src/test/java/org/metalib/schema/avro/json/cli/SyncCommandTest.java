@@ -0,0 +1,142 @@
+package org.metalib.schema.avro.json.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SyncCommandTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FakeSchemaRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        registry = new FakeSchemaRegistry().start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    private static String userSchema(String field) {
+        return """
+                {"type":"record","name":"User","fields":[{"name":"%s","type":"int"}]}""".formatted(field);
+    }
+
+    private int sync(Path outputDir, String... extraArgs) {
+        String[] args = new String[4 + extraArgs.length];
+        args[0] = "sync";
+        args[1] = "--registry=" + registry.url();
+        args[2] = "--output-dir";
+        args[3] = outputDir.toString();
+        System.arraycopy(extraArgs, 0, args, 4, extraArgs.length);
+        return new CommandLine(new AvroToJsonCli()).execute(args);
+    }
+
+    @Test
+    public void testSyncConvertsOnlyNewVersions() throws Exception {
+        registry.register("User", userSchema("id"));
+        registry.register("Event", userSchema("ts"));
+        registry.register("Event", userSchema("at"));
+        Path outputDir = tempDir.resolve("mirror");
+
+        assertEquals(0, sync(outputDir));
+        assertEquals(3, registry.schemaFetches());
+        JsonNode event2 = new ObjectMapper().readTree(outputDir.resolve("Event/2.json").toFile());
+        assertTrue(event2.get("properties").has("at"));
+        assertTrue(Files.exists(outputDir.resolve("User/1.json")));
+        assertTrue(Files.exists(outputDir.resolve(SyncManifest.FILE_NAME)));
+
+        assertEquals(0, sync(outputDir));
+        assertEquals(3, registry.schemaFetches(), "Unchanged registry should not refetch schemas");
+
+        registry.register("User", userSchema("userId"));
+        assertEquals(0, sync(outputDir));
+        assertEquals(4, registry.schemaFetches());
+        assertTrue(Files.exists(outputDir.resolve("User/2.json")));
+    }
+
+    @Test
+    public void testSyncRemovesDeletedVersions() throws Exception {
+        registry.register("User", userSchema("id"));
+        registry.register("User", userSchema("userId"));
+        Path outputDir = tempDir.resolve("mirror");
+        assertEquals(0, sync(outputDir));
+
+        registry.delete("User", 1);
+        assertEquals(0, sync(outputDir));
+
+        assertFalse(Files.exists(outputDir.resolve("User/1.json")));
+        assertTrue(Files.exists(outputDir.resolve("User/2.json")));
+    }
+
+    @Test
+    public void testSyncKeepsSimilarSubjectsApart() throws Exception {
+        registry.register("a/b", userSchema("slash"));
+        registry.register("a b", userSchema("space"));
+        registry.register("a_b", userSchema("underscore"));
+        Path outputDir = tempDir.resolve("mirror");
+        assertEquals(0, sync(outputDir));
+
+        ObjectMapper mapper = new ObjectMapper();
+        assertTrue(mapper.readTree(outputDir.resolve("a%2Fb/1.json").toFile()).get("properties").has("slash"));
+        assertTrue(mapper.readTree(outputDir.resolve("a+b/1.json").toFile()).get("properties").has("space"));
+        assertTrue(mapper.readTree(outputDir.resolve("a_b/1.json").toFile()).get("properties").has("underscore"));
+
+        registry.delete("a/b", 1);
+        assertEquals(0, sync(outputDir));
+
+        assertFalse(Files.exists(outputDir.resolve("a%2Fb/1.json")));
+        assertTrue(Files.exists(outputDir.resolve("a+b/1.json")));
+        assertTrue(Files.exists(outputDir.resolve("a_b/1.json")));
+    }
+
+    @Test
+    public void testSubjectDirectoriesStayInsideOutputDirectory() {
+        assertEquals("%2E", RegistryMirror.fileName("."));
+        assertEquals("%2E.", RegistryMirror.fileName(".."));
+        assertEquals("%2Eavro-to-json-sync.json", RegistryMirror.fileName(SyncManifest.FILE_NAME));
+        assertEquals("com.example.User-value", RegistryMirror.fileName("com.example.User-value"));
+        assertEquals("a%2A%25b", RegistryMirror.fileName("a*%b"));
+    }
+
+    @Test
+    public void testSyncReconvertsWhenOptionsChange() throws Exception {
+        registry.register("User", userSchema("id"));
+        Path outputDir = tempDir.resolve("mirror");
+        assertEquals(0, sync(outputDir));
+
+        assertEquals(0, sync(outputDir, "--strict"));
+        assertEquals(2, registry.schemaFetches());
+    }
+
+    @Test
+    public void testSyncSurvivesFlakyRegistry() throws Exception {
+        registry.close();
+        registry = new FakeSchemaRegistry().withErrorRate(0.3).withSeed(42).start();
+        for (int i = 0; i < 20; i++) {
+            registry.register("Subject" + i, userSchema("id"));
+        }
+        Path outputDir = tempDir.resolve("mirror");
+
+        assertEquals(0, sync(outputDir, "--max-attempts", "10", "--retry-backoff-ms", "1"));
+
+        assertTrue(registry.injectedErrors() > 0);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(Files.exists(outputDir.resolve("Subject" + i + "/1.json")));
+        }
+    }
+}
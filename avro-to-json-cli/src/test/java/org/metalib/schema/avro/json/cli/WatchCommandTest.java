@@ -0,0 +1,88 @@
+package org.metalib.schema.avro.json.cli;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class WatchCommandTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FakeSchemaRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        registry = new FakeSchemaRegistry().start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    private static String userSchema(String field) {
+        return """
+                {"type":"record","name":"User","fields":[{"name":"%s","type":"int"}]}""".formatted(field);
+    }
+
+    private static void awaitFile(Path file) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!Files.exists(file)) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + file);
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void testListRequestsAreConditional() throws Exception {
+        registry.register("User", userSchema("id"));
+        SchemaRegistryClient client = new SchemaRegistryClient(registry.url());
+
+        assertEquals(List.of(1), client.listVersions("User"));
+        assertEquals(List.of(1), client.listVersions("User"));
+        assertEquals(1, client.metrics().notModified());
+
+        registry.register("User", userSchema("userId"));
+        assertEquals(List.of(1, 2), client.listVersions("User"));
+        assertEquals(1, client.metrics().notModified());
+    }
+
+    @Test
+    public void testWatchConvertsNewVersionsAndRunsHook() throws Exception {
+        assumeTrue(!System.getProperty("os.name").toLowerCase().contains("win"), "Hook script requires a POSIX shell");
+        Path hookLog = tempDir.resolve("hook.log");
+        Path hook = tempDir.resolve("hook.sh");
+        Files.writeString(hook, "#!/bin/sh\necho \"$1 $2 $3\" >> '" + hookLog + "'\n");
+        Files.setPosixFilePermissions(hook, PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        registry.register("User", userSchema("id"));
+        Path outputDir = tempDir.resolve("mirror");
+
+        CompletableFuture<Integer> watch = CompletableFuture.supplyAsync(() -> new CommandLine(new AvroToJsonCli()).execute(
+                "watch", "--registry", registry.url(), "--output-dir", outputDir.toString(),
+                "--interval-ms", "50", "--max-polls", "40", "--on-change", hook.toString()));
+
+        awaitFile(outputDir.resolve("User/1.json"));
+        registry.register("User", userSchema("userId"));
+        awaitFile(outputDir.resolve("User/2.json"));
+
+        assertEquals(0, watch.get(30, TimeUnit.SECONDS));
+        assertEquals(2, registry.schemaFetches(), "Each version should be fetched exactly once");
+        assertTrue(registry.notModified() > 0, "Unchanged polls should be answered with 304");
+        assertEquals(List.of("converted User 1", "converted User 2"), Files.readAllLines(hookLog));
+    }
+}
@@ -0,0 +1,395 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.jsonschema2pojo.AbstractAnnotator;
+import org.jsonschema2pojo.GenerationConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * The classes jsonschema2pojo generates from Avro records, matched to their records, for the
+ * generators that emit code converting between the two.
+ *
+ * <p>The annotator records every class with its title and properties while jsonschema2pojo
+ * builds it. A top-level class matches the one Avro record whose name is the class's title and
+ * whose field names are its property names in the same order.
+ */
+final class AvroClasses {
+
+    private static final Pattern TYPE_ANNOTATION = Pattern.compile("@[\\w.]+\\s+");
+
+    record Property(String name, JFieldVar field) {
+    }
+
+    private static final class ObjectClass {
+        private String title;
+        private final List<Property> properties = new ArrayList<>();
+        private final Map<String, JMethod> getters = new LinkedHashMap<>();
+        private final Map<String, JMethod> setters = new LinkedHashMap<>();
+    }
+
+    /**
+     * Thrown when a field cannot be converted, so that its class gets no generated code. The
+     * reason is {@code null} where the Java type merely does not fit the Avro type.
+     */
+    static final class Unsupported extends RuntimeException {
+        Unsupported() {
+            this(null);
+        }
+
+        Unsupported(String reason) {
+            super(reason, null, false, false);
+        }
+
+        /**
+         * This failure as the reason {@code property}, of Avro type {@code schema}, cannot be
+         * converted.
+         */
+        Unsupported of(Property property, Schema schema) {
+            return new Unsupported("field " + property.name() + (getMessage() != null ? ": " + getMessage()
+                    : " of Avro type " + describe(schema) + " cannot be converted to and from "
+                    + javaName(property.field().type())));
+        }
+    }
+
+    /**
+     * The companions generated by {@link #generate}, keyed by path relative to the source root,
+     * and the reason each matched class that got none was skipped, keyed by its full name.
+     */
+    record Generated(Map<String, byte[]> files, Map<String, String> skipped) {
+    }
+
+    /**
+     * Generates the source of one matched class's companion, or throws {@link Unsupported}.
+     */
+    interface SourceFactory {
+        String source(JDefinedClass clazz, Schema avroRecord, Map<JDefinedClass, Schema> matched);
+    }
+
+    private final GenerationConfig config;
+    private final boolean records;
+    private final List<Schema> avroSchemas;
+    private final Map<JDefinedClass, ObjectClass> classes = new LinkedHashMap<>();
+    private final Map<JDefinedClass, JMethod> enumCreators = new LinkedHashMap<>();
+
+    AvroClasses(GenerationConfig config, List<Schema> avroSchemas) {
+        this.config = config;
+        this.records = RecordAnnotator.class.isAssignableFrom(config.getCustomAnnotator());
+        this.avroSchemas = avroSchemas;
+    }
+
+    /**
+     * Records the generated classes and their properties; add it to the rule factory's annotators.
+     */
+    AbstractAnnotator annotator() {
+        return new AbstractAnnotator(config) {
+            @Override
+            public void propertyField(JFieldVar field, JDefinedClass clazz, String propertyName, JsonNode propertyNode) {
+                objectClass(clazz).properties.add(new Property(propertyName, field));
+            }
+
+            @Override
+            public void typeInfo(JDefinedClass clazz, JsonNode schema) {
+                objectClass(clazz).title = schema.path("title").asText(null);
+            }
+
+            @Override
+            public boolean isPolymorphicDeserializationSupported(JsonNode node) {
+                // Neutral: the composite annotator requires every annotator to support it
+                return true;
+            }
+
+            @Override
+            public void propertyGetter(JMethod getter, JDefinedClass clazz, String propertyName) {
+                objectClass(clazz).getters.put(propertyName, getter);
+            }
+
+            @Override
+            public void propertySetter(JMethod setter, JDefinedClass clazz, String propertyName) {
+                objectClass(clazz).setters.put(propertyName, setter);
+            }
+
+            @Override
+            public void enumCreatorMethod(JDefinedClass clazz, JMethod creator) {
+                enumCreators.put(clazz, creator);
+            }
+        };
+    }
+
+    private ObjectClass objectClass(JDefinedClass clazz) {
+        return classes.computeIfAbsent(clazz, key -> new ObjectClass());
+    }
+
+    /**
+     * Whether the classes are records, built through their canonical constructor.
+     */
+    boolean records() {
+        return records;
+    }
+
+    List<Property> properties(JDefinedClass clazz) {
+        return classes.get(clazz).properties;
+    }
+
+    /**
+     * The expression reading {@code property} of the object {@code value}.
+     */
+    String get(JDefinedClass clazz, Property property, String value) {
+        ObjectClass objectClass = classes.get(clazz);
+        if (records) {
+            return value + "." + property.field().name() + "()";
+        }
+        if ((property.field().mods().getValue() & JMod.PUBLIC) != 0) {
+            return value + "." + property.field().name();
+        }
+        if (objectClass.getters.containsKey(property.name()) && objectClass.setters.containsKey(property.name())) {
+            return value + "." + objectClass.getters.get(property.name()).name() + "()";
+        }
+        throw new Unsupported("no public field, or getter and setter");
+    }
+
+    /**
+     * The statement assigning {@code expression} to {@code property} of the object {@code value};
+     * records are built through their constructor instead.
+     */
+    String set(JDefinedClass clazz, Property property, String value, String expression) {
+        ObjectClass objectClass = classes.get(clazz);
+        if ((property.field().mods().getValue() & JMod.PUBLIC) != 0) {
+            return value + "." + property.field().name() + " = " + expression + ";";
+        }
+        if (objectClass.getters.containsKey(property.name()) && objectClass.setters.containsKey(property.name())) {
+            return value + "." + objectClass.setters.get(property.name()).name() + "(" + expression + ");";
+        }
+        throw new Unsupported("no public field, or getter and setter");
+    }
+
+    /**
+     * The generated enum for {@code type} if it has a creator taking, and a {@code value()}
+     * returning, the symbol.
+     */
+    JDefinedClass enumClass(JType type) {
+        if (type instanceof JDefinedClass enumClass && enumClass.getClassType() == ClassType.ENUM
+                && enumCreators.containsKey(enumClass)) {
+            JMethod value = enumClass.getMethod("value", new JType[0]);
+            if (value != null && "java.lang.String".equals(value.type().fullName())) {
+                return enumClass;
+            }
+        }
+        throw new Unsupported(javaName(type) + " is not an enum with a creator and a value() of its symbol");
+    }
+
+    JMethod enumCreator(JDefinedClass enumClass) {
+        return enumCreators.get(enumClass);
+    }
+
+    /**
+     * The type of the additional properties of the class generated for a map, which holds the
+     * map's entries as its only instance field.
+     */
+    JType mapValueType(JType type) {
+        if (type instanceof JDefinedClass mapClass && !records) {
+            JFieldVar field = mapClass.fields().get("additionalProperties");
+            boolean onlyEntries = mapClass.fields().values().stream()
+                    .allMatch(other -> other == field || (other.mods().getValue() & JMod.STATIC) != 0);
+            if (field != null && onlyEntries && field.type() instanceof JClass map
+                    && map.getTypeParameters().size() == 2
+                    && "java.lang.String".equals(map.getTypeParameters().get(0).fullName())
+                    && hasMethod(mapClass, "getAdditionalProperties") && hasMethod(mapClass, "setAdditionalProperty")) {
+                return map.getTypeParameters().get(1);
+            }
+        }
+        throw new Unsupported(javaName(type) + " does not hold the map's entries as additional properties");
+    }
+
+    private static boolean hasMethod(JDefinedClass clazz, String name) {
+        for (JMethod method : clazz.methods()) {
+            if (method.name().equals(name) && (method.mods().getValue() & JMod.PUBLIC) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generates a companion named after each matched class with {@code suffix}. Classes whose
+     * companion cannot be generated, and the classes containing them, get none and are returned
+     * with the reason.
+     */
+    Generated generate(String suffix, SourceFactory factory) {
+        Map<JDefinedClass, Schema> matched = match();
+        // Dropping a class may leave classes containing it without a companion, so repeat until none is dropped
+        Map<JDefinedClass, String> sources = new LinkedHashMap<>();
+        Map<String, String> skipped = new TreeMap<>();
+        boolean dropped = true;
+        while (dropped) {
+            dropped = false;
+            sources.clear();
+            for (Iterator<Map.Entry<JDefinedClass, Schema>> it = matched.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<JDefinedClass, Schema> entry = it.next();
+                try {
+                    sources.put(entry.getKey(), factory.source(entry.getKey(), entry.getValue(), matched));
+                } catch (Unsupported e) {
+                    skipped.put(entry.getKey().fullName(), e.getMessage());
+                    it.remove();
+                    dropped = true;
+                }
+            }
+        }
+        Map<String, byte[]> files = new TreeMap<>();
+        sources.forEach((clazz, source) -> files.put(JavaSources.path(clazz._package().name(),
+                clazz.name() + suffix), source.getBytes(StandardCharsets.UTF_8)));
+        return new Generated(files, skipped);
+    }
+
+    private Map<JDefinedClass, Schema> match() {
+        Map<String, Schema> avroRecords = new LinkedHashMap<>();
+        avroSchemas.forEach(schema -> collectRecords(schema, avroRecords));
+
+        Map<JDefinedClass, Schema> matched = new LinkedHashMap<>();
+        classes.forEach((clazz, objectClass) -> {
+            if (clazz.outer() != null || clazz.getClassType() != ClassType.CLASS
+                    || !"java.lang.Object".equals(clazz._extends().fullName())) {
+                return;
+            }
+            List<String> properties = objectClass.properties.stream().map(Property::name).toList();
+            List<Schema> candidates = avroRecords.values().stream()
+                    .filter(avroRecord -> avroRecord.getName().equals(objectClass.title))
+                    .filter(avroRecord -> avroRecord.getFields().stream().map(Schema.Field::name).toList()
+                            .equals(properties))
+                    .toList();
+            if (candidates.size() == 1) {
+                matched.put(clazz, candidates.get(0));
+            }
+        });
+        return matched;
+    }
+
+    private static void collectRecords(Schema schema, Map<String, Schema> avroRecords) {
+        switch (schema.getType()) {
+            case RECORD -> {
+                if (avroRecords.putIfAbsent(schema.getFullName(), schema) == null) {
+                    schema.getFields().forEach(field -> collectRecords(field.schema(), avroRecords));
+                }
+            }
+            case ARRAY -> collectRecords(schema.getElementType(), avroRecords);
+            case MAP -> collectRecords(schema.getValueType(), avroRecords);
+            case UNION -> schema.getTypes().forEach(type -> collectRecords(type, avroRecords));
+            default -> {
+            }
+        }
+    }
+
+    static String javaName(JType type) {
+        return type.isPrimitive() || type.isArray() ? type.fullName() : type.erasure().fullName();
+    }
+
+    /**
+     * The source name of {@code type} in package {@code pkg}, without type annotations.
+     */
+    static String typeName(JType type, String pkg) {
+        return JavaSources.simplify(TYPE_ANNOTATION.matcher(type.fullName()).replaceAll(""), pkg);
+    }
+
+    static JType elementType(JType type) {
+        String java = javaName(type);
+        if (type instanceof JClass collection && (java.equals("java.util.List") || java.equals("java.util.Set"))
+                && collection.getTypeParameters().size() == 1) {
+            return collection.getTypeParameters().get(0);
+        }
+        throw new Unsupported(java + " is not a List or Set of the array's items");
+    }
+
+    /**
+     * The branch index of {@code null} in a union of {@code null} and one other type, which is all
+     * a nullable field can hold.
+     */
+    static int nullIndex(Schema union, JType type) {
+        List<Schema> types = union.getTypes();
+        if (type.isPrimitive()) {
+            throw new Unsupported("a nullable value cannot be held by a " + type.fullName());
+        }
+        if (types.size() == 2 && types.get(0).getType() == Schema.Type.NULL) {
+            return 0;
+        }
+        if (types.size() == 2 && types.get(1).getType() == Schema.Type.NULL) {
+            return 1;
+        }
+        throw new Unsupported("a union of " + describe(union) + " has no single Java type");
+    }
+
+    static Schema nonNull(Schema union) {
+        return union.getTypes().get(union.getTypes().get(0).getType() == Schema.Type.NULL ? 1 : 0);
+    }
+
+    static int scale(Schema schema) {
+        if (schema.getLogicalType() instanceof LogicalTypes.Decimal decimal) {
+            return decimal.getScale();
+        }
+        throw new Unsupported();
+    }
+
+    static String expect(String actual, String first, String second, String expression) {
+        if (actual.equals(first) || actual.equals(second)) {
+            return expression;
+        }
+        throw new Unsupported();
+    }
+
+    static String expect(String logicalType, String expected, String expression) {
+        if (expected.equals(logicalType)) {
+            return expression;
+        }
+        throw new Unsupported();
+    }
+
+    /**
+     * A short description of {@code schema} for messages, such as {@code map<long>} or
+     * {@code [null, string]}.
+     */
+    static String describe(Schema schema) {
+        String logicalType = schema.getProp("logicalType");
+        return switch (schema.getType()) {
+            case RECORD, ENUM, FIXED -> schema.getFullName();
+            case ARRAY -> "array<" + describe(schema.getElementType()) + ">";
+            case MAP -> "map<" + describe(schema.getValueType()) + ">";
+            case UNION -> schema.getTypes().stream().map(AvroClasses::describe).toList().toString();
+            default -> logicalType != null ? schema.getName() + " (" + logicalType + ")" : schema.getName();
+        };
+    }
+
+    static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Adds the member under {@code name}, or under a numbered name if a different member
+     * already took it; returns the name the member is declared under.
+     */
+    static String member(Map<String, String> members, String name, Function<String, String> declaration) {
+        for (int i = 1; ; i++) {
+            String candidate = i == 1 ? name : name + i;
+            String source = declaration.apply(candidate);
+            String existing = members.putIfAbsent(candidate, source);
+            if (existing == null || existing.equals(source)) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package org.metalib.schema.avro.json;
+
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JType;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.metalib.schema.avro.json.AvroClasses.Property;
+import org.metalib.schema.avro.json.AvroClasses.Unsupported;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.metalib.schema.avro.json.AvroClasses.capitalize;
+import static org.metalib.schema.avro.json.AvroClasses.elementType;
+import static org.metalib.schema.avro.json.AvroClasses.expect;
+import static org.metalib.schema.avro.json.AvroClasses.javaName;
+import static org.metalib.schema.avro.json.AvroClasses.member;
+import static org.metalib.schema.avro.json.AvroClasses.nonNull;
+import static org.metalib.schema.avro.json.AvroClasses.nullIndex;
+import static org.metalib.schema.avro.json.AvroClasses.scale;
+
+/**
+ * Generates a codec that reads and writes Avro binary straight into and out of every class
+ * jsonschema2pojo generates from an Avro record.
+ *
+ * <p>For a class {@code Order} it generates {@code OrderAvroCodec} with a static
+ * {@code read(Decoder)} and {@code write(Order, Encoder)}, meant for the {@code BinaryDecoder}
+ * and {@code BinaryEncoder} of Avro's {@code DecoderFactory} and {@code EncoderFactory}. They
+ * follow the record's field order and types, so no {@code GenericRecord} is built in between.
+ * The data must be written with the same schema; {@code FINGERPRINT} holds its parsing
+ * fingerprint for comparison with the writer schema.
+ *
+ * <p>A map is read into and written from the class generated for it, which holds its entries
+ * as additional properties, so maps need additional properties to be enabled.
+ *
+ * <p>The classes are matched to the records by title and property names while jsonschema2pojo
+ * builds them. Classes that match no record or several, that have a field whose Java type does
+ * not fit its Avro type (such as a union of several types), or that contain a class without a
+ * codec get no codec; {@link #generate()} returns them with the reason.
+ */
+public final class AvroCodecGenerator {
+
+    /** Suffix of the generated codec classes. */
+    public static final String CODEC_SUFFIX = "AvroCodec";
+
+    private final AvroClasses classes;
+
+    AvroCodecGenerator(AvroClasses classes) {
+        this.classes = classes;
+    }
+
+    /**
+     * Generates the codecs of the matched classes, and returns the classes that get none.
+     */
+    AvroClasses.Generated generate() {
+        return classes.generate(CODEC_SUFFIX,
+                (clazz, avroRecord, matched) -> new Codec(clazz, avroRecord, matched).source());
+    }
+
+    /**
+     * The codec of one class; helper methods and constants are added as the fields need them.
+     */
+    private final class Codec {
+
+        private final JDefinedClass clazz;
+        private final Schema avroRecord;
+        private final Map<JDefinedClass, Schema> matched;
+        private final String pkg;
+        private final Map<String, String> constants = new LinkedHashMap<>();
+        private final Map<String, String> methods = new LinkedHashMap<>();
+
+        Codec(JDefinedClass clazz, Schema avroRecord, Map<JDefinedClass, Schema> matched) {
+            this.clazz = clazz;
+            this.avroRecord = avroRecord;
+            this.matched = matched;
+            this.pkg = clazz._package().name();
+        }
+
+        String source() {
+            String type = clazz.name();
+            List<String> reads = new ArrayList<>();
+            StringBuilder writes = new StringBuilder();
+            for (Property property : classes.properties(clazz)) {
+                JFieldVar field = property.field();
+                Schema fieldSchema = avroRecord.getField(property.name()).schema();
+                String name = capitalize(field.name());
+                try {
+                    String read = read(fieldSchema, field.type(), name);
+                    String value = classes.get(clazz, property, "value");
+                    reads.add(classes.records() ? read : classes.set(clazz, property, "value", read));
+                    write(writes, fieldSchema, field.type(), value, "        ", name);
+                } catch (Unsupported e) {
+                    throw e.of(property, fieldSchema);
+                }
+            }
+
+            StringBuilder out = new StringBuilder();
+            JavaSources.packageLine(out, pkg);
+            out.append("""
+                    import java.io.IOException;
+                    import org.apache.avro.io.Decoder;
+                    import org.apache.avro.io.Encoder;
+
+                    """);
+            out.append("/**\n * Reads and writes {@link ").append(type).append("} as Avro binary of record {@code ")
+                    .append(avroRecord.getFullName()).append("}, field by field and\n")
+                    .append(" * without an intermediate {@code GenericRecord}.\n */\n");
+            out.append("public final class ").append(type).append(CODEC_SUFFIX).append(" {\n\n");
+            out.append("    /**\n     * Parsing fingerprint ({@code SchemaNormalization.parsingFingerprint64}) of the"
+                    + " schema the data\n     * must be written with.\n     */\n");
+            out.append("    public static final long FINGERPRINT = ")
+                    .append(SchemaNormalization.parsingFingerprint64(avroRecord)).append("L;\n");
+            constants.values().forEach(constant -> out.append('\n').append(constant));
+            out.append("\n    private ").append(type).append(CODEC_SUFFIX).append("() {\n    }\n\n");
+
+            out.append("    public static ").append(type).append(" read(Decoder in) throws IOException {\n");
+            if (classes.records()) {
+                out.append("        return new ").append(type).append('(');
+                for (int i = 0; i < reads.size(); i++) {
+                    out.append(i == 0 ? "\n" : ",\n").append("                ").append(reads.get(i));
+                }
+                out.append(");\n");
+            } else {
+                out.append("        ").append(type).append(" value = new ").append(type).append("();\n");
+                reads.forEach(read -> out.append("        ").append(read).append('\n'));
+                out.append("        return value;\n");
+            }
+            out.append("    }\n\n");
+
+            out.append("    public static void write(").append(type)
+                    .append(" value, Encoder out) throws IOException {\n");
+            out.append(writes);
+            out.append("    }\n");
+            methods.values().forEach(method -> out.append('\n').append(method));
+            return out.append("}\n").toString();
+        }
+
+        private String read(Schema schema, JType type, String name) {
+            String java = javaName(type);
+            String logicalType = schema.getProp("logicalType");
+            return switch (schema.getType()) {
+                case UNION -> "in.readIndex() == " + nullIndex(schema, type) + " ? null : "
+                        + read(nonNull(schema), type, name);
+                case BOOLEAN -> expect(java, "boolean", "java.lang.Boolean", "in.readBoolean()");
+                case INT -> switch (java) {
+                    case "int", "java.lang.Integer" -> "in.readInt()";
+                    case "long", "java.lang.Long" -> "(long) in.readInt()";
+                    case "java.time.LocalDate" -> expect(logicalType, "date", "java.time.LocalDate.ofEpochDay(in.readInt())");
+                    case "java.time.LocalTime" ->
+                            expect(logicalType, "time-millis", "java.time.LocalTime.ofNanoOfDay(in.readInt() * 1_000_000L)");
+                    case "java.lang.String" -> "time-millis".equals(logicalType)
+                            ? "java.time.LocalTime.ofNanoOfDay(in.readInt() * 1_000_000L).toString()"
+                            : expect(logicalType, "date", "java.time.LocalDate.ofEpochDay(in.readInt()).toString()");
+                    default -> throw new Unsupported();
+                };
+                case LONG -> switch (java) {
+                    case "long", "java.lang.Long" -> "in.readLong()";
+                    case "int", "java.lang.Integer" -> "Math.toIntExact(in.readLong())";
+                    case "java.time.Instant" -> "timestamp-micros".equals(logicalType)
+                            ? "java.time.Instant.EPOCH.plus(in.readLong(), java.time.temporal.ChronoUnit.MICROS)"
+                            : expect(logicalType, "timestamp-millis", "java.time.Instant.ofEpochMilli(in.readLong())");
+                    case "java.time.LocalTime" ->
+                            expect(logicalType, "time-micros", "java.time.LocalTime.ofNanoOfDay(in.readLong() * 1_000L)");
+                    case "java.lang.String" ->
+                            expect(logicalType, "time-micros", "java.time.LocalTime.ofNanoOfDay(in.readLong() * 1_000L).toString()");
+                    default -> throw new Unsupported();
+                };
+                case FLOAT -> switch (java) {
+                    case "float", "java.lang.Float" -> "in.readFloat()";
+                    case "double", "java.lang.Double" -> "(double) in.readFloat()";
+                    case "java.math.BigDecimal" -> "new java.math.BigDecimal(Float.toString(in.readFloat()))";
+                    default -> throw new Unsupported();
+                };
+                case DOUBLE -> switch (java) {
+                    case "double", "java.lang.Double" -> "in.readDouble()";
+                    case "java.math.BigDecimal" -> "java.math.BigDecimal.valueOf(in.readDouble())";
+                    default -> throw new Unsupported();
+                };
+                case STRING -> switch (java) {
+                    case "java.lang.String" -> "in.readString()";
+                    case "java.util.UUID" -> expect(logicalType, "uuid", "java.util.UUID.fromString(in.readString())");
+                    default -> throw new Unsupported();
+                };
+                case BYTES -> binary(schema, java, "readBytes(in)");
+                case FIXED -> binary(schema, java, "readFixed(in, " + schema.getFixedSize() + ")");
+                case ENUM -> enumConstants(schema, classes.enumClass(type)) + "[in.readEnum()]";
+                case RECORD -> codecOf(schema, type) + ".read(in)";
+                case ARRAY -> readArray(schema, type, name) + "(in)";
+                case MAP -> readMap(schema, type, name) + "(in)";
+                default -> throw new Unsupported();
+            };
+        }
+
+        private String binary(Schema schema, String java, String bytes) {
+            if (schema.getType() == Schema.Type.BYTES) {
+                helper("readBytes", method -> """
+                            private static byte[] %s(Decoder in) throws IOException {
+                                java.nio.ByteBuffer buffer = in.readBytes(null);
+                                byte[] bytes = new byte[buffer.remaining()];
+                                buffer.get(bytes);
+                                return bytes;
+                            }
+                        """.formatted(method));
+            } else {
+                helper("readFixed", method -> """
+                            private static byte[] %s(Decoder in, int size) throws IOException {
+                                byte[] bytes = new byte[size];
+                                in.readFixed(bytes);
+                                return bytes;
+                            }
+                        """.formatted(method));
+            }
+            return switch (java) {
+                case "java.lang.String" -> "java.util.Base64.getEncoder().encodeToString(" + bytes + ")";
+                case "byte[]" -> bytes;
+                case "java.math.BigDecimal" ->
+                        "new java.math.BigDecimal(new java.math.BigInteger(" + bytes + "), " + scale(schema) + ")";
+                case "double", "java.lang.Double" ->
+                        "new java.math.BigDecimal(new java.math.BigInteger(" + bytes + "), " + scale(schema) + ").doubleValue()";
+                default -> throw new Unsupported();
+            };
+        }
+
+        private String readArray(Schema schema, JType type, String name) {
+            JType element = elementType(type);
+            String collection = javaName(type).equals("java.util.Set") ? "java.util.LinkedHashSet" : "java.util.ArrayList";
+            String read = read(schema.getElementType(), element, name + "Item");
+            return helper("read" + name, method -> """
+                        private static %s %s(Decoder in) throws IOException {
+                            %s values = new %s<>();
+                            for (long n = in.readArrayStart(); n != 0; n = in.arrayNext()) {
+                                for (long i = 0; i < n; i++) {
+                                    values.add(%s);
+                                }
+                            }
+                            return values;
+                        }
+                    """.formatted(typeName(type), method, typeName(type), collection, read));
+        }
+
+        private String readMap(Schema schema, JType type, String name) {
+            JType valueType = classes.mapValueType(type);
+            String read = read(schema.getValueType(), valueType, name + "Value");
+            return helper("read" + name, method -> """
+                        private static %s %s(Decoder in) throws IOException {
+                            %s values = new %s();
+                            for (long n = in.readMapStart(); n != 0; n = in.mapNext()) {
+                                for (long i = 0; i < n; i++) {
+                                    values.setAdditionalProperty(in.readString(), %s);
+                                }
+                            }
+                            return values;
+                        }
+                    """.formatted(typeName(type), method, typeName(type), typeName(type), read));
+        }
+
+        private void write(StringBuilder out, Schema schema, JType type, String value, String indent, String name) {
+            String java = javaName(type);
+            String statement = switch (schema.getType()) {
+                case UNION -> {
+                    int nullIndex = nullIndex(schema, type);
+                    out.append(indent).append("if (").append(value).append(" == null) {\n");
+                    out.append(indent).append("    out.writeIndex(").append(nullIndex).append(");\n");
+                    out.append(indent).append("    out.writeNull();\n");
+                    out.append(indent).append("} else {\n");
+                    out.append(indent).append("    out.writeIndex(").append(1 - nullIndex).append(");\n");
+                    write(out, nonNull(schema), type, value, indent + "    ", name);
+                    out.append(indent).append("}\n");
+                    yield null;
+                }
+                case BOOLEAN -> "out.writeBoolean(" + value + ");";
+                case INT -> switch (java) {
+                    case "int", "java.lang.Integer" -> "out.writeInt(" + value + ");";
+                    case "long", "java.lang.Long" -> "out.writeInt(Math.toIntExact(" + value + "));";
+                    case "java.time.LocalDate" -> "out.writeInt(Math.toIntExact(" + value + ".toEpochDay()));";
+                    case "java.time.LocalTime" -> "out.writeInt((int) (" + value + ".toNanoOfDay() / 1_000_000L));";
+                    default -> "date".equals(schema.getProp("logicalType"))
+                            ? "out.writeInt(Math.toIntExact(java.time.LocalDate.parse(" + value + ").toEpochDay()));"
+                            : "out.writeInt((int) (java.time.LocalTime.parse(" + value + ").toNanoOfDay() / 1_000_000L));";
+                };
+                case LONG -> switch (java) {
+                    case "java.time.Instant" -> "timestamp-micros".equals(schema.getProp("logicalType"))
+                            ? "out.writeLong(java.time.temporal.ChronoUnit.MICROS.between(java.time.Instant.EPOCH, "
+                            + value + "));"
+                            : "out.writeLong(" + value + ".toEpochMilli());";
+                    case "java.time.LocalTime" -> "out.writeLong(" + value + ".toNanoOfDay() / 1_000L);";
+                    case "java.lang.String" -> "out.writeLong(java.time.LocalTime.parse(" + value + ").toNanoOfDay() / 1_000L);";
+                    default -> "out.writeLong(" + value + ");";
+                };
+                case FLOAT -> switch (java) {
+                    case "float", "java.lang.Float" -> "out.writeFloat(" + value + ");";
+                    case "java.math.BigDecimal" -> "out.writeFloat(" + value + ".floatValue());";
+                    default -> "out.writeFloat((float) (double) " + value + ");";
+                };
+                case DOUBLE -> java.equals("java.math.BigDecimal") ? "out.writeDouble(" + value + ".doubleValue());"
+                        : "out.writeDouble(" + value + ");";
+                case STRING -> java.equals("java.util.UUID") ? "out.writeString(" + value + ".toString());"
+                        : "out.writeString(" + value + ");";
+                case BYTES -> "out.writeBytes(" + switch (java) {
+                    case "java.lang.String" -> "java.util.Base64.getDecoder().decode(" + value + ")";
+                    case "java.math.BigDecimal" -> value + ".setScale(" + scale(schema) + ").unscaledValue().toByteArray()";
+                    case "double", "java.lang.Double" -> "java.math.BigDecimal.valueOf(" + value + ").setScale("
+                            + scale(schema) + ").unscaledValue().toByteArray()";
+                    default -> value;
+                } + ");";
+                case FIXED -> "out.writeFixed(" + fixed(schema, java, value) + ");";
+                case ENUM -> "out.writeEnum(" + enumIndex(schema, classes.enumClass(type)) + "(" + value + "));";
+                case RECORD -> codecOf(schema, type) + ".write(" + value + ", out);";
+                case ARRAY -> writeArray(schema, type, name) + "(" + value + ", out);";
+                case MAP -> writeMap(schema, type, name) + "(" + value + ", out);";
+                default -> throw new Unsupported();
+            };
+            if (statement != null) {
+                out.append(indent).append(statement).append('\n');
+            }
+        }
+
+        private String fixed(Schema schema, String java, String value) {
+            int size = schema.getFixedSize();
+            if (java.equals("double") || java.equals("java.lang.Double")) {
+                return fixed(schema, "java.math.BigDecimal", "java.math.BigDecimal.valueOf(" + value + ")");
+            }
+            if (java.equals("java.math.BigDecimal")) {
+                return helper("fixedDecimal", method -> """
+                            private static byte[] %s(java.math.BigDecimal value, int scale, int size) {
+                                byte[] unscaled = value.setScale(scale).unscaledValue().toByteArray();
+                                if (unscaled.length > size) {
+                                    throw new IllegalArgumentException("Decimal " + value + " does not fit in " + size + " bytes");
+                                }
+                                byte[] bytes = new byte[size];
+                                java.util.Arrays.fill(bytes, 0, size - unscaled.length, (byte) (unscaled[0] < 0 ? -1 : 0));
+                                System.arraycopy(unscaled, 0, bytes, size - unscaled.length, unscaled.length);
+                                return bytes;
+                            }
+                        """.formatted(method)) + "(" + value + ", " + scale(schema) + ", " + size + ")";
+            }
+            String bytes = java.equals("java.lang.String") ? "java.util.Base64.getDecoder().decode(" + value + ")" : value;
+            return helper("fixed", method -> """
+                        private static byte[] %s(byte[] bytes, int size) {
+                            if (bytes.length != size) {
+                                throw new IllegalArgumentException("Expected " + size + " bytes but got " + bytes.length);
+                            }
+                            return bytes;
+                        }
+                    """.formatted(method)) + "(" + bytes + ", " + size + ")";
+        }
+
+        private String writeArray(Schema schema, JType type, String name) {
+            JType element = elementType(type);
+            StringBuilder item = new StringBuilder();
+            write(item, schema.getElementType(), element, "item", "            ", name + "Item");
+            return helper("write" + name, method -> """
+                        private static void %s(%s values, Encoder out) throws IOException {
+                            out.writeArrayStart();
+                            out.setItemCount(values.size());
+                            for (%s item : values) {
+                                out.startItem();
+                    %s        }
+                            out.writeArrayEnd();
+                        }
+                    """.formatted(method, typeName(type), typeName(element), item));
+        }
+
+        private String writeMap(Schema schema, JType type, String name) {
+            JType valueType = classes.mapValueType(type);
+            StringBuilder entry = new StringBuilder();
+            write(entry, schema.getValueType(), valueType, "entry.getValue()", "            ", name + "Value");
+            return helper("write" + name, method -> """
+                        private static void %s(%s values, Encoder out) throws IOException {
+                            out.writeMapStart();
+                            out.setItemCount(values.getAdditionalProperties().size());
+                            for (java.util.Map.Entry<String, %s> entry : values.getAdditionalProperties().entrySet()) {
+                                out.startItem();
+                                out.writeString(entry.getKey());
+                    %s        }
+                            out.writeMapEnd();
+                        }
+                    """.formatted(method, typeName(type), typeName(valueType), entry));
+        }
+
+        private String enumConstants(Schema schema, JDefinedClass enumClass) {
+            String typeName = typeName(enumClass);
+            JMethod creator = classes.enumCreator(enumClass);
+            return constant(JavaSources.constantName(typeName.replace(".", "")), constant -> {
+                StringBuilder out = new StringBuilder("    private static final ").append(typeName).append("[] ")
+                        .append(constant).append(" = {");
+                for (int i = 0; i < schema.getEnumSymbols().size(); i++) {
+                    out.append(i == 0 ? "\n" : ",\n").append("            ").append(typeName).append('.')
+                            .append(creator.name()).append('(')
+                            .append(JavaSources.literal(schema.getEnumSymbols().get(i))).append(')');
+                }
+                return out.append("\n    };\n").toString();
+            });
+        }
+
+        private String enumIndex(Schema schema, JDefinedClass enumClass) {
+            String typeName = typeName(enumClass);
+            StringBuilder cases = new StringBuilder();
+            for (int i = 0; i < schema.getEnumSymbols().size(); i++) {
+                cases.append("            case ").append(JavaSources.literal(schema.getEnumSymbols().get(i)))
+                        .append(" -> ").append(i).append(";\n");
+            }
+            return helper(Character.toLowerCase(typeName.charAt(0)) + typeName.substring(1).replace(".", "") + "Index",
+                    method -> """
+                                private static int %s(%s value) {
+                                    return switch (value.value()) {
+                            %s            default -> throw new IllegalArgumentException("Not a symbol of %s: " + value.value());
+                                    };
+                                }
+                            """.formatted(method, typeName, cases, schema.getFullName()));
+        }
+
+        private String codecOf(Schema schema, JType type) {
+            if (type instanceof JDefinedClass nested && matched.containsKey(nested)
+                    && matched.get(nested).getFullName().equals(schema.getFullName())) {
+                return JavaSources.simplify(nested.fullName() + CODEC_SUFFIX, pkg);
+            }
+            throw new Unsupported(javaName(type) + " has no codec");
+        }
+
+        private String constant(String name, Function<String, String> declaration) {
+            return member(constants, name, declaration);
+        }
+
+        private String helper(String name, Function<String, String> declaration) {
+            return member(methods, name, declaration);
+        }
+
+        private String typeName(JType type) {
+            return AvroClasses.typeName(type, pkg);
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.util.Utf8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Converts Avro data to JSON documents that match the JSON Schema
+ * {@link AvroToJsonSchemaConverter} produces for the data's schema, decoding Avro binary
+ * straight into a {@link JsonGenerator} without building {@code GenericRecord}s.
+ *
+ * <p>Values follow the converter's mapping: union values are written as the branch value
+ * itself rather than Avro's {@code {"type": value}} wrapper, {@code bytes} and {@code fixed}
+ * as base64 strings, {@code decimal} as a plain number, {@code date} and {@code time-*} as
+ * ISO-8601 strings, {@code uuid} as its text, {@code duration} as an ISO-8601 period and
+ * timestamps as the stored integer. Where nullable unions are flattened, a record field
+ * holding {@code null} is left out, as the converted schema does not accept {@code null} there;
+ * a {@code null} array item or map value has no such way out and fails with an
+ * {@link AvroTypeException}.
+ *
+ * <p>The schema is compiled into a writer per type when the data's schema is known, with
+ * property names and enum symbols encoded once; memory use does not grow with the data.
+ */
+public final class AvroDataConverter {
+
+    private static final JsonFactory factory = new JsonFactory();
+
+    private final ConverterOptions options;
+
+    public AvroDataConverter() {
+        this(ConverterOptions.pojoOptimized());
+    }
+
+    public AvroDataConverter(ConverterOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Writes every record of an Avro container file to {@code out} as UTF-8 newline-delimited
+     * JSON, one document per line, and returns the number of records. Closes
+     * {@code avroContainer} but not {@code out}.
+     */
+    public long convert(InputStream avroContainer, OutputStream out) throws IOException {
+        try (JsonGenerator generator = factory.createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            long count = convert(avroContainer, generator);
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Writes every record of an Avro container file to {@code out} as a root-level value,
+     * separated by the generator's root value separator, and returns the number of records.
+     * Closes {@code avroContainer} but not {@code out}.
+     */
+    public long convert(InputStream avroContainer, JsonGenerator out) throws IOException {
+        long count = 0;
+        try (DataFileStream<Void> records = new DataFileStream<>(avroContainer, datumReader(out))) {
+            while (records.hasNext()) {
+                records.next(null);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A reader that writes each datum it decodes to {@code out} as a JSON value instead of
+     * returning it; use it with {@link DataFileStream} or any decoder of data written with the
+     * schema passed to {@link DatumReader#setSchema(Schema)}. It reuses buffers between datums,
+     * so it must not be shared by threads.
+     */
+    public DatumReader<Void> datumReader(JsonGenerator out) {
+        return new JsonDatumReader(options, out);
+    }
+
+    private static final class JsonDatumReader implements DatumReader<Void> {
+        private final ConverterOptions options;
+        private final JsonGenerator out;
+        private Node root;
+
+        private JsonDatumReader(ConverterOptions options, JsonGenerator out) {
+            this.options = options;
+            this.out = out;
+        }
+
+        @Override
+        public void setSchema(Schema schema) {
+            root = new Compiler(options).compile(schema);
+        }
+
+        @Override
+        public Void read(Void reuse, Decoder in) throws IOException {
+            if (root == null) {
+                throw new IllegalStateException("No schema set");
+            }
+            root.write(in, out);
+            return null;
+        }
+    }
+
+    private interface Node {
+        void write(Decoder in, JsonGenerator out) throws IOException;
+    }
+
+    /**
+     * A record's field. For a flattened {@code ["null", X]}, {@code nullIndex} is the index of
+     * {@code null}, which leaves the field out, and {@code node} writes X; otherwise it is -1.
+     */
+    private record Field(SerializableString name, Node node, int nullIndex) {
+    }
+
+    /**
+     * Built empty and completed once its fields are compiled, so recursive records can refer
+     * to it.
+     */
+    private static final class RecordNode implements Node {
+        private Field[] fields;
+
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            out.writeStartObject();
+            for (Field field : fields) {
+                // The branch is read first to know whether to write the name at all
+                if (field.nullIndex() >= 0 && in.readIndex() == field.nullIndex()) {
+                    continue;
+                }
+                out.writeFieldName(field.name());
+                field.node().write(in, out);
+            }
+            out.writeEndObject();
+        }
+    }
+
+    private record UnionNode(Node[] branches) implements Node {
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            branches[in.readIndex()].write(in, out);
+        }
+    }
+
+    /**
+     * A flattened {@code ["null", X]} outside a record field, such as an array item or a map
+     * value. The converted schema only accepts X there, so {@code null} cannot be written.
+     */
+    private record NonNullNode(int nullIndex, Node node, Schema union) implements Node {
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            if (in.readIndex() == nullIndex) {
+                throw new AvroTypeException("Null for " + union + ", which the converted schema flattens to "
+                        + union.getTypes().get(1 - nullIndex) + "; convert with strict options to keep nulls");
+            }
+            node.write(in, out);
+        }
+    }
+
+    private record ArrayNode(Node items) implements Node {
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            out.writeStartArray();
+            for (long n = in.readArrayStart(); n != 0; n = in.arrayNext()) {
+                for (long i = 0; i < n; i++) {
+                    items.write(in, out);
+                }
+            }
+            out.writeEndArray();
+        }
+    }
+
+    private static final class MapNode implements Node {
+        private final Node values;
+        private Utf8 key;
+
+        private MapNode(Node values) {
+            this.values = values;
+        }
+
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            out.writeStartObject();
+            for (long n = in.readMapStart(); n != 0; n = in.mapNext()) {
+                for (long i = 0; i < n; i++) {
+                    key = in.readString(key);
+                    out.writeFieldName(key.toString());
+                    values.write(in, out);
+                }
+            }
+            out.writeEndObject();
+        }
+    }
+
+    private record EnumNode(SerializableString[] symbols) implements Node {
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            out.writeString(symbols[in.readEnum()]);
+        }
+    }
+
+    private static final class StringNode implements Node {
+        private Utf8 value;
+
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            value = in.readString(value);
+            out.writeUTF8String(value.getBytes(), 0, value.getByteLength());
+        }
+    }
+
+    /**
+     * The bytes of a {@code bytes} or {@code fixed} value, read into a reused buffer.
+     */
+    private static final class Bytes {
+        private final int fixedSize;
+        private ByteBuffer buffer;
+        private byte[] fixed;
+
+        private Bytes(int fixedSize) {
+            this.fixedSize = fixedSize;
+        }
+
+        /**
+         * Reads the next value; it is the buffer's content from its array offset up to its limit.
+         */
+        ByteBuffer read(Decoder in) throws IOException {
+            if (fixedSize < 0) {
+                buffer = in.readBytes(buffer);
+                return buffer;
+            }
+            if (fixed == null) {
+                fixed = new byte[fixedSize];
+            }
+            in.readFixed(fixed);
+            return ByteBuffer.wrap(fixed);
+        }
+    }
+
+    private record Base64Node(Bytes bytes) implements Node {
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            ByteBuffer value = bytes.read(in);
+            out.writeBinary(value.array(), value.arrayOffset() + value.position(), value.remaining());
+        }
+    }
+
+    private record DecimalNode(Bytes bytes, int scale) implements Node {
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            ByteBuffer value = bytes.read(in);
+            BigInteger unscaled = new BigInteger(value.array(), value.arrayOffset() + value.position(), value.remaining());
+            out.writeNumber(new BigDecimal(unscaled, scale).toPlainString());
+        }
+    }
+
+    private record UuidNode(Bytes bytes) implements Node {
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            ByteBuffer value = bytes.read(in);
+            out.writeString(new UUID(value.getLong(), value.getLong()).toString());
+        }
+    }
+
+    /**
+     * Months, days and milliseconds as little-endian unsigned integers, written as an
+     * ISO-8601 period such as {@code P1M2DT3.5S}.
+     */
+    private record DurationNode(Bytes bytes) implements Node {
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            ByteBuffer value = bytes.read(in).order(ByteOrder.LITTLE_ENDIAN);
+            long months = Integer.toUnsignedLong(value.getInt());
+            long days = Integer.toUnsignedLong(value.getInt());
+            long millis = Integer.toUnsignedLong(value.getInt());
+            out.writeString("P" + months + "M" + days + "D" + Duration.ofMillis(millis).toString().substring(1));
+        }
+    }
+
+    private enum Scalar implements Node {
+        INT, LONG, FLOAT, DOUBLE, BOOLEAN, NULL, DATE, TIME_MILLIS, TIME_MICROS;
+
+        @Override
+        public void write(Decoder in, JsonGenerator out) throws IOException {
+            switch (this) {
+                case INT -> out.writeNumber(in.readInt());
+                case LONG -> out.writeNumber(in.readLong());
+                case FLOAT -> out.writeNumber(in.readFloat());
+                case DOUBLE -> out.writeNumber(in.readDouble());
+                case BOOLEAN -> out.writeBoolean(in.readBoolean());
+                case NULL -> {
+                    in.readNull();
+                    out.writeNull();
+                }
+                case DATE -> out.writeString(LocalDate.ofEpochDay(in.readInt()).toString());
+                case TIME_MILLIS -> out.writeString(
+                        DateTimeFormatter.ISO_LOCAL_TIME.format(LocalTime.ofNanoOfDay(in.readInt() * 1_000_000L)));
+                case TIME_MICROS -> out.writeString(
+                        DateTimeFormatter.ISO_LOCAL_TIME.format(LocalTime.ofNanoOfDay(in.readLong() * 1_000L)));
+            }
+        }
+    }
+
+    /**
+     * Follows {@link AvroToJsonSchemaConverter}'s mapping, type by type.
+     */
+    private static final class Compiler {
+        private final ConverterOptions options;
+        private final Map<String, RecordNode> records = new HashMap<>();
+
+        private Compiler(ConverterOptions options) {
+            this.options = options;
+        }
+
+        Node compile(Schema schema) {
+            Node logical = logicalType(schema);
+            if (logical != null) {
+                return logical;
+            }
+            return switch (schema.getType()) {
+                case RECORD -> record(schema);
+                case ARRAY -> new ArrayNode(compile(schema.getElementType()));
+                case MAP -> new MapNode(compile(schema.getValueType()));
+                case ENUM -> new EnumNode(schema.getEnumSymbols().stream()
+                        .map(SerializedString::new).toArray(SerializableString[]::new));
+                case UNION -> {
+                    int nullIndex = flattenedNullIndex(schema);
+                    yield nullIndex >= 0 ? new NonNullNode(nullIndex, compile(schema.getTypes().get(1 - nullIndex)), schema)
+                            : new UnionNode(branches(schema));
+                }
+                case STRING -> new StringNode();
+                case BYTES -> new Base64Node(new Bytes(-1));
+                case FIXED -> new Base64Node(new Bytes(schema.getFixedSize()));
+                case INT -> Scalar.INT;
+                case LONG -> Scalar.LONG;
+                case FLOAT -> Scalar.FLOAT;
+                case DOUBLE -> Scalar.DOUBLE;
+                case BOOLEAN -> Scalar.BOOLEAN;
+                case NULL -> Scalar.NULL;
+            };
+        }
+
+        private RecordNode record(Schema schema) {
+            RecordNode existing = records.get(schema.getFullName());
+            if (existing != null) {
+                return existing;
+            }
+            RecordNode record = new RecordNode();
+            records.put(schema.getFullName(), record);
+            List<Field> fields = new ArrayList<>();
+            for (Schema.Field field : schema.getFields()) {
+                SerializableString name = new SerializedString(field.name());
+                int nullIndex = flattenedNullIndex(field.schema());
+                Node node = nullIndex >= 0 ? compile(field.schema().getTypes().get(1 - nullIndex))
+                        : compile(field.schema());
+                fields.add(new Field(name, node, nullIndex));
+            }
+            record.fields = fields.toArray(Field[]::new);
+            return record;
+        }
+
+        private Node[] branches(Schema union) {
+            return union.getTypes().stream().map(this::compile).toArray(Node[]::new);
+        }
+
+        /**
+         * The index of {@code null} in a {@code ["null", X]} union the converter flattens to X,
+         * or -1.
+         */
+        private int flattenedNullIndex(Schema schema) {
+            if (!options.flattenNullableUnions() || schema.getType() != Schema.Type.UNION
+                    || schema.getTypes().size() != 2) {
+                return -1;
+            }
+            List<Schema> types = schema.getTypes();
+            if (types.get(0).getType() == Schema.Type.NULL && types.get(1).getType() != Schema.Type.NULL) {
+                return 0;
+            }
+            if (types.get(1).getType() == Schema.Type.NULL && types.get(0).getType() != Schema.Type.NULL) {
+                return 1;
+            }
+            return -1;
+        }
+
+        private static Node logicalType(Schema schema) {
+            LogicalType logicalType = schema.getLogicalType();
+            String name = logicalType != null ? logicalType.getName() : schema.getProp("logicalType");
+            if (name == null) {
+                return null;
+            }
+            Schema.Type type = schema.getType();
+            boolean binary = type == Schema.Type.BYTES || type == Schema.Type.FIXED;
+            Bytes bytes = binary ? new Bytes(type == Schema.Type.FIXED ? schema.getFixedSize() : -1) : null;
+            return switch (name) {
+                case "decimal" -> binary && logicalType instanceof LogicalTypes.Decimal decimal
+                        ? new DecimalNode(bytes, decimal.getScale()) : null;
+                case "date" -> type == Schema.Type.INT ? Scalar.DATE : null;
+                case "time-millis" -> type == Schema.Type.INT ? Scalar.TIME_MILLIS : null;
+                case "time-micros" -> type == Schema.Type.LONG ? Scalar.TIME_MICROS : null;
+                case "uuid" -> type == Schema.Type.FIXED && schema.getFixedSize() == 16 ? new UuidNode(bytes) : null;
+                case "duration" -> type == Schema.Type.FIXED && schema.getFixedSize() == 12 ? new DurationNode(bytes) : null;
+                // Timestamps are written as stored; string uuids need no conversion
+                default -> null;
+            };
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.apache.avro.Schema;
+import org.jsonschema2pojo.GenerationConfig;
+import org.jsonschema2pojo.NoopRuleLogger;
+import org.jsonschema2pojo.RuleLogger;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Generates Java sources straight from Avro schemas.
+ *
+ * <p>The Avro schema is converted to a JSON Schema tree in memory and handed to
+ * jsonschema2pojo's rules, which build the classes in codemodel. No JSON Schema text is
+ * printed, written or parsed again, and {@code $ref}s resolve against the tree. Because the
+ * same rules run on the same tree, the classes are identical to those produced by
+ * {@link InMemoryPojoGenerator} from the converted schema text.
+ *
+ * <p>The {@link GenerationConfig} is used as by {@link InMemoryPojoGenerator}, except that its
+ * source type is ignored. Instances hold no state between calls and may be shared between
+ * threads if the converter may.
+ *
+ * <p>With {@link #withAvroCodecs()}, an Avro binary codec is generated next to every record
+ * class; see {@link AvroCodecGenerator}. With {@link #withSpecificMappers()}, a mapper to and
+ * from the record's {@code SpecificRecord} class is; see {@link SpecificMapperGenerator}. A
+ * class that gets no codec or mapper is logged as a warning with the reason.
+ */
+public class AvroPojoGenerator {
+
+    /**
+     * One Avro schema to generate.
+     *
+     * @param fileName    file name the root class is named after, as jsonschema2pojo would for
+     *                    a schema file (e.g. {@code User.json} produces {@code User})
+     * @param packageName package of the generated classes
+     * @param avroSchema  schema to generate
+     */
+    public record Source(String fileName, String packageName, Schema avroSchema) {
+    }
+
+    private final AvroToJsonSchemaConverter converter;
+    private final InMemoryPojoGenerator generator;
+    private final boolean avroCodecs;
+    private final boolean specificMappers;
+
+    public AvroPojoGenerator(AvroToJsonSchemaConverter converter, GenerationConfig config) {
+        this(converter, config, new NoopRuleLogger());
+    }
+
+    public AvroPojoGenerator(AvroToJsonSchemaConverter converter, GenerationConfig config, RuleLogger logger) {
+        this(converter, new InMemoryPojoGenerator(config, logger), false, false);
+    }
+
+    private AvroPojoGenerator(AvroToJsonSchemaConverter converter, InMemoryPojoGenerator generator,
+                              boolean avroCodecs, boolean specificMappers) {
+        this.converter = converter;
+        this.generator = generator;
+        this.avroCodecs = avroCodecs;
+        this.specificMappers = specificMappers;
+    }
+
+    /**
+     * Returns a generator that also generates Jackson codecs; see
+     * {@link InMemoryPojoGenerator#withJacksonCodecs()}.
+     */
+    public AvroPojoGenerator withJacksonCodecs() {
+        return new AvroPojoGenerator(converter, generator.withJacksonCodecs(), avroCodecs, specificMappers);
+    }
+
+    /**
+     * Returns a generator that also generates, for every class generated from an Avro record, a
+     * codec reading and writing the class as Avro binary without a {@code GenericRecord}.
+     */
+    public AvroPojoGenerator withAvroCodecs() {
+        return new AvroPojoGenerator(converter, generator, true, specificMappers);
+    }
+
+    /**
+     * Returns a generator that also generates, for every class generated from an Avro record, a
+     * mapper copying the class to and from the {@code SpecificRecord} class Avro's compiler
+     * generates for the record.
+     */
+    public AvroPojoGenerator withSpecificMappers() {
+        return new AvroPojoGenerator(converter, generator, avroCodecs, true);
+    }
+
+    public Map<String, byte[]> generate(String fileName, String packageName, Schema avroSchema) throws IOException {
+        return generate(List.of(new Source(fileName, packageName, avroSchema)));
+    }
+
+    /**
+     * Generates all sources into one code model; see {@link InMemoryPojoGenerator#generate(List)}.
+     */
+    public Map<String, byte[]> generate(List<Source> sources) throws IOException {
+        List<InMemoryPojoGenerator.Tree> trees = new ArrayList<>(sources.size());
+        for (Source source : sources) {
+            trees.add(new InMemoryPojoGenerator.Tree(source.fileName(), source.packageName(),
+                    asParsed(converter.convertToNode(source.avroSchema()))));
+        }
+        AvroClasses avroClasses = avroCodecs || specificMappers ? new AvroClasses(generator.config(),
+                sources.stream().map(Source::avroSchema).toList()) : null;
+        Map<String, byte[]> files = new TreeMap<>(generator.generateTrees(trees, avroClasses));
+        if (avroCodecs) {
+            AvroClasses.Generated codecs = new AvroCodecGenerator(avroClasses).generate();
+            files.putAll(codecs.files());
+            codecs.skipped().forEach((clazz, reason) -> generator.logger().warn("No Avro codec for " + clazz + ": " + reason));
+        }
+        if (specificMappers) {
+            AvroClasses.Generated mappers = new SpecificMapperGenerator(avroClasses).generate();
+            files.putAll(mappers.files());
+            mappers.skipped().forEach((clazz, reason) -> generator.logger().warn("No specific mapper for " + clazz + ": " + reason));
+        }
+        return files;
+    }
+
+    /**
+     * Replaces values whose node type depends on how the tree was built with the nodes
+     * jsonschema2pojo gets when it parses schema text: numbers as the smallest integer type or a
+     * decimal, and binary values as their base64 text.
+     */
+    private static JsonNode asParsed(JsonNode node) {
+        if (node.isObject()) {
+            ObjectNode object = (ObjectNode) node;
+            object.properties().forEach(field -> field.setValue(asParsed(field.getValue())));
+        } else if (node.isArray()) {
+            ArrayNode array = (ArrayNode) node;
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, asParsed(array.get(i)));
+            }
+        } else if (node.isFloatingPointNumber()) {
+            return DecimalNode.valueOf(new BigDecimal(node.asText()));
+        } else if (node.isIntegralNumber() && !node.isInt()) {
+            if (node.canConvertToInt()) {
+                return IntNode.valueOf(node.intValue());
+            }
+            if (node.canConvertToLong() && !node.isLong()) {
+                return LongNode.valueOf(node.longValue());
+            }
+        } else if (node.isBinary()) {
+            return TextNode.valueOf(node.asText());
+        }
+        return node;
+    }
+}
@@ -7,6 +7,8 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.avro.LogicalType;
 import org.apache.avro.Schema;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 public class AvroToJsonSchemaConverter {
@@ -15,17 +17,46 @@ public class AvroToJsonSchemaConverter {
     private static final Set<String> AVRO_INTERNAL_PROPS = Set.of("logicalType", "precision", "scale", "connect.parameters");
 
     private final ConverterOptions options;
+    private final ConversionCache cache;
 
     public AvroToJsonSchemaConverter() {
         this(ConverterOptions.pojoOptimized());
     }
 
     public AvroToJsonSchemaConverter(ConverterOptions options) {
+        this(options, null);
+    }
+
+    /**
+     * Creates a converter that parses schemas and converts records through {@code cache}, so
+     * schemas and records shared with other converters using the same cache are handled once.
+     */
+    public AvroToJsonSchemaConverter(ConverterOptions options, ConversionCache cache) {
         this.options = options;
+        this.cache = cache;
     }
 
     public String convert(String avroSchemaJson) {
-        Schema schema = new Schema.Parser().parse(avroSchemaJson);
+        return convert(cache != null ? cache.parse(avroSchemaJson) : new Schema.Parser().parse(avroSchemaJson));
+    }
+
+    /**
+     * Parses the Avro schema straight from a stream, without first buffering it as a String.
+     * The stream is not closed.
+     */
+    public String convert(InputStream avroSchemaJson) throws IOException {
+        return convert(new Schema.Parser().parse(avroSchemaJson));
+    }
+
+    public String convert(Schema schema) {
+        return convertToNode(schema).toPrettyString();
+    }
+
+    /**
+     * Converts to a JSON Schema tree instead of text; {@link #convert(Schema)} is this tree
+     * printed. Each call returns a new tree that the caller may modify.
+     */
+    public ObjectNode convertToNode(Schema schema) {
         ObjectNode jsonSchema = mapper.createObjectNode();
         jsonSchema.put("$schema", options.draft().schemaUrl());
 
@@ -39,6 +70,47 @@ public class AvroToJsonSchemaConverter {
         }
 
         jsonSchema.setAll(root);
+        return jsonSchema;
+    }
+
+    /**
+     * Converts several schemas into one document. Every record is defined once under the
+     * draft's definitions keyword and referenced wherever it is used, instead of being inlined
+     * into each schema that includes it.
+     *
+     * <p>Each input also gets a definition named after it: its root record's definition when the
+     * name equals the record's full name, otherwise an entry holding the root type or a
+     * {@code $ref} to it. Input names may contain {@code /}, which JSON Pointers into the
+     * document escape as {@code ~1}.
+     *
+     * @param schemas input name (for example a file path without extension) to schema
+     * @throws IllegalArgumentException if two inputs define a record differently, or an input
+     *                                  name is also the full name of another record
+     */
+    public String bundle(Map<String, Schema> schemas) {
+        Map<String, JsonNode> definitions = new TreeMap<>();
+        Map<String, String> definedBy = new HashMap<>();
+        for (Map.Entry<String, Schema> input : schemas.entrySet()) {
+            ConversionContext context = new ConversionContext(new HashMap<>(), new HashSet<>(), new HashSet<>(), true);
+            ObjectNode root = convert(input.getValue(), context);
+            Map<String, JsonNode> inputDefinitions = new TreeMap<>(context.definitions());
+            if (input.getValue().getType() != Schema.Type.RECORD
+                    || !input.getKey().equals(input.getValue().getFullName())) {
+                inputDefinitions.put(input.getKey(), root);
+            }
+            for (Map.Entry<String, JsonNode> definition : inputDefinitions.entrySet()) {
+                JsonNode existing = definitions.putIfAbsent(definition.getKey(), definition.getValue());
+                definedBy.putIfAbsent(definition.getKey(), input.getKey());
+                if (existing != null && !existing.equals(definition.getValue())) {
+                    throw new IllegalArgumentException(definition.getKey() + " is defined differently by "
+                            + definedBy.get(definition.getKey()) + " and " + input.getKey());
+                }
+            }
+        }
+
+        ObjectNode jsonSchema = mapper.createObjectNode();
+        jsonSchema.put("$schema", options.draft().schemaUrl());
+        jsonSchema.putObject(options.draft().definitionsKeyword()).setAll(definitions);
         return jsonSchema.toPrettyString();
     }
 
@@ -46,14 +118,74 @@ public class AvroToJsonSchemaConverter {
         // Handle Recursive Records
         if (schema.getType() == Schema.Type.RECORD) {
             String name = schema.getFullName();
+            if (context.bundle()) {
+                return convertBundledRecord(schema, context);
+            }
             if (context.seenRecords().contains(name)) {
                 ObjectNode refNode = mapper.createObjectNode();
                 refNode.put("$ref", options.draft().refPrefix() + name);
                 return refNode;
             }
+            if (cache != null) {
+                return convertNamedType(schema, context);
+            }
+            context.seenRecords().add(name);
+        }
+        return convertNode(schema, context);
+    }
+
+    /**
+     * Converts a record through the cache. A record is converted on its own, as if it were
+     * the first record of a schema, and the result is reused wherever none of the records it
+     * contains has been seen yet; there it is exactly what a direct conversion would produce.
+     */
+    private ObjectNode convertNamedType(Schema schema, ConversionContext context) {
+        String name = schema.getFullName();
+        if (context.isolated().contains(name)) {
+            // Already being converted on its own further up; its nested records depend on this context
+            context.seenRecords().add(name);
+            return convertNode(schema, context);
+        }
+        String definition = schema.toString();
+        ConversionCache.NamedType namedType = cache.namedType(options, definition);
+        if (namedType == null) {
+            // Keeps definitions in the order they were added, so replaying them matches a direct conversion
+            ConversionContext isolated = new ConversionContext(new LinkedHashMap<>(), new HashSet<>(), context.isolated());
+            isolated.seenRecords().add(name);
+            context.isolated().add(name);
+            try {
+                ObjectNode node = convertNode(schema, isolated);
+                namedType = new ConversionCache.NamedType(node, isolated.definitions(), isolated.seenRecords());
+            } finally {
+                context.isolated().remove(name);
+            }
+            cache.putNamedType(options, definition, namedType);
+        }
+        if (!Collections.disjoint(namedType.records(), context.seenRecords())) {
+            // Refers back to a record being converted, which the cached result inlines instead
             context.seenRecords().add(name);
+            return convertNode(schema, context);
         }
+        context.seenRecords().addAll(namedType.records());
+        namedType.definitions().forEach((record, node) -> context.definitions().put(record, node.deepCopy()));
+        return namedType.node().deepCopy();
+    }
 
+    /**
+     * Defines a record on first use and refers to it everywhere, including the first use.
+     */
+    private ObjectNode convertBundledRecord(Schema schema, ConversionContext context) {
+        String name = schema.getFullName();
+        if (context.seenRecords().add(name)) {
+            // Replaces the copy stored while converting, which lacks the description and custom properties
+            context.definitions().put(name, convertNode(schema, context));
+        }
+        ObjectNode refNode = mapper.createObjectNode();
+        refNode.put("$ref", options.draft().refPrefix() + name);
+        return refNode;
+    }
+
+    private ObjectNode convertNode(Schema schema, ConversionContext context) {
         ObjectNode node = mapper.createObjectNode();
 
         // 1. Handle Logical Types
@@ -70,6 +202,10 @@ public class AvroToJsonSchemaConverter {
                     properties.set(field.name(), convert(field.schema(), context));
                     if (!isNullable(field.schema())) {
                         required.add(field.name());
+                        String primitive = primitiveJavaType(field);
+                        if (primitive != null) {
+                            ((ObjectNode) properties.get(field.name())).put("existingJavaType", primitive);
+                        }
                     }
                     if (field.hasDefaultValue()) {
                         Object defaultValue = field.defaultVal();
@@ -120,6 +256,15 @@ public class AvroToJsonSchemaConverter {
                 if (!node.has("type")) {
                     node.put("type", "string");
                     node.put("contentEncoding", "base64");
+                    if (options.byteArrays()) {
+                        // jsonschema2pojo generates byte[] for binary media, which Jackson reads and writes as base64
+                        node.putObject("media").put("binaryEncoding", "base64");
+                        if (schema.getType() == Schema.Type.FIXED) {
+                            int length = (schema.getFixedSize() + 2) / 3 * 4;
+                            node.put("minLength", length);
+                            node.put("maxLength", length);
+                        }
+                    }
                 }
             }
         }
@@ -132,7 +277,8 @@ public class AvroToJsonSchemaConverter {
         // 4. Custom Properties (filter out Avro-internal props already handled above)
         for (Map.Entry<String, Object> entry : schema.getObjectProps().entrySet()) {
             if (!AVRO_INTERNAL_PROPS.contains(entry.getKey())) {
-                node.putPOJO(entry.getKey(), entry.getValue());
+                // A tree rather than a POJO node, so consumers of convertToNode can navigate it
+                node.set(entry.getKey(), mapper.valueToTree(entry.getValue()));
             }
         }
 
@@ -212,9 +358,12 @@ public class AvroToJsonSchemaConverter {
             if (hasNull && nonNullTypes.size() == 1) {
                 Schema inner = nonNullTypes.get(0);
                 if (isSimpleType(inner)) {
+                    // A logical type's JSON type and format, as for the type on its own
+                    String typeName = handleLogicalType(node, inner) ? node.get("type").asText()
+                            : mapSimpleTypeName(inner);
                     ArrayNode typeArray = mapper.createArrayNode();
                     typeArray.add("null");
-                    typeArray.add(mapSimpleTypeName(inner));
+                    typeArray.add(typeName);
                     node.set("type", typeArray);
                     return;
                 }
@@ -252,6 +401,27 @@ public class AvroToJsonSchemaConverter {
         };
     }
 
+    /**
+     * The primitive Java type of a required scalar field, so generated classes do not box it.
+     * Fields with a default keep the boxed type: they may be absent, and records and codecs
+     * bind through constructor arguments that can only tell an absent value from zero when
+     * it is boxed.
+     */
+    private String primitiveJavaType(Schema.Field field) {
+        Schema schema = field.schema();
+        if (!options.javaTypeHints() || field.hasDefaultValue() || schema.getProp("logicalType") != null) {
+            return null;
+        }
+        return switch (schema.getType()) {
+            case INT -> "int";
+            case LONG -> "long";
+            case FLOAT -> "float";
+            case DOUBLE -> "double";
+            case BOOLEAN -> "boolean";
+            default -> null;
+        };
+    }
+
     private boolean isNullable(Schema schema) {
         if (schema.getType() == Schema.Type.UNION) {
             return schema.getTypes().stream().anyMatch(s -> s.getType() == Schema.Type.NULL);
@@ -259,10 +429,17 @@ public class AvroToJsonSchemaConverter {
         return schema.getType() == Schema.Type.NULL;
     }
 
-    // Context record to hold state during a single conversion
-    private record ConversionContext(Map<String, JsonNode> definitions, Set<String> seenRecords) {
+    // Context record to hold state during a single conversion; isolated holds the records being
+    // converted on their own for the cache, shared by the nested contexts of one conversion, and
+    // bundle makes every record a reference to its definition
+    private record ConversionContext(Map<String, JsonNode> definitions, Set<String> seenRecords, Set<String> isolated,
+                                     boolean bundle) {
         ConversionContext() {
-            this(new HashMap<>(), new HashSet<>());
+            this(new HashMap<>(), new HashSet<>(), new HashSet<>(), false);
+        }
+
+        ConversionContext(Map<String, JsonNode> definitions, Set<String> seenRecords, Set<String> isolated) {
+            this(definitions, seenRecords, isolated, false);
         }
     }
 }
@@ -0,0 +1,73 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.avro.Schema;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parsed schemas and converted named types shared by any number of converters.
+ *
+ * <p>A converter created with a cache parses each distinct schema text once and converts each
+ * distinct record once per {@link ConverterOptions}, however many schemas include it. Records
+ * are keyed by their full Avro definition, so two records with the same name but different
+ * fields, docs or properties are converted separately. The output is identical to converting
+ * without a cache.
+ *
+ * <p>Instances are thread-safe and are meant to live as long as the schemas they hold stay
+ * relevant, such as one build.
+ */
+public final class ConversionCache {
+
+    /**
+     * A converted record together with the definitions and record names its conversion added.
+     * Held read-only; converters copy it before use.
+     */
+    record NamedType(ObjectNode node, Map<String, JsonNode> definitions, Set<String> records) {
+    }
+
+    private record NamedTypeKey(ConverterOptions options, String schema) {
+    }
+
+    private final Map<String, Schema> parsedSchemas = new ConcurrentHashMap<>();
+    private final Map<NamedTypeKey, NamedType> namedTypes = new ConcurrentHashMap<>();
+    private final AtomicInteger namedTypeHits = new AtomicInteger();
+
+    /**
+     * Parses an Avro schema, returning the instance parsed earlier for the same text.
+     */
+    public Schema parse(String avroSchemaJson) {
+        return parsedSchemas.computeIfAbsent(avroSchemaJson, json -> new Schema.Parser().parse(json));
+    }
+
+    NamedType namedType(ConverterOptions options, String schema) {
+        NamedType namedType = namedTypes.get(new NamedTypeKey(options, schema));
+        if (namedType != null) {
+            namedTypeHits.incrementAndGet();
+        }
+        return namedType;
+    }
+
+    void putNamedType(ConverterOptions options, String schema, NamedType namedType) {
+        namedTypes.putIfAbsent(new NamedTypeKey(options, schema), namedType);
+    }
+
+    public int parsedSchemas() {
+        return parsedSchemas.size();
+    }
+
+    public int namedTypes() {
+        return namedTypes.size();
+    }
+
+    /**
+     * Number of times a record was taken from the cache instead of being converted.
+     */
+    public int namedTypeHits() {
+        return namedTypeHits.get();
+    }
+}
@@ -1,12 +1,24 @@
 package org.metalib.schema.avro.json;
 
+/**
+ * @param byteArrays mark {@code bytes} and {@code fixed} with jsonschema2pojo's
+ *                   {@code media.binaryEncoding} hint, so they are generated as {@code byte[]}
+ *                   instead of base64 {@code String}s, and give {@code fixed} the exact length of
+ *                   its base64 text as {@code minLength} and {@code maxLength}
+ */
 public record ConverterOptions(
         boolean flattenNullableUnions,
         boolean additionalPropertiesFalse,
         boolean omitEmptyRequired,
         boolean javaTypeHints,
-        JsonSchemaDraft draft
+        JsonSchemaDraft draft,
+        boolean byteArrays
 ) {
+    public ConverterOptions(boolean flattenNullableUnions, boolean additionalPropertiesFalse, boolean omitEmptyRequired,
+                            boolean javaTypeHints, JsonSchemaDraft draft) {
+        this(flattenNullableUnions, additionalPropertiesFalse, omitEmptyRequired, javaTypeHints, draft, false);
+    }
+
     public static ConverterOptions pojoOptimized() {
         return new ConverterOptions(true, true, true, true, JsonSchemaDraft.DRAFT_07);
     }
@@ -16,6 +28,12 @@ public record ConverterOptions(
     }
 
     public ConverterOptions withDraft(JsonSchemaDraft draft) {
-        return new ConverterOptions(flattenNullableUnions, additionalPropertiesFalse, omitEmptyRequired, javaTypeHints, draft);
+        return new ConverterOptions(flattenNullableUnions, additionalPropertiesFalse, omitEmptyRequired, javaTypeHints, draft,
+                byteArrays);
+    }
+
+    public ConverterOptions withByteArrays(boolean byteArrays) {
+        return new ConverterOptions(flattenNullableUnions, additionalPropertiesFalse, omitEmptyRequired, javaTypeHints, draft,
+                byteArrays);
     }
 }
@@ -0,0 +1,228 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JPackage;
+import org.jsonschema2pojo.Annotator;
+import org.jsonschema2pojo.AnnotatorFactory;
+import org.jsonschema2pojo.ContentResolver;
+import org.jsonschema2pojo.GenerationConfig;
+import org.jsonschema2pojo.Jsonschema2Pojo;
+import org.jsonschema2pojo.NoopRuleLogger;
+import org.jsonschema2pojo.RuleLogger;
+import org.jsonschema2pojo.Schema;
+import org.jsonschema2pojo.SchemaGenerator;
+import org.jsonschema2pojo.SchemaMapper;
+import org.jsonschema2pojo.SchemaStore;
+import org.jsonschema2pojo.SourceType;
+import org.jsonschema2pojo.rules.RuleFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Generates Java sources from JSON Schemas held in memory.
+ *
+ * <p>Produces the same sources as running jsonschema2pojo over a directory of schema files,
+ * but takes the schemas as strings and returns the generated files as bytes, keyed by their
+ * path relative to the source root (e.g. {@code com/example/User.java}). No schema files or
+ * output directories are involved, so callers decide what to write and where.
+ *
+ * <p>The {@link GenerationConfig} is used for everything except its source, target directory
+ * and target package, which are replaced by the {@link Source} list. Instances hold no state
+ * between calls and may be shared between threads.
+ *
+ * <p>With {@link #withJacksonCodecs()}, a streaming Jackson codec is generated next to every
+ * class; see {@link JacksonCodecGenerator}. With {@link RecordAnnotator} as the custom
+ * annotator, the classes are generated as Java records.
+ */
+public class InMemoryPojoGenerator {
+
+    /**
+     * One JSON Schema to generate.
+     *
+     * @param fileName    schema file name the root class is named after, as jsonschema2pojo
+     *                    would for a file (e.g. {@code User.json} produces {@code User})
+     * @param packageName package of the generated classes
+     * @param jsonSchema  schema content
+     */
+    public record Source(String fileName, String packageName, String jsonSchema) {
+    }
+
+    private final GenerationConfig config;
+    private final RuleLogger logger;
+    private final boolean jacksonCodecs;
+
+    public InMemoryPojoGenerator(GenerationConfig config) {
+        this(config, new NoopRuleLogger());
+    }
+
+    public InMemoryPojoGenerator(GenerationConfig config, RuleLogger logger) {
+        this(config, logger, false);
+    }
+
+    private InMemoryPojoGenerator(GenerationConfig config, RuleLogger logger, boolean jacksonCodecs) {
+        this.config = config;
+        this.logger = logger;
+        this.jacksonCodecs = jacksonCodecs;
+    }
+
+    /**
+     * Returns a generator that also generates a reflection-free Jackson serializer and
+     * deserializer for every generated class. Register them with the module generated by
+     * {@link JacksonCodecGenerator#module}.
+     */
+    public InMemoryPojoGenerator withJacksonCodecs() {
+        return new InMemoryPojoGenerator(config, logger, true);
+    }
+
+    public Map<String, byte[]> generate(String fileName, String packageName, String jsonSchema) throws IOException {
+        return generate(List.of(new Source(fileName, packageName, jsonSchema)));
+    }
+
+    /**
+     * Generates all sources into one code model, as jsonschema2pojo does for the files of a
+     * directory: class names that clash between sources are made unique.
+     */
+    public Map<String, byte[]> generate(List<Source> sources) throws IOException {
+        JacksonCodecGenerator codecs = jacksonCodecs ? new JacksonCodecGenerator(config) : null;
+        RecordAnnotator records = recordAnnotator();
+        RuleFactory ruleFactory = createRuleFactory(codecs, null, records);
+        SchemaMapper mapper = new SchemaMapper(ruleFactory, isYaml() ? new SchemaGenerator(new YAMLFactory())
+                : new SchemaGenerator());
+        JCodeModel codeModel = new JCodeModel();
+        for (Source source : sources) {
+            // Each schema resolves its own "#/definitions" references, like a separate file would
+            ruleFactory.setSchemaStore(new SchemaStore(isYaml() ? new ContentResolver(new YAMLFactory())
+                    : new ContentResolver(), logger));
+            mapper.generate(codeModel, Jsonschema2Pojo.getNodeName(source.fileName(), config),
+                    source.packageName(), source.jsonSchema());
+        }
+        return build(codeModel, codecs, records);
+    }
+
+    /**
+     * Generates JSON Schemas that are already parsed, applying jsonschema2pojo's rules to the
+     * trees exactly as {@link SchemaMapper} does after reading schema text. The source type of
+     * the configuration is ignored; the trees are always JSON Schemas. When {@code avroClasses}
+     * is not {@code null}, it records the generated classes.
+     */
+    Map<String, byte[]> generateTrees(List<Tree> trees, AvroClasses avroClasses) throws IOException {
+        JacksonCodecGenerator codecs = jacksonCodecs ? new JacksonCodecGenerator(config) : null;
+        RecordAnnotator records = recordAnnotator();
+        RuleFactory ruleFactory = createRuleFactory(codecs, avroClasses, records);
+        JCodeModel codeModel = new JCodeModel();
+        for (Tree tree : trees) {
+            ruleFactory.setSchemaStore(new SchemaStore(new ContentResolver(), logger));
+            ruleFactory.getSchemaRule().apply(Jsonschema2Pojo.getNodeName(tree.fileName(), config), tree.jsonSchema(),
+                    null, codeModel._package(tree.packageName()), new Schema(null, tree.jsonSchema(), null));
+        }
+        return build(codeModel, codecs, records);
+    }
+
+    /**
+     * A parsed JSON Schema; see {@link Source}.
+     */
+    record Tree(String fileName, String packageName, JsonNode jsonSchema) {
+    }
+
+    GenerationConfig config() {
+        return config;
+    }
+
+    RuleLogger logger() {
+        return logger;
+    }
+
+    private Map<String, byte[]> build(JCodeModel codeModel, JacksonCodecGenerator codecs, RecordAnnotator records)
+            throws IOException {
+        MemoryCodeWriter writer = new MemoryCodeWriter(config.getOutputEncoding());
+        codeModel.build(writer, writer);
+        Map<String, byte[]> files = new TreeMap<>();
+        writer.files.forEach((path, content) -> files.put(path, content.toByteArray()));
+        if (records != null) {
+            records.toRecords(files, config);
+        }
+        if (codecs != null) {
+            files.putAll(codecs.generate());
+        }
+        return files;
+    }
+
+    /**
+     * Creates the record annotator when it is the configured custom annotator, so that the
+     * generated classes can be rewritten after the code model is built.
+     */
+    private RecordAnnotator recordAnnotator() {
+        if (!RecordAnnotator.class.isAssignableFrom(config.getCustomAnnotator())) {
+            return null;
+        }
+        RecordAnnotator.validate(config);
+        try {
+            return config.getCustomAnnotator().asSubclass(RecordAnnotator.class)
+                    .getConstructor(GenerationConfig.class).newInstance(config);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Failed to create annotator " + config.getCustomAnnotator().getName(), e);
+        }
+    }
+
+    private RuleFactory createRuleFactory(JacksonCodecGenerator codecs, AvroClasses avroClasses,
+                                          RecordAnnotator records) {
+        RuleFactory ruleFactory;
+        try {
+            ruleFactory = config.getCustomRuleFactory().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Failed to create rule factory " + config.getCustomRuleFactory().getName(), e);
+        }
+        AnnotatorFactory annotatorFactory = new AnnotatorFactory(config);
+        Annotator annotator = annotatorFactory.getAnnotator(
+                annotatorFactory.getAnnotator(config.getAnnotationStyle()),
+                records != null ? records : annotatorFactory.getAnnotator(config.getCustomAnnotator()));
+        if (codecs != null) {
+            annotator = annotatorFactory.getAnnotator(annotator, codecs.annotator());
+        }
+        if (avroClasses != null) {
+            annotator = annotatorFactory.getAnnotator(annotator, avroClasses.annotator());
+        }
+        ruleFactory.setAnnotator(annotator);
+        ruleFactory.setGenerationConfig(config);
+        ruleFactory.setLogger(logger);
+        return ruleFactory;
+    }
+
+    private boolean isYaml() {
+        return config.getSourceType() == SourceType.YAMLSCHEMA || config.getSourceType() == SourceType.YAML;
+    }
+
+    /**
+     * Collects generated files in memory. Sources go through {@link CodeWriter#openSource},
+     * which applies the configured encoding and unicode escaping just like jsonschema2pojo's
+     * file writer.
+     */
+    private static class MemoryCodeWriter extends CodeWriter {
+
+        private final Map<String, ByteArrayOutputStream> files = new TreeMap<>();
+
+        MemoryCodeWriter(String encoding) {
+            this.encoding = encoding;
+        }
+
+        @Override
+        public OutputStream openBinary(JPackage pkg, String fileName) {
+            String path = pkg.isUnnamed() ? fileName : pkg.name().replace('.', '/') + "/" + fileName;
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            files.put(path, content);
+            return content;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JType;
+import org.jsonschema2pojo.AbstractAnnotator;
+import org.jsonschema2pojo.GenerationConfig;
+import org.jsonschema2pojo.InclusionLevel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Generates a reflection-free Jackson serializer and deserializer for every class that
+ * jsonschema2pojo generates from an object schema.
+ *
+ * <p>For a class {@code Order} it generates {@code OrderJsonCodec} with a nested
+ * {@code Serializer} and {@code Deserializer}. The serializer writes the properties in schema
+ * order with pre-encoded names; the deserializer reads field by field and dispatches on a
+ * {@code switch} over the property names. Strings, numbers, booleans, byte arrays and enums are streamed
+ * directly, any other value is handed to Jackson. {@link #module} generates a
+ * {@code JsonCodecModule} that registers all codecs of a set of generated files.
+ *
+ * <p>The properties are recorded through {@link #annotator()} while jsonschema2pojo builds the
+ * classes. Classes that extend another class, carry type information, use formatted dates or
+ * cannot be read and written through public fields or accessors get no codec and keep
+ * Jackson's bean handling. Records, generated with {@link RecordAnnotator}, are read through
+ * their accessors and created through their canonical constructor.
+ */
+public final class JacksonCodecGenerator {
+
+    /** Suffix of the generated codec classes. */
+    public static final String CODEC_SUFFIX = "JsonCodec";
+
+    /** Simple name of the generated module class. */
+    public static final String MODULE_NAME = "JsonCodecModule";
+
+    private static final Set<String> COLLECTIONS = Set.of("java.util.List", "java.util.Set", "java.util.Collection",
+            "java.util.Map");
+
+    private static final Set<String> DESERIALIZER_NAMES = Set.of("p", "ctxt", "t", "name", "value");
+
+    private record Property(String name, JFieldVar field) {
+    }
+
+    private static final class ObjectClass {
+        private final List<Property> properties = new ArrayList<>();
+        private final Map<String, JMethod> getters = new LinkedHashMap<>();
+        private final Map<String, JMethod> setters = new LinkedHashMap<>();
+        private JMethod anyGetter;
+        private JMethod anySetter;
+        private boolean unsupported;
+    }
+
+    private final GenerationConfig config;
+    private final boolean records;
+    private final Map<JDefinedClass, ObjectClass> classes = new LinkedHashMap<>();
+    private final Map<JDefinedClass, JMethod> enumCreators = new LinkedHashMap<>();
+
+    JacksonCodecGenerator(GenerationConfig config) {
+        this.config = config;
+        this.records = RecordAnnotator.class.isAssignableFrom(config.getCustomAnnotator());
+    }
+
+    /**
+     * Records the generated classes and their properties; add it to the rule factory's annotators.
+     */
+    AbstractAnnotator annotator() {
+        return new AbstractAnnotator(config) {
+            @Override
+            public void propertyField(JFieldVar field, JDefinedClass clazz, String propertyName, JsonNode propertyNode) {
+                objectClass(clazz).properties.add(new Property(propertyName, field));
+            }
+
+            @Override
+            public void propertyOrder(JDefinedClass clazz, JsonNode propertiesNode) {
+                objectClass(clazz);
+            }
+
+            @Override
+            public void typeInfo(JDefinedClass clazz, JsonNode schema) {
+                objectClass(clazz).unsupported |= schema.has("deserializationClassProperty");
+            }
+
+            @Override
+            public boolean isPolymorphicDeserializationSupported(JsonNode node) {
+                // Neutral: the composite annotator requires every annotator to support it
+                return true;
+            }
+
+            @Override
+            public void propertyGetter(JMethod getter, JDefinedClass clazz, String propertyName) {
+                objectClass(clazz).getters.put(propertyName, getter);
+            }
+
+            @Override
+            public void propertySetter(JMethod setter, JDefinedClass clazz, String propertyName) {
+                objectClass(clazz).setters.put(propertyName, setter);
+            }
+
+            @Override
+            public void anyGetter(JMethod getter, JDefinedClass clazz) {
+                objectClass(clazz).anyGetter = getter;
+            }
+
+            @Override
+            public void anySetter(JMethod setter, JDefinedClass clazz) {
+                objectClass(clazz).anySetter = setter;
+            }
+
+            @Override
+            public void enumCreatorMethod(JDefinedClass clazz, JMethod creator) {
+                enumCreators.put(clazz, creator);
+            }
+
+            @Override
+            public void dateField(JFieldVar field, JDefinedClass clazz, JsonNode propertyNode) {
+                objectClass(clazz).unsupported |= config.isFormatDates();
+            }
+
+            @Override
+            public void timeField(JFieldVar field, JDefinedClass clazz, JsonNode propertyNode) {
+                objectClass(clazz).unsupported |= config.isFormatTimes();
+            }
+
+            @Override
+            public void dateTimeField(JFieldVar field, JDefinedClass clazz, JsonNode propertyNode) {
+                objectClass(clazz).unsupported |= config.isFormatDateTimes();
+            }
+        };
+    }
+
+    private ObjectClass objectClass(JDefinedClass clazz) {
+        return classes.computeIfAbsent(clazz, key -> new ObjectClass());
+    }
+
+    /**
+     * Generates the codecs of the recorded classes, keyed by path relative to the source root.
+     */
+    Map<String, byte[]> generate() {
+        Map<String, byte[]> files = new TreeMap<>();
+        classes.forEach((clazz, objectClass) -> {
+            String source = codec(clazz, objectClass);
+            if (source != null) {
+                files.put(JavaSources.path(clazz._package().name(), clazz.name() + CODEC_SUFFIX),
+                        source.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        return files;
+    }
+
+    /**
+     * Generates {@code JsonCodecModule} in {@code packageName}, registering the codec of every
+     * class in {@code generatedFiles} (paths relative to the source root, as returned by the
+     * generators). Returns an empty map when none of the files is a codec.
+     */
+    public static Map<String, byte[]> module(String packageName, Collection<String> generatedFiles) {
+        List<String> codecs = generatedFiles.stream()
+                .map(file -> file.replace('\\', '/'))
+                .filter(file -> file.endsWith(CODEC_SUFFIX + ".java"))
+                .map(file -> file.substring(0, file.length() - ".java".length()).replace('/', '.'))
+                .sorted()
+                .toList();
+        if (codecs.isEmpty()) {
+            return Map.of();
+        }
+        StringBuilder out = new StringBuilder();
+        JavaSources.packageLine(out, packageName);
+        out.append("import com.fasterxml.jackson.databind.module.SimpleModule;\n\n");
+        out.append("/**\n * Registers the generated streaming serializers and deserializers.\n */\n");
+        out.append("public class ").append(MODULE_NAME).append(" extends SimpleModule {\n\n");
+        out.append("    public ").append(MODULE_NAME).append("() {\n");
+        out.append("        super(\"").append(MODULE_NAME).append("\");\n");
+        for (String codec : codecs) {
+            out.append("        ").append(JavaSources.simplify(codec, packageName)).append(".register(this);\n");
+        }
+        out.append("    }\n}\n");
+        return Map.of(JavaSources.path(packageName, MODULE_NAME), out.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String codec(JDefinedClass clazz, ObjectClass objectClass) {
+        if (clazz.outer() != null || clazz.getClassType() != ClassType.CLASS || objectClass.unsupported
+                || !"java.lang.Object".equals(clazz._extends().fullName())) {
+            return null;
+        }
+        String pkg = clazz._package().name();
+        String type = clazz.name();
+
+        List<Field> fields = new ArrayList<>();
+        Set<String> constants = new HashSet<>();
+        Set<String> locals = new HashSet<>(DESERIALIZER_NAMES);
+        for (Property property : objectClass.properties) {
+            JFieldVar field = property.field();
+            String read;
+            String write;
+            if (records) {
+                // Components are collected into locals and passed to the canonical constructor
+                String local = field.name();
+                while (!locals.add(local)) {
+                    local = local + "_";
+                }
+                read = "value." + field.name() + "()";
+                write = local + " = %s";
+            } else if ((field.mods().getValue() & JMod.PUBLIC) != 0) {
+                read = "value." + field.name();
+                write = "value." + field.name() + " = %s";
+            } else if (objectClass.getters.containsKey(property.name()) && objectClass.setters.containsKey(property.name())) {
+                read = "value." + objectClass.getters.get(property.name()).name() + "()";
+                write = "value." + objectClass.setters.get(property.name()).name() + "(%s)";
+            } else {
+                return null;
+            }
+            String constant = JavaSources.constantName(field.name());
+            while (!constants.add(constant)) {
+                constant = constant + "_";
+            }
+            fields.add(new Field(property.name(), field.type(), JavaSources.simplify(field.type().fullName(), pkg), constant,
+                    read, write, kind(field.type())));
+        }
+
+        StringBuilder out = new StringBuilder();
+        JavaSources.packageLine(out, pkg);
+        out.append("""
+                import com.fasterxml.jackson.core.JsonGenerator;
+                import com.fasterxml.jackson.core.JsonParser;
+                import com.fasterxml.jackson.core.JsonToken;
+                import com.fasterxml.jackson.core.io.SerializedString;
+                """);
+        String anyType = objectClass.anyGetter != null && objectClass.anySetter != null
+                ? JavaSources.simplify(objectClass.anySetter.params().get(1).type().fullName(), pkg) : null;
+        List<String> javaTypes = new ArrayList<>();
+        fields.stream().filter(field -> field.kind() == Kind.OTHER).forEach(field -> javaTypes.add(field.typeName()));
+        if (anyType != null) {
+            javaTypes.add(anyType);
+        }
+        if (javaTypes.stream().anyMatch(name -> name.contains("<"))) {
+            out.append("import com.fasterxml.jackson.core.type.TypeReference;\n");
+        }
+        out.append("import com.fasterxml.jackson.databind.DeserializationContext;\n");
+        if (!javaTypes.isEmpty()) {
+            out.append("import com.fasterxml.jackson.databind.JavaType;\n");
+        }
+        out.append("import com.fasterxml.jackson.databind.SerializerProvider;\n");
+        if (fields.stream().anyMatch(field -> field.kind() == Kind.ENUM
+                || field.kind() == Kind.STRING && !field.primitive())) {
+            out.append("import com.fasterxml.jackson.databind.deser.impl.NullsConstantProvider;\n");
+        }
+        out.append("""
+                import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+                import com.fasterxml.jackson.databind.module.SimpleModule;
+                import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+                """);
+        if (!javaTypes.isEmpty()) {
+            out.append("import com.fasterxml.jackson.databind.type.TypeFactory;\n");
+        }
+        out.append("import java.io.IOException;\n\n");
+        out.append("/**\n * Streams {@link ").append(type).append("} to and from JSON field by field, without bean introspection.\n")
+                .append(" * Registered by {@code ").append(MODULE_NAME).append("}.\n */\n");
+        out.append("public final class ").append(type).append(CODEC_SUFFIX).append(" {\n\n");
+        for (Field field : fields) {
+            out.append("    private static final SerializedString ").append(field.constant())
+                    .append(" = new SerializedString(").append(JavaSources.literal(field.name())).append(");\n");
+        }
+        for (Field field : fields) {
+            if (field.kind() == Kind.OTHER) {
+                out.append("    private static final JavaType ").append(field.constant()).append("_TYPE = ")
+                        .append(javaType(field)).append(";\n");
+            }
+        }
+        if (anyType != null) {
+            out.append("    private static final JavaType ADDITIONAL_PROPERTY_TYPE = ")
+                    .append(javaType(anyType)).append(";\n");
+        }
+        out.append("\n    private ").append(type).append(CODEC_SUFFIX).append("() {\n    }\n\n");
+        out.append("    public static void register(SimpleModule module) {\n");
+        out.append("        module.addSerializer(").append(type).append(".class, new Serializer());\n");
+        out.append("        module.addDeserializer(").append(type).append(".class, new Deserializer());\n");
+        out.append("    }\n\n");
+
+        // Serializer
+        out.append("    public static final class Serializer extends StdSerializer<").append(type).append("> {\n\n");
+        out.append("        public Serializer() {\n            super(").append(type).append(".class);\n        }\n\n");
+        out.append("        @Override\n");
+        out.append("        public void serialize(").append(type)
+                .append(" value, JsonGenerator gen, SerializerProvider provider) throws IOException {\n");
+        out.append("            gen.writeStartObject(value);\n");
+        for (Field field : fields) {
+            writeField(out, field);
+        }
+        if (anyType != null) {
+            out.append("            for (java.util.Map.Entry<String, ").append(anyType).append("> property : value.")
+                    .append(objectClass.anyGetter.name()).append("().entrySet()) {\n");
+            out.append("                provider.defaultSerializeField(property.getKey(), property.getValue(), gen);\n");
+            out.append("            }\n");
+        }
+        out.append("            gen.writeEndObject();\n        }\n    }\n\n");
+
+        // Deserializer
+        out.append("    public static final class Deserializer extends StdDeserializer<").append(type).append("> {\n\n");
+        out.append("        public Deserializer() {\n            super(").append(type).append(".class);\n        }\n\n");
+        out.append("        @Override\n");
+        out.append("        public ").append(type)
+                .append(" deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {\n");
+        out.append("""
+                            JsonToken t = p.currentToken();
+                            if (t == JsonToken.START_OBJECT) {
+                                t = p.nextToken();
+                            } else if (t != JsonToken.FIELD_NAME && t != JsonToken.END_OBJECT) {
+                """);
+        out.append("                return (").append(type).append(") ctxt.handleUnexpectedToken(").append(type)
+                .append(".class, p);\n            }\n");
+        if (records) {
+            for (Field field : fields) {
+                out.append("            ").append(field.typeName()).append(' ').append(local(field)).append(" = ")
+                        .append(field.primitive() ? zero(field.kind()) : "null").append(";\n");
+            }
+        } else {
+            out.append("            ").append(type).append(" value = new ").append(type).append("();\n");
+        }
+        out.append("""
+                            for (; t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                                String name = p.currentName();
+                                t = p.nextToken();
+                                switch (name) {
+                """);
+        for (Field field : fields) {
+            out.append("                    case ").append(JavaSources.literal(field.name())).append(" -> ")
+                    .append(field.write().formatted(readValue(field))).append(";\n");
+        }
+        if (anyType != null) {
+            out.append("                    default -> value.").append(objectClass.anySetter.name())
+                    .append("(name, t == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, ADDITIONAL_PROPERTY_TYPE));\n");
+        } else {
+            out.append("                    default -> handleUnknownProperty(p, ctxt, ")
+                    .append(records ? "handledType()" : "value").append(", name);\n");
+        }
+        out.append("                }\n            }\n");
+        if (records) {
+            out.append("            return new ").append(type).append('(')
+                    .append(String.join(", ", fields.stream().map(JacksonCodecGenerator::local).toList()))
+                    .append(");\n        }\n");
+        } else {
+            out.append("            return value;\n        }\n");
+        }
+        Set<String> enumReaders = new HashSet<>();
+        for (Field field : fields) {
+            if (field.kind() == Kind.ENUM && enumReaders.add(enumReader(field))) {
+                readEnum(out, field, enumCreators.get((JDefinedClass) field.type()));
+            }
+        }
+        out.append("    }\n}\n");
+        return out.toString();
+    }
+
+    private static String zero(Kind kind) {
+        return switch (kind) {
+            case LONG -> "0L";
+            case DOUBLE -> "0.0";
+            case FLOAT -> "0.0F";
+            case BOOLEAN -> "false";
+            default -> "0";
+        };
+    }
+
+    private static String local(Field field) {
+        return field.write().substring(0, field.write().indexOf(' '));
+    }
+
+    private enum Kind {
+        STRING, INT, LONG, DOUBLE, FLOAT, BOOLEAN, BINARY, ENUM, OTHER
+    }
+
+    private record Field(String name, JType type, String typeName, String constant, String read, String write,
+                         Kind kind) {
+
+        boolean primitive() {
+            return type.isPrimitive();
+        }
+
+        boolean collection() {
+            return !type.isPrimitive() && COLLECTIONS.contains(type.erasure().fullName());
+        }
+    }
+
+    private Kind kind(JType type) {
+        return switch (type.fullName()) {
+            case "java.lang.String" -> Kind.STRING;
+            case "int", "java.lang.Integer" -> Kind.INT;
+            case "long", "java.lang.Long" -> Kind.LONG;
+            case "double", "java.lang.Double" -> Kind.DOUBLE;
+            case "float", "java.lang.Float" -> Kind.FLOAT;
+            case "boolean", "java.lang.Boolean" -> Kind.BOOLEAN;
+            case "byte[]" -> Kind.BINARY;
+            default -> type instanceof JDefinedClass enumClass && enumClass.getClassType() == ClassType.ENUM
+                    && enumCreators.containsKey(enumClass) && hasStringValue(enumClass) ? Kind.ENUM : Kind.OTHER;
+        };
+    }
+
+    private boolean hasStringValue(JDefinedClass enumClass) {
+        JMethod creator = enumCreators.get(enumClass);
+        return creator.params().size() == 1 && "java.lang.String".equals(creator.params().get(0).type().fullName())
+                && enumClass.getMethod("value", new JType[0]) != null
+                && "java.lang.String".equals(enumClass.getMethod("value", new JType[0]).type().fullName());
+    }
+
+    private void writeField(StringBuilder out, Field field) {
+        String write = switch (field.kind()) {
+            case STRING -> "gen.writeString(" + field.read() + ");";
+            case INT, LONG, DOUBLE, FLOAT -> "gen.writeNumber(" + field.read() + ");";
+            case BOOLEAN -> "gen.writeBoolean(" + field.read() + ");";
+            case BINARY -> "gen.writeBinary(provider.getConfig().getBase64Variant(), " + field.read() + ", 0, "
+                    + field.read() + ".length);";
+            case ENUM -> "gen.writeString(" + field.read() + ".value());";
+            case OTHER -> "provider.defaultSerializeValue(" + field.read() + ", gen);";
+        };
+        if (field.primitive()) {
+            out.append("            gen.writeFieldName(").append(field.constant()).append(");\n");
+            out.append("            ").append(write).append("\n");
+            return;
+        }
+        InclusionLevel inclusion = config.getInclusionLevel();
+        if (inclusion == InclusionLevel.ALWAYS) {
+            out.append("            gen.writeFieldName(").append(field.constant()).append(");\n");
+            out.append("            if (").append(field.read()).append(" == null) {\n");
+            out.append("                gen.writeNull();\n");
+            out.append("            } else {\n");
+            out.append("                ").append(write).append("\n");
+            out.append("            }\n");
+            return;
+        }
+        String condition = field.read() + " != null";
+        if ((inclusion == InclusionLevel.NON_EMPTY || inclusion == InclusionLevel.NON_DEFAULT)
+                && (field.kind() == Kind.STRING || field.collection())) {
+            condition += " && !" + field.read() + ".isEmpty()";
+        } else if ((inclusion == InclusionLevel.NON_EMPTY || inclusion == InclusionLevel.NON_DEFAULT)
+                && field.kind() == Kind.BINARY) {
+            condition += " && " + field.read() + ".length != 0";
+        }
+        out.append("            if (").append(condition).append(") {\n");
+        out.append("                gen.writeFieldName(").append(field.constant()).append(");\n");
+        out.append("                ").append(write).append("\n");
+        out.append("            }\n");
+    }
+
+    private static String readValue(Field field) {
+        if (field.primitive()) {
+            return switch (field.kind()) {
+                case INT -> "_parseIntPrimitive(p, ctxt)";
+                case LONG -> "_parseLongPrimitive(p, ctxt)";
+                case DOUBLE -> "_parseDoublePrimitive(p, ctxt)";
+                case FLOAT -> "_parseFloatPrimitive(p, ctxt)";
+                default -> "_parseBooleanPrimitive(p, ctxt)";
+            };
+        }
+        return switch (field.kind()) {
+            case STRING -> "t == JsonToken.VALUE_STRING ? p.getText() : t == JsonToken.VALUE_NULL ? null"
+                    + " : _parseString(p, ctxt, NullsConstantProvider.nuller())";
+            case INT -> "_parseInteger(p, ctxt, Integer.class)";
+            case LONG -> "_parseLong(p, ctxt, Long.class)";
+            case DOUBLE -> "t == JsonToken.VALUE_NULL ? null : Double.valueOf(_parseDoublePrimitive(p, ctxt))";
+            case FLOAT -> "t == JsonToken.VALUE_NULL ? null : Float.valueOf(_parseFloatPrimitive(p, ctxt))";
+            case BOOLEAN -> "_parseBoolean(p, ctxt, Boolean.class)";
+            case BINARY -> "t == JsonToken.VALUE_NULL ? null : p.getBinaryValue(ctxt.getBase64Variant())";
+            case ENUM -> "t == JsonToken.VALUE_NULL ? null : " + enumReader(field) + "(p, ctxt)";
+            case OTHER -> "t == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, " + field.constant() + "_TYPE)";
+        };
+    }
+
+    private static String enumReader(Field field) {
+        return "read" + field.typeName().replace(".", "");
+    }
+
+    private static void readEnum(StringBuilder out, Field field, JMethod creator) {
+        out.append("\n        private ").append(field.typeName()).append(' ').append(enumReader(field))
+                .append("(JsonParser p, DeserializationContext ctxt) throws IOException {\n");
+        out.append("            String text = p.hasToken(JsonToken.VALUE_STRING) ? p.getText()"
+                + " : _parseString(p, ctxt, NullsConstantProvider.nuller());\n");
+        out.append("            try {\n");
+        out.append("                return ").append(field.typeName()).append('.').append(creator.name()).append("(text);\n");
+        out.append("            } catch (IllegalArgumentException e) {\n");
+        out.append("                return (").append(field.typeName()).append(") ctxt.handleWeirdStringValue(")
+                .append(field.typeName()).append(".class, text, \"not one of the values accepted for Enum class\");\n");
+        out.append("            }\n        }\n");
+    }
+
+    private static String javaType(Field field) {
+        return javaType(field.typeName());
+    }
+
+    private static String javaType(String typeName) {
+        return typeName.contains("<")
+                ? "TypeFactory.defaultInstance().constructType(new TypeReference<" + typeName + ">() {})"
+                : "TypeFactory.defaultInstance().constructType(" + typeName + ".class)";
+    }
+}
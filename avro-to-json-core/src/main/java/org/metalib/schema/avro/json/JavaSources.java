@@ -0,0 +1,70 @@
+package org.metalib.schema.avro.json;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for writing the Java sources of the generated codecs.
+ */
+final class JavaSources {
+
+    private static final Pattern QUALIFIED_NAME = Pattern.compile("[A-Za-z_$][\\w$]*(?:\\.[A-Za-z_$][\\w$]*)*");
+
+    private JavaSources() {
+    }
+
+    /**
+     * Drops the package of {@code java.lang} types and of types in {@code pkg}; other types keep
+     * their qualified names so the generated sources need no further imports.
+     */
+    static String simplify(String typeName, String pkg) {
+        Matcher matcher = QUALIFIED_NAME.matcher(typeName);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String name = matcher.group();
+            String simple = name;
+            if (name.startsWith("java.lang.") && name.indexOf('.', "java.lang.".length()) < 0) {
+                simple = name.substring("java.lang.".length());
+            } else if (!pkg.isEmpty() && name.startsWith(pkg + ".")
+                    && Character.isUpperCase(name.charAt(pkg.length() + 1))) {
+                simple = name.substring(pkg.length() + 1);
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(simple));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    static String constantName(String fieldName) {
+        return fieldName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").replaceAll("\\W", "_").toUpperCase(Locale.ROOT);
+    }
+
+    static String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    static void packageLine(StringBuilder out, String packageName) {
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+    }
+
+    static String path(String packageName, String className) {
+        return packageName.isEmpty() ? className + ".java" : packageName.replace('.', '/') + "/" + className + ".java";
+    }
+}
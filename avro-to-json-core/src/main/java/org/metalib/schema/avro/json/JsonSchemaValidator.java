@@ -0,0 +1,537 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.apache.avro.LogicalType;
+import org.apache.avro.Schema;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Validates JSON documents against the JSON Schema {@link AvroToJsonSchemaConverter} produces
+ * for an Avro schema, without building that schema or the documents as trees.
+ *
+ * <p>The Avro schema is compiled once into a validator per type, with a lookup table of
+ * property names for every record, which then checks documents token by token as a
+ * {@link JsonParser} reads them. A document is accepted exactly when the converted schema
+ * accepts it under the same {@link ConverterOptions}: types, {@code required} properties,
+ * enum symbols, closed records, {@code oneOf} unions and the base64 length of {@code fixed}
+ * values. Like the converted schema it does not assert {@code format}s, and in the
+ * POJO-optimized mode, where nullable unions are flattened, it rejects explicit {@code null}s.
+ *
+ * <p>Only a value that may match several {@code oneOf} branches of the same JSON type, such as
+ * an object in a union of two records, is buffered as tokens to try each branch. Validation
+ * stops at the first violation. Compiled validators are immutable and may be shared by threads.
+ */
+public final class JsonSchemaValidator {
+
+    private static final JsonFactory factory = new JsonFactory();
+
+    /**
+     * Where a document breaks the schema; {@code path} locates the value from the root
+     * {@code $}, as in {@code $.lines[2].sku}.
+     */
+    public record Violation(String path, String message) {
+    }
+
+    private final Node root;
+
+    private JsonSchemaValidator(Node root) {
+        this.root = root;
+    }
+
+    public static JsonSchemaValidator compile(Schema schema) {
+        return compile(schema, ConverterOptions.pojoOptimized());
+    }
+
+    public static JsonSchemaValidator compile(Schema schema, ConverterOptions options) {
+        return new JsonSchemaValidator(new Compiler(options).compile(schema));
+    }
+
+    /**
+     * Validates the next value {@code parser} reads, leaving the parser on its last token, so a
+     * stream of documents can be validated one call at a time. After a violation the parser is
+     * left inside the value.
+     */
+    public Optional<Violation> validate(JsonParser parser) throws IOException {
+        if (parser.nextToken() == null) {
+            return Optional.of(new Violation("$", "expected a value, found the end of input"));
+        }
+        Failure failure = root.validate(parser);
+        return failure == null ? Optional.empty() : Optional.of(failure.violation());
+    }
+
+    /**
+     * Validates a whole document, which must hold a single value.
+     */
+    public Optional<Violation> validate(String json) throws IOException {
+        try (JsonParser parser = factory.createParser(json)) {
+            return validateDocument(parser);
+        }
+    }
+
+    /**
+     * Validates a whole UTF-8 document, which must hold a single value.
+     */
+    public Optional<Violation> validate(byte[] json) throws IOException {
+        try (JsonParser parser = factory.createParser(json)) {
+            return validateDocument(parser);
+        }
+    }
+
+    private Optional<Violation> validateDocument(JsonParser parser) throws IOException {
+        Optional<Violation> violation = validate(parser);
+        if (violation.isEmpty() && parser.nextToken() != null) {
+            return Optional.of(new Violation("$", "unexpected content after the document"));
+        }
+        return violation;
+    }
+
+    /**
+     * A violation found while returning from nested values, each of which adds its segment.
+     */
+    private static final class Failure {
+        private final String message;
+        private final ArrayDeque<String> segments = new ArrayDeque<>();
+
+        private Failure(String message) {
+            this.message = message;
+        }
+
+        Failure at(String segment) {
+            segments.addFirst(segment);
+            return this;
+        }
+
+        Violation violation() {
+            return new Violation("$" + String.join("", segments), message);
+        }
+    }
+
+    private interface Node {
+
+        /**
+         * Whether the JSON type of a value starting with {@code token} is one this node may
+         * accept, which picks the {@code oneOf} branches worth trying.
+         */
+        boolean accepts(JsonToken token);
+
+        /**
+         * Validates the value starting at the parser's current token and leaves the parser on
+         * its last token; returns {@code null} when the value is valid.
+         */
+        Failure validate(JsonParser p) throws IOException;
+    }
+
+    private static Failure mismatch(String expected, JsonToken token) {
+        return new Failure("expected " + expected + ", found " + describe(token));
+    }
+
+    private static String describe(JsonToken token) {
+        return switch (token) {
+            case START_OBJECT -> "object";
+            case START_ARRAY -> "array";
+            case VALUE_STRING -> "string";
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> "number";
+            case VALUE_TRUE, VALUE_FALSE -> "boolean";
+            case VALUE_NULL -> "null";
+            default -> token.name();
+        };
+    }
+
+    /**
+     * The JSON types of the converted schema's {@code type} keyword.
+     */
+    private enum Type {
+        STRING, INTEGER, NUMBER, BOOLEAN, NULL;
+
+        boolean matches(JsonParser p) throws IOException {
+            JsonToken token = p.currentToken();
+            return switch (this) {
+                case STRING -> token == JsonToken.VALUE_STRING;
+                // JSON Schema counts a number with a zero fraction, such as 1.0, as an integer
+                case INTEGER -> token == JsonToken.VALUE_NUMBER_INT
+                        || token == JsonToken.VALUE_NUMBER_FLOAT && isIntegral(p.getDoubleValue());
+                case NUMBER -> token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT;
+                case BOOLEAN -> token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE;
+                case NULL -> token == JsonToken.VALUE_NULL;
+            };
+        }
+
+        boolean accepts(JsonToken token) {
+            return switch (this) {
+                case STRING -> token == JsonToken.VALUE_STRING;
+                case INTEGER, NUMBER -> token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT;
+                case BOOLEAN -> token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE;
+                case NULL -> token == JsonToken.VALUE_NULL;
+            };
+        }
+
+        private static boolean isIntegral(double value) {
+            return value == Math.rint(value) && !Double.isInfinite(value);
+        }
+    }
+
+    private record Scalar(Set<Type> types, String expected) implements Node {
+
+        Scalar(Set<Type> types) {
+            this(types, String.join(" or ", types.stream().map(type -> type.name().toLowerCase(Locale.ROOT)).toList()));
+        }
+
+        @Override
+        public boolean accepts(JsonToken token) {
+            for (Type type : types) {
+                if (type.accepts(token)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Failure validate(JsonParser p) throws IOException {
+            for (Type type : types) {
+                if (type.matches(p)) {
+                    return null;
+                }
+            }
+            return mismatch(expected, p.currentToken());
+        }
+    }
+
+    /**
+     * A {@code fixed} value with {@code minLength} and {@code maxLength} set to its base64 length.
+     */
+    private record Base64Fixed(int length) implements Node {
+
+        @Override
+        public boolean accepts(JsonToken token) {
+            return token == JsonToken.VALUE_STRING;
+        }
+
+        @Override
+        public Failure validate(JsonParser p) throws IOException {
+            if (p.currentToken() != JsonToken.VALUE_STRING) {
+                return mismatch("string", p.currentToken());
+            }
+            String text = p.getText();
+            int actual = text.codePointCount(0, text.length());
+            return actual == length ? null
+                    : new Failure("expected a string of length " + length + ", found length " + actual);
+        }
+    }
+
+    private record Symbols(Set<String> symbols) implements Node {
+
+        @Override
+        public boolean accepts(JsonToken token) {
+            return token == JsonToken.VALUE_STRING;
+        }
+
+        @Override
+        public Failure validate(JsonParser p) throws IOException {
+            if (p.currentToken() != JsonToken.VALUE_STRING) {
+                return mismatch("string", p.currentToken());
+            }
+            return symbols.contains(p.getText()) ? null : new Failure("'" + p.getText() + "' is not one of " + symbols);
+        }
+    }
+
+    private record Array(Node items) implements Node {
+
+        @Override
+        public boolean accepts(JsonToken token) {
+            return token == JsonToken.START_ARRAY;
+        }
+
+        @Override
+        public Failure validate(JsonParser p) throws IOException {
+            if (p.currentToken() != JsonToken.START_ARRAY) {
+                return mismatch("array", p.currentToken());
+            }
+            int index = 0;
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                Failure failure = items.validate(p);
+                if (failure != null) {
+                    return failure.at("[" + index + "]");
+                }
+                index++;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * An Avro map: an object whose {@code additionalProperties} are all of one schema.
+     */
+    private record Values(Node values) implements Node {
+
+        @Override
+        public boolean accepts(JsonToken token) {
+            return token == JsonToken.START_OBJECT;
+        }
+
+        @Override
+        public Failure validate(JsonParser p) throws IOException {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                return mismatch("object", p.currentToken());
+            }
+            String name;
+            while ((name = p.nextFieldName()) != null) {
+                p.nextToken();
+                Failure failure = values.validate(p);
+                if (failure != null) {
+                    return failure.at(segment(name));
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A record's property: {@code required} is its index among the required properties, or -1.
+     */
+    private record Property(Node node, int required) {
+    }
+
+    /**
+     * Built empty and completed once its fields are compiled, so recursive records can refer
+     * to it.
+     */
+    private static final class Fields implements Node {
+        private final String name;
+        private final boolean closed;
+        private Map<String, Property> properties;
+        private String[] required;
+
+        private Fields(String name, boolean closed) {
+            this.name = name;
+            this.closed = closed;
+        }
+
+        @Override
+        public boolean accepts(JsonToken token) {
+            return token == JsonToken.START_OBJECT;
+        }
+
+        @Override
+        public Failure validate(JsonParser p) throws IOException {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                return mismatch("object", p.currentToken());
+            }
+            long[] seen = new long[(required.length + 63) >>> 6];
+            String name;
+            while ((name = p.nextFieldName()) != null) {
+                p.nextToken();
+                Property property = properties.get(name);
+                if (property == null) {
+                    if (closed) {
+                        return new Failure("property '" + name + "' is not defined by " + this.name);
+                    }
+                    p.skipChildren();
+                    continue;
+                }
+                Failure failure = property.node().validate(p);
+                if (failure != null) {
+                    return failure.at(segment(name));
+                }
+                if (property.required() >= 0) {
+                    seen[property.required() >>> 6] |= 1L << property.required();
+                }
+            }
+            for (int i = 0; i < required.length; i++) {
+                if ((seen[i >>> 6] & 1L << i) == 0) {
+                    return new Failure("missing required property '" + required[i] + "' of " + this.name);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A {@code oneOf}: the value must match exactly one branch.
+     */
+    private record OneOf(List<Node> branches) implements Node {
+
+        @Override
+        public boolean accepts(JsonToken token) {
+            for (Node branch : branches) {
+                if (branch.accepts(token)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Failure validate(JsonParser p) throws IOException {
+            JsonToken token = p.currentToken();
+            List<Node> candidates = new ArrayList<>(branches.size());
+            for (Node branch : branches) {
+                if (branch.accepts(token)) {
+                    candidates.add(branch);
+                }
+            }
+            if (candidates.isEmpty()) {
+                p.skipChildren();
+                return new Failure(describe(token) + " matches no branch of the union");
+            }
+            if (candidates.size() == 1) {
+                return candidates.get(0).validate(p);
+            }
+
+            int matches = 0;
+            if (token.isScalarValue()) {
+                for (Node candidate : candidates) {
+                    if (candidate.validate(p) == null) {
+                        matches++;
+                    }
+                }
+            } else {
+                TokenBuffer buffer = new TokenBuffer(p);
+                buffer.copyCurrentStructure(p);
+                for (Node candidate : candidates) {
+                    try (JsonParser replay = buffer.asParser()) {
+                        replay.nextToken();
+                        if (candidate.validate(replay) == null) {
+                            matches++;
+                        }
+                    }
+                }
+            }
+            return switch (matches) {
+                case 1 -> null;
+                case 0 -> new Failure(describe(token) + " matches no branch of the union");
+                default -> new Failure(describe(token) + " matches " + matches + " branches of the union");
+            };
+        }
+    }
+
+    private static String segment(String name) {
+        return "." + name;
+    }
+
+    /**
+     * Follows {@link AvroToJsonSchemaConverter}'s mapping, type by type.
+     */
+    private static final class Compiler {
+        private final ConverterOptions options;
+        private final Map<String, Fields> records = new HashMap<>();
+
+        private Compiler(ConverterOptions options) {
+            this.options = options;
+        }
+
+        Node compile(Schema schema) {
+            Type logical = logicalType(schema);
+            if (logical != null) {
+                return new Scalar(EnumSet.of(logical));
+            }
+            return switch (schema.getType()) {
+                case RECORD -> record(schema);
+                case ARRAY -> new Array(compile(schema.getElementType()));
+                case MAP -> new Values(compile(schema.getValueType()));
+                case ENUM -> new Symbols(new HashSet<>(schema.getEnumSymbols()));
+                case UNION -> union(schema);
+                case STRING, BYTES -> new Scalar(EnumSet.of(Type.STRING));
+                case FIXED -> options.byteArrays() ? new Base64Fixed((schema.getFixedSize() + 2) / 3 * 4)
+                        : new Scalar(EnumSet.of(Type.STRING));
+                case INT, LONG -> new Scalar(EnumSet.of(Type.INTEGER));
+                case FLOAT, DOUBLE -> new Scalar(EnumSet.of(Type.NUMBER));
+                case BOOLEAN -> new Scalar(EnumSet.of(Type.BOOLEAN));
+                case NULL -> new Scalar(EnumSet.of(Type.NULL));
+            };
+        }
+
+        private Fields record(Schema schema) {
+            Fields existing = records.get(schema.getFullName());
+            if (existing != null) {
+                return existing;
+            }
+            Fields record = new Fields(schema.getFullName(), options.additionalPropertiesFalse());
+            records.put(schema.getFullName(), record);
+            Map<String, Property> properties = new HashMap<>();
+            List<String> required = new ArrayList<>();
+            for (Schema.Field field : schema.getFields()) {
+                int index = -1;
+                if (!isNullable(field.schema())) {
+                    index = required.size();
+                    required.add(field.name());
+                }
+                properties.put(field.name(), new Property(compile(field.schema()), index));
+            }
+            record.properties = properties;
+            record.required = required.toArray(String[]::new);
+            return record;
+        }
+
+        private Node union(Schema schema) {
+            List<Schema> nonNullTypes = schema.getTypes().stream()
+                    .filter(type -> type.getType() != Schema.Type.NULL)
+                    .toList();
+            boolean nullable = nonNullTypes.size() != schema.getTypes().size();
+            if (nullable && nonNullTypes.size() == 1) {
+                Schema inner = nonNullTypes.get(0);
+                if (options.flattenNullableUnions()) {
+                    return compile(inner);
+                }
+                Type simple = simpleType(inner);
+                if (simple != null) {
+                    Type logical = logicalType(inner);
+                    return new Scalar(EnumSet.of(Type.NULL, logical != null ? logical : simple));
+                }
+            }
+            List<Node> branches = new ArrayList<>();
+            if (nullable && nonNullTypes.size() == 1) {
+                branches.add(new Scalar(EnumSet.of(Type.NULL)));
+                branches.add(compile(nonNullTypes.get(0)));
+            } else {
+                schema.getTypes().forEach(type -> branches.add(compile(type)));
+            }
+            return new OneOf(branches);
+        }
+
+        private static Type logicalType(Schema schema) {
+            LogicalType logicalType = schema.getLogicalType();
+            String name = logicalType != null ? logicalType.getName() : schema.getProp("logicalType");
+            if (name == null) {
+                return null;
+            }
+            return switch (name) {
+                case "decimal" -> Type.NUMBER;
+                case "timestamp-millis", "timestamp-micros" -> Type.INTEGER;
+                case "date", "time-millis", "time-micros", "uuid", "duration" -> Type.STRING;
+                default -> null;
+            };
+        }
+
+        private static Type simpleType(Schema schema) {
+            return switch (schema.getType()) {
+                case STRING, BYTES -> Type.STRING;
+                case INT, LONG -> Type.INTEGER;
+                case FLOAT, DOUBLE -> Type.NUMBER;
+                case BOOLEAN -> Type.BOOLEAN;
+                default -> null;
+            };
+        }
+
+        private static boolean isNullable(Schema schema) {
+            if (schema.getType() == Schema.Type.UNION) {
+                return schema.getTypes().stream().anyMatch(type -> type.getType() == Schema.Type.NULL);
+            }
+            return schema.getType() == Schema.Type.NULL;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.metalib.schema.avro.json;
+
+import org.apache.avro.file.SeekableInput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a file through memory mappings of its content, which readers on several threads can
+ * share; each reader keeps its own position.
+ *
+ * <p>A single mapping is limited to 2 GiB, so the file is mapped in segments and a read may
+ * span two of them.
+ */
+final class MappedInput implements SeekableInput {
+
+    static final int SEGMENT_SIZE = 1 << 30;
+
+    private final List<MappedByteBuffer> segments;
+    private final int segmentSize;
+    private final long length;
+    private long position;
+
+    private MappedInput(List<MappedByteBuffer> segments, int segmentSize, long length) {
+        this.segments = segments;
+        this.segmentSize = segmentSize;
+        this.length = length;
+    }
+
+    /**
+     * Maps all of {@code channel}; the mappings stay valid after the channel is closed.
+     */
+    static MappedInput map(FileChannel channel, int segmentSize) throws IOException {
+        long length = channel.size();
+        List<MappedByteBuffer> segments = new ArrayList<>();
+        for (long offset = 0; offset < length; offset += segmentSize) {
+            segments.add(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(segmentSize, length - offset)));
+        }
+        return new MappedInput(segments, segmentSize, length);
+    }
+
+    /**
+     * Another reader of the same mappings, starting at the beginning.
+     */
+    MappedInput reader() {
+        return new MappedInput(segments, segmentSize, length);
+    }
+
+    @Override
+    public void seek(long p) throws IOException {
+        if (p < 0 || p > length) {
+            throw new IOException("Position " + p + " is outside the file of " + length + " bytes");
+        }
+        position = p;
+    }
+
+    @Override
+    public long tell() {
+        return position;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (position >= length) {
+            return -1;
+        }
+        int total = 0;
+        while (total < len && position < length) {
+            ByteBuffer segment = segments.get((int) (position / segmentSize));
+            int offset = (int) (position % segmentSize);
+            int count = Math.min(len - total, segment.limit() - offset);
+            segment.get(offset, b, off + total, count);
+            position += count;
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        // The mappings are released when they are garbage collected
+    }
+}
@@ -0,0 +1,376 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.SeekableFileInput;
+import org.apache.avro.file.SeekableInput;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.DatumReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Converts an Avro container file to newline-delimited JSON on several threads, block by block.
+ *
+ * <p>A container file is a header followed by blocks, each holding a record count, the
+ * compressed size and the records, and ending with the file's sync marker. The file is first
+ * split into blocks by walking their headers and checking every sync marker, without reading
+ * the records. Worker threads then decompress and convert blocks independently, each through
+ * its own {@link DataFileReader} sharing the parsed file header and writing with
+ * {@link AvroDataConverter}'s rules. The documents are either written to one stream in file
+ * order, with at most two blocks per thread held in memory, or to one shard file per block.
+ *
+ * <p>With {@link #withMemoryMapping()} the file is read through memory mappings shared by all
+ * threads instead of a file handle per thread.
+ */
+public final class ParallelDataConverter {
+
+    private static final JsonFactory factory = new JsonFactory();
+
+    private final AvroDataConverter converter;
+    private final int threads;
+    private final boolean memoryMapped;
+
+    /**
+     * @param threads worker threads; the number of available processors if not positive
+     */
+    public ParallelDataConverter(ConverterOptions options, int threads) {
+        this(new AvroDataConverter(options), threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), false);
+    }
+
+    private ParallelDataConverter(AvroDataConverter converter, int threads, boolean memoryMapped) {
+        this.converter = converter;
+        this.threads = threads;
+        this.memoryMapped = memoryMapped;
+    }
+
+    /**
+     * Reads the file through memory mappings instead of file handles.
+     */
+    public ParallelDataConverter withMemoryMapping() {
+        return new ParallelDataConverter(converter, threads, true);
+    }
+
+    /**
+     * A block of the container file: {@code start} is the offset of its header, right after the
+     * previous sync marker.
+     */
+    record Block(long start, long records) {
+    }
+
+    /**
+     * Writes every record to {@code out} as UTF-8 newline-delimited JSON in file order and
+     * returns the number of records. The stream is not closed.
+     */
+    public long convert(Path avroFile, OutputStream out) throws IOException {
+        Blocks blocks = Blocks.open(avroFile, memoryMapped);
+        int count = blocks.list().size();
+        List<CompletableFuture<byte[]>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(new CompletableFuture<>());
+        }
+        // Workers wait for a permit before taking a block, so they run at most this far ahead of the writer
+        Semaphore window = new Semaphore(2 * threads);
+        List<Thread> workers = start(blocks, window, (index, json) -> results.get(index).complete(json),
+                (index, e) -> results.get(index).completeExceptionally(e));
+        try {
+            for (CompletableFuture<byte[]> result : results) {
+                out.write(result.get());
+                window.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while converting " + avroFile);
+        } catch (ExecutionException e) {
+            throw failure(e.getCause());
+        } finally {
+            stop(workers);
+        }
+        return blocks.list().stream().mapToLong(Block::records).sum();
+    }
+
+    /**
+     * Writes the records of every block to its own file in {@code directory}, named after the
+     * Avro file and the block's index, as in {@code orders-00000.ndjson}, and returns the
+     * shard files in block order.
+     */
+    public List<Path> convertToShards(Path avroFile, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        String name = avroFile.getFileName().toString().replaceAll("\\.avro$", "");
+        Blocks blocks = Blocks.open(avroFile, memoryMapped);
+        int count = blocks.list().size();
+        int digits = Math.max(5, String.valueOf(count - 1).length());
+        List<Path> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shards.add(directory.resolve(name + "-" + "0".repeat(digits - String.valueOf(i).length()) + i + ".ndjson"));
+        }
+        List<CompletableFuture<Void>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(new CompletableFuture<>());
+        }
+        List<Thread> workers = start(blocks, null, (index, json) -> {
+            try {
+                Files.write(shards.get(index), json);
+                results.get(index).complete(null);
+            } catch (IOException e) {
+                results.get(index).completeExceptionally(e);
+            }
+        }, (index, e) -> results.get(index).completeExceptionally(e));
+        try {
+            for (CompletableFuture<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while converting " + avroFile);
+        } catch (ExecutionException e) {
+            throw failure(e.getCause());
+        } finally {
+            stop(workers);
+        }
+        return shards;
+    }
+
+    @FunctionalInterface
+    interface Converted {
+        void accept(int index, byte[] json);
+    }
+
+    @FunctionalInterface
+    interface Failed {
+        void accept(int index, Throwable error);
+    }
+
+    /**
+     * Starts the workers, which take blocks in file order until none are left, they fail or
+     * they are interrupted. A worker takes a permit from {@code window}, if given, before each
+     * block, so the block it takes is always the earliest one left. A worker that fails, with
+     * an exception or an error, fails its block and every block no worker has taken yet, so
+     * every block is either converted or failed.
+     */
+    List<Thread> start(Blocks blocks, Semaphore window, Converted converted, Failed failed) {
+        int count = blocks.list().size();
+        AtomicInteger next = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        int poolSize = Math.min(threads, Math.max(1, count));
+        for (int t = 0; t < poolSize; t++) {
+            Thread worker = new Thread(() -> {
+                int index = -1;
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                try (JsonGenerator out = factory.createGenerator(buffer, JsonEncoding.UTF8);
+                     DataFileReader<Void> reader = blocks.reader(converter.datumReader(out))) {
+                    out.setRootValueSeparator(null);
+                    while (!Thread.currentThread().isInterrupted()) {
+                        if (window != null) {
+                            try {
+                                window.acquire();
+                            } catch (InterruptedException e) {
+                                return;
+                            }
+                        }
+                        index = next.getAndIncrement();
+                        if (index >= count) {
+                            return;
+                        }
+                        Block block = blocks.list().get(index);
+                        reader.seek(block.start());
+                        for (long i = 0; i < block.records(); i++) {
+                            reader.next(null);
+                            out.writeRaw('\n');
+                        }
+                        out.flush();
+                        converted.accept(index, buffer.toByteArray());
+                        index = -1;
+                        buffer.reset();
+                    }
+                } catch (Throwable e) {
+                    if (index >= 0 && index < count) {
+                        failed.accept(index, e);
+                    }
+                    // No other worker takes the blocks left, so the caller does not wait for them forever
+                    for (int left = next.getAndAccumulate(count, Math::max); left < count; left++) {
+                        failed.accept(left, e);
+                    }
+                }
+            }, "avro-to-json-block-" + (t + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        return workers;
+    }
+
+    /**
+     * Interrupts the workers and waits for them to finish the block they are converting, so
+     * none of them is still writing once the conversion returns.
+     */
+    static void stop(List<Thread> workers) {
+        workers.forEach(Thread::interrupt);
+        boolean interrupted = false;
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static IOException failure(Throwable cause) {
+        if (cause instanceof IOException e) {
+            return e;
+        }
+        if (cause instanceof UncheckedIOException e) {
+            return e.getCause();
+        }
+        if (cause instanceof RuntimeException e) {
+            throw e;
+        }
+        if (cause instanceof Error e) {
+            throw e;
+        }
+        return new IOException(cause);
+    }
+
+    /**
+     * The blocks of an open container file and the means to read them on several threads.
+     */
+    static final class Blocks {
+        private final Path file;
+        private final MappedInput mapped;
+        private final DataFileStream.Header header;
+        private final List<Block> list;
+
+        private Blocks(Path file, MappedInput mapped, DataFileStream.Header header, List<Block> list) {
+            this.file = file;
+            this.mapped = mapped;
+            this.header = header;
+            this.list = list;
+        }
+
+        static Blocks open(Path file, boolean memoryMapped) throws IOException {
+            MappedInput mapped = null;
+            if (memoryMapped) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    mapped = MappedInput.map(channel, MappedInput.SEGMENT_SIZE);
+                }
+            }
+            SeekableInput input = mapped != null ? mapped.reader() : new SeekableFileInput(file.toFile());
+            try (DataFileReader<Void> reader = new DataFileReader<>(input, new GenericDatumReader<>())) {
+                long headerEnd = reader.previousSync();
+                List<Block> list = split(mapped != null ? mapped.reader() : new SeekableFileInput(file.toFile()), headerEnd);
+                return new Blocks(file, mapped, reader.getHeader(), list);
+            }
+        }
+
+        List<Block> list() {
+            return list;
+        }
+
+        /**
+         * A reader of the file sharing its parsed header; seek it to a block's start to read it.
+         */
+        DataFileReader<Void> reader(DatumReader<Void> datumReader) throws IOException {
+            SeekableInput input = mapped != null ? mapped.reader() : new SeekableFileInput(file.toFile());
+            return DataFileReader.openReader(input, datumReader, header, false);
+        }
+
+        /**
+         * Walks the block headers from {@code headerEnd}, which is preceded by the sync marker,
+         * and checks that every block ends with it.
+         */
+        static List<Block> split(SeekableInput input, long headerEnd) throws IOException {
+            try (input) {
+                byte[] sync = new byte[DataFileConstants.SYNC_SIZE];
+                readFully(input, headerEnd - sync.length, sync);
+                byte[] marker = new byte[DataFileConstants.SYNC_SIZE];
+                // Two varints take at most ten bytes each
+                byte[] head = new byte[20];
+                List<Block> blocks = new ArrayList<>();
+                long length = input.length();
+                long position = headerEnd;
+                while (position < length) {
+                    input.seek(position);
+                    int read = readAvailable(input, head);
+                    ByteBuffer varints = ByteBuffer.wrap(head, 0, read);
+                    long records = readLong(varints, position);
+                    long size = readLong(varints, position);
+                    long end = position + varints.position() + size;
+                    if (records < 0 || size < 0 || end + sync.length > length) {
+                        throw new IOException("Invalid block at offset " + position);
+                    }
+                    readFully(input, end, marker);
+                    if (!Arrays.equals(sync, marker)) {
+                        throw new IOException("Invalid sync marker after the block at offset " + position);
+                    }
+                    blocks.add(new Block(position, records));
+                    position = end + sync.length;
+                }
+                return blocks;
+            }
+        }
+
+        private static void readFully(SeekableInput input, long position, byte[] bytes) throws IOException {
+            input.seek(position);
+            if (readAvailable(input, bytes) != bytes.length) {
+                throw new EOFException("Unexpected end of file at offset " + position);
+            }
+        }
+
+        private static int readAvailable(SeekableInput input, byte[] bytes) throws IOException {
+            int total = 0;
+            while (total < bytes.length) {
+                int read = input.read(bytes, total, bytes.length - total);
+                if (read < 0) {
+                    break;
+                }
+                total += read;
+            }
+            return total;
+        }
+
+        /**
+         * Reads one of Avro's zig-zag encoded variable-length longs.
+         */
+        private static long readLong(ByteBuffer in, long block) throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (!in.hasRemaining()) {
+                    throw new EOFException("Truncated block header at offset " + block);
+                }
+                byte b = in.get();
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return (value >>> 1) ^ -(value & 1);
+                }
+            }
+            throw new IOException("Invalid block header at offset " + block);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JFieldVar;
+import org.jsonschema2pojo.AbstractAnnotator;
+import org.jsonschema2pojo.AnnotationStyle;
+import org.jsonschema2pojo.GenerationConfig;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A custom jsonschema2pojo annotator that turns generated classes into Java records.
+ *
+ * <p>Each property becomes a record component carrying the property's annotations, and the
+ * compact canonical constructor is annotated with {@code @JsonCreator}, so Jackson binds
+ * through the constructor instead of setters. Default values move into the constructor and
+ * apply when a property is absent or {@code null}. Nested enums are kept as they are.
+ *
+ * <p>jsonschema2pojo's code model has no records, so the classes are generated with public
+ * fields and rewritten into records afterwards. This only happens with
+ * {@link InMemoryPojoGenerator} and {@link AvroPojoGenerator}, which require setters,
+ * builders, constructors and additional properties to be disabled. Use this annotator in
+ * place of {@link LombokAnnotator}.
+ */
+public class RecordAnnotator extends AbstractAnnotator {
+
+    private static final Pattern FIELD = Pattern.compile(
+            "^ {4}(?:(?:public|protected|private|static|final|transient|volatile) )*(.+?) ([\\w$]+)(?: = (.*))?;$");
+
+    private record Component(String name, String description) {
+    }
+
+    private final Map<JDefinedClass, List<Component>> classes = new LinkedHashMap<>();
+
+    public RecordAnnotator() {
+    }
+
+    public RecordAnnotator(GenerationConfig generationConfig) {
+        super(generationConfig);
+    }
+
+    @Override
+    public void propertyField(JFieldVar field, JDefinedClass clazz, String propertyName, JsonNode propertyNode) {
+        classes.computeIfAbsent(clazz, key -> new ArrayList<>())
+                .add(new Component(field.name(), propertyNode.path("description").asText("")));
+    }
+
+    @Override
+    public void propertyOrder(JDefinedClass clazz, JsonNode propertiesNode) {
+        classes.computeIfAbsent(clazz, key -> new ArrayList<>());
+    }
+
+    /**
+     * Checks that the classes generated with {@code config} can become records.
+     */
+    static void validate(GenerationConfig config) {
+        if (config.isIncludeSetters() || config.isGenerateBuilders() || config.isIncludeConstructors()
+                || config.isIncludeAdditionalProperties()) {
+            throw new IllegalArgumentException("Records require setters, builders, constructors and"
+                    + " additional properties to be disabled");
+        }
+    }
+
+    /**
+     * Rewrites the generated sources of the recorded classes into records.
+     */
+    void toRecords(Map<String, byte[]> files, GenerationConfig config) {
+        Charset charset = Charset.forName(config.getOutputEncoding());
+        boolean jackson = config.getAnnotationStyle() == AnnotationStyle.JACKSON
+                || config.getAnnotationStyle() == AnnotationStyle.JACKSON2
+                || config.getAnnotationStyle() == AnnotationStyle.JACKSON3;
+        classes.forEach((clazz, components) -> {
+            if (clazz.outer() != null || !"java.lang.Object".equals(clazz._extends().fullName())) {
+                return;
+            }
+            String path = clazz._package().isUnnamed() ? clazz.name() + ".java"
+                    : clazz._package().name().replace('.', '/') + "/" + clazz.name() + ".java";
+            byte[] source = files.get(path);
+            if (source != null) {
+                files.put(path, toRecord(new String(source, charset), clazz, components, jackson).getBytes(charset));
+            }
+        });
+    }
+
+    private static String toRecord(String source, JDefinedClass clazz, List<Component> components, boolean jackson) {
+        Matcher declaration = Pattern.compile("^public class " + Pattern.quote(clazz.name())
+                + "( implements [^{\\n]+)?\\s*\\{\\n", Pattern.MULTILINE).matcher(source);
+        int end = source.lastIndexOf('}');
+        if (!declaration.find() || end < declaration.end()) {
+            throw new IllegalStateException("Cannot turn " + clazz.fullName() + " into a record");
+        }
+        Map<String, Component> byName = new LinkedHashMap<>();
+        components.forEach(component -> byName.put(component.name(), component));
+
+        // The code model prints the fields first, each after its javadoc and annotations
+        List<String> lines = source.substring(declaration.end(), end).lines().toList();
+        List<String> parameters = new ArrayList<>();
+        List<String> defaults = new ArrayList<>();
+        StringBuilder members = new StringBuilder();
+        List<String> annotations = new ArrayList<>();
+        int memberStart = 0;
+        boolean javadoc = false;
+        int i = 0;
+        for (; i < lines.size() && parameters.size() < byName.size(); i++) {
+            String line = lines.get(i);
+            String trimmed = line.trim();
+            if (javadoc || trimmed.startsWith("/**")) {
+                javadoc = !trimmed.endsWith("*/");
+                continue;
+            }
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.startsWith("@")) {
+                annotations.add(trimmed);
+                continue;
+            }
+            Matcher field = FIELD.matcher(line);
+            if (!field.matches()) {
+                break;
+            }
+            if (byName.containsKey(field.group(2))) {
+                String name = field.group(2);
+                parameters.add(String.join(" ", annotations) + (annotations.isEmpty() ? "" : " ")
+                        + field.group(1) + " " + name);
+                if (field.group(3) != null && !field.group(3).equals("null")) {
+                    defaults.add("        if (" + name + " == null) {\n            " + name + " = "
+                            + field.group(3) + ";\n        }\n");
+                }
+            } else {
+                // Other fields, such as serialVersionUID, must be static and stay members
+                lines.subList(memberStart, i + 1).forEach(member -> members.append(member).append('\n'));
+            }
+            annotations.clear();
+            memberStart = i + 1;
+        }
+        if (parameters.size() < byName.size()) {
+            throw new IllegalStateException("Cannot find the fields of " + clazz.fullName());
+        }
+
+        StringBuilder record = new StringBuilder(header(source.substring(0, declaration.start()), components, jackson));
+        record.append("public record ").append(clazz.name()).append('(');
+        for (int p = 0; p < parameters.size(); p++) {
+            record.append(p == 0 ? "\n" : ",\n").append("        ").append(parameters.get(p));
+        }
+        record.append(')').append(declaration.group(1) != null ? declaration.group(1) : "").append(" {\n");
+        if (members.length() > 0) {
+            record.append('\n').append(members);
+        }
+        if (jackson || !defaults.isEmpty()) {
+            record.append('\n');
+            if (jackson) {
+                record.append("    @JsonCreator\n");
+            }
+            record.append("    public ").append(clazz.name()).append(" {\n");
+            defaults.forEach(record::append);
+            record.append("    }\n");
+        }
+        List<String> rest = lines.subList(memberStart, lines.size());
+        if (rest.stream().anyMatch(line -> !line.isBlank())) {
+            record.append('\n');
+            rest.stream().dropWhile(String::isBlank).forEach(line -> record.append(line).append('\n'));
+        }
+        return record.append("}\n").toString();
+    }
+
+    /**
+     * Adds the {@code JsonCreator} import and documents the components that have a description.
+     */
+    private static String header(String header, List<Component> components, boolean jackson) {
+        String result = header;
+        String creator = "import com.fasterxml.jackson.annotation.JsonCreator;\n";
+        if (jackson && !result.contains(creator)) {
+            Matcher imports = Pattern.compile("^import (?!java\\.)(?!javax\\.)([\\w.]+);\\n", Pattern.MULTILINE)
+                    .matcher(result);
+            int at = -1;
+            while (imports.find()) {
+                if (imports.group(1).compareTo("com.fasterxml.jackson.annotation.JsonCreator") > 0) {
+                    at = imports.start();
+                    break;
+                }
+                at = imports.end();
+            }
+            if (at < 0) {
+                Matcher pkg = Pattern.compile("^package [\\w.]+;\\n\\n", Pattern.MULTILINE).matcher(result);
+                at = pkg.find() ? pkg.end() : 0;
+            }
+            result = result.substring(0, at) + creator + result.substring(at);
+        }
+        StringBuilder params = new StringBuilder();
+        components.stream().filter(component -> !component.description().isBlank()).forEach(component ->
+                params.append(" * @param ").append(component.name()).append(' ')
+                        .append(component.description().replace("*/", "*&#47;").replace("\n", "\n * ")).append('\n'));
+        int javadocEnd = result.lastIndexOf(" */\n");
+        if (params.length() > 0 && javadocEnd >= 0) {
+            result = result.substring(0, javadocEnd) + params + result.substring(javadocEnd);
+        }
+        return result;
+    }
+}
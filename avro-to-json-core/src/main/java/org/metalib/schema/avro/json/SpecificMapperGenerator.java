@@ -0,0 +1,649 @@
+package org.metalib.schema.avro.json;
+
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JType;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.specific.SpecificData;
+import org.metalib.schema.avro.json.AvroClasses.Property;
+import org.metalib.schema.avro.json.AvroClasses.Unsupported;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.metalib.schema.avro.json.AvroClasses.capitalize;
+import static org.metalib.schema.avro.json.AvroClasses.elementType;
+import static org.metalib.schema.avro.json.AvroClasses.expect;
+import static org.metalib.schema.avro.json.AvroClasses.javaName;
+import static org.metalib.schema.avro.json.AvroClasses.member;
+import static org.metalib.schema.avro.json.AvroClasses.nonNull;
+import static org.metalib.schema.avro.json.AvroClasses.nullIndex;
+import static org.metalib.schema.avro.json.AvroClasses.scale;
+
+/**
+ * Generates a mapper that copies every class jsonschema2pojo generates from an Avro record to
+ * and from the {@code SpecificRecord} class Avro's compiler generates from the same record.
+ *
+ * <p>For a class {@code Order} generated from record {@code com.example.avro.Order} it generates
+ * {@code OrderSpecificMapper} with a static {@code fromAvro(com.example.avro.Order)} and
+ * {@code toAvro(Order)}. They copy field by field through the record's {@code get(int)} and
+ * {@code put(int, Object)}, converting strings, logical types, nested records, arrays and maps
+ * on the way, so nothing is serialized in between. Whether a logical type is held as its Java
+ * type ({@code BigDecimal}, {@code Instant}, {@code LocalDate}, {@code UUID}, ...) or as its
+ * underlying Avro type is taken from the record class's {@code SpecificData}, and for a decimal
+ * field from the field's declared type, so the mappers work whatever string type and logical
+ * type settings the Avro compiler used. The record class
+ * is checked against the schema's parsing fingerprint when the mapper is loaded.
+ *
+ * <p>The record classes are named after the records' full names, as Avro's compiler names them,
+ * so the POJOs must be generated into another package. Classes without such a record class,
+ * with a field whose Java type does not fit its Avro type, or that contain a class without a
+ * mapper get no mapper; {@link #generate()} returns them with the reason. A map becomes a class
+ * holding its entries as additional properties, so maps need additional properties to be
+ * enabled.
+ */
+public final class SpecificMapperGenerator {
+
+    /** Suffix of the generated mapper classes. */
+    public static final String MAPPER_SUFFIX = "SpecificMapper";
+
+    private final AvroClasses classes;
+
+    SpecificMapperGenerator(AvroClasses classes) {
+        this.classes = classes;
+    }
+
+    /**
+     * Generates the mappers of the matched classes, and returns the classes that get none.
+     */
+    AvroClasses.Generated generate() {
+        return classes.generate(MAPPER_SUFFIX,
+                (clazz, avroRecord, matched) -> new Mapper(clazz, avroRecord, matched).source());
+    }
+
+    /**
+     * The mapper of one class; helper methods and constants are added as the fields need them.
+     */
+    private final class Mapper {
+
+        private final JDefinedClass clazz;
+        private final Schema avroRecord;
+        private final Map<JDefinedClass, Schema> matched;
+        private final String pkg;
+        private final Map<String, String> constants = new LinkedHashMap<>();
+        private final Map<String, String> methods = new LinkedHashMap<>();
+        /** The record field being converted; {@code null} for the items of its arrays and maps. */
+        private Schema.Field recordField;
+
+        Mapper(JDefinedClass clazz, Schema avroRecord, Map<JDefinedClass, Schema> matched) {
+            this.clazz = clazz;
+            this.avroRecord = avroRecord;
+            this.matched = matched;
+            this.pkg = clazz._package().name();
+            // Reserve the public methods' names for the helpers
+            methods.put("fromAvro", "");
+            methods.put("toAvro", "");
+            methods.put("model", "");
+        }
+
+        String source() {
+            String type = clazz.name();
+            String avroType = avroClass(avroRecord);
+            List<String> froms = new ArrayList<>();
+            StringBuilder tos = new StringBuilder();
+            for (Property property : classes.properties(clazz)) {
+                JFieldVar field = property.field();
+                Schema.Field avroField = avroRecord.getField(property.name());
+                String name = capitalize(field.name());
+                recordField = avroField;
+                try {
+                    String from = from(avroField.schema(), field.type(), "record.get(" + avroField.pos() + ")", name);
+                    froms.add(classes.records() ? from : classes.set(clazz, property, "value", from));
+                    tos.append("        record.put(").append(avroField.pos()).append(", ")
+                            .append(to(avroField.schema(), field.type(), classes.get(clazz, property, "value"), name))
+                            .append(");\n");
+                } catch (Unsupported e) {
+                    throw e.of(property, avroField.schema());
+                }
+            }
+            String mapper = type + MAPPER_SUFFIX;
+
+            StringBuilder out = new StringBuilder();
+            JavaSources.packageLine(out, pkg);
+            out.append("""
+                    import org.apache.avro.SchemaNormalization;
+                    import org.apache.avro.specific.SpecificData;
+                    import org.apache.avro.specific.SpecificRecordBase;
+
+                    """);
+            out.append("/**\n * Copies {@link ").append(type).append("} to and from the Avro specific record {@link ")
+                    .append(avroType).append("},\n * field by field and without serializing either.\n */\n");
+            out.append("public final class ").append(mapper).append(" {\n\n");
+            out.append("    /**\n     * Parsing fingerprint ({@code SchemaNormalization.parsingFingerprint64}) of the"
+                    + " schema the specific\n     * record class must have.\n     */\n");
+            out.append("    public static final long FINGERPRINT = ")
+                    .append(SchemaNormalization.parsingFingerprint64(avroRecord)).append("L;\n\n");
+            out.append("    private static final SpecificData MODEL = model(new ").append(avroType).append("());\n");
+            constants.values().forEach(out::append);
+            out.append("\n    private ").append(mapper).append("() {\n    }\n\n");
+
+            out.append("    public static ").append(type).append(" fromAvro(").append(avroType).append(" record) {\n");
+            if (classes.records()) {
+                out.append("        return new ").append(type).append('(');
+                for (int i = 0; i < froms.size(); i++) {
+                    out.append(i == 0 ? "\n" : ",\n").append("                ").append(froms.get(i));
+                }
+                out.append(");\n");
+            } else {
+                out.append("        ").append(type).append(" value = new ").append(type).append("();\n");
+                froms.forEach(from -> out.append("        ").append(from).append('\n'));
+                out.append("        return value;\n");
+            }
+            out.append("    }\n\n");
+
+            out.append("    public static ").append(avroType).append(" toAvro(").append(type).append(" value) {\n");
+            out.append("        ").append(avroType).append(" record = new ").append(avroType).append("();\n");
+            out.append(tos);
+            out.append("        return record;\n");
+            out.append("    }\n\n");
+
+            out.append("""
+                        private static SpecificData model(SpecificRecordBase record) {
+                            if (SchemaNormalization.parsingFingerprint64(record.getSchema()) != FINGERPRINT) {
+                                throw new IllegalStateException(record.getClass().getName()
+                                        + " was not generated from the schema %s was generated from");
+                            }
+                            return record.getSpecificData();
+                        }
+                    """.formatted(mapper));
+            methods.values().stream().filter(method -> !method.isEmpty())
+                    .forEach(method -> out.append('\n').append(method));
+            return out.append("}\n").toString();
+        }
+
+        /**
+         * The expression converting {@code value}, an {@code Object} as held by the specific
+         * record, to {@code type}.
+         */
+        private String from(Schema schema, JType type, String value, String name) {
+            String java = javaName(type);
+            String logicalType = schema.getProp("logicalType");
+            return switch (schema.getType()) {
+                case UNION -> {
+                    nullIndex(schema, type);
+                    yield value + " == null ? null : " + from(nonNull(schema), type, value, name);
+                }
+                case BOOLEAN -> expect(java, "boolean", "java.lang.Boolean", "(Boolean) " + value);
+                case INT -> {
+                    if (logicalType == null) {
+                        yield switch (java) {
+                            case "int", "java.lang.Integer" -> "(Integer) " + value;
+                            case "long", "java.lang.Long" -> "(long) (Integer) " + value;
+                            default -> throw new Unsupported();
+                        };
+                    }
+                    String temporal = switch (logicalType) {
+                        case "date" -> helper("localDate", method -> """
+                                    private static java.time.LocalDate %s(Object value) {
+                                        return value instanceof java.time.LocalDate date ? date
+                                                : java.time.LocalDate.ofEpochDay((Integer) value);
+                                    }
+                                """.formatted(method));
+                        case "time-millis" -> helper("localTimeMillis", method -> """
+                                    private static java.time.LocalTime %s(Object value) {
+                                        return value instanceof java.time.LocalTime time ? time
+                                                : java.time.LocalTime.ofNanoOfDay((Integer) value * 1_000_000L);
+                                    }
+                                """.formatted(method));
+                        default -> throw new Unsupported();
+                    } + "(" + value + ")";
+                    yield temporal(java, logicalType, temporal);
+                }
+                case LONG -> {
+                    if (logicalType == null) {
+                        yield switch (java) {
+                            case "long", "java.lang.Long" -> "(Long) " + value;
+                            case "int", "java.lang.Integer" -> "Math.toIntExact((Long) " + value + ")";
+                            default -> throw new Unsupported();
+                        };
+                    }
+                    yield switch (logicalType) {
+                        case "timestamp-millis" -> timestamp(java, helper("epochMillis", method -> """
+                                    private static long %s(Object value) {
+                                        return value instanceof java.time.Instant instant ? instant.toEpochMilli() : (Long) value;
+                                    }
+                                """.formatted(method)) + "(" + value + ")", "java.time.Instant.ofEpochMilli(%s)");
+                        case "timestamp-micros" -> timestamp(java, helper("epochMicros", method -> """
+                                    private static long %s(Object value) {
+                                        return value instanceof java.time.Instant instant
+                                                ? java.time.temporal.ChronoUnit.MICROS.between(java.time.Instant.EPOCH, instant)
+                                                : (Long) value;
+                                    }
+                                """.formatted(method)) + "(" + value + ")",
+                                "java.time.Instant.EPOCH.plus(%s, java.time.temporal.ChronoUnit.MICROS)");
+                        case "time-micros" -> temporal(java, logicalType, helper("localTimeMicros", method -> """
+                                    private static java.time.LocalTime %s(Object value) {
+                                        return value instanceof java.time.LocalTime time ? time
+                                                : java.time.LocalTime.ofNanoOfDay((Long) value * 1_000L);
+                                    }
+                                """.formatted(method)) + "(" + value + ")");
+                        default -> throw new Unsupported();
+                    };
+                }
+                case FLOAT -> switch (java) {
+                    case "float", "java.lang.Float" -> "(Float) " + value;
+                    case "double", "java.lang.Double" -> "(double) (Float) " + value;
+                    case "java.math.BigDecimal" -> "new java.math.BigDecimal(" + value + ".toString())";
+                    default -> throw new Unsupported();
+                };
+                case DOUBLE -> switch (java) {
+                    case "double", "java.lang.Double" -> "(Double) " + value;
+                    case "java.math.BigDecimal" -> "java.math.BigDecimal.valueOf((Double) " + value + ")";
+                    default -> throw new Unsupported();
+                };
+                case STRING -> switch (java) {
+                    case "java.lang.String" -> value + ".toString()";
+                    case "java.util.UUID" -> expect(logicalType, "uuid", helper("uuid", method -> """
+                                private static java.util.UUID %s(Object value) {
+                                    return value instanceof java.util.UUID uuid ? uuid : java.util.UUID.fromString(value.toString());
+                                }
+                            """.formatted(method)) + "(" + value + ")");
+                    default -> throw new Unsupported();
+                };
+                case BYTES, FIXED -> {
+                    if ("decimal".equals(logicalType)) {
+                        String decimal = decimal() + "(" + value + ", " + scale(schema) + ")";
+                        yield switch (java) {
+                            case "java.math.BigDecimal" -> decimal;
+                            case "double", "java.lang.Double" -> decimal + ".doubleValue()";
+                            default -> throw new Unsupported();
+                        };
+                    }
+                    String bytes = schema.getType() == Schema.Type.FIXED
+                            ? "((org.apache.avro.generic.GenericFixed) " + value + ").bytes().clone()"
+                            : bytes() + "(" + value + ")";
+                    yield switch (java) {
+                        case "byte[]" -> bytes;
+                        case "java.lang.String" -> "java.util.Base64.getEncoder().encodeToString(" + bytes + ")";
+                        default -> throw new Unsupported();
+                    };
+                }
+                case ENUM -> {
+                    JDefinedClass enumClass = classes.enumClass(type);
+                    yield typeName(enumClass) + "." + classes.enumCreator(enumClass).name() + "(" + value + ".toString())";
+                }
+                case RECORD -> mapperOf(schema, type) + ".fromAvro((" + avroClass(schema) + ") " + value + ")";
+                case ARRAY -> {
+                    JType element = elementType(type);
+                    String collection = java.equals("java.util.Set") ? "java.util.LinkedHashSet" : "java.util.ArrayList";
+                    String item = from(schema.getElementType(), element, "item", name + "Item");
+                    yield helper("from" + name, method -> """
+                                private static %s %s(Object values) {
+                                    %s items = new %s<>();
+                                    for (Object item : (java.util.Collection<?>) values) {
+                                        items.add(%s);
+                                    }
+                                    return items;
+                                }
+                            """.formatted(typeName(type), method, typeName(type), collection, item)) + "(" + value + ")";
+                }
+                case MAP -> {
+                    JType valueType = classes.mapValueType(type);
+                    String entry = from(schema.getValueType(), valueType, "entry.getValue()", name + "Value");
+                    yield helper("from" + name, method -> """
+                                private static %s %s(Object values) {
+                                    %s map = new %s();
+                                    for (java.util.Map.Entry<?, ?> entry : ((java.util.Map<?, ?>) values).entrySet()) {
+                                        map.setAdditionalProperty(entry.getKey().toString(), %s);
+                                    }
+                                    return map;
+                                }
+                            """.formatted(typeName(type), method, typeName(type), typeName(type), entry)) + "(" + value + ")";
+                }
+                default -> throw new Unsupported();
+            };
+        }
+
+        /**
+         * Converts {@code temporal}, a {@code LocalDate} or {@code LocalTime} expression, to {@code java}.
+         */
+        private static String temporal(String java, String logicalType, String temporal) {
+            return switch (java) {
+                case "java.time.LocalDate" -> expect(logicalType, "date", temporal);
+                case "java.time.LocalTime" -> logicalType.startsWith("time-") ? temporal : throwUnsupported();
+                case "java.lang.String" -> temporal + ".toString()";
+                default -> throw new Unsupported();
+            };
+        }
+
+        /**
+         * Converts {@code epoch}, a {@code long} expression, to {@code java}.
+         */
+        private static String timestamp(String java, String epoch, String instant) {
+            return switch (java) {
+                case "long", "java.lang.Long" -> epoch;
+                case "int", "java.lang.Integer" -> "Math.toIntExact(" + epoch + ")";
+                case "java.time.Instant" -> instant.formatted(epoch);
+                default -> throw new Unsupported();
+            };
+        }
+
+        private String decimal() {
+            return helper("decimal", method -> """
+                        private static java.math.BigDecimal %s(Object value, int scale) {
+                            if (value instanceof java.math.BigDecimal decimal) {
+                                return decimal;
+                            }
+                            byte[] unscaled = value instanceof org.apache.avro.generic.GenericFixed fixed ? fixed.bytes() : %s(value);
+                            return new java.math.BigDecimal(new java.math.BigInteger(unscaled), scale);
+                        }
+                    """.formatted(method, bytes()));
+        }
+
+        private String bytes() {
+            return helper("bytes", method -> """
+                        private static byte[] %s(Object value) {
+                            java.nio.ByteBuffer buffer = ((java.nio.ByteBuffer) value).duplicate();
+                            byte[] bytes = new byte[buffer.remaining()];
+                            buffer.get(bytes);
+                            return bytes;
+                        }
+                    """.formatted(method));
+        }
+
+        /**
+         * The expression converting {@code value}, of {@code type}, to what the specific record
+         * holds.
+         */
+        private String to(Schema schema, JType type, String value, String name) {
+            String java = javaName(type);
+            String logicalType = schema.getProp("logicalType");
+            return switch (schema.getType()) {
+                case UNION -> {
+                    nullIndex(schema, type);
+                    String converted = to(nonNull(schema), type, value, name);
+                    yield converted.equals(value) ? value : value + " == null ? null : " + converted;
+                }
+                case BOOLEAN -> value;
+                case INT -> {
+                    if (logicalType == null) {
+                        yield switch (java) {
+                            case "int", "java.lang.Integer" -> value;
+                            case "long", "java.lang.Long" -> "Math.toIntExact(" + value + ")";
+                            default -> throw new Unsupported();
+                        };
+                    }
+                    yield switch (logicalType) {
+                        case "date" -> logical("date", "java.time.LocalDate",
+                                "Math.toIntExact(value.toEpochDay())", java, value);
+                        case "time-millis" -> logical("timeMillis", "java.time.LocalTime",
+                                "(int) (value.toNanoOfDay() / 1_000_000L)", java, value);
+                        default -> throw new Unsupported();
+                    };
+                }
+                case LONG -> {
+                    if (logicalType == null) {
+                        yield switch (java) {
+                            case "long", "java.lang.Long" -> value;
+                            case "int", "java.lang.Integer" -> "(long) " + value;
+                            default -> throw new Unsupported();
+                        };
+                    }
+                    yield switch (logicalType) {
+                        case "timestamp-millis" -> epoch("timestampMillis", "java.time.Instant.ofEpochMilli(value)",
+                                value + ".toEpochMilli()", java, value);
+                        case "timestamp-micros" -> epoch("timestampMicros",
+                                "java.time.Instant.EPOCH.plus(value, java.time.temporal.ChronoUnit.MICROS)",
+                                "java.time.temporal.ChronoUnit.MICROS.between(java.time.Instant.EPOCH, " + value + ")",
+                                java, value);
+                        case "time-micros" -> logical("timeMicros", "java.time.LocalTime",
+                                "value.toNanoOfDay() / 1_000L", java, value);
+                        default -> throw new Unsupported();
+                    };
+                }
+                case FLOAT -> switch (java) {
+                    case "float", "java.lang.Float" -> value;
+                    case "double", "java.lang.Double" -> "(float) (double) " + value;
+                    case "java.math.BigDecimal" -> value + ".floatValue()";
+                    default -> throw new Unsupported();
+                };
+                case DOUBLE -> switch (java) {
+                    case "double", "java.lang.Double" -> value;
+                    case "float", "java.lang.Float" -> "(double) " + value;
+                    case "java.math.BigDecimal" -> value + ".doubleValue()";
+                    default -> throw new Unsupported();
+                };
+                case STRING -> {
+                    if (!"uuid".equals(logicalType)) {
+                        yield expect(java, "java.lang.String", "", value);
+                    }
+                    String uuid = java.equals("java.lang.String") ? "java.util.UUID.fromString(" + value + ")"
+                            : expect(java, "java.util.UUID", "", value);
+                    yield helper("uuid", method -> """
+                                private static Object %s(java.util.UUID value) {
+                                    return %s ? value : value.toString();
+                                }
+                            """.formatted(method, converts("uuid"))) + "(" + uuid + ")";
+                }
+                case BYTES, FIXED -> {
+                    String fixedClass = schema.getType() == Schema.Type.FIXED ? avroClass(schema) : null;
+                    if ("decimal".equals(logicalType)) {
+                        String decimal = switch (java) {
+                            case "java.math.BigDecimal" -> value;
+                            case "double", "java.lang.Double" -> "java.math.BigDecimal.valueOf(" + value + ")";
+                            default -> throw new Unsupported();
+                        };
+                        yield toDecimal(schema, fixedClass) + "(" + decimal + ", " + holdsDecimal() + ")";
+                    }
+                    String bytes = switch (java) {
+                        case "byte[]" -> value;
+                        case "java.lang.String" -> "java.util.Base64.getDecoder().decode(" + value + ")";
+                        default -> throw new Unsupported();
+                    };
+                    yield fixedClass == null ? "java.nio.ByteBuffer.wrap(" + bytes + ")"
+                            : "new " + fixedClass + "(" + fixedSize() + "(" + bytes + ", " + schema.getFixedSize() + "))";
+                }
+                case ENUM -> {
+                    classes.enumClass(type);
+                    yield avroClass(schema) + ".valueOf(" + value + ".value())";
+                }
+                case RECORD -> mapperOf(schema, type) + ".toAvro(" + value + ")";
+                case ARRAY -> {
+                    JType element = elementType(type);
+                    Schema.Field outer = recordField;
+                    recordField = null;
+                    String item = to(schema.getElementType(), element, "item", name + "Item");
+                    recordField = outer;
+                    yield helper("to" + name, method -> """
+                                private static java.util.List<Object> %s(%s values) {
+                                    java.util.List<Object> items = new java.util.ArrayList<>(values.size());
+                                    for (%s item : values) {
+                                        items.add(%s);
+                                    }
+                                    return items;
+                                }
+                            """.formatted(method, typeName(type), typeName(element), item)) + "(" + value + ")";
+                }
+                case MAP -> {
+                    JType valueType = classes.mapValueType(type);
+                    Schema.Field outer = recordField;
+                    recordField = null;
+                    String entry = to(schema.getValueType(), valueType, "entry.getValue()", name + "Value");
+                    recordField = outer;
+                    yield helper("to" + name, method -> """
+                                private static java.util.Map<String, Object> %s(%s values) {
+                                    java.util.Map<String, Object> map = new java.util.LinkedHashMap<>();
+                                    for (java.util.Map.Entry<String, %s> entry : values.getAdditionalProperties().entrySet()) {
+                                        map.put(entry.getKey(), %s);
+                                    }
+                                    return map;
+                                }
+                            """.formatted(method, typeName(type), typeName(valueType), entry)) + "(" + value + ")";
+                }
+                default -> throw new Unsupported();
+            };
+        }
+
+        /**
+         * Converts {@code value}, a {@code java} expression, to what the record holds for a date or
+         * time: the {@code javaType} itself, or {@code raw} computed from it.
+         */
+        private String logical(String helper, String javaType, String raw, String java, String value) {
+            String temporal = switch (java) {
+                case "java.time.LocalDate", "java.time.LocalTime" -> expect(java, javaType, "", value);
+                case "java.lang.String" -> javaType + ".parse(" + value + ")";
+                default -> throw new Unsupported();
+            };
+            String logicalType = helper.equals("date") ? "date" : helper.equals("timeMillis") ? "time-millis" : "time-micros";
+            return helper(helper, method -> """
+                        private static Object %s(%s value) {
+                            return %s ? value : (Object) (%s);
+                        }
+                    """.formatted(method, javaType, converts(logicalType), raw))
+                    + "(" + temporal + ")";
+        }
+
+        /**
+         * Converts {@code value} to what the record holds for a timestamp: an {@code Instant}
+         * computed by {@code instant}, or the epoch value.
+         */
+        private String epoch(String helper, String instant, String toEpoch, String java, String value) {
+            String epoch = switch (java) {
+                case "long", "java.lang.Long", "int", "java.lang.Integer" -> value;
+                case "java.time.Instant" -> toEpoch;
+                default -> throw new Unsupported();
+            };
+            String logicalType = helper.equals("timestampMillis") ? "timestamp-millis" : "timestamp-micros";
+            return helper(helper, method -> """
+                        private static Object %s(long value) {
+                            return %s ? %s : (Object) value;
+                        }
+                    """.formatted(method, converts(logicalType), instant)) + "(" + epoch + ")";
+        }
+
+        private String toDecimal(Schema schema, String fixedClass) {
+            int scale = scale(schema);
+            if (fixedClass == null) {
+                return helper("decimalBytes", method -> """
+                            private static Object %s(java.math.BigDecimal value, boolean converted) {
+                                return converted ? value : java.nio.ByteBuffer.wrap(value.setScale(%d).unscaledValue().toByteArray());
+                            }
+                        """.formatted(method, scale));
+            }
+            int size = schema.getFixedSize();
+            return helper("decimal" + capitalize(schema.getName()), method -> """
+                        private static Object %s(java.math.BigDecimal value, boolean converted) {
+                            if (converted) {
+                                return value;
+                            }
+                            byte[] unscaled = value.setScale(%d).unscaledValue().toByteArray();
+                            if (unscaled.length > %d) {
+                                throw new IllegalArgumentException("Decimal " + value + " does not fit in %d bytes");
+                            }
+                            byte[] bytes = new byte[%d];
+                            java.util.Arrays.fill(bytes, 0, %d - unscaled.length, (byte) (unscaled[0] < 0 ? -1 : 0));
+                            System.arraycopy(unscaled, 0, bytes, %d - unscaled.length, unscaled.length);
+                            return new %s(bytes);
+                        }
+                    """.formatted(method, scale, size, size, size, size, size, fixedClass));
+        }
+
+        /**
+         * The constant telling whether the record class holds the decimal being converted as a
+         * {@code BigDecimal}. Avro's compiler registers the decimal conversion with the record's
+         * model even when it generates {@code ByteBuffer} and fixed fields for decimals, so a
+         * field's declared type decides; the items of arrays and maps follow the model, as the
+         * model's readers and writers do.
+         */
+        private String holdsDecimal() {
+            String model = converts("decimal");
+            if (recordField == null) {
+                return model;
+            }
+            String declared = helper("declaresDecimal", method -> """
+                        private static boolean %s(String field, boolean otherwise) {
+                            try {
+                                return %s.class.getDeclaredField(field).getType() == java.math.BigDecimal.class;
+                            } catch (NoSuchFieldException e) {
+                                return otherwise;
+                            }
+                        }
+                    """.formatted(method, avroClass(avroRecord)));
+            return member(constants, JavaSources.constantName(recordField.name()) + "_DECIMAL",
+                    constant -> "    private static final boolean " + constant + " = " + declared + "("
+                            + JavaSources.literal(SpecificData.mangle(recordField.name())) + ", " + model + ");\n");
+        }
+
+        private String fixedSize() {
+            return helper("fixed", method -> """
+                        private static byte[] %s(byte[] bytes, int size) {
+                            if (bytes.length != size) {
+                                throw new IllegalArgumentException("Expected " + size + " bytes but got " + bytes.length);
+                            }
+                            return bytes;
+                        }
+                    """.formatted(method));
+        }
+
+        /**
+         * The constant telling whether the record class holds {@code logicalType} as its Java type.
+         */
+        private String converts(String logicalType) {
+            String factory = switch (logicalType) {
+                case "decimal" -> "decimal(1)";
+                case "uuid" -> "uuid()";
+                case "date" -> "date()";
+                case "time-millis" -> "timeMillis()";
+                case "time-micros" -> "timeMicros()";
+                case "timestamp-millis" -> "timestampMillis()";
+                default -> "timestampMicros()";
+            };
+            return member(constants, JavaSources.constantName(logicalType) + "_CONVERSION",
+                    constant -> "    private static final boolean " + constant
+                            + " = MODEL.getConversionFor(org.apache.avro.LogicalTypes." + factory + ") != null;\n");
+        }
+
+        private String mapperOf(Schema schema, JType type) {
+            if (type instanceof JDefinedClass nested && matched.containsKey(nested)
+                    && matched.get(nested).getFullName().equals(schema.getFullName())) {
+                return JavaSources.simplify(nested.fullName() + MAPPER_SUFFIX, pkg);
+            }
+            throw new Unsupported(javaName(type) + " has no mapper");
+        }
+
+        /**
+         * The class Avro's compiler generates for a named schema, which must be in a package and
+         * must not be the POJO itself.
+         */
+        private String avroClass(Schema schema) {
+            String namespace = schema.getNamespace();
+            if (namespace == null || namespace.isEmpty()) {
+                throw new Unsupported("Avro's compiler generates no class in a package for " + schema.getName());
+            }
+            if (schema.getFullName().equals(pkg.isEmpty() ? clazz.name() : pkg + "." + clazz.name())) {
+                throw new Unsupported("the specific record class of " + schema.getFullName()
+                        + " is the class itself; generate into another package");
+            }
+            return schema.getFullName();
+        }
+
+        private String helper(String name, Function<String, String> declaration) {
+            return member(methods, name, declaration);
+        }
+
+        private String typeName(JType type) {
+            return AvroClasses.typeName(type, pkg);
+        }
+    }
+
+    private static String throwUnsupported() {
+        throw new Unsupported();
+    }
+}
@@ -0,0 +1,213 @@
+package org.metalib.schema.avro.json;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
+import org.jsonschema2pojo.NoopRuleLogger;
+import org.jsonschema2pojo.RuleLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metalib.schema.avro.json.GeneratedSources.Style;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.metalib.schema.avro.json.GeneratedSources.base64;
+import static org.metalib.schema.avro.json.GeneratedSources.compile;
+import static org.metalib.schema.avro.json.GeneratedSources.config;
+import static org.metalib.schema.avro.json.GeneratedSources.encode;
+import static org.metalib.schema.avro.json.GeneratedSources.order;
+import static org.metalib.schema.avro.json.GeneratedSources.property;
+
+public class AvroCodecGeneratorTest {
+
+    private static final String ORDER = """
+            {"type":"record","name":"Order","namespace":"com.example","fields":[
+              {"name":"id","type":{"type":"string","logicalType":"uuid"}},
+              {"name":"quantity","type":"int"},
+              {"name":"sequence","type":"long"},
+              {"name":"retries","type":"long","default":0},
+              {"name":"discount","type":"double"},
+              {"name":"ratio","type":"float"},
+              {"name":"express","type":"boolean"},
+              {"name":"note","type":["null","string"],"default":null},
+              {"name":"priority","type":["int","null"]},
+              {"name":"placedAt","type":{"type":"long","logicalType":"timestamp-millis"}},
+              {"name":"updatedAt","type":["null",{"type":"long","logicalType":"timestamp-micros"}],"default":null},
+              {"name":"deliveryDate","type":{"type":"int","logicalType":"date"}},
+              {"name":"total","type":{"type":"bytes","logicalType":"decimal","precision":10,"scale":2}},
+              {"name":"checksum","type":{"type":"fixed","name":"Md5","size":4}},
+              {"name":"payload","type":"bytes"},
+              {"name":"status","type":{"type":"enum","name":"Status","symbols":["NEW","SHIPPED"]}},
+              {"name":"tags","type":{"type":"array","items":"string"}},
+              {"name":"matrix","type":{"type":"array","items":{"type":"array","items":"int"}}},
+              {"name":"lines","type":{"type":"array","items":{"type":"record","name":"Line","fields":[
+                {"name":"sku","type":"string"},
+                {"name":"price","type":"double"}]}}},
+              {"name":"customer","type":{"type":"record","name":"Customer","fields":[
+                {"name":"name","type":"string"},
+                {"name":"referrer","type":["null","Customer"],"default":null}]}}]}""";
+
+    @TempDir
+    Path tempDir;
+
+    private void assertRoundTrip(Style style) throws Exception {
+        Schema schema = new Schema.Parser().parse(ORDER);
+        // Without Java type hints jsonschema2pojo maps the formats of logical types to Java types
+        ConverterOptions options = new ConverterOptions(true, true, true, style != Style.ACCESSORS, JsonSchemaDraft.DRAFT_07)
+                .withByteArrays(style == Style.ACCESSORS);
+        Map<String, byte[]> files = new AvroPojoGenerator(new AvroToJsonSchemaConverter(options), config(style, false))
+                .withAvroCodecs().generate("Order.json", "com.example", schema);
+        assertTrue(files.containsKey("com/example/OrderAvroCodec.java"), files.keySet().toString());
+        assertTrue(files.containsKey("com/example/LineAvroCodec.java"), files.keySet().toString());
+        assertTrue(files.containsKey("com/example/CustomerAvroCodec.java"), files.keySet().toString());
+
+        ClassLoader loader = compile(tempDir, files);
+        Class<?> codec = loader.loadClass("com.example.OrderAvroCodec");
+        Method read = codec.getMethod("read", Decoder.class);
+        Method write = codec.getMethod("write", loader.loadClass("com.example.Order"), Encoder.class);
+        assertEquals(SchemaNormalization.parsingFingerprint64(schema), codec.getField("FINGERPRINT").get(null));
+
+        byte[] expected = encode(schema, order(schema));
+        Object order = read.invoke(null, DecoderFactory.get().binaryDecoder(expected, null));
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(actual, null);
+        write.invoke(null, order, encoder);
+        encoder.flush();
+        assertArrayEquals(expected, actual.toByteArray(), "Encoding the decoded POJO reproduces the Avro bytes");
+
+        // Logical types keep the JSON representation unless the configuration asks for Java types
+        boolean typed = style == Style.ACCESSORS;
+        assertEquals(typed ? UUID.fromString("550e8400-e29b-41d4-a716-446655440000")
+                : "550e8400-e29b-41d4-a716-446655440000", property(order, "id"));
+        assertEquals(1L << 40, property(order, "sequence"));
+        assertEquals(1700000000123L, property(order, "placedAt"));
+        assertEquals(1700000000123456L, property(order, "updatedAt"));
+        assertEquals(typed ? LocalDate.parse("2023-12-09") : "2023-12-09", property(order, "deliveryDate"));
+        assertEquals(typed ? new BigDecimal("-1234.56") : (Object) (-1234.56), property(order, "total"));
+        assertEquals(typed ? byte[].class : String.class, property(order, "checksum").getClass());
+        assertEquals("Af4D/A==", base64(property(order, "checksum")));
+        assertEquals("AAEC", base64(property(order, "payload")));
+        assertEquals("SHIPPED", property(order, "status").toString());
+        assertEquals("[[1, 2], [], [3]]", property(order, "matrix").toString());
+        assertNull(property(order, "priority"));
+        assertEquals("Bob", property(property(property(order, "customer"), "referrer"), "name"));
+    }
+
+    @Test
+    public void testPublicFields() throws Exception {
+        assertRoundTrip(Style.PUBLIC_FIELDS);
+    }
+
+    @Test
+    public void testAccessors() throws Exception {
+        assertRoundTrip(Style.ACCESSORS);
+    }
+
+    @Test
+    public void testRecords() throws Exception {
+        assertRoundTrip(Style.RECORDS);
+    }
+
+    @Test
+    public void testClassesThatCannotBeMappedGetNoCodec() throws Exception {
+        Schema schema = new Schema.Parser().parse("""
+                {"type":"record","name":"Event","namespace":"com.example","fields":[
+                  {"name":"attributes","type":{"type":"map","values":"string"}},
+                  {"name":"source","type":{"type":"record","name":"Source","fields":[
+                    {"name":"host","type":"string"},
+                    {"name":"value","type":["null","string","long"],"default":null}]}},
+                  {"name":"target","type":{"type":"record","name":"Target","fields":[
+                    {"name":"host","type":"string"}]}}]}""");
+        List<String> warnings = new ArrayList<>();
+        RuleLogger logger = new NoopRuleLogger() {
+            @Override
+            public void warn(String msg) {
+                warnings.add(msg);
+            }
+        };
+        // Without additional properties a map's class cannot hold its entries
+        Map<String, byte[]> files = new AvroPojoGenerator(new AvroToJsonSchemaConverter(),
+                config(Style.PUBLIC_FIELDS, false), logger).withAvroCodecs().generate("Event.json", "com.example", schema);
+
+        assertTrue(files.containsKey("com/example/TargetAvroCodec.java"), files.keySet().toString());
+        assertFalse(files.containsKey("com/example/SourceAvroCodec.java"), "Union of several types");
+        assertFalse(files.containsKey("com/example/EventAvroCodec.java"), "Map field and nested class without codec");
+        assertEquals(List.of(
+                "No Avro codec for com.example.Event: field attributes: com.example.Attributes does not hold"
+                        + " the map's entries as additional properties",
+                "No Avro codec for com.example.Source: field value: a union of [null, string, long] has no"
+                        + " single Java type"), warnings);
+        compile(tempDir, files);
+    }
+
+    @Test
+    public void testMapsThroughAdditionalProperties() throws Exception {
+        Schema schema = new Schema.Parser().parse("""
+                {"type":"record","name":"Inventory","namespace":"com.example","fields":[
+                  {"name":"counts","type":{"type":"map","values":"long"}},
+                  {"name":"notes","type":{"type":"map","values":["null","string"]}},
+                  {"name":"bins","type":{"type":"map","values":{"type":"record","name":"Bin","fields":[
+                    {"name":"label","type":"string"}]}}}]}""");
+        Schema binSchema = schema.getField("bins").schema().getValueType();
+        GenericRecord bin = new GenericData.Record(binSchema);
+        bin.put("label", "A-1");
+        GenericRecord inventory = new GenericData.Record(schema);
+        inventory.put("counts", Map.of("apples", 3L));
+        Map<String, String> notes = new LinkedHashMap<>();
+        notes.put("apples", "fresh");
+        notes.put("pears", null);
+        inventory.put("notes", notes);
+        inventory.put("bins", Map.of("apples", bin));
+        byte[] expected = encode(schema, inventory);
+
+        for (Style style : List.of(Style.PUBLIC_FIELDS, Style.ACCESSORS)) {
+            Map<String, byte[]> files = new AvroPojoGenerator(new AvroToJsonSchemaConverter(), config(style, true))
+                    .withAvroCodecs().generate("Inventory.json", "com.example", schema);
+            assertTrue(files.containsKey("com/example/InventoryAvroCodec.java"), files.keySet().toString());
+
+            ClassLoader loader = compile(tempDir.resolve(style.name()), files);
+            Class<?> codec = loader.loadClass("com.example.InventoryAvroCodec");
+            Object decoded = codec.getMethod("read", Decoder.class)
+                    .invoke(null, DecoderFactory.get().binaryDecoder(expected, null));
+            Object counts = property(decoded, "counts");
+            assertEquals(Map.of("apples", 3L), counts.getClass().getMethod("getAdditionalProperties").invoke(counts));
+
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(actual, null);
+            codec.getMethod("write", loader.loadClass("com.example.Inventory"), Encoder.class)
+                    .invoke(null, decoded, encoder);
+            encoder.flush();
+            assertArrayEquals(expected, actual.toByteArray(), style.name());
+        }
+    }
+
+    @Test
+    public void testSameClassesWithCodecs() throws Exception {
+        Schema order = new Schema.Parser().parse(ORDER);
+        AvroPojoGenerator generator = new AvroPojoGenerator(new AvroToJsonSchemaConverter(), config(Style.ACCESSORS, false));
+        Map<String, byte[]> plain = generator.generate("Order.json", "com.example", order);
+        Map<String, byte[]> withCodecs = generator.withAvroCodecs().generate("Order.json", "com.example", order);
+
+        plain.forEach((path, content) -> assertEquals(new String(content), new String(withCodecs.get(path)), path));
+        assertEquals(plain.keySet(), withCodecs.keySet().stream()
+                .filter(path -> !path.endsWith(AvroCodecGenerator.CODEC_SUFFIX + ".java")).collect(Collectors.toSet()));
+    }
+}
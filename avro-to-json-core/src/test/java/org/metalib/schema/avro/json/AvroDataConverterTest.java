@@ -0,0 +1,172 @@
+package org.metalib.schema.avro.json;
+
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AvroDataConverterTest {
+
+    private static final Schema ORDER = new Schema.Parser().parse("""
+            {"type":"record","name":"Order","namespace":"com.example","fields":[
+              {"name":"id","type":{"type":"string","logicalType":"uuid"}},
+              {"name":"quantity","type":"int"},
+              {"name":"discount","type":"double"},
+              {"name":"note","type":["null","string"],"default":null},
+              {"name":"placedAt","type":{"type":"long","logicalType":"timestamp-millis"}},
+              {"name":"deliveryDate","type":{"type":"int","logicalType":"date"}},
+              {"name":"cutoff","type":{"type":"int","logicalType":"time-millis"}},
+              {"name":"total","type":{"type":"bytes","logicalType":"decimal","precision":10,"scale":2}},
+              {"name":"checksum","type":{"type":"fixed","name":"Md5","size":4}},
+              {"name":"trace","type":{"type":"fixed","name":"Trace","size":16,"logicalType":"uuid"}},
+              {"name":"warranty","type":{"type":"fixed","name":"Warranty","size":12,"logicalType":"duration"}},
+              {"name":"status","type":{"type":"enum","name":"Status","symbols":["NEW","SHIPPED"]}},
+              {"name":"attributes","type":{"type":"map","values":"long"}},
+              {"name":"lines","type":{"type":"array","items":{"type":"record","name":"Line","fields":[
+                {"name":"sku","type":"string"},
+                {"name":"parent","type":["null","Line"],"default":null}]}}},
+              {"name":"payload","type":["null","string","long"],"default":null},
+              {"name":"shippedOn","type":["null",{"type":"int","logicalType":"date"}],"default":null},
+              {"name":"refund","type":["null",{"type":"bytes","logicalType":"decimal","precision":10,"scale":2}],"default":null},
+              {"name":"aliases","type":{"type":"array","items":["null","string"]}}]}""");
+
+    private static GenericRecord order(int quantity, String note) {
+        return order(quantity, note, "second");
+    }
+
+    /**
+     * An order whose nullable fields are all {@code null} with {@code note}, with {@code alias}
+     * as its second alias.
+     */
+    private static GenericRecord order(int quantity, String note, String alias) {
+        Schema lineSchema = ORDER.getField("lines").schema().getElementType();
+        GenericRecord parent = new GenericData.Record(lineSchema);
+        parent.put("sku", "A-0");
+        GenericRecord line = new GenericData.Record(lineSchema);
+        line.put("sku", "A-1");
+        line.put("parent", parent);
+
+        ByteBuffer warranty = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN).putInt(1).putInt(2).putInt(3500);
+        GenericRecord order = new GenericData.Record(ORDER);
+        order.put("id", "0b6c2a3e-54a3-4f8e-9d43-3d2f1b4a5c6d");
+        order.put("quantity", quantity);
+        order.put("discount", 0.5);
+        order.put("note", note);
+        order.put("placedAt", 1700000000000L);
+        order.put("deliveryDate", 19000);
+        order.put("cutoff", 37800000);
+        order.put("total", ByteBuffer.wrap(BigInteger.valueOf(1250).toByteArray()));
+        order.put("checksum", new GenericData.Fixed(ORDER.getField("checksum").schema(), new byte[]{1, 2, 3, 4}));
+        order.put("trace", new GenericData.Fixed(ORDER.getField("trace").schema(),
+                ByteBuffer.allocate(16).putLong(0x0b6c2a3e54a34f8eL).putLong(0x9d433d2f1b4a5c6dL).array()));
+        order.put("warranty", new GenericData.Fixed(ORDER.getField("warranty").schema(), warranty.array()));
+        order.put("status", new GenericData.EnumSymbol(ORDER.getField("status").schema(), "SHIPPED"));
+        order.put("attributes", Map.of("weight", 3L));
+        order.put("lines", List.of(line));
+        order.put("payload", 7L);
+        order.put("shippedOn", note == null ? null : 19001);
+        order.put("refund", note == null ? null : ByteBuffer.wrap(BigInteger.valueOf(256).toByteArray()));
+        order.put("aliases", Arrays.asList("first", alias));
+        return order;
+    }
+
+    private static byte[] container(List<GenericRecord> records, CodecFactory codec) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(ORDER))) {
+            writer.setCodec(codec);
+            // Small blocks so records span several of them
+            writer.setSyncInterval(64);
+            writer.create(ORDER, out);
+            for (GenericRecord record : records) {
+                writer.append(record);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static String convert(ConverterOptions options, byte[] container) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = new AvroDataConverter(options).convert(new ByteArrayInputStream(container), out);
+        String json = out.toString(StandardCharsets.UTF_8);
+        assertEquals(count, json.lines().count());
+        return json;
+    }
+
+    @Test
+    public void testWritesDocumentsMatchingConvertedSchema() throws Exception {
+        String json = convert(ConverterOptions.pojoOptimized(), container(List.of(order(2, "ring twice")), CodecFactory.nullCodec()));
+
+        assertEquals("""
+                {"id":"0b6c2a3e-54a3-4f8e-9d43-3d2f1b4a5c6d","quantity":2,"discount":0.5,"note":"ring twice",\
+                "placedAt":1700000000000,"deliveryDate":"2022-01-08","cutoff":"10:30:00","total":12.50,\
+                "checksum":"AQIDBA==","trace":"0b6c2a3e-54a3-4f8e-9d43-3d2f1b4a5c6d","warranty":"P1M2DT3.5S",\
+                "status":"SHIPPED","attributes":{"weight":3},"lines":[{"sku":"A-1","parent":{"sku":"A-0"}}],\
+                "payload":7,"shippedOn":"2022-01-09","refund":2.56,"aliases":["first","second"]}
+                """, json);
+    }
+
+    @Test
+    public void testNullsFollowUnionFlattening() throws Exception {
+        byte[] container = container(List.of(order(1, null)), CodecFactory.nullCodec());
+
+        String flattened = convert(ConverterOptions.pojoOptimized(), container);
+        assertFalse(flattened.contains("\"note\""), flattened);
+        assertTrue(flattened.contains("{\"sku\":\"A-0\"}"), flattened);
+
+        String strict = convert(ConverterOptions.strict(), container);
+        assertTrue(strict.contains("\"note\":null"), strict);
+        assertTrue(strict.contains("{\"sku\":\"A-0\",\"parent\":null}"), strict);
+    }
+
+    @Test
+    public void testOutputValidatesAgainstConvertedSchema() throws Exception {
+        for (ConverterOptions options : List.of(ConverterOptions.pojoOptimized(), ConverterOptions.strict())) {
+            // Flattened schemas take no null alias, see testNullItemOfFlattenedUnionFails
+            String alias = options.flattenNullableUnions() ? "second" : null;
+            List<GenericRecord> records = List.of(order(1, "a", alias), order(2, null, alias), order(3, "c", alias),
+                    order(4, null, alias));
+            JsonSchemaValidator validator = JsonSchemaValidator.compile(ORDER, options);
+            String json = convert(options, container(records, CodecFactory.deflateCodec(1)));
+            assertEquals(4, json.lines().count());
+            json.lines().forEach(line -> {
+                try {
+                    assertEquals(Optional.empty(), validator.validate(line), line);
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testNullItemOfFlattenedUnionFails() throws Exception {
+        byte[] container = container(List.of(order(1, "a", null)), CodecFactory.nullCodec());
+
+        AvroTypeException e = assertThrows(AvroTypeException.class,
+                () -> convert(ConverterOptions.pojoOptimized(), container));
+        assertTrue(e.getMessage().contains("strict"), e.getMessage());
+        assertTrue(convert(ConverterOptions.strict(), container).contains("\"aliases\":[\"first\",null]"));
+    }
+
+    @Test
+    public void testEmptyContainer() throws Exception {
+        assertEquals("", convert(ConverterOptions.pojoOptimized(), container(List.of(), CodecFactory.nullCodec())));
+    }
+}
@@ -0,0 +1,125 @@
+package org.metalib.schema.avro.json;
+
+import org.apache.avro.Schema;
+import org.jsonschema2pojo.AnnotationStyle;
+import org.jsonschema2pojo.Annotator;
+import org.jsonschema2pojo.DefaultGenerationConfig;
+import org.jsonschema2pojo.GenerationConfig;
+import org.jsonschema2pojo.NoopAnnotator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AvroPojoGeneratorTest {
+
+    private static final String ORDER = """
+            {"type":"record","name":"Order","namespace":"com.example","doc":"A customer order","fields":[
+              {"name":"id","type":{"type":"string","logicalType":"uuid"}},
+              {"name":"quantity","type":"int","default":1},
+              {"name":"sequence","type":"long","default":42},
+              {"name":"discount","type":"double","default":0.5},
+              {"name":"ratio","type":"float","default":1.25},
+              {"name":"express","type":"boolean","default":false},
+              {"name":"note","type":["null","string"],"default":null,"doc":"Free text"},
+              {"name":"placedAt","type":{"type":"long","logicalType":"timestamp-millis"}},
+              {"name":"deliveryDate","type":["null",{"type":"int","logicalType":"date"}],"default":null},
+              {"name":"total","type":{"type":"bytes","logicalType":"decimal","precision":10,"scale":2}},
+              {"name":"checksum","type":{"type":"fixed","name":"Md5","size":16}},
+              {"name":"blob","type":["null","bytes"],"default":null},
+              {"name":"status","type":{"type":"enum","name":"Status","symbols":["NEW","SHIPPED"]},"default":"NEW"},
+              {"name":"tags","type":{"type":"array","items":"string"},"default":[]},
+              {"name":"attributes","type":{"type":"map","values":"long"}},
+              {"name":"lines","type":{"type":"array","items":{"type":"record","name":"Line","fields":[
+                {"name":"sku","type":"string","x-max-length":64},
+                {"name":"price","type":"double"}]}}},
+              {"name":"customer","type":{"type":"record","name":"Customer","fields":[
+                {"name":"name","type":"string"},
+                {"name":"referrer","type":["null","Customer"],"default":null}]}},
+              {"name":"payload","type":["null","string","long"],"default":null}]}""";
+
+    private static GenerationConfig config(boolean lombok) {
+        return new DefaultGenerationConfig() {
+            @Override
+            public AnnotationStyle getAnnotationStyle() {
+                return AnnotationStyle.JACKSON2;
+            }
+
+            @Override
+            public boolean isIncludeGetters() {
+                return !lombok;
+            }
+
+            @Override
+            public boolean isIncludeSetters() {
+                return !lombok;
+            }
+
+            @Override
+            public Class<? extends Annotator> getCustomAnnotator() {
+                return lombok ? LombokAnnotator.class : NoopAnnotator.class;
+            }
+
+            @Override
+            public String getRefFragmentPathDelimiters() {
+                return "#/";
+            }
+        };
+    }
+
+    private static void assertSameFiles(Map<String, byte[]> expected, Map<String, byte[]> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((path, content) -> assertEquals(new String(content), new String(actual.get(path)), path));
+    }
+
+    @Test
+    public void testSameClassesAsFromJsonSchemaText() throws Exception {
+        Schema order = new Schema.Parser().parse(ORDER);
+        for (ConverterOptions options : List.of(ConverterOptions.pojoOptimized(), ConverterOptions.strict(),
+                ConverterOptions.pojoOptimized().withByteArrays(true))) {
+            for (boolean lombok : List.of(true, false)) {
+                AvroToJsonSchemaConverter converter = new AvroToJsonSchemaConverter(options);
+                Map<String, byte[]> fromText = new InMemoryPojoGenerator(config(lombok))
+                        .generate("Order.json", "com.example.model", converter.convert(order));
+
+                Map<String, byte[]> direct = new AvroPojoGenerator(converter, config(lombok))
+                        .generate("Order.json", "com.example.model", order);
+
+                assertSameFiles(fromText, direct);
+                assertTrue(direct.containsKey("com/example/model/Order.java"), direct.keySet().toString());
+            }
+        }
+    }
+
+    @Test
+    public void testSeveralSchemasShareOneCodeModel() throws Exception {
+        AvroToJsonSchemaConverter converter = new AvroToJsonSchemaConverter();
+        Schema order = new Schema.Parser().parse(ORDER);
+        Schema customer = order.getField("customer").schema();
+
+        Map<String, byte[]> fromText = new InMemoryPojoGenerator(config(true)).generate(List.of(
+                new InMemoryPojoGenerator.Source("Customer.json", "com.example", converter.convert(customer)),
+                new InMemoryPojoGenerator.Source("Order.json", "com.example", converter.convert(order))));
+        Map<String, byte[]> direct = new AvroPojoGenerator(converter, config(true)).generate(List.of(
+                new AvroPojoGenerator.Source("Customer.json", "com.example", customer),
+                new AvroPojoGenerator.Source("Order.json", "com.example", order)));
+
+        assertSameFiles(fromText, direct);
+    }
+
+    @Test
+    public void testByteArrays() throws Exception {
+        Schema order = new Schema.Parser().parse(ORDER);
+        AvroToJsonSchemaConverter converter = new AvroToJsonSchemaConverter(
+                ConverterOptions.pojoOptimized().withByteArrays(true));
+
+        String source = new String(new AvroPojoGenerator(converter, config(false))
+                .generate("Order.json", "com.example", order).get("com/example/Order.java"));
+
+        assertTrue(source.contains("    private byte[] checksum;\n"), source);
+        assertTrue(source.contains("    private byte[] blob = null;\n"), source);
+        assertTrue(source.contains("    private Double total;\n"), source);
+    }
+}
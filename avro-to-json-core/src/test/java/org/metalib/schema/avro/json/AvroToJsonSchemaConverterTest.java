@@ -2,8 +2,18 @@ package org.metalib.schema.avro.json;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
 import org.apache.avro.SchemaParseException;
 import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class AvroToJsonSchemaConverterTest {
@@ -252,6 +262,42 @@ public class AvroToJsonSchemaConverterTest {
         assertEquals("java.math.BigDecimal", props.get("amount").get("javaType").asText());
     }
 
+    @Test
+    public void testPrimitiveJavaTypesForRequiredScalars() throws Exception {
+        String avroSchema = """
+                {
+                  "type": "record",
+                  "name": "Measurement",
+                  "fields": [
+                    {"name": "count", "type": "int"},
+                    {"name": "sequence", "type": "long"},
+                    {"name": "ratio", "type": "float"},
+                    {"name": "value", "type": "double"},
+                    {"name": "valid", "type": "boolean"},
+                    {"name": "retries", "type": "int", "default": 3},
+                    {"name": "offset", "type": ["null", "long"], "default": null},
+                    {"name": "day", "type": {"type": "int", "logicalType": "date"}},
+                    {"name": "label", "type": "string"}
+                  ]
+                }""";
+
+        JsonNode props = mapper.readTree(converter.convert(avroSchema)).get("properties");
+
+        assertEquals("int", props.get("count").get("existingJavaType").asText());
+        assertEquals("long", props.get("sequence").get("existingJavaType").asText());
+        assertEquals("float", props.get("ratio").get("existingJavaType").asText());
+        assertEquals("double", props.get("value").get("existingJavaType").asText());
+        assertEquals("boolean", props.get("valid").get("existingJavaType").asText());
+        assertFalse(props.get("retries").has("existingJavaType"), "Fields with a default stay boxed");
+        assertFalse(props.get("offset").has("existingJavaType"), "Nullable fields stay boxed");
+        assertFalse(props.get("day").has("existingJavaType"));
+        assertFalse(props.get("label").has("existingJavaType"));
+
+        JsonNode strict = new AvroToJsonSchemaConverter(ConverterOptions.strict()).convertToNode(
+                new Schema.Parser().parse(avroSchema)).get("properties");
+        assertFalse(strict.get("count").has("existingJavaType"));
+    }
+
     @Test
     public void testStrictModeNoJavaTypeHints() throws Exception {
         AvroToJsonSchemaConverter strictConverter = new AvroToJsonSchemaConverter(ConverterOptions.strict());
@@ -295,6 +341,26 @@ public class AvroToJsonSchemaConverterTest {
         assertEquals("string", emailType.get(1).asText());
     }
 
+    @Test
+    public void testStrictModeNullableLogicalTypeKeepsItsType() throws Exception {
+        AvroToJsonSchemaConverter strictConverter = new AvroToJsonSchemaConverter(ConverterOptions.strict());
+        String avroSchema = """
+                {
+                  "type": "record",
+                  "name": "Test",
+                  "fields": [
+                    {"name": "shippedOn", "type": ["null", {"type": "int", "logicalType": "date"}], "default": null},
+                    {"name": "refund", "type": ["null", {"type": "bytes", "logicalType": "decimal", "precision": 10, "scale": 2}], "default": null}
+                  ]
+                }""";
+
+        JsonNode properties = mapper.readTree(strictConverter.convert(avroSchema)).get("properties");
+
+        assertEquals("[\"null\",\"string\"]", properties.get("shippedOn").get("type").toString());
+        assertEquals("date", properties.get("shippedOn").get("format").asText());
+        assertEquals("[\"null\",\"number\"]", properties.get("refund").get("type").toString());
+    }
+
     @Test
     public void testStrictModeNoAdditionalPropertiesFalse() throws Exception {
         AvroToJsonSchemaConverter strictConverter = new AvroToJsonSchemaConverter(ConverterOptions.strict());
@@ -419,6 +485,35 @@ public class AvroToJsonSchemaConverterTest {
         assertEquals("base64", hashNode.get("contentEncoding").asText());
     }
 
+    @Test
+    public void testByteArraysMarkBinaryMedia() throws Exception {
+        AvroToJsonSchemaConverter byteArrays = new AvroToJsonSchemaConverter(
+                ConverterOptions.pojoOptimized().withByteArrays(true));
+        String avroSchema = """
+                {
+                  "type": "record",
+                  "name": "BinaryTest",
+                  "fields": [
+                    {"name": "hash", "type": {"type": "fixed", "size": 16, "name": "hash16"}},
+                    {"name": "payload", "type": ["null", "bytes"], "default": null},
+                    {"name": "amount", "type": {"type": "bytes", "logicalType": "decimal", "precision": 10, "scale": 2}}
+                  ]
+                }""";
+
+        JsonNode properties = mapper.readTree(byteArrays.convert(avroSchema)).get("properties");
+        JsonNode hashNode = properties.get("hash");
+        JsonNode payloadNode = properties.get("payload");
+
+        assertEquals("base64", hashNode.get("contentEncoding").asText());
+        assertEquals("base64", hashNode.get("media").get("binaryEncoding").asText());
+        assertEquals(24, hashNode.get("minLength").asInt(), "Length of the base64 text of 16 bytes");
+        assertEquals(24, hashNode.get("maxLength").asInt());
+        assertEquals("base64", payloadNode.get("media").get("binaryEncoding").asText());
+        assertFalse(payloadNode.has("minLength"));
+        assertFalse(properties.get("amount").has("media"), "decimal on bytes stays a number");
+        assertFalse(mapper.readTree(converter.convert(avroSchema)).get("properties").get("hash").has("media"));
+    }
+
     @Test
     public void testDecimalOnBytesType() throws Exception {
         String avroSchema = """
@@ -686,4 +781,90 @@ public class AvroToJsonSchemaConverterTest {
         assertFalse(strict.javaTypeHints());
         assertEquals(JsonSchemaDraft.DRAFT_07, strict.draft());
     }
+
+    @Test
+    public void testConvertFromStreamMatchesString() throws Exception {
+        String avroSchema = """
+                {
+                  "type": "record",
+                  "name": "User",
+                  "fields": [
+                    {"name": "id", "type": "int"},
+                    {"name": "email", "type": ["null", "string"], "default": null}
+                  ]
+                }""";
+
+        String fromStream = converter.convert(
+                new ByteArrayInputStream(avroSchema.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(converter.convert(avroSchema), fromStream);
+    }
+
+    @Test
+    public void testBundleDefinesEachRecordOnce() throws Exception {
+        String envelope = """
+                {"type":"record","name":"Envelope","namespace":"com.example.common","doc":"Shared envelope","fields":[
+                  {"name":"id","type":"string"}]}""";
+        String order = """
+                {"type":"record","name":"Order","namespace":"com.example","fields":[
+                  {"name":"envelope","type":%s},
+                  {"name":"previous","type":["null","Order"],"default":null}]}""".formatted(envelope);
+        String user = """
+                {"type":"record","name":"User","namespace":"com.example","fields":[
+                  {"name":"envelope","type":%s},
+                  {"name":"status","type":{"type":"enum","name":"Status","symbols":["ACTIVE","BLOCKED"]}}]}"""
+                .formatted(envelope);
+
+        Map<String, Schema> schemas = new LinkedHashMap<>();
+        schemas.put("orders/Order", new Schema.Parser().parse(order));
+        schemas.put("com.example.User", new Schema.Parser().parse(user));
+        schemas.put("Ids", new Schema.Parser().parse("{\"type\":\"array\",\"items\":\"long\"}"));
+        JsonNode bundle = mapper.readTree(converter.bundle(schemas));
+
+        JsonNode definitions = bundle.get("definitions");
+        assertEquals(List.of("Ids", "com.example.Order", "com.example.User", "com.example.common.Envelope",
+                "orders/Order"), iterableToList(definitions.fieldNames()));
+        assertEquals("#/definitions/com.example.Order", definitions.get("orders/Order").get("$ref").asText());
+        assertEquals("array", definitions.get("Ids").get("type").asText());
+
+        JsonNode orderNode = definitions.get("com.example.Order");
+        assertEquals("#/definitions/com.example.common.Envelope",
+                orderNode.get("properties").get("envelope").get("$ref").asText());
+        assertEquals("#/definitions/com.example.Order",
+                orderNode.get("properties").get("previous").get("$ref").asText());
+        assertEquals("#/definitions/com.example.common.Envelope", definitions.get("com.example.User")
+                .get("properties").get("envelope").get("$ref").asText());
+        assertEquals("Shared envelope", definitions.get("com.example.common.Envelope").get("description").asText());
+        assertEquals(1, bundle.toString().split("\"title\":\"Envelope\"", -1).length - 1);
+    }
+
+    @Test
+    public void testBundleRejectsConflictingRecords() {
+        Map<String, Schema> schemas = new LinkedHashMap<>();
+        schemas.put("v1", new Schema.Parser().parse("""
+                {"type":"record","name":"User","fields":[{"name":"id","type":"int"}]}"""));
+        schemas.put("v2", new Schema.Parser().parse("""
+                {"type":"record","name":"User","fields":[{"name":"id","type":"string"}]}"""));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> converter.bundle(schemas));
+        assertEquals("User is defined differently by v1 and v2", e.getMessage());
+    }
+
+    @Test
+    public void testBundleDraft202012() throws Exception {
+        AvroToJsonSchemaConverter draft2020 = new AvroToJsonSchemaConverter(
+                ConverterOptions.pojoOptimized().withDraft(JsonSchemaDraft.DRAFT_2020_12));
+        JsonNode bundle = mapper.readTree(draft2020.bundle(Map.of("Node", new Schema.Parser().parse("""
+                {"type":"record","name":"Node","fields":[{"name":"next","type":["null","Node"],"default":null}]}"""))));
+
+        assertEquals("https://json-schema.org/draft/2020-12/schema", bundle.get("$schema").asText());
+        assertEquals("#/$defs/Node", bundle.get("$defs").get("Node").get("properties").get("next").get("$ref").asText());
+        assertFalse(bundle.has("definitions"));
+    }
+
+    private static List<String> iterableToList(Iterator<String> iterator) {
+        List<String> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
 }
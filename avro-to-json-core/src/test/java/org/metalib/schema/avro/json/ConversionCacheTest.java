@@ -0,0 +1,73 @@
+package org.metalib.schema.avro.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConversionCacheTest {
+
+    private static final String ADDRESS = """
+            {"type":"record","name":"Address","namespace":"com.example.common","doc":"Postal address","fields":[
+              {"name":"street","type":"string"},
+              {"name":"country","type":{"type":"enum","name":"Country","symbols":["DE","US"]}},
+              {"name":"geo","type":["null",{"type":"record","name":"Geo","fields":[
+                {"name":"lat","type":"double"},{"name":"lon","type":"double"}]}],"default":null}]}""";
+
+    private static final String CUSTOMER = """
+            {"type":"record","name":"Customer","namespace":"com.example","fields":[
+              {"name":"name","type":"string"},
+              {"name":"home","type":%s},
+              {"name":"work","type":["null","com.example.common.Address"],"default":null},
+              {"name":"referrer","type":["null","Customer"],"default":null}]}""".formatted(ADDRESS);
+
+    private static final String SUPPLIER = """
+            {"type":"record","name":"Supplier","namespace":"com.example","fields":[
+              {"name":"addresses","type":{"type":"array","items":%s}},
+              {"name":"geo","type":"com.example.common.Geo"}]}""".formatted(ADDRESS);
+
+    // Node refers back to Tree, so the cached conversion of Node does not fit inside Tree
+    private static final String TREE = """
+            {"type":"record","name":"Tree","namespace":"com.example","fields":[
+              {"name":"root","type":{"type":"record","name":"Node","fields":[
+                {"name":"children","type":{"type":"array","items":"Node"}},
+                {"name":"subtree","type":["null","Tree"],"default":null}]}}]}""";
+
+    @Test
+    public void testSameOutputAsWithoutCache() {
+        for (ConverterOptions options : List.of(ConverterOptions.pojoOptimized(), ConverterOptions.strict(),
+                ConverterOptions.pojoOptimized().withDraft(JsonSchemaDraft.DRAFT_2020_12))) {
+            AvroToJsonSchemaConverter plain = new AvroToJsonSchemaConverter(options);
+            AvroToJsonSchemaConverter cached = new AvroToJsonSchemaConverter(options, new ConversionCache());
+            for (String schema : List.of(ADDRESS, CUSTOMER, SUPPLIER, TREE, ADDRESS, CUSTOMER, SUPPLIER, TREE)) {
+                assertEquals(plain.convert(schema), cached.convert(schema), options + ": " + schema);
+            }
+        }
+    }
+
+    @Test
+    public void testSharedBetweenConverters() {
+        ConversionCache cache = new ConversionCache();
+        new AvroToJsonSchemaConverter(ConverterOptions.pojoOptimized(), cache).convert(CUSTOMER);
+        int namedTypes = cache.namedTypes();
+        assertEquals(3, namedTypes, "Customer, Address and Geo");
+
+        // Another module's schema including the same common type
+        new AvroToJsonSchemaConverter(ConverterOptions.pojoOptimized(), cache).convert(SUPPLIER);
+        assertEquals(namedTypes + 1, cache.namedTypes(), "Only Supplier is converted");
+        assertTrue(cache.namedTypeHits() >= 1);
+
+        // Options are part of the key
+        new AvroToJsonSchemaConverter(ConverterOptions.strict(), cache).convert(SUPPLIER);
+        assertEquals(namedTypes + 4, cache.namedTypes());
+    }
+
+    @Test
+    public void testParsesEachTextOnce() {
+        ConversionCache cache = new ConversionCache();
+        assertSame(cache.parse(CUSTOMER), cache.parse(CUSTOMER));
+        assertNotSame(cache.parse(CUSTOMER), cache.parse(SUPPLIER));
+        assertEquals(2, cache.parsedSchemas());
+    }
+}
@@ -0,0 +1,229 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.jsonschema2pojo.AnnotationStyle;
+import org.jsonschema2pojo.Annotator;
+import org.jsonschema2pojo.DefaultGenerationConfig;
+import org.jsonschema2pojo.GenerationConfig;
+import org.jsonschema2pojo.NoopAnnotator;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compiles generated sources in tests and holds the fixtures of the tests that round-trip an
+ * {@code Order} record through the generated classes.
+ */
+final class GeneratedSources {
+
+    /**
+     * The shapes of generated classes the round-trip tests cover.
+     */
+    enum Style {
+        PUBLIC_FIELDS, ACCESSORS, RECORDS
+    }
+
+    private GeneratedSources() {
+    }
+
+    /**
+     * Compiles {@code files}, keyed by path relative to the source root, against Jackson and
+     * Avro into {@code directory} and returns a class loader for the compiled classes.
+     */
+    static ClassLoader compile(Path directory, Map<String, byte[]> files) throws Exception {
+        Path sources = Files.createDirectories(directory.resolve("src"));
+        Path classes = Files.createDirectories(directory.resolve("classes"));
+        List<String> arguments = new ArrayList<>(List.of("-d", classes.toString(), "-classpath",
+                String.join(File.pathSeparator, location(ObjectMapper.class), location(JsonParser.class),
+                        location(JsonProperty.class), location(Schema.class))));
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            Path source = sources.resolve(file.getKey());
+            Files.createDirectories(source.getParent());
+            Files.write(source, file.getValue());
+            arguments.add(source.toString());
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, arguments.toArray(String[]::new)), "Generated sources compile");
+        return new URLClassLoader(new URL[]{classes.toUri().toURL()}, GeneratedSources.class.getClassLoader());
+    }
+
+    private static String location(Class<?> type) throws Exception {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    /**
+     * The configuration of the round-trip tests: Java types for logical types only with
+     * accessors, and additional properties only if {@code additionalProperties} is set.
+     */
+    static GenerationConfig config(Style style, boolean additionalProperties) {
+        return new DefaultGenerationConfig() {
+            @Override
+            public AnnotationStyle getAnnotationStyle() {
+                return AnnotationStyle.JACKSON2;
+            }
+
+            @Override
+            public boolean isIncludeGetters() {
+                return style == Style.ACCESSORS;
+            }
+
+            @Override
+            public boolean isIncludeSetters() {
+                return style == Style.ACCESSORS;
+            }
+
+            @Override
+            public boolean isIncludeHashcodeAndEquals() {
+                return style == Style.ACCESSORS;
+            }
+
+            @Override
+            public boolean isIncludeToString() {
+                return style == Style.ACCESSORS;
+            }
+
+            @Override
+            public boolean isIncludeAdditionalProperties() {
+                return additionalProperties;
+            }
+
+            @Override
+            public boolean isUseLongIntegers() {
+                return true;
+            }
+
+            @Override
+            public boolean isUseBigDecimals() {
+                return style == Style.ACCESSORS;
+            }
+
+            @Override
+            public String getDateType() {
+                return style == Style.ACCESSORS ? "java.time.LocalDate" : null;
+            }
+
+            @Override
+            public String getTimeType() {
+                return style == Style.ACCESSORS ? "java.time.LocalTime" : null;
+            }
+
+            @Override
+            public Class<? extends Annotator> getCustomAnnotator() {
+                return style == Style.RECORDS ? RecordAnnotator.class : NoopAnnotator.class;
+            }
+
+            @Override
+            public String getRefFragmentPathDelimiters() {
+                return "#/";
+            }
+        };
+    }
+
+    /**
+     * An order of a test's {@code Order} schema. Fields only some of the tests' schemas have
+     * are set when {@code schema} has them.
+     */
+    static GenericRecord order(Schema schema) {
+        Schema customerSchema = schema.getField("customer").schema();
+        GenericRecord referrer = new GenericData.Record(customerSchema);
+        referrer.put("name", "Bob");
+        GenericRecord customer = new GenericData.Record(customerSchema);
+        customer.put("name", "Ann");
+        customer.put("referrer", referrer);
+        Schema lineSchema = schema.getField("lines").schema().getElementType();
+        GenericRecord line = new GenericData.Record(lineSchema);
+        line.put("sku", "s-1");
+        line.put("price", 9.99);
+        Conversions.DecimalConversion decimals = new Conversions.DecimalConversion();
+
+        GenericRecord order = new GenericData.Record(schema);
+        order.put("id", "550e8400-e29b-41d4-a716-446655440000");
+        order.put("quantity", -3);
+        order.put("sequence", 1L << 40);
+        order.put("discount", 0.25);
+        order.put("ratio", 1.5f);
+        order.put("express", true);
+        order.put("note", "leave at the door");
+        order.put("priority", null);
+        order.put("placedAt", 1700000000123L);
+        order.put("updatedAt", 1700000000123456L);
+        order.put("deliveryDate", 19700);
+        order.put("total", decimals.toBytes(new BigDecimal("-1234.56"), schema.getField("total").schema(),
+                LogicalTypes.decimal(10, 2)));
+        order.put("checksum", new GenericData.Fixed(schema.getField("checksum").schema(), new byte[]{1, -2, 3, -4}));
+        order.put("payload", ByteBuffer.wrap(new byte[]{0, 1, 2}));
+        order.put("status", new GenericData.EnumSymbol(schema.getField("status").schema(), "SHIPPED"));
+        order.put("tags", List.of("a", "b"));
+        order.put("matrix", List.of(List.of(1, 2), List.of(), List.of(3)));
+        order.put("lines", List.of(line, line));
+        order.put("customer", customer);
+        if (schema.getField("retries") != null) {
+            order.put("retries", 2L);
+        }
+        if (schema.getField("openAt") != null) {
+            order.put("openAt", 37800123);
+        }
+        if (schema.getField("amount") != null) {
+            order.put("amount", decimals.toFixed(new BigDecimal("-12345.678"), schema.getField("amount").schema(),
+                    LogicalTypes.decimal(18, 3)));
+        }
+        if (schema.getField("attributes") != null) {
+            order.put("attributes", Map.of("weight", 12L));
+        }
+        return order;
+    }
+
+    static byte[] encode(Schema schema, GenericRecord record) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(bytes, null);
+        new GenericDatumWriter<GenericRecord>(schema).write(record, encoder);
+        encoder.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The base64 text of a binary property, held as {@code byte[]} with byte arrays enabled.
+     */
+    static Object base64(Object value) {
+        return value instanceof byte[] bytes ? Base64.getEncoder().encodeToString(bytes) : value;
+    }
+
+    /**
+     * Reads a property through a record accessor, a getter or a public field.
+     */
+    static Object property(Object value, String name) throws Exception {
+        Class<?> type = value.getClass();
+        if (type.isRecord()) {
+            return type.getMethod(name).invoke(value);
+        }
+        try {
+            return type.getMethod("get" + Character.toUpperCase(name.charAt(0)) + name.substring(1)).invoke(value);
+        } catch (NoSuchMethodException e) {
+            return type.getField(name).get(value);
+        }
+    }
+}
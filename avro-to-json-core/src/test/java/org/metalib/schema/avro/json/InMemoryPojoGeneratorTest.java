@@ -0,0 +1,146 @@
+package org.metalib.schema.avro.json;
+
+import org.jsonschema2pojo.Annotator;
+import org.jsonschema2pojo.DefaultGenerationConfig;
+import org.jsonschema2pojo.GenerationConfig;
+import org.jsonschema2pojo.InclusionLevel;
+import org.jsonschema2pojo.Jsonschema2Pojo;
+import org.jsonschema2pojo.NoopRuleLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryPojoGeneratorTest {
+
+    private static final String ORDER = """
+            {"type":"record","name":"Order","namespace":"com.example","fields":[
+              {"name":"id","type":"long"},
+              {"name":"note","type":["null","string"],"default":null},
+              {"name":"customer","type":{"type":"record","name":"Customer","fields":[
+                {"name":"name","type":"string"},
+                {"name":"referrer","type":["null","Customer"],"default":null}]}},
+              {"name":"status","type":{"type":"enum","name":"Status","symbols":["NEW","DONE"]}}]}""";
+
+    private static final String CUSTOMER = """
+            {"type":"record","name":"Customer","namespace":"com.example","fields":[
+              {"name":"name","type":"string"},
+              {"name":"referrer","type":["null","Customer"],"default":null}]}""";
+
+    @TempDir
+    Path tempDir;
+
+    private static GenerationConfig config(URL source, File targetDirectory) {
+        return new DefaultGenerationConfig() {
+            @Override
+            public Iterator<URL> getSource() {
+                return List.of(source).iterator();
+            }
+
+            @Override
+            public File getTargetDirectory() {
+                return targetDirectory;
+            }
+
+            @Override
+            public String getTargetPackage() {
+                return "com.example.model";
+            }
+
+            @Override
+            public InclusionLevel getInclusionLevel() {
+                return InclusionLevel.NON_NULL;
+            }
+
+            @Override
+            public boolean isIncludeGetters() {
+                return false;
+            }
+
+            @Override
+            public boolean isIncludeSetters() {
+                return false;
+            }
+
+            @Override
+            public boolean isIncludeHashcodeAndEquals() {
+                return false;
+            }
+
+            @Override
+            public boolean isIncludeToString() {
+                return false;
+            }
+
+            @Override
+            public boolean isIncludeAdditionalProperties() {
+                return false;
+            }
+
+            @Override
+            public Class<? extends Annotator> getCustomAnnotator() {
+                return LombokAnnotator.class;
+            }
+
+            @Override
+            public String getRefFragmentPathDelimiters() {
+                return "#/";
+            }
+        };
+    }
+
+    private static Map<String, byte[]> readTree(Path root) throws Exception {
+        Map<String, byte[]> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path file : paths.filter(Files::isRegularFile).toList()) {
+                files.put(root.relativize(file).toString().replace(File.separatorChar, '/'), Files.readAllBytes(file));
+            }
+        }
+        return files;
+    }
+
+    private static void assertSameFiles(Map<String, byte[]> expected, Map<String, byte[]> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((path, content) -> assertArrayEquals(content, actual.get(path), path));
+    }
+
+    @Test
+    public void testMatchesFileBasedGeneration() throws Exception {
+        AvroToJsonSchemaConverter converter = new AvroToJsonSchemaConverter(ConverterOptions.pojoOptimized());
+        Path schemaDir = Files.createDirectories(tempDir.resolve("schemas"));
+        Files.writeString(schemaDir.resolve("Order.json"), converter.convert(ORDER));
+        Files.writeString(schemaDir.resolve("Customer.json"), converter.convert(CUSTOMER));
+        Path outputDir = tempDir.resolve("out");
+        Jsonschema2Pojo.generate(config(schemaDir.toUri().toURL(), outputDir.toFile()), new NoopRuleLogger());
+
+        InMemoryPojoGenerator generator = new InMemoryPojoGenerator(config(null, null));
+        Map<String, byte[]> generated = generator.generate(List.of(
+                new InMemoryPojoGenerator.Source("Customer.json", "com.example.model", converter.convert(CUSTOMER)),
+                new InMemoryPojoGenerator.Source("Order.json", "com.example.model", converter.convert(ORDER))));
+
+        assertSameFiles(readTree(outputDir), generated);
+        assertTrue(generated.containsKey("com/example/model/Order.java"));
+    }
+
+    @Test
+    public void testSingleSchema() throws Exception {
+        AvroToJsonSchemaConverter converter = new AvroToJsonSchemaConverter(ConverterOptions.pojoOptimized());
+        Map<String, byte[]> generated = new InMemoryPojoGenerator(config(null, null))
+                .generate("Customer.json", "", converter.convert(CUSTOMER));
+
+        assertTrue(generated.containsKey("Customer.java"), generated.keySet().toString());
+        String customer = new String(generated.get("Customer.java"));
+        assertTrue(customer.contains("public class Customer"));
+        assertTrue(customer.contains("@lombok.Data") || customer.contains("@Data"));
+    }
+}
@@ -0,0 +1,166 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import org.apache.avro.Schema;
+import org.jsonschema2pojo.AnnotationStyle;
+import org.jsonschema2pojo.Annotator;
+import org.jsonschema2pojo.DefaultGenerationConfig;
+import org.jsonschema2pojo.GenerationConfig;
+import org.jsonschema2pojo.InclusionLevel;
+import org.jsonschema2pojo.NoopAnnotator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.metalib.schema.avro.json.GeneratedSources.compile;
+
+public class JacksonCodecGeneratorTest {
+
+    private static final String ORDER = """
+            {"type":"record","name":"Order","namespace":"com.example","fields":[
+              {"name":"id","type":"string"},
+              {"name":"quantity","type":"int","default":1},
+              {"name":"sequence","type":"long"},
+              {"name":"discount","type":"double"},
+              {"name":"ratio","type":"float"},
+              {"name":"express","type":"boolean"},
+              {"name":"note","type":["null","string"],"default":null},
+              {"name":"checksum","type":{"type":"fixed","name":"Md5","size":4}},
+              {"name":"payload","type":["null","bytes"],"default":null},
+              {"name":"status","type":{"type":"enum","name":"Status","symbols":["NEW","SHIPPED"]}},
+              {"name":"tags","type":{"type":"array","items":"string"}},
+              {"name":"attributes","type":{"type":"map","values":"long"}},
+              {"name":"lines","type":{"type":"array","items":{"type":"record","name":"Line","fields":[
+                {"name":"sku","type":"string"},
+                {"name":"price","type":"double"}]}}},
+              {"name":"customer","type":{"type":"record","name":"Customer","fields":[
+                {"name":"name","type":"string"},
+                {"name":"referrer","type":["null","Customer"],"default":null}]}}]}""";
+
+    private static final String DOCUMENT = """
+            {"id":"o-1","quantity":3,"sequence":42,"discount":0.25,"ratio":1.5,"express":true,
+             "checksum":"Af4D/A==","payload":"AAEC","status":"SHIPPED","tags":["a","b"],"attributes":{},
+             "lines":[{"sku":"s-1","price":9.99},{"sku":"s-2","price":0.5}],
+             "customer":{"name":"Ann","referrer":{"name":"Bob"}}}""";
+
+    @TempDir
+    Path tempDir;
+
+    private static GenerationConfig config(boolean accessors) {
+        return new DefaultGenerationConfig() {
+            @Override
+            public AnnotationStyle getAnnotationStyle() {
+                return AnnotationStyle.JACKSON2;
+            }
+
+            @Override
+            public InclusionLevel getInclusionLevel() {
+                return InclusionLevel.NON_NULL;
+            }
+
+            @Override
+            public boolean isIncludeGetters() {
+                return accessors;
+            }
+
+            @Override
+            public boolean isIncludeSetters() {
+                return accessors;
+            }
+
+            @Override
+            public boolean isIncludeAdditionalProperties() {
+                return false;
+            }
+
+            @Override
+            public Class<? extends Annotator> getCustomAnnotator() {
+                return NoopAnnotator.class;
+            }
+
+            @Override
+            public String getRefFragmentPathDelimiters() {
+                return "#/";
+            }
+        };
+    }
+
+
+    private Map<String, byte[]> generate(boolean accessors) throws Exception {
+        Map<String, byte[]> files = new java.util.TreeMap<>(new AvroPojoGenerator(new AvroToJsonSchemaConverter(
+                ConverterOptions.pojoOptimized().withByteArrays(true)), config(accessors)).withJacksonCodecs().generate("Order.json", "com.example", new Schema.Parser().parse(ORDER)));
+        files.putAll(JacksonCodecGenerator.module("com.example", files.keySet()));
+        return files;
+    }
+
+    private void assertSameAsBeanBinding(boolean accessors) throws Exception {
+        Map<String, byte[]> files = generate(accessors);
+        assertTrue(files.containsKey("com/example/OrderJsonCodec.java"), files.keySet().toString());
+        assertTrue(files.containsKey("com/example/CustomerJsonCodec.java"), files.keySet().toString());
+        assertTrue(files.containsKey("com/example/JsonCodecModule.java"), files.keySet().toString());
+        String orderCodec = new String(files.get("com/example/OrderJsonCodec.java"));
+        assertTrue(orderCodec.contains("p.getBinaryValue(ctxt.getBase64Variant())"), "Byte arrays are read directly");
+
+        ClassLoader loader = compile(tempDir, files);
+        Class<?> order = loader.loadClass("com.example.Order");
+        ObjectMapper beans = new ObjectMapper();
+        ObjectMapper codecs = new ObjectMapper().registerModule(
+                (Module) loader.loadClass("com.example.JsonCodecModule").getDeclaredConstructor().newInstance());
+        assertEquals("com.example.OrderJsonCodec$Serializer",
+                codecs.getSerializerProviderInstance().findValueSerializer(order).getClass().getName());
+
+        Object fromCodecs = codecs.readValue(DOCUMENT, order);
+        Object fromBeans = beans.readValue(DOCUMENT, order);
+        JsonNode expected = beans.readTree(beans.writeValueAsString(fromBeans));
+        assertEquals(expected, beans.readTree(codecs.writeValueAsString(fromCodecs)));
+        assertEquals(expected, beans.readTree(codecs.writeValueAsString(fromBeans)));
+        assertEquals(beans.readTree(DOCUMENT).get("sequence"), expected.get("sequence"));
+
+        String partial = "{\"id\":\"o-2\",\"note\":null,\"customer\":{\"name\":\"Cy\"}}";
+        assertEquals(beans.writeValueAsString(beans.readValue(partial, order)),
+                codecs.writeValueAsString(codecs.readValue(partial, order)), "Defaults and omitted nulls");
+
+        assertThrows(UnrecognizedPropertyException.class, () -> codecs.readValue("{\"unknown\":1}", order));
+    }
+
+    @Test
+    public void testPublicFields() throws Exception {
+        assertSameAsBeanBinding(false);
+    }
+
+    @Test
+    public void testAccessors() throws Exception {
+        assertSameAsBeanBinding(true);
+    }
+
+    @Test
+    public void testSameClassesWithCodecs() throws Exception {
+        Schema order = new Schema.Parser().parse(ORDER);
+        AvroPojoGenerator generator = new AvroPojoGenerator(new AvroToJsonSchemaConverter(), config(true));
+        Map<String, byte[]> plain = generator.generate("Order.json", "com.example", order);
+        Map<String, byte[]> withCodecs = generator.withJacksonCodecs().generate("Order.json", "com.example", order);
+
+        plain.forEach((path, content) -> assertEquals(new String(content), new String(withCodecs.get(path)), path));
+        assertEquals(plain.keySet().stream().map(path -> path.replace(".java", "JsonCodec.java")).sorted().toList(),
+                withCodecs.keySet().stream().filter(path -> !plain.containsKey(path)).sorted().toList(),
+                "One codec per generated class");
+    }
+
+    @Test
+    public void testModuleRegistersCodecsOfAllPackages() {
+        String module = new String(JacksonCodecGenerator.module("com.example", List.of("com/example/Order.java",
+                "com/example/OrderJsonCodec.java", "com/example/billing/InvoiceJsonCodec.java")).get(
+                "com/example/JsonCodecModule.java"));
+
+        assertTrue(module.contains("        OrderJsonCodec.register(this);\n"), module);
+        assertTrue(module.contains("        com.example.billing.InvoiceJsonCodec.register(this);\n"), module);
+        assertTrue(JacksonCodecGenerator.module("com.example", List.of("com/example/Order.java")).isEmpty());
+    }
+}
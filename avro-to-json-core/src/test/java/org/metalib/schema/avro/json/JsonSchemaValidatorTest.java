@@ -0,0 +1,130 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.apache.avro.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonSchemaValidatorTest {
+
+    private static final Schema ORDER = new Schema.Parser().parse("""
+            {"type":"record","name":"Order","namespace":"com.example","fields":[
+              {"name":"id","type":{"type":"string","logicalType":"uuid"}},
+              {"name":"quantity","type":"int","default":1},
+              {"name":"discount","type":"double"},
+              {"name":"note","type":["null","string"],"default":null},
+              {"name":"placedAt","type":{"type":"long","logicalType":"timestamp-millis"}},
+              {"name":"total","type":{"type":"bytes","logicalType":"decimal","precision":10,"scale":2}},
+              {"name":"checksum","type":{"type":"fixed","name":"Md5","size":16}},
+              {"name":"status","type":{"type":"enum","name":"Status","symbols":["NEW","SHIPPED"]}},
+              {"name":"attributes","type":{"type":"map","values":"long"}},
+              {"name":"lines","type":{"type":"array","items":{"type":"record","name":"Line","fields":[
+                {"name":"sku","type":"string"},
+                {"name":"parent","type":["null","Line"],"default":null}]}}},
+              {"name":"payload","type":["null","string","long"],"default":null}]}""");
+
+    private static final String VALID = """
+            {"id":"0b6c2a3e-54a3-4f8e-9d43-3d2f1b4a5c6d","quantity":2,"discount":0.5,"note":"ring twice",
+             "placedAt":1700000000000,"total":12.5,"checksum":"AAAAAAAAAAAAAAAAAAAAAA==","status":"NEW",
+             "attributes":{"weight":3},"lines":[{"sku":"A-1","parent":{"sku":"A-0"}}],"payload":7}""";
+
+    private static Optional<JsonSchemaValidator.Violation> validate(ConverterOptions options, String json)
+            throws Exception {
+        return JsonSchemaValidator.compile(ORDER, options).validate(json);
+    }
+
+    private static void assertViolation(String path, String message, Optional<JsonSchemaValidator.Violation> actual) {
+        assertEquals(Optional.of(new JsonSchemaValidator.Violation(path, message)), actual);
+    }
+
+    @Test
+    public void testAcceptsValidDocument() throws Exception {
+        assertEquals(Optional.empty(), validate(ConverterOptions.pojoOptimized(), VALID));
+        assertEquals(Optional.empty(), validate(ConverterOptions.strict(), VALID));
+        assertEquals(Optional.empty(), validate(ConverterOptions.pojoOptimized(), VALID.replace("\"quantity\":2", "\"quantity\":2.0")));
+    }
+
+    @Test
+    public void testRejectsWrongTypes() throws Exception {
+        ConverterOptions options = ConverterOptions.pojoOptimized();
+        assertViolation("$.quantity", "expected integer, found number",
+                validate(options, VALID.replace("\"quantity\":2", "\"quantity\":2.5")));
+        assertViolation("$.total", "expected number, found string",
+                validate(options, VALID.replace("\"total\":12.5", "\"total\":\"12.5\"")));
+        assertViolation("$.attributes.weight", "expected integer, found string",
+                validate(options, VALID.replace("{\"weight\":3}", "{\"weight\":\"3\"}")));
+        assertViolation("$.lines[0].parent.sku", "expected string, found number",
+                validate(options, VALID.replace("\"A-0\"", "0")));
+        assertViolation("$", "expected object, found array", validate(options, "[]"));
+    }
+
+    @Test
+    public void testRequiredPropertiesAndEnums() throws Exception {
+        ConverterOptions options = ConverterOptions.pojoOptimized();
+        assertViolation("$", "missing required property 'quantity' of com.example.Order",
+                validate(options, VALID.replace("\"quantity\":2,", "")));
+        assertEquals(Optional.empty(), validate(options, VALID.replace("\"note\":\"ring twice\",", "")));
+        assertViolation("$.status", "'LOST' is not one of [NEW, SHIPPED]",
+                validate(options, VALID.replace("\"NEW\"", "\"LOST\"")));
+    }
+
+    @Test
+    public void testAdditionalPropertiesFollowOptions() throws Exception {
+        String extra = VALID.replace("{\"id\"", "{\"extra\":{\"nested\":[1,2]},\"id\"");
+        assertViolation("$", "property 'extra' is not defined by com.example.Order",
+                validate(ConverterOptions.pojoOptimized(), extra));
+        assertEquals(Optional.empty(), validate(ConverterOptions.strict(), extra));
+    }
+
+    @Test
+    public void testNullableUnionsFollowOptions() throws Exception {
+        String nullNote = VALID.replace("\"ring twice\"", "null");
+        // Flattened unions keep only the non-null type, as in the converted schema
+        assertViolation("$.note", "expected string, found null", validate(ConverterOptions.pojoOptimized(), nullNote));
+        assertEquals(Optional.empty(), validate(ConverterOptions.strict(), nullNote));
+        assertEquals(Optional.empty(), validate(ConverterOptions.strict(), VALID.replace("{\"sku\":\"A-0\"}", "null")));
+    }
+
+    @Test
+    public void testOneOfNeedsExactlyOneBranch() throws Exception {
+        ConverterOptions options = ConverterOptions.pojoOptimized();
+        assertEquals(Optional.empty(), validate(options, VALID.replace("\"payload\":7", "\"payload\":\"seven\"")));
+        assertEquals(Optional.empty(), validate(options, VALID.replace("\"payload\":7", "\"payload\":null")));
+        assertViolation("$.payload", "boolean matches no branch of the union",
+                validate(options, VALID.replace("\"payload\":7", "\"payload\":true")));
+
+        Schema union = new Schema.Parser().parse("""
+                ["int",{"type":"record","name":"A","fields":[{"name":"a","type":"int"}]},
+                 {"type":"record","name":"B","fields":[{"name":"b","type":"int"}]}]""");
+        JsonSchemaValidator validator = JsonSchemaValidator.compile(union, ConverterOptions.strict());
+        assertEquals(Optional.empty(), validator.validate("{\"b\":1}"));
+        // Records are open in strict mode, so an object with both properties matches both
+        assertViolation("$", "object matches 2 branches of the union", validator.validate("{\"a\":1,\"b\":2}"));
+        assertViolation("$", "object matches no branch of the union", validator.validate("{\"a\":\"x\"}"));
+    }
+
+    @Test
+    public void testFixedLengthWithByteArrays() throws Exception {
+        ConverterOptions options = ConverterOptions.pojoOptimized().withByteArrays(true);
+        assertEquals(Optional.empty(), validate(options, VALID));
+        assertViolation("$.checksum", "expected a string of length 24, found length 4",
+                validate(options, VALID.replace("\"AAAAAAAAAAAAAAAAAAAAAA==\"", "\"AAA=\"")));
+        assertEquals(Optional.empty(), validate(ConverterOptions.pojoOptimized(),
+                VALID.replace("\"AAAAAAAAAAAAAAAAAAAAAA==\"", "\"AAA=\"")));
+    }
+
+    @Test
+    public void testValidatesStreamOfDocuments() throws Exception {
+        JsonSchemaValidator validator = JsonSchemaValidator.compile(ORDER);
+        String stream = VALID + "\n" + VALID.replace("\"NEW\"", "\"LOST\"") + "\n";
+        try (JsonParser parser = new JsonFactory().createParser(stream)) {
+            assertEquals(Optional.empty(), validator.validate(parser));
+            assertEquals("$.status", validator.validate(parser).orElseThrow().path());
+        }
+        assertViolation("$", "unexpected content after the document", validator.validate(VALID + " {}"));
+    }
+}
@@ -0,0 +1,45 @@
+package org.metalib.schema.avro.json;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedInputTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReadsAcrossSegments() throws Exception {
+        byte[] content = new byte[100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path file = Files.write(tempDir.resolve("data.bin"), content);
+        MappedInput input;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            input = MappedInput.map(channel, 16);
+        }
+
+        byte[] read = new byte[40];
+        input.seek(10);
+        assertEquals(40, input.read(read, 0, 40));
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 50), read);
+        assertEquals(50, input.tell());
+
+        // Readers share the mappings but not the position
+        MappedInput other = input.reader();
+        assertEquals(0, other.tell());
+        other.seek(95);
+        assertEquals(5, other.read(read, 0, 40));
+        assertEquals(-1, other.read(read, 0, 40));
+        assertEquals(100, other.length());
+    }
+}
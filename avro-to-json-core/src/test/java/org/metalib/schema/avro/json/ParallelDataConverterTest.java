@@ -0,0 +1,157 @@
+package org.metalib.schema.avro.json;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelDataConverterTest {
+
+    private static final Schema EVENT = new Schema.Parser().parse("""
+            {"type":"record","name":"Event","namespace":"com.example","fields":[
+              {"name":"id","type":"long"},
+              {"name":"name","type":"string"},
+              {"name":"note","type":["null","string"],"default":null},
+              {"name":"tags","type":{"type":"array","items":"string"}}]}""");
+
+    @TempDir
+    Path tempDir;
+
+    private Path container(int records, CodecFactory codec) throws IOException {
+        Path file = tempDir.resolve("events.avro");
+        try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(EVENT))) {
+            writer.setCodec(codec);
+            // Small blocks so the file has many of them
+            writer.setSyncInterval(256);
+            writer.create(EVENT, file.toFile());
+            for (int i = 0; i < records; i++) {
+                GenericRecord event = new GenericData.Record(EVENT);
+                event.put("id", (long) i);
+                event.put("name", "event-" + i);
+                event.put("note", i % 3 == 0 ? null : "note " + i);
+                event.put("tags", List.of("a", "b" + i));
+                writer.append(event);
+            }
+        }
+        return file;
+    }
+
+    private static String streamed(Path file) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = Files.newInputStream(file)) {
+            new AvroDataConverter().convert(in, out);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSameOutputAsStreamingConversion() throws Exception {
+        for (CodecFactory codec : List.of(CodecFactory.nullCodec(), CodecFactory.deflateCodec(1))) {
+            Path file = container(2000, codec);
+            String expected = streamed(file);
+            for (boolean mapped : List.of(false, true)) {
+                ParallelDataConverter plain = new ParallelDataConverter(ConverterOptions.pojoOptimized(), 4);
+                ParallelDataConverter converter = mapped ? plain.withMemoryMapping() : plain;
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+                assertEquals(2000, converter.convert(file, out));
+                assertEquals(expected, out.toString(StandardCharsets.UTF_8), codec + (mapped ? " mapped" : ""));
+            }
+        }
+    }
+
+    @Test
+    public void testSplitsAtEverySyncMarker() throws Exception {
+        Path file = container(2000, CodecFactory.nullCodec());
+
+        List<ParallelDataConverter.Block> blocks = ParallelDataConverter.Blocks.open(file, false).list();
+
+        assertTrue(blocks.size() > 10, blocks.toString());
+        assertEquals(2000, blocks.stream().mapToLong(ParallelDataConverter.Block::records).sum());
+        assertEquals(blocks, ParallelDataConverter.Blocks.open(file, true).list());
+    }
+
+    @Test
+    public void testShardsPerBlock() throws Exception {
+        Path file = container(2000, CodecFactory.deflateCodec(1));
+        Path directory = tempDir.resolve("shards");
+
+        List<Path> shards = new ParallelDataConverter(ConverterOptions.pojoOptimized(), 3).convertToShards(file, directory);
+
+        assertEquals(ParallelDataConverter.Blocks.open(file, false).list().size(), shards.size());
+        assertEquals(directory.resolve("events-00000.ndjson"), shards.get(0));
+        StringBuilder concatenated = new StringBuilder();
+        for (Path shard : shards) {
+            concatenated.append(Files.readString(shard));
+        }
+        assertEquals(streamed(file), concatenated.toString());
+    }
+
+    @Test
+    public void testCorruptSyncMarkerFails() throws Exception {
+        Path file = container(200, CodecFactory.nullCodec());
+        byte[] content = Files.readAllBytes(file);
+        // The last bytes of the file are the sync marker closing its last block
+        content[content.length - 1] ^= 1;
+        Files.write(file, content);
+
+        IOException e = assertThrows(IOException.class, () -> new ParallelDataConverter(ConverterOptions.pojoOptimized(), 2)
+                .convert(file, new ByteArrayOutputStream()));
+        assertTrue(e.getMessage().startsWith("Invalid sync marker"), e.getMessage());
+    }
+
+    @Test
+    public void testErrorInWorkerFailsBlocksLeft() throws Exception {
+        Path file = container(2000, CodecFactory.nullCodec());
+        ParallelDataConverter.Blocks blocks = ParallelDataConverter.Blocks.open(file, false);
+        int count = blocks.list().size();
+        List<CompletableFuture<byte[]>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(new CompletableFuture<>());
+        }
+        StackOverflowError error = new StackOverflowError();
+
+        List<Thread> workers = new ParallelDataConverter(ConverterOptions.pojoOptimized(), 2).start(blocks, null,
+                (index, json) -> {
+                    if (index == 3) {
+                        throw error;
+                    }
+                    results.get(index).complete(json);
+                }, (index, e) -> results.get(index).completeExceptionally(e));
+        // Every block is converted or failed, rather than left waiting for a worker that died
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).handle((done, e) -> null)
+                .get(10, TimeUnit.SECONDS);
+        ParallelDataConverter.stop(workers);
+
+        assertTrue(workers.stream().noneMatch(Thread::isAlive));
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> results.get(3).get());
+        assertSame(error, failed.getCause());
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        Path file = container(0, CodecFactory.nullCodec());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, new ParallelDataConverter(ConverterOptions.pojoOptimized(), 2).convert(file, out));
+        assertEquals(0, out.size());
+    }
+}
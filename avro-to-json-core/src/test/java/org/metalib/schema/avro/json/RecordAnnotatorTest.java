@@ -0,0 +1,186 @@
+package org.metalib.schema.avro.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import org.apache.avro.Schema;
+import org.jsonschema2pojo.AnnotationStyle;
+import org.jsonschema2pojo.Annotator;
+import org.jsonschema2pojo.DefaultGenerationConfig;
+import org.jsonschema2pojo.GenerationConfig;
+import org.jsonschema2pojo.InclusionLevel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.metalib.schema.avro.json.GeneratedSources.compile;
+
+public class RecordAnnotatorTest {
+
+    private static final String ORDER = """
+            {"type":"record","name":"Order","namespace":"com.example","doc":"A customer order","fields":[
+              {"name":"id","type":"string"},
+              {"name":"quantity","type":"int","default":1},
+              {"name":"express","type":"boolean","default":false},
+              {"name":"note","type":["null","string"],"default":null},
+              {"name":"status","type":{"type":"enum","name":"Status","symbols":["NEW","SHIPPED"]},"default":"NEW"},
+              {"name":"tags","type":{"type":"array","items":"string"},"default":[]},
+              {"name":"lines","type":{"type":"array","items":{"type":"record","name":"Line","fields":[
+                {"name":"sku","type":"string"},
+                {"name":"price","type":"double"}]}}},
+              {"name":"customer","type":["null",{"type":"record","name":"Customer","fields":[
+                {"name":"name","type":"string"},
+                {"name":"referrer","type":["null","Customer"],"default":null}]}],"default":null}]}""";
+
+    private static final String DOCUMENT = """
+            {"id":"o-1","quantity":3,"express":true,"status":"SHIPPED","tags":["a","b"],
+             "lines":[{"sku":"s-1","price":9.99}],"customer":{"name":"Ann","referrer":{"name":"Bob"}}}""";
+
+    @TempDir
+    Path tempDir;
+
+    private static GenerationConfig config(boolean serializable) {
+        return new DefaultGenerationConfig() {
+            @Override
+            public AnnotationStyle getAnnotationStyle() {
+                return AnnotationStyle.JACKSON2;
+            }
+
+            @Override
+            public InclusionLevel getInclusionLevel() {
+                return InclusionLevel.NON_NULL;
+            }
+
+            @Override
+            public boolean isIncludeGetters() {
+                return false;
+            }
+
+            @Override
+            public boolean isIncludeSetters() {
+                return false;
+            }
+
+            @Override
+            public boolean isIncludeHashcodeAndEquals() {
+                return false;
+            }
+
+            @Override
+            public boolean isIncludeToString() {
+                return false;
+            }
+
+            @Override
+            public boolean isIncludeAdditionalProperties() {
+                return false;
+            }
+
+            @Override
+            public boolean isSerializable() {
+                return serializable;
+            }
+
+            @Override
+            public Class<? extends Annotator> getCustomAnnotator() {
+                return RecordAnnotator.class;
+            }
+
+            @Override
+            public String getRefFragmentPathDelimiters() {
+                return "#/";
+            }
+        };
+    }
+
+
+    private static Map<String, byte[]> generate(AvroPojoGenerator generator) throws Exception {
+        return new TreeMap<>(generator.generate("Order.json", "com.example", new Schema.Parser().parse(ORDER)));
+    }
+
+    @Test
+    public void testRecordsBindThroughCanonicalConstructor() throws Exception {
+        Map<String, byte[]> files = generate(new AvroPojoGenerator(new AvroToJsonSchemaConverter(), config(true)));
+        String order = new String(files.get("com/example/Order.java"));
+        assertTrue(order.contains("public record Order(\n        @JsonProperty(\"id\") "), order);
+        assertTrue(order.contains("    @JsonCreator\n    public Order {\n        if (quantity == null) {\n"), order);
+        assertTrue(order.contains("import com.fasterxml.jackson.annotation.JsonCreator;\n"), order);
+        assertTrue(order.contains(") implements Serializable {\n"), order);
+        assertTrue(order.contains("public enum Status {"), order);
+
+        ClassLoader loader = compile(tempDir, files);
+        Class<?> type = loader.loadClass("com.example.Order");
+        assertTrue(type.isRecord());
+        assertTrue(loader.loadClass("com.example.Line").isRecord());
+        assertTrue(loader.loadClass("com.example.Customer").isRecord());
+
+        ObjectMapper mapper = new ObjectMapper();
+        Object value = mapper.readValue(DOCUMENT, type);
+        assertEquals(mapper.readTree(DOCUMENT).get("lines"), mapper.valueToTree(value).get("lines"));
+        assertEquals(value, mapper.readValue(mapper.writeValueAsString(value), type), "Record equality");
+
+        JsonNode defaults = mapper.valueToTree(mapper.readValue("{\"id\":\"o-2\",\"note\":null}", type));
+        assertEquals(1, defaults.get("quantity").asInt());
+        assertFalse(defaults.get("express").asBoolean());
+        assertEquals("NEW", defaults.get("status").asText());
+        assertTrue(defaults.get("tags").isArray() && defaults.get("tags").isEmpty());
+        assertFalse(defaults.has("note"));
+        assertThrows(UnrecognizedPropertyException.class, () -> mapper.readValue("{\"unknown\":1}", type));
+    }
+
+    @Test
+    public void testRecordsWithJacksonCodecs() throws Exception {
+        Map<String, byte[]> files = generate(new AvroPojoGenerator(new AvroToJsonSchemaConverter(), config(false))
+                .withJacksonCodecs());
+        files.putAll(JacksonCodecGenerator.module("com.example", files.keySet()));
+        String codec = new String(files.get("com/example/OrderJsonCodec.java"));
+        assertTrue(codec.contains("return new Order(id, quantity, "), codec);
+
+        ClassLoader loader = compile(tempDir, files);
+        Class<?> type = loader.loadClass("com.example.Order");
+        ObjectMapper beans = new ObjectMapper();
+        ObjectMapper codecs = new ObjectMapper().registerModule(
+                (Module) loader.loadClass("com.example.JsonCodecModule").getDeclaredConstructor().newInstance());
+        assertEquals("com.example.OrderJsonCodec$Serializer",
+                codecs.getSerializerProviderInstance().findValueSerializer(type).getClass().getName());
+
+        Object fromCodecs = codecs.readValue(DOCUMENT, type);
+        assertEquals(beans.readValue(DOCUMENT, type), fromCodecs);
+        assertEquals(beans.writeValueAsString(fromCodecs), codecs.writeValueAsString(fromCodecs));
+        String partial = "{\"id\":\"o-2\",\"note\":null}";
+        assertEquals(beans.readValue(partial, type), codecs.readValue(partial, type), "Defaults");
+        assertThrows(UnrecognizedPropertyException.class, () -> codecs.readValue("{\"unknown\":1}", type));
+    }
+
+    @Test
+    public void testDescriptionsBecomeParamTags() throws Exception {
+        String jsonSchema = """
+                {"type":"object","description":"A note","properties":{
+                  "text":{"type":"string","description":"The text"},
+                  "author":{"type":"string"}}}""";
+        String note = new String(new InMemoryPojoGenerator(config(false))
+                .generate("Note.json", "com.example", jsonSchema).get("com/example/Note.java"));
+
+        assertTrue(note.contains(" * A note\n * \n * @param text The text\n */\n"), note);
+        assertTrue(note.contains("@JsonPropertyDescription(\"The text\") String text,\n"), note);
+        assertFalse(note.contains("@param author"), note);
+    }
+
+    @Test
+    public void testRejectsConfigurationThatCannotBeRecords() {
+        GenerationConfig setters = new DefaultGenerationConfig() {
+            @Override
+            public Class<? extends Annotator> getCustomAnnotator() {
+                return RecordAnnotator.class;
+            }
+        };
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryPojoGenerator(setters)
+                .generate("Order.json", "com.example", new AvroToJsonSchemaConverter().convert(new Schema.Parser().parse(ORDER))));
+    }
+}
@@ -0,0 +1,248 @@
+package org.metalib.schema.avro.json;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.compiler.specific.SpecificCompiler;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.jsonschema2pojo.NoopRuleLogger;
+import org.jsonschema2pojo.RuleLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metalib.schema.avro.json.GeneratedSources.Style;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.metalib.schema.avro.json.GeneratedSources.base64;
+import static org.metalib.schema.avro.json.GeneratedSources.compile;
+import static org.metalib.schema.avro.json.GeneratedSources.config;
+import static org.metalib.schema.avro.json.GeneratedSources.encode;
+import static org.metalib.schema.avro.json.GeneratedSources.order;
+import static org.metalib.schema.avro.json.GeneratedSources.property;
+
+public class SpecificMapperGeneratorTest {
+
+    private static final String ORDER = """
+            {"type":"record","name":"Order","namespace":"com.example.avro","fields":[
+              {"name":"id","type":{"type":"string","logicalType":"uuid"}},
+              {"name":"quantity","type":"int"},
+              {"name":"sequence","type":"long"},
+              {"name":"discount","type":"double"},
+              {"name":"ratio","type":"float"},
+              {"name":"express","type":"boolean"},
+              {"name":"note","type":["null","string"],"default":null},
+              {"name":"priority","type":["int","null"]},
+              {"name":"placedAt","type":{"type":"long","logicalType":"timestamp-millis"}},
+              {"name":"updatedAt","type":["null",{"type":"long","logicalType":"timestamp-micros"}],"default":null},
+              {"name":"deliveryDate","type":{"type":"int","logicalType":"date"}},
+              {"name":"openAt","type":{"type":"int","logicalType":"time-millis"}},
+              {"name":"total","type":{"type":"bytes","logicalType":"decimal","precision":10,"scale":2}},
+              {"name":"amount","type":{"type":"fixed","name":"Amount","size":8,"logicalType":"decimal","precision":18,"scale":3}},
+              {"name":"checksum","type":{"type":"fixed","name":"Md5","size":4}},
+              {"name":"payload","type":"bytes"},
+              {"name":"status","type":{"type":"enum","name":"Status","symbols":["NEW","SHIPPED"]}},
+              {"name":"tags","type":{"type":"array","items":"string"}},
+              {"name":"matrix","type":{"type":"array","items":{"type":"array","items":"int"}}},
+              {"name":"lines","type":{"type":"array","items":{"type":"record","name":"Line","fields":[
+                {"name":"sku","type":"string"},
+                {"name":"price","type":"double"}]}}},
+              %s
+              {"name":"customer","type":{"type":"record","name":"Customer","fields":[
+                {"name":"name","type":"string"},
+                {"name":"referrer","type":["null","Customer"],"default":null}]}}]}""";
+
+    private static final String ATTRIBUTES = """
+            {"name":"attributes","type":{"type":"map","values":"long"}},""";
+
+    @TempDir
+    Path tempDir;
+
+    private static Schema schema(Style style) {
+        return new Schema.Parser().parse(ORDER.formatted(style == Style.RECORDS ? "" : ATTRIBUTES));
+    }
+
+    /**
+     * Compiles the specific classes of the named types in {@code schema} with Avro's compiler,
+     * holding decimals as {@code BigDecimal} if {@code decimals} is set. The compiler always
+     * holds the other logical types as their Java types.
+     */
+    private Map<String, byte[]> specificClasses(Schema schema, boolean decimals, GenericData.StringType stringType)
+            throws Exception {
+        SpecificCompiler compiler = new SpecificCompiler(schema);
+        compiler.setEnableDecimalLogicalType(decimals);
+        compiler.setStringType(stringType);
+        Path output = Files.createTempDirectory(tempDir, "specific");
+        compiler.compileToDestination(null, output.toFile());
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        try (Stream<Path> paths = Files.walk(output)) {
+            for (Path file : paths.filter(Files::isRegularFile).sorted().toList()) {
+                files.put(output.relativize(file).toString().replace(File.separatorChar, '/'), Files.readAllBytes(file));
+            }
+        }
+        return files;
+    }
+
+    private Map<String, byte[]> generate(Style style, Schema schema, boolean typed) throws Exception {
+        // Without Java type hints jsonschema2pojo maps the formats of logical types to Java types
+        ConverterOptions options = new ConverterOptions(true, true, true, !typed, JsonSchemaDraft.DRAFT_07)
+                .withByteArrays(typed);
+        return new AvroPojoGenerator(new AvroToJsonSchemaConverter(options), config(style, style != Style.RECORDS))
+                .withSpecificMappers().generate("Order.json", "com.example", schema);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void assertRoundTrip(Style style, boolean decimals, GenericData.StringType stringType) throws Exception {
+        Schema schema = schema(style);
+        boolean typed = style == Style.ACCESSORS;
+        Map<String, byte[]> files = generate(style, schema, typed);
+        assertTrue(files.containsKey("com/example/OrderSpecificMapper.java"), files.keySet().toString());
+        assertTrue(files.containsKey("com/example/LineSpecificMapper.java"), files.keySet().toString());
+        assertTrue(files.containsKey("com/example/CustomerSpecificMapper.java"), files.keySet().toString());
+
+        Map<String, byte[]> all = new LinkedHashMap<>(files);
+        all.putAll(specificClasses(schema, decimals, stringType));
+        ClassLoader loader = compile(tempDir, all);
+        Class<?> specificClass = loader.loadClass("com.example.avro.Order");
+        Class<?> mapper = loader.loadClass("com.example.OrderSpecificMapper");
+        Method fromAvro = mapper.getMethod("fromAvro", specificClass);
+        Method toAvro = mapper.getMethod("toAvro", loader.loadClass("com.example.Order"));
+        assertEquals(SchemaNormalization.parsingFingerprint64(schema), mapper.getField("FINGERPRINT").get(null));
+
+        byte[] expected = encode(schema, order(schema));
+        // The compiled classes look up their nested types in Avro's class loader, so a model with
+        // the loader of the compiled classes and the conversions the compiler registered is used.
+        // Avro's fast reader applies the registered decimal conversion even to ByteBuffer fields.
+        SpecificData model = new SpecificData(loader);
+        SpecificData.getForClass(specificClass).getConversions().forEach(model::addLogicalTypeConversion);
+        model.setFastReaderEnabled(false);
+        Object specific = new SpecificDatumReader(schema, schema, model)
+                .read(null, DecoderFactory.get().binaryDecoder(expected, null));
+        Object order = fromAvro.invoke(null, specific);
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(actual, null);
+        new SpecificDatumWriter(schema, model).write(toAvro.invoke(null, order), encoder);
+        encoder.flush();
+        assertArrayEquals(expected, actual.toByteArray(), "Mapping the POJO back reproduces the specific record");
+
+        assertEquals(typed ? UUID.fromString("550e8400-e29b-41d4-a716-446655440000")
+                : "550e8400-e29b-41d4-a716-446655440000", property(order, "id"));
+        assertEquals(1L << 40, property(order, "sequence"));
+        assertEquals(1700000000123L, property(order, "placedAt"));
+        assertEquals(1700000000123456L, property(order, "updatedAt"));
+        assertEquals(typed ? LocalDate.parse("2023-12-09") : "2023-12-09", property(order, "deliveryDate"));
+        assertEquals(typed ? LocalTime.parse("10:30:00.123") : "10:30:00.123", property(order, "openAt"));
+        assertEquals(typed ? new BigDecimal("-1234.56") : (Object) (-1234.56), property(order, "total"));
+        assertEquals(typed ? new BigDecimal("-12345.678") : (Object) (-12345.678), property(order, "amount"));
+        assertEquals(typed ? byte[].class : String.class, property(order, "checksum").getClass());
+        assertEquals("Af4D/A==", base64(property(order, "checksum")));
+        assertEquals("AAEC", base64(property(order, "payload")));
+        assertEquals("SHIPPED", property(order, "status").toString());
+        assertEquals("[[1, 2], [], [3]]", property(order, "matrix").toString());
+        assertNull(property(order, "priority"));
+        assertEquals("Bob", property(property(property(order, "customer"), "referrer"), "name"));
+        if (style != Style.RECORDS) {
+            assertEquals(Map.of("weight", 12L), property(property(order, "attributes"), "additionalProperties"));
+        }
+    }
+
+    @Test
+    public void testPublicFields() throws Exception {
+        assertRoundTrip(Style.PUBLIC_FIELDS, false, GenericData.StringType.CharSequence);
+    }
+
+    @Test
+    public void testPublicFieldsWithDecimals() throws Exception {
+        assertRoundTrip(Style.PUBLIC_FIELDS, true, GenericData.StringType.CharSequence);
+    }
+
+    @Test
+    public void testAccessors() throws Exception {
+        assertRoundTrip(Style.ACCESSORS, false, GenericData.StringType.CharSequence);
+    }
+
+    @Test
+    public void testAccessorsWithDecimalsAndStrings() throws Exception {
+        assertRoundTrip(Style.ACCESSORS, true, GenericData.StringType.String);
+    }
+
+    @Test
+    public void testRecords() throws Exception {
+        assertRoundTrip(Style.RECORDS, true, GenericData.StringType.CharSequence);
+    }
+
+    @Test
+    public void testSchemaMismatchFailsOnLoad() throws Exception {
+        Schema schema = schema(Style.PUBLIC_FIELDS);
+        Map<String, byte[]> all = new LinkedHashMap<>(generate(Style.PUBLIC_FIELDS, schema, false));
+        Schema changed = new Schema.Parser().parse(ORDER.formatted(ATTRIBUTES).replace("\"sku\"", "\"code\""));
+        all.putAll(specificClasses(changed, false, GenericData.StringType.CharSequence));
+        ClassLoader loader = compile(tempDir, all);
+
+        Method toAvro = loader.loadClass("com.example.LineSpecificMapper")
+                .getMethod("toAvro", loader.loadClass("com.example.Line"));
+        Object line = loader.loadClass("com.example.Line").getConstructor().newInstance();
+        ExceptionInInitializerError e = assertThrows(ExceptionInInitializerError.class, () -> toAvro.invoke(null, line));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    public void testNoMapperWithoutSeparatePackage() throws Exception {
+        Schema schema = new Schema.Parser().parse("""
+                {"type":"record","name":"Event","namespace":"com.example","fields":[
+                  {"name":"source","type":{"type":"record","name":"Source","namespace":"com.example.avro","fields":[
+                    {"name":"host","type":"string"}]}},
+                  {"name":"target","type":{"type":"record","name":"Target","namespace":"com.example.avro","fields":[
+                    {"name":"value","type":["null","string","long"],"default":null}]}}]}""");
+        List<String> warnings = new ArrayList<>();
+        RuleLogger logger = new NoopRuleLogger() {
+            @Override
+            public void warn(String msg) {
+                warnings.add(msg);
+            }
+        };
+        Map<String, byte[]> files = new AvroPojoGenerator(new AvroToJsonSchemaConverter(),
+                config(Style.PUBLIC_FIELDS, true), logger).withSpecificMappers().generate("Event.json", "com.example", schema);
+
+        assertTrue(files.containsKey("com/example/SourceSpecificMapper.java"), files.keySet().toString());
+        assertFalse(files.containsKey("com/example/TargetSpecificMapper.java"), "Union of several types");
+        assertFalse(files.containsKey("com/example/EventSpecificMapper.java"), "The record class is the POJO itself");
+        assertEquals(List.of(
+                "No specific mapper for com.example.Event: the specific record class of com.example.Event is the"
+                        + " class itself; generate into another package",
+                "No specific mapper for com.example.Target: field value: a union of [null, string, long] has no"
+                        + " single Java type"), warnings);
+    }
+
+    @Test
+    public void testSameClassesWithMappers() throws Exception {
+        Schema order = schema(Style.ACCESSORS);
+        AvroPojoGenerator generator = new AvroPojoGenerator(new AvroToJsonSchemaConverter(), config(Style.ACCESSORS, true));
+        Map<String, byte[]> plain = generator.generate("Order.json", "com.example", order);
+        Map<String, byte[]> withMappers = generator.withSpecificMappers().generate("Order.json", "com.example", order);
+
+        plain.forEach((path, content) -> assertEquals(new String(content), new String(withMappers.get(path)), path));
+        assertEquals(plain.keySet(), withMappers.keySet().stream()
+                .filter(path -> !path.endsWith(SpecificMapperGenerator.MAPPER_SUFFIX + ".java")).collect(Collectors.toSet()));
+    }
+}
@@ -1,7 +1,12 @@
 package org.metalib.schema.avro.json.maven;
 
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaParseException;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -11,8 +16,15 @@ import org.metalib.schema.avro.json.JsonSchemaDraft;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -21,10 +33,15 @@ import java.util.stream.Stream;
  * <p>Scans the configured {@code sourceDirectory} for {@code .avsc} files and
  * writes the converted JSON Schema to the {@code outputDirectory}, preserving
  * the directory structure and replacing the {@code .avsc} extension with {@code .json}.
+ *
+ * <p>By default the conversion is incremental: schemas that did not change since the previous
+ * build are skipped, and outputs of deleted schemas are removed.
  */
 @Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
 public class AvroToJsonMojo extends AbstractMojo {
 
+    private static final String BUNDLE_FILE = "bundle.json";
+
     /**
      * Directory containing Avro schema files (.avsc).
      */
@@ -49,6 +66,68 @@ public class AvroToJsonMojo extends AbstractMojo {
     @Parameter(property = "avro-to-json.draft", defaultValue = "draft-07")
     private String draft;
 
+    /**
+     * Skip schemas whose content, converter options and plugin version are unchanged since the
+     * previous build and whose output is still in place. Tracked in a manifest under
+     * {@code ${project.build.directory}/avro-to-json}. When disabled, every schema is converted.
+     */
+    @Parameter(property = "avro-to-json.incremental", defaultValue = "true")
+    private boolean incremental;
+
+    /**
+     * Number of schema files converted in parallel. Defaults to the number of available processors.
+     */
+    @Parameter(property = "avro-to-json.threads", defaultValue = "0")
+    private int threads;
+
+    /**
+     * Directory of a content-addressed cache of generated outputs shared between builds,
+     * branches and checkouts, for example {@code ${user.home}/.cache/avro-to-json}. Looked up
+     * before any schema is converted or generated. Disabled when not set.
+     */
+    @Parameter(property = "avro-to-json.cacheDirectory")
+    private File cacheDirectory;
+
+    /**
+     * File name, relative to {@code outputDirectory}, of a single JSON Schema document bundling all
+     * schemas. Every record is defined once under {@code definitions} ({@code $defs} for
+     * draft-2020-12), and each schema gets an entry named after its path without the
+     * {@code .avsc} extension. When set, replaces the per-schema outputs.
+     */
+    @Parameter(property = "avro-to-json.bundle")
+    private String bundle;
+
+    /**
+     * Write per-file parse, convert and write timings and output sizes to
+     * {@code ${project.build.directory}/avro-to-json-report.json} and log the slowest schemas.
+     */
+    @Parameter(property = "avro-to-json.report", defaultValue = "false")
+    private boolean report;
+
+    /**
+     * Number of slowest schemas logged when {@code report} is enabled.
+     */
+    @Parameter(property = "avro-to-json.reportSlowest", defaultValue = "10")
+    private int reportSlowest;
+
+    @Parameter(defaultValue = "${project.build.directory}", readonly = true, required = true)
+    private File buildDirectory;
+
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true, required = true)
+    private MojoExecution mojoExecution;
+
+    @Parameter(defaultValue = "${plugin}", readonly = true, required = true)
+    private PluginDescriptor plugin;
+
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession session;
+
+    /**
+     * Result of converting one schema; {@code outputHash} is {@code null} when it was up to date.
+     */
+    private record Converted(String source, String inputHash, String output, String outputHash) {
+    }
+
     @Override
     public void execute() throws MojoExecutionException {
         if (!sourceDirectory.isDirectory()) {
@@ -62,34 +141,213 @@ public class AvroToJsonMojo extends AbstractMojo {
         };
         ConverterOptions options = (strict ? ConverterOptions.strict() : ConverterOptions.pojoOptimized())
                 .withDraft(schemaDraft);
-        AvroToJsonSchemaConverter converter = new AvroToJsonSchemaConverter(options);
+        SessionCache sessionCache = SessionCache.of(session);
+        AvroToJsonSchemaConverter converter = sessionCache.converter(options);
 
         Path sourcePath = sourceDirectory.toPath();
+        Path outputPath = outputDirectory.toPath();
+        Path manifestFile = buildDirectory.toPath().resolve("avro-to-json")
+                .resolve(mojoExecution.getExecutionId() + ".generate.json");
+        BuildCache cache = BuildCache.open(cacheDirectory, plugin);
+        if (cacheDirectory != null && !cache.enabled()) {
+            getLog().warn("Build cache disabled: SNAPSHOT plugin " + plugin.getVersion() + " was not loaded from a jar");
+        }
+        String settings = options + "|" + cache.pluginVersion();
+        String manifestKey = settings + "|" + outputPath.toAbsolutePath();
+        BuildManifest manifest = incremental
+                ? BuildManifest.load(manifestFile, manifestKey)
+                : BuildManifest.empty(manifestKey);
+        BuildReport buildReport = new BuildReport("generate", mojoExecution.getExecutionId());
+        if (bundle != null && !bundle.isBlank()) {
+            writeBundle(sessionCache, converter, settings, cache, manifest, manifestFile, buildReport);
+            writeReport(buildReport);
+            return;
+        }
         int count = 0;
+        int upToDate = 0;
+        int removed = 0;
 
         try (Stream<Path> paths = Files.walk(sourcePath)) {
-            for (Path avscFile : paths.filter(p -> p.toString().endsWith(".avsc")).toList()) {
-                Path relativePath = sourcePath.relativize(avscFile);
-                String jsonFileName = relativePath.toString().replaceAll("\\.avsc$", ".json");
-                Path outputPath = outputDirectory.toPath().resolve(jsonFileName);
+            List<Path> avscFiles = paths.filter(p -> p.toString().endsWith(".avsc")).sorted().toList();
+            List<ParallelFiles.Outcome<Converted>> outcomes = ParallelFiles.run(avscFiles,
+                    ParallelFiles.threads(threads), avscFile -> {
+                        String source = sourcePath.relativize(avscFile).toString();
+                        String jsonFileName = source.replaceAll("\\.avsc$", ".json");
 
-                Files.createDirectories(outputPath.getParent());
+                        BuildReport.Entry timings = buildReport.entry(source);
+                        byte[] avroSchema = Files.readAllBytes(avscFile);
+                        String inputHash = BuildManifest.sha256(avroSchema);
+                        if (manifest.isUpToDate(source, inputHash, outputPath)) {
+                            timings.upToDate();
+                            return new Converted(source, inputHash, jsonFileName, null);
+                        }
 
-                String avroSchema = Files.readString(avscFile);
-                String jsonSchema = converter.convert(avroSchema);
-                Files.writeString(outputPath, jsonSchema);
+                        String jsonSchema = sessionCache.convert(cache, converter, settings, avroSchema, timings);
+                        timings.jsonSchema(jsonSchema);
+                        timings.time(BuildReport.Phase.WRITE,
+                                () -> OutputFiles.writeIfChanged(outputPath.resolve(jsonFileName), jsonSchema));
+                        return new Converted(source, inputHash, jsonFileName, BuildManifest.sha256(jsonSchema));
+                    });
 
-                getLog().info("Converted " + relativePath + " -> " + jsonFileName);
+            // Outcomes come back in file order, so the log and the manifest do not depend on scheduling
+            Set<String> sources = new HashSet<>();
+            List<ParallelFiles.Outcome<Converted>> failures = new ArrayList<>();
+            for (ParallelFiles.Outcome<Converted> outcome : outcomes) {
+                Path relativePath = sourcePath.relativize(outcome.file());
+                sources.add(relativePath.toString());
+                if (outcome.failed()) {
+                    getLog().error("Failed to convert " + relativePath + ": " + outcome.error().getMessage());
+                    failures.add(outcome);
+                    continue;
+                }
+                Converted converted = outcome.result();
+                if (converted.outputHash() == null) {
+                    getLog().debug("Up to date: " + relativePath);
+                    upToDate++;
+                    continue;
+                }
+                manifest.put(converted.source(), converted.inputHash(), converted.output(), converted.outputHash());
+                getLog().info("Converted " + relativePath + " -> " + converted.output());
                 count++;
             }
+
+            // Drop outputs whose source schema was deleted since the previous build
+            for (String source : manifest.sources()) {
+                if (!sources.contains(source)) {
+                    for (String output : manifest.remove(source).outputs().keySet()) {
+                        Files.deleteIfExists(outputPath.resolve(output));
+                        getLog().info("Removed " + output + " (source " + source + " was deleted)");
+                    }
+                    removed++;
+                }
+            }
+            manifest.save(manifestFile);
+
+            if (!failures.isEmpty()) {
+                throw new MojoExecutionException("Failed to convert " + failures.size() + " Avro schema file(s)",
+                        failures.get(0).error());
+            }
         } catch (IOException e) {
             throw new MojoExecutionException("Failed to process Avro schema files", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while converting Avro schema files", e);
         }
 
-        if (count == 0) {
+        getLog().debug("Session cache: " + sessionCache.describe());
+        if (cache.enabled()) {
+            getLog().info("Build cache " + cacheDirectory + ": " + cache.hits() + " hit(s), " + cache.misses() + " miss(es)");
+        }
+        if (count + upToDate == 0) {
             getLog().info("No .avsc files found in " + sourceDirectory);
+        } else if (upToDate > 0 || removed > 0) {
+            getLog().info("Converted " + count + " Avro schema(s) to JSON Schema, " + upToDate + " up to date"
+                    + (removed > 0 ? ", " + removed + " removed" : ""));
         } else {
             getLog().info("Converted " + count + " Avro schema(s) to JSON Schema");
         }
+        writeReport(buildReport);
+    }
+
+    /**
+     * Converts all schemas into the {@code bundle} document unless none of them changed, and
+     * removes the per-schema outputs of a previous build without {@code bundle}.
+     */
+    private void writeBundle(SessionCache sessionCache, AvroToJsonSchemaConverter converter, String settings,
+                             BuildCache cache, BuildManifest manifest, Path manifestFile, BuildReport buildReport)
+            throws MojoExecutionException {
+        Path sourcePath = sourceDirectory.toPath();
+        Path outputPath = outputDirectory.toPath();
+        try {
+            List<Path> avscFiles;
+            try (Stream<Path> paths = Files.walk(sourcePath)) {
+                avscFiles = paths.filter(p -> p.toString().endsWith(".avsc")).sorted().toList();
+            }
+            if (avscFiles.isEmpty()) {
+                getLog().info("No .avsc files found in " + sourceDirectory);
+                return;
+            }
+
+            // The bundle depends on every schema and its name, so all of them make up the input hash
+            Map<String, String> avroSchemas = new LinkedHashMap<>();
+            StringBuilder inputs = new StringBuilder();
+            for (Path avscFile : avscFiles) {
+                String name = sourcePath.relativize(avscFile).toString().replace(File.separatorChar, '/')
+                        .replaceAll("\\.avsc$", "");
+                String avroSchema = Files.readString(avscFile);
+                avroSchemas.put(name, avroSchema);
+                inputs.append(name).append('\0').append(BuildManifest.sha256(avroSchema)).append('\n');
+            }
+            String inputHash = BuildManifest.sha256(inputs.toString());
+            BuildReport.Entry timings = buildReport.entry(bundle);
+            if (manifest.isUpToDate(bundle, inputHash, outputPath)) {
+                timings.upToDate();
+                getLog().info("Bundle " + bundle + " of " + avroSchemas.size() + " Avro schema(s) is up to date");
+                return;
+            }
+
+            String key = BuildCache.key("json-schema-bundle", settings, inputHash);
+            Map<String, byte[]> cached = cache.get(key);
+            String jsonSchema;
+            if (cached != null && cached.containsKey(BUNDLE_FILE)) {
+                jsonSchema = new String(cached.get(BUNDLE_FILE), StandardCharsets.UTF_8);
+            } else {
+                Map<String, Schema> schemas = new LinkedHashMap<>();
+                for (Map.Entry<String, String> avroSchema : avroSchemas.entrySet()) {
+                    try {
+                        schemas.put(avroSchema.getKey(), timings.time(BuildReport.Phase.PARSE,
+                                () -> sessionCache.parse(avroSchema.getValue())));
+                    } catch (SchemaParseException e) {
+                        throw new MojoExecutionException("Failed to parse " + avroSchema.getKey() + ".avsc: "
+                                + e.getMessage(), e);
+                    }
+                }
+                try {
+                    jsonSchema = timings.time(BuildReport.Phase.CONVERT, () -> converter.bundle(schemas));
+                } catch (IllegalArgumentException e) {
+                    throw new MojoExecutionException("Failed to bundle Avro schemas: " + e.getMessage(), e);
+                }
+                cache.put(key, Map.of(BUNDLE_FILE, jsonSchema.getBytes(StandardCharsets.UTF_8)));
+            }
+            timings.jsonSchema(jsonSchema);
+            String bundled = jsonSchema;
+            timings.time(BuildReport.Phase.WRITE, () -> OutputFiles.writeIfChanged(outputPath.resolve(bundle), bundled));
+
+            for (String source : manifest.sources()) {
+                if (!source.equals(bundle)) {
+                    for (String output : manifest.remove(source).outputs().keySet()) {
+                        Files.deleteIfExists(outputPath.resolve(output));
+                        getLog().info("Removed " + output + " (replaced by " + bundle + ")");
+                    }
+                }
+            }
+            manifest.put(bundle, inputHash, bundle, BuildManifest.sha256(jsonSchema));
+            manifest.save(manifestFile);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write bundle " + bundle, e);
+        }
+
+        if (cache.enabled()) {
+            getLog().info("Build cache " + cacheDirectory + ": " + cache.hits() + " hit(s), " + cache.misses() + " miss(es)");
+        }
+        getLog().info("Bundled Avro schemas from " + sourceDirectory + " into " + outputPath.resolve(bundle));
+    }
+
+    private void writeReport(BuildReport buildReport) throws MojoExecutionException {
+        if (!report) {
+            return;
+        }
+        Path reportFile = buildDirectory.toPath().resolve("avro-to-json-report.json");
+        try {
+            buildReport.write(reportFile);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write " + reportFile, e);
+        }
+        List<String> slowest = buildReport.slowest(reportSlowest);
+        if (!slowest.isEmpty()) {
+            getLog().info("Slowest schemas:");
+            slowest.forEach(line -> getLog().info("  " + line));
+        }
+        getLog().info("Wrote build report to " + reportFile);
     }
 }
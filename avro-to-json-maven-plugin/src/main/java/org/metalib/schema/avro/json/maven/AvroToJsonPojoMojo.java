@@ -1,14 +1,23 @@
 package org.metalib.schema.avro.json.maven;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.jsonschema2pojo.*;
 import org.jsonschema2pojo.rules.RuleFactory;
+import org.metalib.schema.avro.json.AvroPojoGenerator;
+import org.metalib.schema.avro.json.InMemoryPojoGenerator;
+import org.metalib.schema.avro.json.JacksonCodecGenerator;
 import org.metalib.schema.avro.json.LombokAnnotator;
+import org.metalib.schema.avro.json.RecordAnnotator;
 import org.metalib.schema.avro.json.AvroToJsonSchemaConverter;
 import org.metalib.schema.avro.json.ConverterOptions;
 import org.metalib.schema.avro.json.JsonSchemaDraft;
@@ -16,7 +25,8 @@ import org.metalib.schema.avro.json.JsonSchemaDraft;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
-import java.net.URL;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
@@ -31,12 +41,28 @@ import java.util.stream.Stream;
  *   <li>Generates Java POJOs from JSON Schema using jsonschema2pojo</li>
  * </ol>
  *
+ * <p>The JSON Schemas are handed to jsonschema2pojo in memory; writing them to
+ * {@code jsonSchemaDirectory} is optional. With {@code pojoGenerator} set to {@code direct},
+ * jsonschema2pojo receives the converted schema trees without any JSON Schema text being
+ * printed or parsed.
+ *
  * <p>The generated POJOs use Jackson annotations for JSON serialization and,
- * when {@code useLombok} is enabled, Lombok annotations for boilerplate reduction.
+ * when {@code useLombok} is enabled, Lombok annotations for boilerplate reduction. With
+ * {@code useRecords}, Java records are generated instead. {@code jacksonCodecs} and
+ * {@code avroCodecs} add generated JSON and Avro binary codecs for the classes, and
+ * {@code specificMappers} adds mappers to and from Avro's specific record classes.
+ *
+ * <p>By default generation is incremental: only the groups of schemas sharing named types in
+ * which a JSON Schema changed since the previous build are regenerated, and only the classes
+ * they no longer produce are removed.
+ * Generated files whose content did not change are left untouched, so an unchanged schema
+ * set does not trigger recompilation downstream.
  */
 @Mojo(name = "generate-pojo", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
 public class AvroToJsonPojoMojo extends AbstractMojo {
 
+    private static final ObjectMapper mapper = new ObjectMapper();
+
     @Parameter(defaultValue = "${project}", readonly = true, required = true)
     private MavenProject project;
 
@@ -83,6 +109,31 @@ public class AvroToJsonPojoMojo extends AbstractMojo {
     @Parameter(property = "avro-to-json.useLombok", defaultValue = "true")
     private boolean useLombok;
 
+    /**
+     * Generate immutable Java records instead of classes. Jackson binds them through their
+     * canonical constructor, and schema defaults apply to absent properties. Overrides
+     * {@code useLombok}.
+     */
+    @Parameter(property = "avro-to-json.useRecords", defaultValue = "false")
+    private boolean useRecords;
+
+    /**
+     * Generate Avro {@code bytes} and {@code fixed} fields as {@code byte[]} instead of base64
+     * {@code String}s. The JSON is unchanged: Jackson reads and writes byte arrays as base64.
+     * The JSON Schema of a {@code fixed} also gets the length of its base64 text as
+     * {@code minLength} and {@code maxLength}.
+     */
+    @Parameter(property = "avro-to-json.useByteArrays", defaultValue = "false")
+    private boolean useByteArrays;
+
+    /**
+     * Keep the entries of Avro maps as additional properties of the classes generated for them.
+     * Without them such a class holds nothing, and {@code avroCodecs} and {@code specificMappers}
+     * skip the classes with map fields. Cannot be combined with {@code useRecords}.
+     */
+    @Parameter(property = "avro-to-json.includeAdditionalProperties", defaultValue = "false")
+    private boolean includeAdditionalProperties;
+
     /**
      * Annotation style for generated POJOs: {@code jackson}, {@code jackson2}, or {@code jackson3}.
      */
@@ -95,6 +146,119 @@ public class AvroToJsonPojoMojo extends AbstractMojo {
     @Parameter(property = "avro-to-json.sourceType", defaultValue = "jsonSchema")
     private String sourceType;
 
+    /**
+     * Write the intermediate JSON Schemas to {@code jsonSchemaDirectory}. When disabled, the
+     * converted schemas are handed to jsonschema2pojo in memory and nothing is written there.
+     */
+    @Parameter(property = "avro-to-json.writeJsonSchema", defaultValue = "true")
+    private boolean writeJsonSchema;
+
+    /**
+     * How classes are generated: {@code jsonSchema} hands jsonschema2pojo the converted JSON
+     * Schema text, {@code direct} hands it the converted schema trees without printing and
+     * parsing them again. Both produce the same classes. {@code sourceType} only applies to
+     * {@code jsonSchema}.
+     */
+    @Parameter(property = "avro-to-json.pojoGenerator", defaultValue = "jsonSchema")
+    private String pojoGenerator;
+
+    /**
+     * Also generate a reflection-free Jackson serializer and deserializer for every class
+     * ({@code <Class>JsonCodec}) and a {@code JsonCodecModule} in {@code targetPackage} that
+     * registers them. Registering the module with an {@code ObjectMapper} replaces Jackson's
+     * bean introspection for the generated classes.
+     */
+    @Parameter(property = "avro-to-json.jacksonCodecs", defaultValue = "false")
+    private boolean jacksonCodecs;
+
+    /**
+     * Also generate an Avro binary codec for every class generated from an Avro record
+     * ({@code <Class>AvroCodec}), which reads and writes the class with Avro's {@code Decoder}
+     * and {@code Encoder} without a {@code GenericRecord} in between. Implies the {@code direct}
+     * generator, since the codecs need the Avro schemas. Classes with a field the codec cannot
+     * map, such as a map or a union of several types, get no codec.
+     */
+    @Parameter(property = "avro-to-json.avroCodecs", defaultValue = "false")
+    private boolean avroCodecs;
+
+    /**
+     * Also generate a mapper for every class generated from an Avro record
+     * ({@code <Class>SpecificMapper}), which copies the class to and from the
+     * {@code SpecificRecord} class Avro's compiler generates for the record, field by field.
+     * The record classes must be on the compile classpath and {@code targetPackage} must differ
+     * from the records' namespaces. Implies the {@code direct} generator.
+     */
+    @Parameter(property = "avro-to-json.specificMappers", defaultValue = "false")
+    private boolean specificMappers;
+
+    /**
+     * Regenerate classes only for the groups of schemas sharing named types in which a JSON
+     * Schema changed since the previous build, and remove only the classes they no longer
+     * produce. Tracked in a manifest under
+     * {@code ${project.build.directory}/avro-to-json}. When disabled, all schemas are
+     * generated together on every build.
+     */
+    @Parameter(property = "avro-to-json.incremental", defaultValue = "true")
+    private boolean incremental;
+
+    /**
+     * Directory of a content-addressed cache of generated outputs shared between builds,
+     * branches and checkouts, for example {@code ${user.home}/.cache/avro-to-json}. Looked up
+     * before any schema is converted or generated. Disabled when not set.
+     */
+    @Parameter(property = "avro-to-json.cacheDirectory")
+    private File cacheDirectory;
+
+    @Parameter(defaultValue = "${project.build.directory}", readonly = true, required = true)
+    private File buildDirectory;
+
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true, required = true)
+    private MojoExecution mojoExecution;
+
+    @Parameter(defaultValue = "${plugin}", readonly = true, required = true)
+    private PluginDescriptor plugin;
+
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession session;
+
+    /**
+     * Number of schema files converted, and groups of schemas generated, in parallel. Defaults to
+     * the number of available processors.
+     */
+    @Parameter(property = "avro-to-json.threads", defaultValue = "0")
+    private int threads;
+
+    /**
+     * Write per-file parse, convert, write and POJO generation timings, output sizes and
+     * generated class counts to {@code ${project.build.directory}/avro-to-json-report.json} and
+     * log the slowest schemas.
+     */
+    @Parameter(property = "avro-to-json.report", defaultValue = "false")
+    private boolean report;
+
+    /**
+     * Number of slowest schemas logged when {@code report} is enabled.
+     */
+    @Parameter(property = "avro-to-json.reportSlowest", defaultValue = "10")
+    private int reportSlowest;
+
+    /**
+     * A converted schema; {@code source} is relative to {@code sourceDirectory} and {@code path}
+     * to {@code jsonSchemaDirectory}. With the {@code direct} generator only the parsed
+     * {@code avroSchema} is set, and {@code content} only when the JSON Schema is written.
+     * {@code inputHash} identifies what the classes are generated from.
+     */
+    private record JsonSchemaFile(String source, String path, String content, Schema avroSchema,
+                                  String inputHash) {
+    }
+
+    /**
+     * Generates the classes of several schemas into one code model.
+     */
+    private interface ClassGenerator {
+        Map<String, byte[]> generate(List<JsonSchemaFile> schemas) throws IOException;
+    }
+
     @Override
     public void execute() throws MojoExecutionException {
         if (!sourceDirectory.isDirectory()) {
@@ -102,77 +266,467 @@ public class AvroToJsonPojoMojo extends AbstractMojo {
             return;
         }
 
+        if (!pojoGenerator.equals("jsonSchema") && !pojoGenerator.equals("direct")) {
+            throw new MojoExecutionException("Unknown pojoGenerator '" + pojoGenerator
+                    + "', expected jsonSchema or direct");
+        }
+        BuildCache cache = BuildCache.open(cacheDirectory, plugin);
+        if (cacheDirectory != null && !cache.enabled()) {
+            getLog().warn("Build cache disabled: SNAPSHOT plugin " + plugin.getVersion() + " was not loaded from a jar");
+        }
+        BuildReport buildReport = new BuildReport("generate-pojo", mojoExecution.getExecutionId());
+
         // Step 1: Convert Avro schemas to JSON Schema
-        int count = convertAvroToJsonSchema();
-        if (count == 0) {
+        List<JsonSchemaFile> jsonFiles = convertAvroToJsonSchema(cache, buildReport);
+        if (jsonFiles.isEmpty()) {
             getLog().info("No .avsc files found in " + sourceDirectory);
             return;
         }
-        getLog().info("Converted " + count + " Avro schema(s) to JSON Schema");
+        getLog().info("Converted " + jsonFiles.size() + " Avro schema(s) to JSON Schema");
 
         // Step 2: Generate POJOs from JSON Schema
-        generatePojosFromJsonSchema();
+        generatePojosFromJsonSchema(jsonFiles, cache, buildReport);
+        if (cache.enabled()) {
+            getLog().info("Build cache " + cacheDirectory + ": " + cache.hits() + " hit(s), " + cache.misses() + " miss(es)");
+        }
+        writeReport(buildReport);
 
         // Step 3: Add generated sources to the Maven compile path
         project.addCompileSourceRoot(pojoOutputDirectory.getAbsolutePath());
         getLog().info("Added " + pojoOutputDirectory + " to compile source roots");
     }
 
-    private int convertAvroToJsonSchema() throws MojoExecutionException {
-        JsonSchemaDraft schemaDraft = switch (draft) {
-            case "draft-2020-12" -> JsonSchemaDraft.DRAFT_2020_12;
-            default -> JsonSchemaDraft.DRAFT_07;
-        };
-        ConverterOptions options = (strict ? ConverterOptions.strict() : ConverterOptions.pojoOptimized())
-                .withDraft(schemaDraft);
-        AvroToJsonSchemaConverter converter = new AvroToJsonSchemaConverter(options);
+    private List<JsonSchemaFile> convertAvroToJsonSchema(BuildCache cache, BuildReport buildReport)
+            throws MojoExecutionException {
+        ConverterOptions options = converterOptions();
+        SessionCache sessionCache = SessionCache.of(session);
+        AvroToJsonSchemaConverter converter = sessionCache.converter(options);
+        String settings = options + "|" + cache.pluginVersion();
 
         Path sourcePath = sourceDirectory.toPath();
-        int count = 0;
+        List<JsonSchemaFile> jsonFiles = new ArrayList<>();
 
         try (Stream<Path> paths = Files.walk(sourcePath)) {
-            for (Path avscFile : paths.filter(p -> p.toString().endsWith(".avsc")).toList()) {
-                Path relativePath = sourcePath.relativize(avscFile);
-                String jsonFileName = relativePath.toString().replaceAll("\\.avsc$", ".json");
-                Path outputPath = jsonSchemaDirectory.toPath().resolve(jsonFileName);
+            List<Path> avscFiles = paths.filter(p -> p.toString().endsWith(".avsc")).sorted().toList();
+            List<ParallelFiles.Outcome<JsonSchemaFile>> outcomes = ParallelFiles.run(avscFiles,
+                    ParallelFiles.threads(threads), avscFile -> {
+                        Path relativePath = sourcePath.relativize(avscFile);
+                        String jsonFileName = relativePath.toString().replaceAll("\\.avsc$", ".json");
+
+                        BuildReport.Entry timings = buildReport.entry(relativePath.toString());
+                        byte[] avroSchema = Files.readAllBytes(avscFile);
+                        Schema parsed = null;
+                        String inputHash = null;
+                        if (direct()) {
+                            parsed = timings.time(BuildReport.Phase.PARSE,
+                                    () -> sessionCache.parse(new String(avroSchema, StandardCharsets.UTF_8)));
+                            inputHash = BuildCache.key("avro", settings, BuildManifest.sha256(avroSchema));
+                            if (!writeJsonSchema) {
+                                return new JsonSchemaFile(relativePath.toString(), jsonFileName, null, parsed,
+                                        inputHash);
+                            }
+                        }
+                        String jsonSchema = sessionCache.convert(cache, converter, settings, avroSchema, timings);
+                        timings.jsonSchema(jsonSchema);
+                        if (writeJsonSchema) {
+                            timings.time(BuildReport.Phase.WRITE, () -> OutputFiles.writeIfChanged(
+                                    jsonSchemaDirectory.toPath().resolve(jsonFileName), jsonSchema));
+                        }
+                        return new JsonSchemaFile(relativePath.toString(), jsonFileName, jsonSchema, parsed,
+                                inputHash != null ? inputHash : BuildManifest.sha256(jsonSchema));
+                    });
+
+            List<ParallelFiles.Outcome<JsonSchemaFile>> failures = new ArrayList<>();
+            for (ParallelFiles.Outcome<JsonSchemaFile> outcome : outcomes) {
+                Path relativePath = sourcePath.relativize(outcome.file());
+                if (outcome.failed()) {
+                    getLog().error("Failed to convert " + relativePath + ": " + outcome.error().getMessage());
+                    failures.add(outcome);
+                    continue;
+                }
+                getLog().debug("Converted " + relativePath + " -> " + outcome.result().path());
+                jsonFiles.add(outcome.result());
+            }
+            if (!failures.isEmpty()) {
+                throw new MojoExecutionException("Failed to convert " + failures.size() + " Avro schema file(s)",
+                        failures.get(0).error());
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to process Avro schema files", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while converting Avro schema files", e);
+        }
+        getLog().debug("Session cache: " + sessionCache.describe());
+
+        return jsonFiles;
+    }
+
+    private void generatePojosFromJsonSchema(List<JsonSchemaFile> jsonFiles, BuildCache cache, BuildReport buildReport)
+            throws MojoExecutionException {
+        Path manifestFile = buildDirectory.toPath().resolve("avro-to-json")
+                .resolve(mojoExecution.getExecutionId() + ".generate-pojo.json");
+        ClassGenerator generator = classGenerator();
+
+        if (incremental && generatePojosPerGroup(generator, cache, jsonFiles, manifestFile, buildReport)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(manifestFile);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to delete " + manifestFile, e);
+        }
+        generateAllPojos(generator, jsonFiles, buildReport);
+    }
+
+    /**
+     * Runs jsonschema2pojo separately for every group of schemas sharing named types in which
+     * a JSON Schema changed since the previous build, and replaces only the classes that group
+     * produced.
+     *
+     * <p>The groups are the code models {@link #generateAllPojos} uses, with their schemas in
+     * the same order, so a group produces the same classes, and the same unique names for
+     * clashing ones, whether it is regenerated alone or in a full build. A class produced by
+     * several groups is written once. If two groups produce different content for the same
+     * class, nothing is written and {@code false} is returned so the caller can fall back to
+     * generating all schemas into one code model, as a full build does.
+     */
+    private boolean generatePojosPerGroup(ClassGenerator generator, BuildCache cache,
+                                          List<JsonSchemaFile> jsonFiles, Path manifestFile,
+                                          BuildReport buildReport)
+            throws MojoExecutionException {
+        Path outputPath = pojoOutputDirectory.toPath();
+        String settings = String.join("|", targetPackage != null ? targetPackage : "", annotationStyle,
+                sourceType, String.valueOf(useLombok), String.valueOf(useRecords), pojoGenerator, String.valueOf(jacksonCodecs),
+                String.valueOf(avroCodecs), String.valueOf(specificMappers), String.valueOf(includeAdditionalProperties),
+                cache.pluginVersion());
+        String manifestKey = settings + "|" + outputPath.toAbsolutePath();
+        BuildManifest manifest = BuildManifest.load(manifestFile, manifestKey);
+
+        List<List<JsonSchemaFile>> groups;
+        try {
+            groups = groups(jsonFiles);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to read the named types of the JSON Schema files", e);
+        }
+        // Groups are identified by their first schema, in the manifest as well
+        Map<Path, List<JsonSchemaFile>> groupsByPath = new HashMap<>();
+        groups.forEach(group -> groupsByPath.put(Path.of(group.get(0).path()), group));
+        List<ParallelFiles.Outcome<GeneratedGroup>> outcomes;
+        try {
+            outcomes = ParallelFiles.run(groups.stream().map(group -> Path.of(group.get(0).path())).toList(),
+                    ParallelFiles.threads(threads), path -> {
+                        List<JsonSchemaFile> group = groupsByPath.get(path);
+                        // Class names depend on the schemas' file names and directories, so both are part of the key
+                        List<String> parts = new ArrayList<>();
+                        for (JsonSchemaFile schema : group) {
+                            parts.add(schema.path().replace(File.separatorChar, '/'));
+                            parts.add(schema.inputHash());
+                        }
+                        String inputHash = BuildCache.key(parts.toArray(String[]::new));
+                        String source = group.get(0).path();
+                        if (manifest.isUpToDate(source, inputHash, outputPath)) {
+                            group.forEach(schema -> buildReport.entry(schema.source()).upToDate());
+                            return new GeneratedGroup(source, inputHash, null);
+                        }
+
+                        BuildReport.Entry timings = buildReport.entry(group.get(0).source());
+                        String cacheKey = BuildCache.key("pojo", settings, inputHash);
+                        Map<String, byte[]> classes = cache.get(cacheKey);
+                        if (classes == null) {
+                            classes = timings.time(BuildReport.Phase.GENERATE, () -> generator.generate(group));
+                            cache.put(cacheKey, classes);
+                        }
+                        timings.classes(classes);
+                        return new GeneratedGroup(source, inputHash, classes);
+                    });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while generating POJO classes", e);
+        }
 
-                Files.createDirectories(outputPath.getParent());
+        List<ParallelFiles.Outcome<GeneratedGroup>> failures = outcomes.stream()
+                .filter(ParallelFiles.Outcome::failed).toList();
+        if (!failures.isEmpty()) {
+            failures.forEach(outcome -> getLog().error("Failed to generate POJO classes from the schemas of "
+                    + outcome.file() + ": " + outcome.error().getMessage()));
+            throw new MojoExecutionException("Failed to generate POJO classes from " + failures.size()
+                    + " group(s) of JSON Schema files", failures.get(0).error());
+        }
 
-                String avroSchema = Files.readString(avscFile);
-                String jsonSchema = converter.convert(avroSchema);
-                Files.writeString(outputPath, jsonSchema);
+        // Classes of up-to-date groups stay in place; regenerated groups must agree with them
+        Map<String, String> classHashes = new HashMap<>();
+        Map<String, String> classSources = new HashMap<>();
+        for (ParallelFiles.Outcome<GeneratedGroup> outcome : outcomes) {
+            GeneratedGroup group = outcome.result();
+            if (group.classes() == null) {
+                manifest.get(group.source()).outputs().forEach((file, hash) -> {
+                    classHashes.putIfAbsent(file, hash);
+                    classSources.putIfAbsent(file, group.source());
+                });
+            }
+        }
+        for (ParallelFiles.Outcome<GeneratedGroup> outcome : outcomes) {
+            GeneratedGroup group = outcome.result();
+            if (group.classes() == null) {
+                continue;
+            }
+            for (Map.Entry<String, byte[]> file : group.classes().entrySet()) {
+                String hash = BuildManifest.sha256(file.getValue());
+                String existing = classHashes.putIfAbsent(file.getKey(), hash);
+                classSources.putIfAbsent(file.getKey(), group.source());
+                if (existing != null && !existing.equals(hash)) {
+                    getLog().warn("The schemas of " + classSources.get(file.getKey()) + " and " + group.source()
+                            + " generate different versions of " + file.getKey()
+                            + "; generating all schemas together instead");
+                    return false;
+                }
+            }
+        }
 
-                getLog().debug("Converted " + relativePath + " -> " + jsonFileName);
-                count++;
+        int regenerated = 0;
+        int written = 0;
+        int removed;
+        try {
+            for (ParallelFiles.Outcome<GeneratedGroup> outcome : outcomes) {
+                GeneratedGroup group = outcome.result();
+                List<JsonSchemaFile> schemas = groupsByPath.get(Path.of(group.source()));
+                if (group.classes() == null) {
+                    getLog().debug("Up to date: the schemas of " + group.source());
+                    continue;
+                }
+                Map<String, String> outputs = new TreeMap<>();
+                BuildReport.Entry timings = buildReport.entry(schemas.get(0).source());
+                for (Map.Entry<String, byte[]> file : group.classes().entrySet()) {
+                    if (timings.time(BuildReport.Phase.WRITE,
+                            () -> OutputFiles.writeIfChanged(outputPath.resolve(file.getKey()), file.getValue()))) {
+                        written++;
+                    }
+                    outputs.put(file.getKey(), BuildManifest.sha256(file.getValue()));
+                }
+                manifest.put(group.source(), group.inputHash(), outputs);
+                getLog().debug("Generated " + outputs.size() + " class(es) from " + schemas.size()
+                        + " schema(s) starting with " + group.source());
+                regenerated += schemas.size();
+            }
+
+            for (String source : manifest.sources()) {
+                if (!groupsByPath.containsKey(Path.of(source))) {
+                    manifest.remove(source);
+                }
             }
+            Set<Path> classes = new HashSet<>();
+            manifest.outputs().forEach(file -> classes.add(Path.of(file)));
+            for (Map.Entry<String, byte[]> file : codecModule(manifest.outputs()).entrySet()) {
+                if (OutputFiles.writeIfChanged(outputPath.resolve(file.getKey()), file.getValue())) {
+                    written++;
+                }
+                classes.add(Path.of(file.getKey()));
+            }
+            removed = OutputFiles.retainOnly(outputPath, classes);
+            manifest.save(manifestFile);
         } catch (IOException e) {
-            throw new MojoExecutionException("Failed to process Avro schema files", e);
+            throw new MojoExecutionException("Failed to write POJO classes", e);
         }
 
-        return count;
+        getLog().info("Generated POJO classes in " + pojoOutputDirectory + " (" + regenerated + " schema(s) regenerated, "
+                + (jsonFiles.size() - regenerated) + " up to date, " + written + " file(s) written, "
+                + removed + " removed)");
+        return true;
     }
 
-    private void generatePojosFromJsonSchema() throws MojoExecutionException {
-        GenerationConfig config = new DefaultGenerationConfig() {
-            @Override
-            public Iterator<URL> getSource() {
-                try {
-                    return Collections.singletonList(jsonSchemaDirectory.toURI().toURL()).iterator();
-                } catch (IOException e) {
-                    throw new IllegalStateException("Failed to convert directory to URL", e);
+    /**
+     * Generated classes of one group of schemas, keyed by path relative to the output
+     * directory; {@code source} is the group's first schema and {@code classes} is
+     * {@code null} when the group was up to date.
+     */
+    private record GeneratedGroup(String source, String inputHash, Map<String, byte[]> classes) {
+    }
+
+    /**
+     * Generates all schemas as jsonschema2pojo does for a directory, and writes the classes
+     * whose content changed.
+     *
+     * <p>Schemas that share no named type are generated into separate code models, in
+     * parallel. A class produced by several groups is written once; if two groups produce
+     * different content for the same class, all schemas are generated into one code model
+     * instead.
+     */
+    private void generateAllPojos(ClassGenerator generator, List<JsonSchemaFile> jsonFiles,
+                                  BuildReport buildReport)
+            throws MojoExecutionException {
+        try {
+            Path outputPath = pojoOutputDirectory.toPath();
+            int written = 0;
+            Set<Path> classes = new HashSet<>();
+            Map<String, byte[]> generated = generateGroups(generator, jsonFiles, buildReport);
+            if (generated == null) {
+                generated = new TreeMap<>(
+                        buildReport.time(BuildReport.Phase.GENERATE, () -> generator.generate(jsonFiles)));
+            }
+            generated.putAll(codecModule(generated.keySet()));
+            for (Map.Entry<String, byte[]> file : generated.entrySet()) {
+                if (buildReport.time(BuildReport.Phase.WRITE,
+                        () -> OutputFiles.writeIfChanged(outputPath.resolve(file.getKey()), file.getValue()))) {
+                    written++;
                 }
+                classes.add(Path.of(file.getKey()));
             }
+            int removed = OutputFiles.retainOnly(outputPath, classes);
+            getLog().info("Generated POJO classes in " + pojoOutputDirectory + " (" + written + " written, "
+                    + (classes.size() - written) + " unchanged, " + removed + " removed)");
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to generate POJO classes from JSON Schema", e);
+        }
+    }
 
-            @Override
-            public File getTargetDirectory() {
-                return pojoOutputDirectory;
+    /**
+     * Generates every group of schemas sharing named types into its own code model; returns
+     * {@code null} if there is a single group or the groups disagree on a class.
+     */
+    private Map<String, byte[]> generateGroups(ClassGenerator generator, List<JsonSchemaFile> jsonFiles,
+                                               BuildReport buildReport)
+            throws IOException, MojoExecutionException {
+        List<List<JsonSchemaFile>> groups = groups(jsonFiles);
+        if (groups.size() <= 1) {
+            return null;
+        }
+
+        // Groups are identified by their first schema
+        Map<Path, List<JsonSchemaFile>> groupsByPath = new HashMap<>();
+        groups.forEach(group -> groupsByPath.put(Path.of(group.get(0).path()), group));
+        List<ParallelFiles.Outcome<Map<String, byte[]>>> outcomes = buildReport.time(BuildReport.Phase.GENERATE, () -> {
+            try {
+                return ParallelFiles.run(groups.stream().map(group -> Path.of(group.get(0).path())).toList(),
+                        ParallelFiles.threads(threads), path -> generator.generate(groupsByPath.get(path)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while generating POJO classes");
             }
+        });
+
+        List<ParallelFiles.Outcome<Map<String, byte[]>>> failures = outcomes.stream()
+                .filter(ParallelFiles.Outcome::failed).toList();
+        if (!failures.isEmpty()) {
+            failures.forEach(outcome -> getLog().error("Failed to generate POJO classes from the schemas of "
+                    + outcome.file() + ": " + outcome.error().getMessage()));
+            throw new MojoExecutionException("Failed to generate POJO classes from " + failures.size()
+                    + " group(s) of JSON Schema files", failures.get(0).error());
+        }
 
-            @Override
-            public String getTargetPackage() {
-                return targetPackage != null ? targetPackage : "";
+        Map<String, byte[]> generated = new TreeMap<>();
+        Map<String, Path> classSources = new HashMap<>();
+        for (ParallelFiles.Outcome<Map<String, byte[]>> outcome : outcomes) {
+            for (Map.Entry<String, byte[]> file : outcome.result().entrySet()) {
+                byte[] existing = generated.putIfAbsent(file.getKey(), file.getValue());
+                classSources.putIfAbsent(file.getKey(), outcome.file());
+                if (existing != null && !Arrays.equals(existing, file.getValue())) {
+                    getLog().warn("The schemas of " + classSources.get(file.getKey()) + " and " + outcome.file()
+                            + " generate different versions of " + file.getKey()
+                            + "; generating all schemas together instead");
+                    return null;
+                }
+            }
+        }
+        getLog().debug("Generated " + jsonFiles.size() + " schema(s) in " + groups.size() + " independent group(s)");
+        return generated;
+    }
+
+    /**
+     * Splits {@code jsonFiles} into the groups sharing named types that are generated into
+     * separate code models.
+     */
+    private List<List<JsonSchemaFile>> groups(List<JsonSchemaFile> jsonFiles) throws IOException {
+        Map<JsonSchemaFile, Set<String>> names = new IdentityHashMap<>();
+        for (JsonSchemaFile schema : jsonFiles) {
+            names.put(schema, namedTypes(schema));
+        }
+        return SchemaGroups.partition(jsonFiles, names::get);
+    }
+
+    /**
+     * The names the classes of {@code schema} may take, qualified with the package its classes
+     * go to, since schemas generating into different packages cannot collide.
+     */
+    private Set<String> namedTypes(JsonSchemaFile schema) throws IOException {
+        Set<String> names = schema.avroSchema() != null ? SchemaGroups.namedTypes(schema.avroSchema())
+                : SchemaGroups.titles(mapper.readTree(schema.content()));
+        String packageName = packageName(Path.of(schema.path()));
+        Set<String> qualified = new HashSet<>();
+        names.forEach(name -> qualified.add(packageName + "." + name));
+        return qualified;
+    }
+
+    private boolean direct() {
+        return "direct".equals(pojoGenerator) || avroCodecs || specificMappers;
+    }
+
+    private ConverterOptions converterOptions() {
+        JsonSchemaDraft schemaDraft = switch (draft) {
+            case "draft-2020-12" -> JsonSchemaDraft.DRAFT_2020_12;
+            default -> JsonSchemaDraft.DRAFT_07;
+        };
+        return (strict ? ConverterOptions.strict() : ConverterOptions.pojoOptimized()).withDraft(schemaDraft)
+                .withByteArrays(useByteArrays);
+    }
+
+    private ClassGenerator classGenerator() {
+        if (direct()) {
+            AvroPojoGenerator plain = new AvroPojoGenerator(SessionCache.of(session).converter(converterOptions()),
+                    generationConfig(), ruleLogger());
+            AvroPojoGenerator withJackson = jacksonCodecs ? plain.withJacksonCodecs() : plain;
+            AvroPojoGenerator withAvro = avroCodecs ? withJackson.withAvroCodecs() : withJackson;
+            AvroPojoGenerator generator = specificMappers ? withAvro.withSpecificMappers() : withAvro;
+            return schemas -> {
+                List<AvroPojoGenerator.Source> sources = new ArrayList<>();
+                for (JsonSchemaFile schema : schemas) {
+                    Path path = Path.of(schema.path());
+                    sources.add(new AvroPojoGenerator.Source(path.getFileName().toString(), packageName(path),
+                            schema.avroSchema()));
+                }
+                return generator.generate(sources);
+            };
+        }
+        InMemoryPojoGenerator plain = new InMemoryPojoGenerator(generationConfig(), ruleLogger());
+        InMemoryPojoGenerator generator = jacksonCodecs ? plain.withJacksonCodecs() : plain;
+        return schemas -> {
+            List<InMemoryPojoGenerator.Source> sources = new ArrayList<>();
+            for (JsonSchemaFile schema : schemas) {
+                Path path = Path.of(schema.path());
+                sources.add(new InMemoryPojoGenerator.Source(path.getFileName().toString(), packageName(path),
+                        schema.content()));
             }
+            return generator.generate(sources);
+        };
+    }
 
+    /**
+     * The module registering the codecs among {@code classes}, which it must cover completely.
+     */
+    private Map<String, byte[]> codecModule(Collection<String> classes) {
+        return jacksonCodecs ? JacksonCodecGenerator.module(targetPackage != null ? targetPackage : "", classes)
+                : Map.of();
+    }
+
+    /**
+     * Schemas in subdirectories go to subpackages, as with jsonschema2pojo's directory scan.
+     */
+    private String packageName(Path jsonFile) {
+        String packageName = targetPackage != null ? targetPackage : "";
+        Path parent = jsonFile.getParent();
+        if (parent != null) {
+            for (Path directory : parent) {
+                String name = directory.toString().replaceAll("[^0-9a-zA-Z_$]", "_");
+                packageName = packageName.isEmpty() ? name : packageName + "." + name;
+            }
+        }
+        return packageName;
+    }
+
+    private GenerationConfig generationConfig() {
+        boolean lombok = useLombok && !useRecords;
+        boolean plainClasses = !lombok && !useRecords;
+        return new DefaultGenerationConfig() {
             @Override
             public AnnotationStyle getAnnotationStyle() {
                 return AnnotationStyle.valueOf(annotationStyle.toUpperCase());
@@ -188,25 +742,25 @@ public class AvroToJsonPojoMojo extends AbstractMojo {
                 return parseSourceType(sourceType);
             }
 
-            // Lombok handles these — disable jsonschema2pojo generation
+            // Lombok or records handle these — disable jsonschema2pojo generation
             @Override
             public boolean isIncludeHashcodeAndEquals() {
-                return !useLombok;
+                return plainClasses;
             }
 
             @Override
             public boolean isIncludeToString() {
-                return !useLombok;
+                return plainClasses;
             }
 
             @Override
             public boolean isIncludeGetters() {
-                return !useLombok;
+                return plainClasses;
             }
 
             @Override
             public boolean isIncludeSetters() {
-                return !useLombok;
+                return plainClasses;
             }
 
             @Override
@@ -221,7 +775,7 @@ public class AvroToJsonPojoMojo extends AbstractMojo {
 
             @Override
             public boolean isIncludeAdditionalProperties() {
-                return false;
+                return includeAdditionalProperties;
             }
 
             @Override
@@ -231,12 +785,7 @@ public class AvroToJsonPojoMojo extends AbstractMojo {
 
             @Override
             public Class<? extends Annotator> getCustomAnnotator() {
-                return useLombok ? LombokAnnotator.class : NoopAnnotator.class;
-            }
-
-            @Override
-            public boolean isRemoveOldOutput() {
-                return true;
+                return useRecords ? RecordAnnotator.class : lombok ? LombokAnnotator.class : NoopAnnotator.class;
             }
 
             @Override
@@ -247,75 +796,70 @@ public class AvroToJsonPojoMojo extends AbstractMojo {
                 return "#/";
             }
         };
+    }
 
-        try {
-            RuleLogger logger = new RuleLogger() {
-                @Override
-                public void debug(String msg) {
-                    getLog().debug(msg);
-                }
-
-                @Override
-                public void error(String msg) {
-                    getLog().error(msg);
-                }
+    private RuleLogger ruleLogger() {
+        return new RuleLogger() {
+            @Override
+            public void debug(String msg) {
+                getLog().debug(msg);
+            }
 
-                @Override
-                public void error(String msg, Throwable e) {
-                    getLog().error(msg, e);
-                }
+            @Override
+            public void error(String msg) {
+                getLog().error(msg);
+            }
 
-                @Override
-                public void info(String msg) {
-                    getLog().info(msg);
-                }
+            @Override
+            public void error(String msg, Throwable e) {
+                getLog().error(msg, e);
+            }
 
-                @Override
-                public void warn(String msg) {
-                    getLog().warn(msg);
-                }
+            @Override
+            public void info(String msg) {
+                getLog().info(msg);
+            }
 
-                @Override
-                public void warn(String msg, Throwable e) {
-                    getLog().warn(msg, e);
-                }
+            @Override
+            public void warn(String msg) {
+                getLog().warn(msg);
+            }
 
-                @Override
-                public boolean isDebugEnabled() {
-                    return getLog().isDebugEnabled();
-                }
+            @Override
+            public void warn(String msg, Throwable e) {
+                getLog().warn(msg, e);
+            }
 
-                @Override
-                public boolean isErrorEnabled() {
-                    return getLog().isErrorEnabled();
-                }
+            @Override
+            public boolean isDebugEnabled() {
+                return getLog().isDebugEnabled();
+            }
 
-                @Override
-                public boolean isInfoEnabled() {
-                    return getLog().isInfoEnabled();
-                }
+            @Override
+            public boolean isErrorEnabled() {
+                return getLog().isErrorEnabled();
+            }
 
-                @Override
-                public boolean isTraceEnabled() {
-                    return getLog().isDebugEnabled();
-                }
+            @Override
+            public boolean isInfoEnabled() {
+                return getLog().isInfoEnabled();
+            }
 
-                @Override
-                public boolean isWarnEnabled() {
-                    return getLog().isWarnEnabled();
-                }
+            @Override
+            public boolean isTraceEnabled() {
+                return getLog().isDebugEnabled();
+            }
 
-                @Override
-                public void trace(String msg) {
-                    getLog().debug(msg);
-                }
-            };
+            @Override
+            public boolean isWarnEnabled() {
+                return getLog().isWarnEnabled();
+            }
 
-            Jsonschema2Pojo.generate(config, logger);
-            getLog().info("Generated POJO classes in " + pojoOutputDirectory);
-        } catch (IOException e) {
-            throw new MojoExecutionException("Failed to generate POJO classes from JSON Schema", e);
-        }
+            @Override
+            public void trace(String msg) {
+                getLog().debug(msg);
+            }
+        };
     }
 
     private static SourceType parseSourceType(String value) {
@@ -327,4 +871,22 @@ public class AvroToJsonPojoMojo extends AbstractMojo {
             default -> SourceType.valueOf(value.toUpperCase());
         };
     }
+
+    private void writeReport(BuildReport buildReport) throws MojoExecutionException {
+        if (!report) {
+            return;
+        }
+        Path reportFile = buildDirectory.toPath().resolve("avro-to-json-report.json");
+        try {
+            buildReport.write(reportFile);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write " + reportFile, e);
+        }
+        List<String> slowest = buildReport.slowest(reportSlowest);
+        if (!slowest.isEmpty()) {
+            getLog().info("Slowest schemas:");
+            slowest.forEach(line -> getLog().info("  " + line));
+        }
+        getLog().info("Wrote build report to " + reportFile);
+    }
 }
@@ -0,0 +1,183 @@
+package org.metalib.schema.avro.json.maven;
+
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.metalib.schema.avro.json.AvroToJsonSchemaConverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store of generated files, shared between builds, branches and checkouts.
+ *
+ * <p>An entry is a directory named after the SHA-256 of everything that determines its content
+ * (see {@link #key}) and holds the generated files under their relative paths, which are
+ * returned with {@code /} separators. Entries are
+ * written to a temporary directory and renamed into place, so concurrent builds never observe
+ * a partial entry; when two builds store the same key, the first one wins and the content is
+ * identical anyway. Entries are never modified after they are stored.
+ *
+ * <p>A disabled cache misses on every lookup and ignores stores. The cache is disabled for a
+ * SNAPSHOT plugin that was not loaded from a jar, as nothing identifies its code.
+ */
+final class BuildCache {
+
+    private static final String JSON_SCHEMA_FILE = "schema.json";
+
+    private final Path directory;
+    private final String pluginVersion;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private BuildCache(Path directory, String pluginVersion) {
+        this.directory = directory;
+        this.pluginVersion = pluginVersion;
+    }
+
+    /**
+     * Opens the cache in {@code directory}, or a disabled cache if it is {@code null}.
+     */
+    static BuildCache open(File directory, PluginDescriptor plugin) {
+        return open(directory, plugin.getVersion(), plugin.getPluginArtifact().getFile());
+    }
+
+    /**
+     * Like {@link #open(File, PluginDescriptor)}, for the plugin {@code version} loaded from
+     * {@code pluginFile}.
+     */
+    static BuildCache open(File directory, String version, File pluginFile) {
+        if (!version.endsWith("-SNAPSHOT")) {
+            return new BuildCache(directory != null ? directory.toPath() : null, version);
+        }
+        // The code of a SNAPSHOT changes without its version changing, so it is identified by its jar
+        if (pluginFile == null || !pluginFile.isFile()) {
+            return new BuildCache(null, version);
+        }
+        try {
+            String jarHash = BuildManifest.sha256(Files.readAllBytes(pluginFile.toPath()));
+            return new BuildCache(directory != null ? directory.toPath() : null, version + "@" + jarHash);
+        } catch (IOException e) {
+            return new BuildCache(null, version);
+        }
+    }
+
+    boolean enabled() {
+        return directory != null;
+    }
+
+    /**
+     * The plugin version to include in keys and manifests; for a SNAPSHOT loaded from a jar, it
+     * is followed by the jar's SHA-256.
+     */
+    String pluginVersion() {
+        return pluginVersion;
+    }
+
+    /**
+     * Derives an entry key from its inputs; any change in any part yields a different key.
+     */
+    static String key(String... parts) {
+        return BuildManifest.sha256(String.join("\0", parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the files stored under {@code key}, or {@code null} on a miss.
+     */
+    Map<String, byte[]> get(String key) throws IOException {
+        if (directory == null) {
+            return null;
+        }
+        Path entry = entry(key);
+        if (!Files.isDirectory(entry)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        Map<String, byte[]> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(entry)) {
+            for (Path file : paths.filter(Files::isRegularFile).toList()) {
+                files.put(entry.relativize(file).toString().replace(File.separatorChar, '/'), Files.readAllBytes(file));
+            }
+        }
+        hits.incrementAndGet();
+        return files;
+    }
+
+    /**
+     * Converts an Avro schema, reusing the result stored for the same schema content and
+     * {@code settings} (converter options and plugin version) if there is one.
+     */
+    String convert(AvroToJsonSchemaConverter converter, String settings, byte[] avroSchema) throws IOException {
+        return convert(settings, avroSchema, converter::convert);
+    }
+
+    /**
+     * Like {@link #convert(AvroToJsonSchemaConverter, String, byte[])}, running {@code conversion}
+     * on the schema text on a miss.
+     */
+    String convert(String settings, byte[] avroSchema, Conversion conversion) throws IOException {
+        String key = key("json-schema", settings, BuildManifest.sha256(avroSchema));
+        Map<String, byte[]> cached = get(key);
+        if (cached != null && cached.containsKey(JSON_SCHEMA_FILE)) {
+            return new String(cached.get(JSON_SCHEMA_FILE), StandardCharsets.UTF_8);
+        }
+        String jsonSchema = conversion.convert(new String(avroSchema, StandardCharsets.UTF_8));
+        put(key, Map.of(JSON_SCHEMA_FILE, jsonSchema.getBytes(StandardCharsets.UTF_8)));
+        return jsonSchema;
+    }
+
+    interface Conversion {
+        String convert(String avroSchema) throws IOException;
+    }
+
+    void put(String key, Map<String, byte[]> files) throws IOException {
+        if (directory == null) {
+            return;
+        }
+        Path entry = entry(key);
+        if (Files.isDirectory(entry)) {
+            return;
+        }
+        Files.createDirectories(entry.getParent());
+        Path staging = Files.createTempDirectory(entry.getParent(), key + ".tmp");
+        try {
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                Path target = staging.resolve(file.getKey());
+                Files.createDirectories(target.getParent());
+                Files.write(target, file.getValue());
+            }
+            Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+            // Another build stored the same entry first
+        } finally {
+            if (Files.exists(staging)) {
+                try (Stream<Path> paths = Files.walk(staging)) {
+                    for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.deleteIfExists(path);
+                    }
+                }
+            }
+        }
+    }
+
+    int hits() {
+        return hits.get();
+    }
+
+    int misses() {
+        return misses.get();
+    }
+
+    private Path entry(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+}
@@ -0,0 +1,131 @@
+package org.metalib.schema.avro.json.maven;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Remembers which outputs each source schema produced in a previous build.
+ *
+ * <p>Each entry maps a source path (relative to the source directory) to the SHA-256 of the
+ * source content and to the outputs it produced: paths relative to the output directory with
+ * the SHA-256 of their content. Several sources may share an output. The manifest as a whole is tagged with a {@code key} describing everything
+ * else that influences the output (converter options, plugin version, output location); a
+ * manifest written under a different key is ignored, which forces a full rebuild.
+ */
+final class BuildManifest {
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    record Entry(String inputHash, Map<String, String> outputs) {
+    }
+
+    private record Content(String key, Map<String, Entry> entries) {
+    }
+
+    private final String key;
+    private final Map<String, Entry> entries;
+
+    private BuildManifest(String key, Map<String, Entry> entries) {
+        this.key = key;
+        this.entries = entries;
+    }
+
+    static BuildManifest empty(String key) {
+        return new BuildManifest(key, new TreeMap<>());
+    }
+
+    /**
+     * Loads the manifest, or returns an empty one if it is missing, unreadable or was
+     * written under a different key.
+     */
+    static BuildManifest load(Path file, String key) {
+        if (Files.exists(file)) {
+            try {
+                Content content = mapper.readValue(file.toFile(), Content.class);
+                if (key.equals(content.key()) && content.entries() != null) {
+                    return new BuildManifest(key, new TreeMap<>(content.entries()));
+                }
+            } catch (IOException e) {
+                // Treat a corrupt manifest like a missing one
+            }
+        }
+        return empty(key);
+    }
+
+    /**
+     * Whether {@code source} was converted from content with the given hash and all of its
+     * outputs still exist in {@code outputDirectory} unmodified.
+     */
+    boolean isUpToDate(String source, String inputHash, Path outputDirectory) throws IOException {
+        Entry entry = entries.get(source);
+        if (entry == null || !entry.inputHash().equals(inputHash)) {
+            return false;
+        }
+        for (Map.Entry<String, String> output : entry.outputs().entrySet()) {
+            Path file = outputDirectory.resolve(output.getKey());
+            if (!Files.exists(file) || !output.getValue().equals(sha256(Files.readAllBytes(file)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void put(String source, String inputHash, Map<String, String> outputs) {
+        entries.put(source, new Entry(inputHash, new TreeMap<>(outputs)));
+    }
+
+    void put(String source, String inputHash, String output, String outputHash) {
+        put(source, inputHash, Map.of(output, outputHash));
+    }
+
+    Entry get(String source) {
+        return entries.get(source);
+    }
+
+    Entry remove(String source) {
+        return entries.remove(source);
+    }
+
+    Set<String> sources() {
+        return Set.copyOf(entries.keySet());
+    }
+
+    /**
+     * Outputs of all sources.
+     */
+    Set<String> outputs() {
+        Set<String> outputs = new HashSet<>();
+        entries.values().forEach(entry -> outputs.addAll(entry.outputs().keySet()));
+        return outputs;
+    }
+
+    void save(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, mapper.writeValueAsBytes(new Content(key, entries)));
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static String sha256(String content) {
+        return sha256(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
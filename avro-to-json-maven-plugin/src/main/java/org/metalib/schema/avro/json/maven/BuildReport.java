@@ -0,0 +1,173 @@
+package org.metalib.schema.avro.json.maven;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-file timings, output sizes and class counts of one goal execution.
+ *
+ * <p>Each execution is stored under {@code <goal>:<execution id>} in a report file shared by
+ * all executions of a module, replacing its entry from the previous build. Timings of a file
+ * are recorded by the thread processing it; {@link Entry} is not thread-safe by itself.
+ */
+final class BuildReport {
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    enum Phase {
+        PARSE, CONVERT, WRITE, GENERATE
+    }
+
+    interface Timed<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Measurements of one source schema.
+     */
+    static final class Entry {
+
+        private final String source;
+        private final Map<Phase, Long> nanos = new EnumMap<>(Phase.class);
+        private long jsonSchemaBytes;
+        private int classes;
+        private long classBytes;
+        private boolean upToDate;
+
+        private Entry(String source) {
+            this.source = source;
+        }
+
+        <T> T time(Phase phase, Timed<T> task) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return task.run();
+            } finally {
+                nanos.merge(phase, System.nanoTime() - start, Long::sum);
+            }
+        }
+
+        void jsonSchema(String content) {
+            jsonSchemaBytes = content.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        void classes(Map<String, byte[]> files) {
+            classes = files.size();
+            classBytes = files.values().stream().mapToLong(content -> content.length).sum();
+        }
+
+        void upToDate() {
+            upToDate = true;
+        }
+
+        long totalNanos() {
+            return nanos.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    private record FileReport(String source, boolean upToDate, double totalMillis, Map<String, Double> millis,
+                              long jsonSchemaBytes, int classes, long classBytes) {
+    }
+
+    private record ExecutionReport(String goal, String execution, String finished, double totalMillis,
+                                   Map<String, Double> millis, List<FileReport> files) {
+    }
+
+    private final String goal;
+    private final String execution;
+    private final long start = System.nanoTime();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Entry batch = new Entry("");
+
+    BuildReport(String goal, String execution) {
+        this.goal = goal;
+        this.execution = execution;
+    }
+
+    Entry entry(String source) {
+        return entries.computeIfAbsent(source, Entry::new);
+    }
+
+    /**
+     * Times work that covers all files together, such as generating all schemas at once.
+     */
+    <T> T time(Phase phase, Timed<T> task) throws IOException {
+        return batch.time(phase, task);
+    }
+
+    /**
+     * Adds this execution to {@code file}, keeping the entries of other executions.
+     */
+    void write(Path file) throws IOException {
+        ObjectNode executions = mapper.createObjectNode();
+        if (Files.exists(file)) {
+            try {
+                JsonNode existing = mapper.readTree(file.toFile()).path("executions");
+                if (existing.isObject()) {
+                    executions.setAll((ObjectNode) existing);
+                }
+            } catch (IOException e) {
+                // A corrupt report is replaced
+            }
+        }
+        List<FileReport> files = new ArrayList<>();
+        sorted(Comparator.comparing(entry -> entry.source)).forEach(entry -> files.add(new FileReport(entry.source,
+                entry.upToDate, millis(entry.totalNanos()), millis(entry.nanos), entry.jsonSchemaBytes,
+                entry.classes, entry.classBytes)));
+        executions.set(goal + ":" + execution, mapper.valueToTree(new ExecutionReport(goal, execution,
+                Instant.now().toString(), millis(System.nanoTime() - start), millis(batch.nanos), files)));
+
+        Files.createDirectories(file.getParent());
+        Files.write(file, mapper.writeValueAsBytes(mapper.createObjectNode().set("executions", executions)));
+    }
+
+    /**
+     * Describes the {@code limit} files that took longest, slowest first.
+     */
+    List<String> slowest(int limit) {
+        return sorted(Comparator.comparingLong(Entry::totalNanos).reversed()).stream()
+                .filter(entry -> entry.totalNanos() > 0)
+                .limit(limit)
+                .map(entry -> {
+                    List<String> phases = new ArrayList<>();
+                    entry.nanos.forEach((phase, nanos) -> phases.add(
+                            String.format(Locale.ROOT, "%s %.1f", phase.name().toLowerCase(Locale.ROOT), nanos / 1e6)));
+                    return String.format(Locale.ROOT, "%.1f ms %s (%s)", entry.totalNanos() / 1e6, entry.source,
+                            String.join(", ", phases));
+                })
+                .toList();
+    }
+
+    private List<Entry> sorted(Comparator<Entry> order) {
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(order);
+        return sorted;
+    }
+
+    private static Map<String, Double> millis(Map<Phase, Long> nanos) {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        nanos.forEach((phase, value) -> millis.put(phase.name().toLowerCase(Locale.ROOT), millis(value)));
+        return millis;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1e3) / 1e3;
+    }
+}
@@ -0,0 +1,74 @@
+package org.metalib.schema.avro.json.maven;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Writes generated files without touching the ones whose content did not change.
+ *
+ * <p>Downstream tools such as the compiler's stale-source check compare timestamps, so
+ * rewriting an identical file is as expensive for them as a real change. Files whose bytes are
+ * already in place are left alone and keep their modification time.
+ */
+final class OutputFiles {
+
+    private OutputFiles() {
+    }
+
+    /**
+     * Writes {@code content} to {@code file} unless it already holds exactly these bytes.
+     *
+     * @return whether the file was written
+     */
+    static boolean writeIfChanged(Path file, byte[] content) throws IOException {
+        if (Files.isRegularFile(file) && Files.size(file) == content.length
+                && Arrays.equals(Files.readAllBytes(file), content)) {
+            return false;
+        }
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        return true;
+    }
+
+    static boolean writeIfChanged(Path file, String content) throws IOException {
+        return writeIfChanged(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deletes every file under {@code directory} whose path relative to it is not in
+     * {@code keep}, together with directories left empty.
+     *
+     * @return the number of deleted files
+     */
+    static int retainOnly(Path directory, Set<Path> keep) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        // Deepest paths first, so directories are visited after their content
+        List<Path> existing;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            existing = paths.filter(path -> !path.equals(directory)).sorted(Comparator.reverseOrder()).toList();
+        }
+        int deleted = 0;
+        for (Path path : existing) {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> children = Files.list(path)) {
+                    if (children.findAny().isEmpty()) {
+                        Files.delete(path);
+                    }
+                }
+            } else if (!keep.contains(directory.relativize(path))) {
+                Files.delete(path);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
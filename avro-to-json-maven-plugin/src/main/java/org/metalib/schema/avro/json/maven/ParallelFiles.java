@@ -0,0 +1,86 @@
+package org.metalib.schema.avro.json.maven;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a per-file task on a bounded thread pool.
+ *
+ * <p>Outcomes are returned in the order of the input list regardless of which task finishes
+ * first, so callers can log results and report failures deterministically. A failing task does
+ * not cancel the others; every file gets an outcome.
+ */
+final class ParallelFiles {
+
+    @FunctionalInterface
+    interface Task<R> {
+        R apply(Path file) throws Exception;
+    }
+
+    record Outcome<R>(Path file, R result, Exception error) {
+
+        boolean failed() {
+            return error != null;
+        }
+    }
+
+    private ParallelFiles() {
+    }
+
+    /**
+     * Returns {@code configured} if positive, otherwise the number of available processors.
+     */
+    static int threads(int configured) {
+        return configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+    }
+
+    static <R> List<Outcome<R>> run(List<Path> files, int threads, Task<R> task) throws InterruptedException {
+        int poolSize = Math.min(threads, files.size());
+        List<Outcome<R>> outcomes = new ArrayList<>(files.size());
+        if (poolSize <= 1) {
+            for (Path file : files) {
+                outcomes.add(apply(task, file));
+            }
+            return outcomes;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "avro-to-json-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Outcome<R>>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(executor.submit(() -> apply(task, file)));
+            }
+            for (Future<Outcome<R>> future : futures) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        } catch (ExecutionException e) {
+            // apply() captures exceptions, so only errors end up here
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <R> Outcome<R> apply(Task<R> task, Path file) {
+        try {
+            return new Outcome<>(file, task.apply(file), null);
+        } catch (Exception e) {
+            return new Outcome<>(file, null, e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.metalib.schema.avro.json.maven;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.avro.Schema;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Splits schemas into groups that share no named type, so each group can be generated into
+ * its own code model.
+ *
+ * <p>Two schemas end up in the same group when they have a name in common, directly or
+ * through other schemas of the group. Groups are ordered by their first schema and keep the
+ * input order within, so generating a group sees its schemas in the order a whole-set run
+ * would.
+ */
+final class SchemaGroups {
+
+    private SchemaGroups() {
+    }
+
+    static <T> List<List<T>> partition(List<T> schemas, Function<? super T, ? extends Collection<String>> names) {
+        int[] parents = new int[schemas.size()];
+        Map<String, Integer> owners = new HashMap<>();
+        for (int i = 0; i < schemas.size(); i++) {
+            parents[i] = i;
+            for (String name : names.apply(schemas.get(i))) {
+                Integer owner = owners.putIfAbsent(name, i);
+                if (owner != null) {
+                    union(parents, owner, i);
+                }
+            }
+        }
+
+        Map<Integer, List<T>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < schemas.size(); i++) {
+            groups.computeIfAbsent(root(parents, i), root -> new ArrayList<>()).add(schemas.get(i));
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * The simple and full names of the records, enums and fixed types {@code schema} contains.
+     */
+    static Set<String> namedTypes(Schema schema) {
+        Set<String> names = new HashSet<>();
+        collect(schema, names, new HashSet<>());
+        return names;
+    }
+
+    /**
+     * The titles in {@code jsonSchema} and the names of its definitions, which are what class
+     * names derive from.
+     */
+    static Set<String> titles(JsonNode jsonSchema) {
+        Set<String> names = new HashSet<>();
+        collect(jsonSchema, names);
+        return names;
+    }
+
+    private static void collect(Schema schema, Set<String> names, Set<String> visited) {
+        switch (schema.getType()) {
+            case RECORD -> {
+                if (!visited.add(schema.getFullName())) {
+                    return;
+                }
+                names.add(schema.getName());
+                names.add(schema.getFullName());
+                schema.getFields().forEach(field -> collect(field.schema(), names, visited));
+            }
+            case ENUM, FIXED -> {
+                names.add(schema.getName());
+                names.add(schema.getFullName());
+            }
+            case ARRAY -> collect(schema.getElementType(), names, visited);
+            case MAP -> collect(schema.getValueType(), names, visited);
+            case UNION -> schema.getTypes().forEach(type -> collect(type, names, visited));
+            default -> {
+            }
+        }
+    }
+
+    private static void collect(JsonNode node, Set<String> names) {
+        if (node.isArray()) {
+            node.forEach(element -> collect(element, names));
+            return;
+        }
+        if (!node.isObject()) {
+            return;
+        }
+        JsonNode title = node.get("title");
+        if (title != null && title.isTextual()) {
+            names.add(title.asText());
+        }
+        for (String keyword : List.of("definitions", "$defs")) {
+            JsonNode definitions = node.get(keyword);
+            if (definitions != null && definitions.isObject()) {
+                definitions.fieldNames().forEachRemaining(name -> {
+                    names.add(name);
+                    names.add(name.substring(name.lastIndexOf('.') + 1));
+                });
+            }
+        }
+        node.forEach(child -> collect(child, names));
+    }
+
+    private static void union(int[] parents, int a, int b) {
+        int rootA = root(parents, a);
+        int rootB = root(parents, b);
+        // The earlier schema stays the root so groups are keyed by their first member
+        if (rootA < rootB) {
+            parents[rootB] = rootA;
+        } else if (rootB < rootA) {
+            parents[rootA] = rootB;
+        }
+    }
+
+    private static int root(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
+}
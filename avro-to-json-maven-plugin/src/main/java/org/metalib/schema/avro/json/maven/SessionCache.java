@@ -0,0 +1,67 @@
+package org.metalib.schema.avro.json.maven;
+
+import org.apache.avro.Schema;
+import org.apache.maven.execution.MavenSession;
+import org.metalib.schema.avro.json.AvroToJsonSchemaConverter;
+import org.metalib.schema.avro.json.ConversionCache;
+import org.metalib.schema.avro.json.ConverterOptions;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conversion results shared by every execution of the plugin in one Maven session.
+ *
+ * <p>In a multi-module build, modules often include the same common schemas. This cache lives
+ * in the session data, so each schema text is parsed once and each record is converted once
+ * per build, whichever module gets there first; it is discarded when the build ends. It is
+ * safe to use from parallel ({@code -T}) module builds.
+ */
+final class SessionCache {
+
+    private final ConversionCache conversions = new ConversionCache();
+    private final Map<String, String> jsonSchemas = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cache of {@code session}, creating it for the first execution.
+     */
+    static SessionCache of(MavenSession session) {
+        // Keyed by the class itself, so another version of the plugin in the same build gets its own cache
+        return (SessionCache) session.getRepositorySession().getData()
+                .computeIfAbsent(SessionCache.class, SessionCache::new);
+    }
+
+    Schema parse(String avroSchemaJson) {
+        return conversions.parse(avroSchemaJson);
+    }
+
+    AvroToJsonSchemaConverter converter(ConverterOptions options) {
+        return new AvroToJsonSchemaConverter(options, conversions);
+    }
+
+    /**
+     * Converts an Avro schema once per session for the same content and {@code settings},
+     * falling back to the build cache and then to {@code converter}. Parsing and conversion
+     * are timed in {@code timings}.
+     */
+    String convert(BuildCache cache, AvroToJsonSchemaConverter converter, String settings, byte[] avroSchema,
+                   BuildReport.Entry timings) throws IOException {
+        String key = BuildCache.key("json-schema", settings, BuildManifest.sha256(avroSchema));
+        String jsonSchema = jsonSchemas.get(key);
+        if (jsonSchema == null) {
+            // Two modules may race here; both produce the same result
+            jsonSchema = cache.convert(settings, avroSchema, text -> {
+                Schema schema = timings.time(BuildReport.Phase.PARSE, () -> conversions.parse(text));
+                return timings.time(BuildReport.Phase.CONVERT, () -> converter.convert(schema));
+            });
+            jsonSchemas.putIfAbsent(key, jsonSchema);
+        }
+        return jsonSchema;
+    }
+
+    String describe() {
+        return conversions.parsedSchemas() + " schema(s) parsed, " + conversions.namedTypes()
+                + " record(s) converted, " + conversions.namedTypeHits() + " reused";
+    }
+}
@@ -0,0 +1,111 @@
+package org.metalib.schema.avro.json.maven;
+
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AvroToJsonPojoMojoTest {
+
+    private static final String ADDRESS = """
+            {"type":"record","name":"Address","namespace":"x","fields":[{"name":"street","type":"string"}]}""";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testIncrementalBuildGeneratesClassesOfFullBuild() throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("avro"));
+        Files.writeString(sources.resolve("User.avsc"), """
+                {"type":"record","name":"User","namespace":"x","fields":[
+                  {"name":"name","type":"string"},{"name":"home","type":%s}]}""".formatted(ADDRESS));
+        Files.writeString(sources.resolve("Order.avsc"), """
+                {"type":"record","name":"Order","namespace":"x","fields":[
+                  {"name":"id","type":"string"},{"name":"home","type":%s}]}""".formatted(ADDRESS));
+        Files.writeString(sources.resolve("Product.avsc"), """
+                {"type":"record","name":"Product","namespace":"y","fields":[{"name":"sku","type":"string"}]}""");
+
+        Path incremental = tempDir.resolve("incremental");
+        execute(sources, incremental, true);
+        assertEquals(generate(sources, "full-1"), files(incremental));
+
+        // Only Order changed: the group it shares Address with is regenerated as a whole
+        Files.writeString(sources.resolve("Order.avsc"), """
+                {"type":"record","name":"Order","namespace":"x","fields":[
+                  {"name":"id","type":"long"},{"name":"home","type":%s}]}""".formatted(ADDRESS));
+        execute(sources, incremental, true);
+        assertEquals(generate(sources, "full-2"), files(incremental));
+    }
+
+    private Map<String, String> generate(Path sources, String name) throws Exception {
+        Path output = tempDir.resolve(name);
+        execute(sources, output, false);
+        return files(output);
+    }
+
+    private void execute(Path sources, Path build, boolean incremental) throws Exception {
+        PluginDescriptor plugin = new PluginDescriptor();
+        plugin.setVersion("1.0");
+        plugin.setPluginArtifact(new DefaultArtifact("org.metalib.schema.avro.json", "avro-to-json-maven-plugin",
+                "1.0", "compile", "maven-plugin", null, new DefaultArtifactHandler("maven-plugin")));
+        @SuppressWarnings("deprecation")
+        MavenSession session = new MavenSession(null, new DefaultRepositorySystemSession(),
+                new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+
+        AvroToJsonPojoMojo mojo = new AvroToJsonPojoMojo();
+        set(mojo, "project", new MavenProject());
+        set(mojo, "sourceDirectory", sources.toFile());
+        set(mojo, "jsonSchemaDirectory", build.resolve("json-schema").toFile());
+        set(mojo, "pojoOutputDirectory", build.resolve("pojo").toFile());
+        set(mojo, "draft", "draft-07");
+        set(mojo, "annotationStyle", "jackson2");
+        set(mojo, "sourceType", "jsonSchema");
+        set(mojo, "writeJsonSchema", true);
+        set(mojo, "pojoGenerator", "jsonSchema");
+        set(mojo, "incremental", incremental);
+        set(mojo, "buildDirectory", build.toFile());
+        set(mojo, "mojoExecution", new MojoExecution(new MojoDescriptor(), "default"));
+        set(mojo, "plugin", plugin);
+        set(mojo, "session", session);
+        mojo.execute();
+    }
+
+    private static void set(AvroToJsonPojoMojo mojo, String name, Object value) throws Exception {
+        Field field = AvroToJsonPojoMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    /**
+     * The generated sources under {@code build}, keyed by path relative to the output directory.
+     */
+    private static Map<String, String> files(Path build) throws Exception {
+        Path output = build.resolve("pojo");
+        Map<String, String> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(output)) {
+            for (Path file : paths.filter(Files::isRegularFile).toList()) {
+                files.put(output.relativize(file).toString().replace(File.separatorChar, '/'), Files.readString(file));
+            }
+        }
+        assertFalse(files.isEmpty());
+        return files;
+    }
+}
@@ -0,0 +1,105 @@
+package org.metalib.schema.avro.json.maven;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metalib.schema.avro.json.AvroToJsonSchemaConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BuildCacheTest {
+
+    private static final String USER = """
+            {"type":"record","name":"User","fields":[{"name":"id","type":"int"}]}""";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testStoredEntryIsReturned() throws Exception {
+        BuildCache cache = BuildCache.open(tempDir.toFile(), "1.0", null);
+        String key = BuildCache.key("pojo", "settings", "User.json", "hash");
+
+        assertNull(cache.get(key));
+        cache.put(key, Map.of("com/example/User.java", "class User {}".getBytes(StandardCharsets.UTF_8)));
+        Map<String, byte[]> entry = cache.get(key);
+
+        assertEquals(List.of("com/example/User.java"), List.copyOf(entry.keySet()));
+        assertEquals("class User {}", new String(entry.get("com/example/User.java"), StandardCharsets.UTF_8));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void testSecondStoreKeepsFirstEntry() throws Exception {
+        BuildCache cache = BuildCache.open(tempDir.toFile(), "1.0", null);
+        String key = BuildCache.key("json-schema", "a");
+        cache.put(key, Map.of("schema.json", "{}".getBytes(StandardCharsets.UTF_8)));
+        cache.put(key, Map.of("schema.json", "{}".getBytes(StandardCharsets.UTF_8)));
+
+        assertNotNull(cache.get(key));
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count(), "No leftover staging files expected");
+        }
+    }
+
+    @Test
+    public void testKeyDependsOnEveryPart() {
+        assertEquals(BuildCache.key("a", "b"), BuildCache.key("a", "b"));
+        assertNotEquals(BuildCache.key("a", "b"), BuildCache.key("a", "c"));
+        assertNotEquals(BuildCache.key("ab", "c"), BuildCache.key("a", "bc"));
+    }
+
+    @Test
+    public void testConvertReusesCachedSchema() throws Exception {
+        BuildCache cache = BuildCache.open(tempDir.toFile(), "1.0", null);
+        AvroToJsonSchemaConverter converter = new AvroToJsonSchemaConverter();
+        byte[] avroSchema = USER.getBytes(StandardCharsets.UTF_8);
+
+        String first = cache.convert(converter, "options|1.0", avroSchema);
+        String second = cache.convert(converter, "options|1.0", avroSchema);
+        cache.convert(converter, "options|2.0", avroSchema);
+
+        assertEquals(converter.convert(USER), first);
+        assertEquals(first, second);
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    public void testDisabledCacheAlwaysMisses() throws Exception {
+        BuildCache cache = BuildCache.open(null, "1.0", null);
+        cache.put("00ab", Map.of("a", new byte[0]));
+
+        assertFalse(cache.enabled());
+        assertNull(cache.get("00ab"));
+    }
+
+    @Test
+    public void testSnapshotVersionIsIdentifiedByPluginJar() throws Exception {
+        Path jar = tempDir.resolve("plugin.jar");
+        Files.writeString(jar, "first build");
+        String first = BuildCache.open(tempDir.toFile(), "1.0-SNAPSHOT", jar.toFile()).pluginVersion();
+        Files.writeString(jar, "second build");
+        BuildCache rebuilt = BuildCache.open(tempDir.toFile(), "1.0-SNAPSHOT", jar.toFile());
+
+        assertTrue(rebuilt.enabled());
+        assertTrue(first.startsWith("1.0-SNAPSHOT@"), first);
+        assertNotEquals(first, rebuilt.pluginVersion());
+        assertEquals("1.0", BuildCache.open(tempDir.toFile(), "1.0", jar.toFile()).pluginVersion());
+    }
+
+    @Test
+    public void testSnapshotWithoutJarDisablesCache() {
+        BuildCache cache = BuildCache.open(tempDir.toFile(), "1.0-SNAPSHOT", tempDir.resolve("classes").toFile());
+
+        assertFalse(cache.enabled());
+        assertEquals("1.0-SNAPSHOT", cache.pluginVersion());
+    }
+}
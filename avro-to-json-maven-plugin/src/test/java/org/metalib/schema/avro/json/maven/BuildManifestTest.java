@@ -0,0 +1,90 @@
+package org.metalib.schema.avro.json.maven;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BuildManifestTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRoundTripKeepsEntries() throws Exception {
+        Path outputDir = tempDir.resolve("out");
+        Files.createDirectories(outputDir);
+        Files.writeString(outputDir.resolve("User.json"), "{}");
+        Path manifestFile = tempDir.resolve("manifest/generate.json");
+
+        BuildManifest manifest = BuildManifest.empty("key");
+        manifest.put("User.avsc", "in-hash", "User.json", BuildManifest.sha256("{}"));
+        manifest.save(manifestFile);
+
+        BuildManifest loaded = BuildManifest.load(manifestFile, "key");
+        assertEquals(Set.of("User.avsc"), loaded.sources());
+        assertTrue(loaded.isUpToDate("User.avsc", "in-hash", outputDir));
+        assertFalse(loaded.isUpToDate("User.avsc", "changed-hash", outputDir));
+        assertFalse(loaded.isUpToDate("Order.avsc", "in-hash", outputDir));
+    }
+
+    @Test
+    public void testDifferentKeyInvalidatesManifest() throws Exception {
+        Path manifestFile = tempDir.resolve("generate.json");
+        BuildManifest manifest = BuildManifest.empty("options-a");
+        manifest.put("User.avsc", "in-hash", "User.json", "out-hash");
+        manifest.save(manifestFile);
+
+        assertTrue(BuildManifest.load(manifestFile, "options-b").sources().isEmpty());
+    }
+
+    @Test
+    public void testModifiedOrMissingOutputIsStale() throws Exception {
+        Path outputDir = tempDir.resolve("out");
+        Files.createDirectories(outputDir);
+        Files.writeString(outputDir.resolve("User.json"), "{\"edited\":true}");
+
+        BuildManifest manifest = BuildManifest.empty("key");
+        manifest.put("User.avsc", "in-hash", "User.json", BuildManifest.sha256("{}"));
+        manifest.put("Order.avsc", "in-hash", "Order.json", BuildManifest.sha256("{}"));
+
+        assertFalse(manifest.isUpToDate("User.avsc", "in-hash", outputDir));
+        assertFalse(manifest.isUpToDate("Order.avsc", "in-hash", outputDir));
+    }
+
+    @Test
+    public void testSourcesCanShareOutputs() throws Exception {
+        Path outputDir = tempDir.resolve("out");
+        Files.createDirectories(outputDir);
+        Files.writeString(outputDir.resolve("User.java"), "class User {}");
+        Files.writeString(outputDir.resolve("Order.java"), "class Order {}");
+
+        BuildManifest manifest = BuildManifest.empty("key");
+        manifest.put("User.json", "user-hash", Map.of("User.java", BuildManifest.sha256("class User {}")));
+        manifest.put("Order.json", "order-hash", Map.of(
+                "Order.java", BuildManifest.sha256("class Order {}"),
+                "User.java", BuildManifest.sha256("class User {}")));
+
+        assertTrue(manifest.isUpToDate("Order.json", "order-hash", outputDir));
+        assertEquals(Set.of("User.java", "Order.java"), manifest.outputs());
+
+        manifest.remove("Order.json");
+        assertEquals(Set.of("User.java"), manifest.outputs());
+
+        Files.delete(outputDir.resolve("User.java"));
+        assertFalse(manifest.isUpToDate("User.json", "user-hash", outputDir));
+    }
+
+    @Test
+    public void testCorruptManifestIsIgnored() throws Exception {
+        Path manifestFile = tempDir.resolve("generate.json");
+        Files.writeString(manifestFile, "not json");
+
+        assertTrue(BuildManifest.load(manifestFile, "key").sources().isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+package org.metalib.schema.avro.json.maven;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BuildReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testWriteKeepsOtherExecutions() throws Exception {
+        Path file = tempDir.resolve("target/avro-to-json-report.json");
+        BuildReport generate = new BuildReport("generate", "default");
+        BuildReport.Entry user = generate.entry("User.avsc");
+        user.time(BuildReport.Phase.PARSE, () -> null);
+        user.jsonSchema("{\"title\":\"Usér\"}");
+        generate.entry("Order.avsc").upToDate();
+        generate.write(file);
+
+        BuildReport pojo = new BuildReport("generate-pojo", "pojo");
+        BuildReport.Entry order = pojo.entry("Order.avsc");
+        order.time(BuildReport.Phase.GENERATE, () -> null);
+        order.classes(Map.of("com/example/Order.java", new byte[10], "com/example/Status.java", new byte[5]));
+        pojo.write(file);
+
+        JsonNode executions = new ObjectMapper().readTree(file.toFile()).get("executions");
+        assertEquals(2, executions.size());
+        JsonNode files = executions.get("generate:default").get("files");
+        assertEquals("Order.avsc", files.get(0).get("source").asText());
+        assertTrue(files.get(0).get("upToDate").asBoolean());
+        assertEquals(17, files.get(1).get("jsonSchemaBytes").asLong(), "Size in UTF-8 bytes");
+        assertTrue(files.get(1).get("millis").has("parse"));
+
+        JsonNode generated = executions.get("generate-pojo:pojo").get("files").get(0);
+        assertEquals(2, generated.get("classes").asInt());
+        assertEquals(15, generated.get("classBytes").asLong());
+        assertTrue(generated.get("millis").has("generate"));
+    }
+
+    @Test
+    public void testSlowestFirst() throws Exception {
+        BuildReport report = new BuildReport("generate", "default");
+        report.entry("Fast.avsc").time(BuildReport.Phase.CONVERT, () -> null);
+        report.entry("Slow.avsc").time(BuildReport.Phase.CONVERT, () -> {
+            sleep(20);
+            return null;
+        });
+        report.entry("Skipped.avsc").upToDate();
+
+        List<String> slowest = report.slowest(5);
+
+        assertEquals(2, slowest.size(), "Files without timings are not listed");
+        assertTrue(slowest.get(0).contains("Slow.avsc (convert "), slowest.get(0));
+        assertEquals(1, report.slowest(1).size());
+    }
+}
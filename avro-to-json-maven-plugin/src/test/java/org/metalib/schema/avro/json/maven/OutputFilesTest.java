@@ -0,0 +1,54 @@
+package org.metalib.schema.avro.json.maven;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutputFilesTest {
+
+    private static final FileTime OLD = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testIdenticalContentKeepsTimestamp() throws Exception {
+        Path file = tempDir.resolve("a/User.json");
+        assertTrue(OutputFiles.writeIfChanged(file, "{}"));
+        Files.setLastModifiedTime(file, OLD);
+
+        assertFalse(OutputFiles.writeIfChanged(file, "{}"));
+        assertEquals(OLD, Files.getLastModifiedTime(file));
+
+        assertTrue(OutputFiles.writeIfChanged(file, "{\"type\":\"object\"}"));
+        assertEquals("{\"type\":\"object\"}", Files.readString(file));
+        assertNotEquals(OLD, Files.getLastModifiedTime(file));
+    }
+
+    @Test
+    public void testRetainOnlyRemovesUntrackedFiles() throws Exception {
+        Path target = tempDir.resolve("target");
+        Files.createDirectories(target.resolve("com/example"));
+        Files.createDirectories(target.resolve("com/legacy"));
+        Files.writeString(target.resolve("com/example/User.java"), "class User {}");
+        Files.writeString(target.resolve("com/example/Order.java"), "class Order {}");
+        Files.writeString(target.resolve("com/legacy/Old.java"), "class Old {}");
+        Files.setLastModifiedTime(target.resolve("com/example/User.java"), OLD);
+
+        int deleted = OutputFiles.retainOnly(target, Set.of(Path.of("com/example/User.java"),
+                Path.of("com/example/Order.java")));
+
+        assertEquals(1, deleted);
+        assertEquals(OLD, Files.getLastModifiedTime(target.resolve("com/example/User.java")));
+        assertTrue(Files.exists(target.resolve("com/example/Order.java")));
+        assertFalse(Files.exists(target.resolve("com/legacy")), "Emptied directories should be removed");
+        assertEquals(0, OutputFiles.retainOnly(tempDir.resolve("missing"), Set.of()));
+    }
+}
@@ -0,0 +1,62 @@
+package org.metalib.schema.avro.json.maven;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelFilesTest {
+
+    private static List<Path> files(int count) {
+        return IntStream.range(0, count).mapToObj(i -> Path.of("schema" + i + ".avsc")).toList();
+    }
+
+    @Test
+    public void testOutcomesKeepInputOrder() throws Exception {
+        List<Path> files = files(32);
+        // Later files finish first
+        List<ParallelFiles.Outcome<String>> outcomes = ParallelFiles.run(files, 8, file -> {
+            Thread.sleep(32 - files.indexOf(file));
+            return file.toString();
+        });
+
+        assertEquals(files, outcomes.stream().map(ParallelFiles.Outcome::file).toList());
+        assertEquals(files.stream().map(Path::toString).toList(),
+                outcomes.stream().map(ParallelFiles.Outcome::result).toList());
+    }
+
+    @Test
+    public void testFailuresDoNotStopOtherFiles() throws Exception {
+        List<Path> files = files(10);
+        List<ParallelFiles.Outcome<Integer>> outcomes = ParallelFiles.run(files, 4, file -> {
+            int index = files.indexOf(file);
+            if (index % 3 == 0) {
+                throw new IOException("broken " + index);
+            }
+            return index;
+        });
+
+        assertEquals(List.of("broken 0", "broken 3", "broken 6", "broken 9"), outcomes.stream()
+                .filter(ParallelFiles.Outcome::failed).map(o -> o.error().getMessage()).toList());
+        assertEquals(List.of(1, 2, 4, 5, 7, 8), outcomes.stream()
+                .filter(o -> !o.failed()).map(ParallelFiles.Outcome::result).toList());
+    }
+
+    @Test
+    public void testSingleThreadRunsInline() throws Exception {
+        Thread caller = Thread.currentThread();
+        List<ParallelFiles.Outcome<Thread>> outcomes = ParallelFiles.run(files(3), 1, file -> Thread.currentThread());
+
+        outcomes.forEach(outcome -> assertSame(caller, outcome.result()));
+    }
+
+    @Test
+    public void testDefaultThreadsUsesAvailableProcessors() {
+        assertEquals(Runtime.getRuntime().availableProcessors(), ParallelFiles.threads(0));
+        assertEquals(3, ParallelFiles.threads(3));
+    }
+}
@@ -0,0 +1,55 @@
+package org.metalib.schema.avro.json.maven;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaGroupsTest {
+
+    @Test
+    public void testSchemasSharingNamesAreGroupedInInputOrder() {
+        Map<String, Set<String>> names = Map.of(
+                "a", Set.of("Order", "Line"),
+                "b", Set.of("Invoice"),
+                "c", Set.of("Customer"),
+                "d", Set.of("Customer", "Line"),
+                "e", Set.of());
+
+        List<List<String>> groups = SchemaGroups.partition(List.of("a", "b", "c", "d", "e"), names::get);
+
+        assertEquals(List.of(List.of("a", "c", "d"), List.of("b"), List.of("e")), groups);
+    }
+
+    @Test
+    public void testNamedTypesOfAvroSchema() {
+        Schema order = new Schema.Parser().parse("""
+                {"type":"record","name":"Order","namespace":"com.example","fields":[
+                  {"name":"status","type":{"type":"enum","name":"Status","symbols":["NEW"]}},
+                  {"name":"checksum","type":["null",{"type":"fixed","name":"Md5","size":16}]},
+                  {"name":"lines","type":{"type":"array","items":{"type":"record","name":"Line","fields":[
+                    {"name":"parent","type":["null","Order"]}]}}},
+                  {"name":"attributes","type":{"type":"map","values":"long"}}]}""");
+
+        assertEquals(Set.of("Order", "com.example.Order", "Status", "com.example.Status", "Md5", "com.example.Md5",
+                "Line", "com.example.Line"), SchemaGroups.namedTypes(order));
+    }
+
+    @Test
+    public void testTitlesOfJsonSchema() throws Exception {
+        String jsonSchema = """
+                {"type":"object","title":"Order","properties":{
+                  "title":{"type":"string"},
+                  "customer":{"$ref":"#/definitions/com.example.Customer"}},
+                 "definitions":{"com.example.Customer":{"type":"object","title":"Customer","properties":{
+                  "address":{"type":"object","title":"Address"}}}}}""";
+
+        assertEquals(Set.of("Order", "com.example.Customer", "Customer", "Address"),
+                SchemaGroups.titles(new ObjectMapper().readTree(jsonSchema)));
+    }
+}
@@ -1,22 +1,37 @@
 package org.metalib.schema.avro.json.sample;
 
 import com.example.Category;
+import com.example.JsonCodecModule;
 import com.example.Order;
 import com.example.User;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class AvroToJsonMavenPluginSampleTest {
 
     private static final Path OUTPUT_DIR = Path.of("target/generated-resources/json-schema");
+    private static final Path BUNDLE = Path.of("target/generated-resources/json-schema-bundle/schemas.json");
+    private static final Path REPORT = Path.of("target/avro-to-json-report.json");
     private static final Path POJO_DIR = Path.of("target/generated-sources/avro-pojo");
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
@@ -61,6 +76,30 @@ class AvroToJsonMavenPluginSampleTest {
                 "Recursive schema should have definitions");
     }
 
+    @Test
+    void bundleDefinesEachRecordOnce() throws IOException {
+        assertTrue(Files.exists(BUNDLE), "schemas.json should be generated");
+
+        final JsonNode definitions = MAPPER.readTree(BUNDLE.toFile()).get("definitions");
+        assertTrue(definitions.has("com.example.User"));
+        assertTrue(definitions.has("com.example.Order"));
+        assertEquals("#/definitions/com.example.Category", definitions.get("Category").get("$ref").asText());
+        assertEquals("#/definitions/com.example.Category",
+                definitions.get("com.example.Category").get("properties").get("parent").get("$ref").asText());
+    }
+
+    @Test
+    void buildReportWritten() throws IOException {
+        assertTrue(Files.exists(REPORT), "avro-to-json-report.json should be generated");
+
+        final JsonNode files = MAPPER.readTree(REPORT.toFile()).get("executions").get("generate-pojo:generate-pojo").get("files");
+        assertEquals(3, files.size());
+        for (JsonNode file : files) {
+            assertTrue(file.get("upToDate").asBoolean() || file.get("classes").asInt() > 0, file.toString());
+            assertTrue(file.get("jsonSchemaBytes").asLong() > 0, file.toString());
+        }
+    }
+
     @Test
     void pojoClassesGenerated() {
         // Verify POJO source files were generated
@@ -185,6 +224,26 @@ class AvroToJsonMavenPluginSampleTest {
         assertEquals(Order.Status.CONFIRMED, order.getStatus());
     }
 
+    @Test
+    void jsonCodecsMatchBeanBinding() throws IOException {
+        ObjectMapper codecs = new ObjectMapper().registerModule(new JsonCodecModule());
+        Order order = Order.builder()
+                .orderId("order-123")
+                .userId(1)
+                .amount(99.99)
+                .items(List.of("item1", "item2"))
+                .status(Order.Status.SHIPPED)
+                .placedAt(1700000000)
+                .build();
+
+        String json = codecs.writeValueAsString(order);
+
+        assertEquals(MAPPER.writeValueAsString(order), json);
+        assertEquals(order, codecs.readValue(json, Order.class));
+        assertEquals("com.example.OrderJsonCodec$Serializer",
+                codecs.getSerializerProviderInstance().findValueSerializer(Order.class).getClass().getName());
+    }
+
     @Test
     void orderStatusFromValue() {
         assertEquals(Order.Status.PENDING, Order.Status.fromValue("PENDING"));
@@ -229,4 +288,69 @@ class AvroToJsonMavenPluginSampleTest {
 
         assertEquals(category.getName(), deserialized.getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void recordsJacksonRoundTrip() throws IOException {
+        com.example.records.Order order = new com.example.records.Order("550e8400-e29b-41d4-a716-446655440000", 7,
+                19.99, null, new com.example.records.Metadata(), com.example.records.Order.Status.SHIPPED, 1700000000);
+
+        assertTrue(com.example.records.Order.class.isRecord());
+        assertEquals(List.of(), order.items(), "Schema default applied by the canonical constructor");
+
+        String json = MAPPER.writeValueAsString(order);
+        assertEquals(order, MAPPER.readValue(json, com.example.records.Order.class));
+    }
+
+    @Test
+    void recordsAvroCodecRoundTrip() throws IOException {
+        Schema schema = new Schema.Parser().parse(Path.of("src/main/avro/User.avsc").toFile());
+        GenericRecord user = new GenericData.Record(schema);
+        user.put("id", 42);
+        user.put("username", "ann");
+        user.put("email", null);
+        user.put("createdAt", 1700000000L);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(expected, null);
+        new GenericDatumWriter<GenericRecord>(schema).write(user, encoder);
+        encoder.flush();
+
+        assertEquals(SchemaNormalization.parsingFingerprint64(schema), com.example.records.UserAvroCodec.FINGERPRINT);
+        com.example.records.User decoded = com.example.records.UserAvroCodec.read(
+                DecoderFactory.get().binaryDecoder(expected.toByteArray(), null));
+        assertEquals(new com.example.records.User(42, "ann", null, 1700000000), decoded);
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        encoder = EncoderFactory.get().binaryEncoder(actual, null);
+        com.example.records.UserAvroCodec.write(decoded, encoder);
+        encoder.flush();
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    void avroCodecRoundTripWithMap() throws IOException {
+        Schema schema = new Schema.Parser().parse(Path.of("src/main/avro/Order.avsc").toFile());
+        GenericRecord order = new GenericData.Record(schema);
+        order.put("orderId", "550e8400-e29b-41d4-a716-446655440000");
+        order.put("userId", 7);
+        order.put("amount", ByteBuffer.wrap(BigInteger.valueOf(1999).toByteArray()));
+        order.put("items", List.of("book"));
+        order.put("metadata", Map.of("channel", "web"));
+        order.put("status", new GenericData.EnumSymbol(schema.getField("status").schema(), "SHIPPED"));
+        order.put("placedAt", 1700000000L);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(expected, null);
+        new GenericDatumWriter<GenericRecord>(schema).write(order, encoder);
+        encoder.flush();
+
+        com.example.codecs.Order decoded = com.example.codecs.OrderAvroCodec.read(
+                DecoderFactory.get().binaryDecoder(expected.toByteArray(), null));
+        assertEquals(19.99, decoded.getAmount());
+        assertEquals(Map.of("channel", "web"), decoded.getMetadata().getAdditionalProperties());
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        encoder = EncoderFactory.get().binaryEncoder(actual, null);
+        com.example.codecs.OrderAvroCodec.write(decoded, encoder);
+        encoder.flush();
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+}